@@ -18,6 +18,8 @@ import org.eclipse.edc.catalog.spi.FederatedCatalogCache;
 import org.eclipse.edc.catalog.spi.QueryService;
 import org.eclipse.edc.crawler.spi.TargetNodeDirectory;
 import org.eclipse.edc.heleade.federated.catalog.extension.api.query.HeleadeQueryServiceImpl;
+import org.eclipse.edc.heleade.federated.catalog.extension.api.query.QueryResultCache;
+import org.eclipse.edc.heleade.federated.catalog.extension.metrics.FederatedCatalogMetrics;
 import org.eclipse.edc.jsonld.JsonLdExtension;
 import org.eclipse.edc.jsonld.spi.JsonLd;
 import org.eclipse.edc.runtime.metamodel.annotation.Extension;
@@ -53,6 +55,10 @@ import static org.eclipse.edc.spi.constants.CoreConstants.EDC_NAMESPACE;
 public class NodeDirectoryApiExtension implements ServiceExtension {
 
     public static final String NAME = "Federated Catalog Node Directory API Extension";
+
+    private static final String QUERY_CACHE_MAX_ENTRIES_PROPERTY = "org.eclipse.edc.heleade.federated.catalog.extension.query.cache.max.entries";
+    private static final String QUERY_CACHE_MAX_BYTES_PROPERTY = "org.eclipse.edc.heleade.federated.catalog.extension.query.cache.max.bytes";
+
     @Inject
     private TargetNodeDirectory targetNodeDirectory;
 
@@ -65,24 +71,35 @@ public class NodeDirectoryApiExtension implements ServiceExtension {
     @Inject
     private FederatedCatalogCache store;
 
+    @Inject
+    private FederatedCatalogMetrics metrics;
+
     private JsonLd jsonLd;
     private Monitor monitor;
+    private QueryResultCache queryResultCache;
 
     /**
      * Provides the default implementation of the {@link QueryService} using the {@link HeleadeQueryServiceImpl}.
-     * This method initializes and returns a query engine that operates on a federated catalog cache.
+     * This method initializes and returns a query engine that operates on a federated catalog cache, with a cache
+     * of query results bounded by the {@value #QUERY_CACHE_MAX_ENTRIES_PROPERTY} and
+     * {@value #QUERY_CACHE_MAX_BYTES_PROPERTY} settings.
      *
      * @return the default {@link QueryService} implementation for querying datasets from the federated catalog
      */
     @Provider
     public QueryService defaultQueryEngine() {
-        return new HeleadeQueryServiceImpl(store);
+        return new HeleadeQueryServiceImpl(store, queryResultCache);
     }
 
     @Override
     public void initialize(ServiceExtensionContext context) {
         monitor = context.getMonitor();
 
+        queryResultCache = new QueryResultCache(
+                context.getConfig().getInteger(QUERY_CACHE_MAX_ENTRIES_PROPERTY, QueryResultCache.DEFAULT_MAX_ENTRIES),
+                context.getConfig().getLong(QUERY_CACHE_MAX_BYTES_PROPERTY, QueryResultCache.DEFAULT_MAX_BYTES),
+                metrics);
+
         jsonLd = new JsonLdExtension().createJsonLdService(context);
         jsonLd.registerNamespace(VOCAB, EDC_NAMESPACE);
 
@@ -31,7 +31,6 @@ import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import org.eclipse.edc.crawler.spi.TargetNode;
 import org.eclipse.edc.crawler.spi.TargetNodeDirectory;
-import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.node.directory.MongodbFederatedCatalogNodeDirectory;
 import org.eclipse.edc.jsonld.spi.JsonLd;
 import org.eclipse.edc.spi.monitor.Monitor;
 import org.eclipse.edc.spi.persistence.EdcPersistenceException;
@@ -73,8 +72,8 @@ public class NodeDirectoryController {
      */
     @GET
     public String getDirectory() {
-        if (targetNodeDirectory instanceof MongodbFederatedCatalogNodeDirectory) {
-            JsonArray directoryJson = ((MongodbFederatedCatalogNodeDirectory) targetNodeDirectory).getParticipantNodes().stream()
+        if (targetNodeDirectory instanceof ParticipantNodeDirectory) {
+            JsonArray directoryJson = ((ParticipantNodeDirectory) targetNodeDirectory).getParticipantNodes().stream()
                     .map(this::convertToJsonObject)
                     .collect(toJsonArray());
             return directoryJson.toString();
@@ -95,9 +94,9 @@ public class NodeDirectoryController {
      */
     @POST
     public JsonObject addNode(JsonObject node) {
-        if (targetNodeDirectory instanceof MongodbFederatedCatalogNodeDirectory) {
+        if (targetNodeDirectory instanceof ParticipantNodeDirectory) {
             ParticipantNode participantNode = convertToParticipantNode(node);
-            ((MongodbFederatedCatalogNodeDirectory) targetNodeDirectory).insert(participantNode);
+            ((ParticipantNodeDirectory) targetNodeDirectory).insert(participantNode);
             return convertToJsonObject(participantNode);
         } else {
             TargetNode targetNode = convertToTargetNode(node);
@@ -121,10 +120,10 @@ public class NodeDirectoryController {
             throw new WebApplicationException("Invalid null or blank node id", Response.Status.BAD_REQUEST);
         }
 
-        if (targetNodeDirectory instanceof MongodbFederatedCatalogNodeDirectory) {
+        if (targetNodeDirectory instanceof ParticipantNodeDirectory) {
             try {
-                MongodbFederatedCatalogNodeDirectory mongodbDirectory = (MongodbFederatedCatalogNodeDirectory) targetNodeDirectory;
-                ParticipantNode participantNode = mongodbDirectory.getParticipantNode(id);
+                ParticipantNodeDirectory participantDirectory = (ParticipantNodeDirectory) targetNodeDirectory;
+                ParticipantNode participantNode = participantDirectory.getParticipantNode(id);
                 if (participantNode == null) {
                     throw new WebApplicationException("Node not found", Response.Status.NOT_FOUND);
                 }
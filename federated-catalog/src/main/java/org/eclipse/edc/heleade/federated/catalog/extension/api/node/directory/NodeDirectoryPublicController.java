@@ -24,7 +24,6 @@ import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import org.eclipse.edc.crawler.spi.TargetNodeDirectory;
-import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.node.directory.MongodbFederatedCatalogNodeDirectory;
 import org.eclipse.edc.jsonld.spi.JsonLd;
 import org.eclipse.edc.spi.monitor.Monitor;
 import org.eclipse.edc.spi.persistence.EdcPersistenceException;
@@ -71,10 +70,10 @@ public class NodeDirectoryPublicController {
             throw new WebApplicationException("Invalid null or blank node id", Response.Status.BAD_REQUEST);
         }
 
-        if (targetNodeDirectory instanceof MongodbFederatedCatalogNodeDirectory) {
+        if (targetNodeDirectory instanceof ParticipantNodeDirectory) {
             try {
-                MongodbFederatedCatalogNodeDirectory mongodbDirectory = (MongodbFederatedCatalogNodeDirectory) targetNodeDirectory;
-                ParticipantNode participantNode = mongodbDirectory.getParticipantNode(id);
+                ParticipantNodeDirectory participantDirectory = (ParticipantNodeDirectory) targetNodeDirectory;
+                ParticipantNode participantNode = participantDirectory.getParticipantNode(id);
                 if (participantNode == null) {
                     throw new WebApplicationException("Node not found", Response.Status.NOT_FOUND);
                 }
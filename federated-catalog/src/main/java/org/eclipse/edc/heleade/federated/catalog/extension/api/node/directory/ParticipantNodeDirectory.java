@@ -0,0 +1,48 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.api.node.directory;
+
+import org.eclipse.edc.crawler.spi.TargetNodeDirectory;
+
+import java.util.List;
+
+/**
+ * A {@link TargetNodeDirectory} that keeps the full {@link ParticipantNode} of each node, including its claims,
+ * attributes and security information, so that it can be served by the node directory and verification APIs.
+ */
+public interface ParticipantNodeDirectory extends TargetNodeDirectory {
+
+    /**
+     * Retrieves a list of all {@code ParticipantNode} objects from the node directory.
+     *
+     * @return a list of {@code ParticipantNode} instances representing all participant nodes in the directory.
+     */
+    List<ParticipantNode> getParticipantNodes();
+
+    /**
+     * Inserts the provided {@code ParticipantNode} into the node directory.
+     *
+     * @param participantNode the {@code ParticipantNode} to be inserted; must not be null
+     */
+    void insert(ParticipantNode participantNode);
+
+    /**
+     * Retrieves a {@code ParticipantNode} corresponding to the given participant identifier.
+     *
+     * @param participantId the unique identifier of the participant
+     * @return the {@code ParticipantNode} associated with the given identifier, or null if not found
+     */
+    ParticipantNode getParticipantNode(String participantId);
+}
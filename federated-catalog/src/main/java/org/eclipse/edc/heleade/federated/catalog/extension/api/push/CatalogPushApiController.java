@@ -0,0 +1,213 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.api.push;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.json.Json;
+import jakarta.json.JsonException;
+import jakarta.json.JsonObject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.edc.connector.controlplane.catalog.spi.Catalog;
+import org.eclipse.edc.heleade.federated.catalog.extension.api.node.directory.ParticipantNode;
+import org.eclipse.edc.heleade.federated.catalog.extension.api.node.directory.ParticipantNodeDirectory;
+import org.eclipse.edc.heleade.federated.catalog.extension.metrics.FederatedCatalogMetrics;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.HeleadeFederatedCatalogCache;
+import org.eclipse.edc.jsonld.spi.JsonLd;
+import org.eclipse.edc.spi.monitor.Monitor;
+import org.eclipse.edc.spi.persistence.EdcPersistenceException;
+import org.eclipse.edc.transform.spi.TypeTransformerRegistry;
+
+import java.io.StringReader;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.eclipse.edc.heleade.commons.verification.claims.Claims.verifySignature;
+import static org.eclipse.edc.spi.constants.CoreConstants.EDC_NAMESPACE;
+
+/**
+ * REST API controller where registered participants push their catalog updates, so that their changes reach the
+ * cache without waiting for the next crawl.
+ * <p>
+ * The body is a JSON-LD {@link CatalogUpdate}, either a full catalog or a delta of the datasets of the cached one.
+ * The sender is identified by the {@value #PARTICIPANT_ID_HEADER} header and authenticated by the Base64 Ed25519
+ * signature of the exact body in the {@value #SIGNATURE_HEADER} header, verified with the public key stored in the
+ * security information of its node. Updates issued more than the maximum age ago, or not after the last update
+ * accepted from the same participant, are rejected as stale or replayed. The last accepted updates are only kept in
+ * memory, so updates issued before the controller was started are rejected as well, since they may have been
+ * accepted by the previous run.
+ * <p>
+ * The update is saved as the catalog of the node through the same path as the crawled catalogs, so it is
+ * fingerprinted, hashed and notified to the crawl scheduler alike, and the response is only sent once it has been
+ * written. Accepted, rejected and failed updates are counted in the {@value #CATALOG_PUSH_METRIC} metrics.
+ */
+@Consumes({MediaType.APPLICATION_JSON})
+@Produces({MediaType.APPLICATION_JSON})
+@Path("/catalog-updates")
+public class CatalogPushApiController {
+
+    /**
+     * Header holding the id of the participant pushing the update.
+     */
+    public static final String PARTICIPANT_ID_HEADER = "X-Participant-Id";
+
+    /**
+     * Header holding the Base64 Ed25519 signature of the body.
+     */
+    public static final String SIGNATURE_HEADER = "X-Signature";
+
+    /**
+     * Prefix of the metrics counting the accepted, rejected and failed catalog updates.
+     */
+    public static final String CATALOG_PUSH_METRIC = "catalog.push";
+
+    /**
+     * Default maximum age of a catalog update, in seconds.
+     */
+    public static final long DEFAULT_MAX_AGE_SECONDS = 300;
+
+    private final ParticipantNodeDirectory nodeDirectory;
+    private final HeleadeFederatedCatalogCache cache;
+    private final JsonLd jsonLd;
+    private final TypeTransformerRegistry transformerRegistry;
+    private final ObjectMapper objectMapper;
+    private final Monitor monitor;
+    private final FederatedCatalogMetrics metrics;
+    private final Duration maxAge;
+    private final Clock clock;
+    private final Instant startedAt;
+    private final Map<String, Object> nodeLocks = new ConcurrentHashMap<>();
+    private final Map<String, Instant> lastIssued = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs the catalog push API controller.
+     *
+     * @param nodeDirectory the directory holding the registered participants and their public keys
+     * @param cache the cache the updates are saved in
+     * @param jsonLd the JsonLd instance expanding the updates
+     * @param transformerRegistry the registry transforming the pushed catalogs and datasets
+     * @param objectMapper the object mapper used to verify the signatures
+     * @param monitor the monitor where rejected updates are reported
+     * @param metrics the metrics where accepted and rejected updates are counted
+     * @param maxAge the maximum age of an update, also the tolerated clock skew of the participants
+     * @param clock the clock the issued times are checked against
+     */
+    public CatalogPushApiController(ParticipantNodeDirectory nodeDirectory, HeleadeFederatedCatalogCache cache, JsonLd jsonLd,
+                                    TypeTransformerRegistry transformerRegistry, ObjectMapper objectMapper, Monitor monitor,
+                                    FederatedCatalogMetrics metrics, Duration maxAge, Clock clock) {
+        this.nodeDirectory = nodeDirectory;
+        this.cache = cache;
+        this.jsonLd = jsonLd;
+        this.transformerRegistry = transformerRegistry;
+        this.objectMapper = objectMapper;
+        this.monitor = monitor;
+        this.metrics = metrics;
+        this.maxAge = maxAge;
+        this.clock = clock;
+        this.startedAt = clock.instant();
+    }
+
+    /**
+     * Applies a catalog update pushed by a participant.
+     *
+     * @param participantId the id of the participant, from the {@value #PARTICIPANT_ID_HEADER} header
+     * @param signature the Base64 Ed25519 signature of the body, from the {@value #SIGNATURE_HEADER} header
+     * @param body the JSON-LD catalog update, exactly as signed
+     * @return a {@link JsonObject} with the id the catalog is cached under and its number of datasets
+     * @throws WebApplicationException if the sender is not authenticated (401), the update is invalid or stale
+     *         (400), it is a replay or a delta with no cached catalog (409), or it could not be written (500)
+     */
+    @POST
+    public String push(@HeaderParam(PARTICIPANT_ID_HEADER) String participantId, @HeaderParam(SIGNATURE_HEADER) String signature,
+                       String body) {
+        if (participantId == null || participantId.isBlank() || signature == null || signature.isBlank() || body == null) {
+            throw reject(participantId, Response.Status.UNAUTHORIZED, "Missing participant id, signature or body");
+        }
+        ParticipantNode node = nodeDirectory.getParticipantNode(participantId);
+        if (node == null) {
+            throw reject(participantId, Response.Status.UNAUTHORIZED, "Participant not registered in federated catalog");
+        }
+        String pem = node.security() == null ? null : node.security().get(EDC_NAMESPACE + "pem");
+        if (pem == null || !verifySignature(objectMapper, pem, signature, body)) {
+            throw reject(participantId, Response.Status.UNAUTHORIZED, "Invalid signature");
+        }
+        String originator = node.targetUrl();
+        if (originator == null || originator.isBlank()) {
+            throw reject(participantId, Response.Status.BAD_REQUEST, "Participant has no catalog URL");
+        }
+
+        CatalogUpdate update;
+        try (var reader = Json.createReader(new StringReader(body))) {
+            var expanded = jsonLd.expand(reader.readObject())
+                    .orElseThrow(failure -> new IllegalArgumentException(failure.getFailureDetail()));
+            update = CatalogUpdate.fromJsonObject(expanded, transformerRegistry);
+        } catch (JsonException | IllegalArgumentException e) {
+            throw reject(participantId, Response.Status.BAD_REQUEST, "Invalid catalog update: " + e.getMessage());
+        }
+        var now = clock.instant();
+        if (update.issued().isBefore(now.minus(maxAge)) || update.issued().isAfter(now.plus(maxAge))) {
+            throw reject(participantId, Response.Status.BAD_REQUEST, "Catalog update issued at " + update.issued() + " is stale");
+        }
+
+        // updates of the same node are applied one at a time, each on the catalog written by the previous one
+        synchronized (nodeLocks.computeIfAbsent(originator, url -> new Object())) {
+            var previous = lastIssued.get(originator);
+            if (previous != null && !update.issued().isAfter(previous)) {
+                throw reject(participantId, Response.Status.CONFLICT, "Catalog update issued at " + update.issued() + " already applied");
+            }
+            if (previous == null && !update.issued().isAfter(startedAt)) {
+                throw reject(participantId, Response.Status.CONFLICT, "Catalog update issued at " + update.issued() + " before the catalog started");
+            }
+            Catalog catalog;
+            try {
+                var cached = cache.findCatalog(originator);
+                var catalogParticipantId = cached != null && cached.getParticipantId() != null ? cached.getParticipantId() : node.id();
+                catalog = update.applyTo(cached, catalogParticipantId, originator);
+            } catch (IllegalStateException e) {
+                throw reject(participantId, Response.Status.CONFLICT, e.getMessage());
+            }
+            try {
+                cache.saveAndWait(catalog);
+            } catch (EdcPersistenceException e) {
+                metrics.increment(CATALOG_PUSH_METRIC + ".failed");
+                monitor.severe("Catalog update of participant " + participantId + " could not be saved", e);
+                throw new WebApplicationException("Catalog update could not be saved", Response.Status.INTERNAL_SERVER_ERROR);
+            }
+            lastIssued.put(originator, update.issued());
+            metrics.increment(CATALOG_PUSH_METRIC + (update.isDelta() ? ".delta" : ".full"));
+            metrics.increment(CATALOG_PUSH_METRIC + ".accepted");
+            return Json.createObjectBuilder()
+                    .add("catalogId", originator)
+                    .add("datasets", catalog.getDatasets() == null ? 0 : catalog.getDatasets().size())
+                    .build()
+                    .toString();
+        }
+    }
+
+    private WebApplicationException reject(String participantId, Response.Status status, String message) {
+        metrics.increment(CATALOG_PUSH_METRIC + ".rejected");
+        monitor.warning("Catalog update of participant " + participantId + " rejected: " + message);
+        return new WebApplicationException(message, status);
+    }
+}
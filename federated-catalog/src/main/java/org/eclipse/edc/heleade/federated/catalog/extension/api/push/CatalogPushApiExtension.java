@@ -0,0 +1,75 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.api.push;
+
+import org.eclipse.edc.catalog.spi.FederatedCatalogCache;
+import org.eclipse.edc.crawler.spi.TargetNodeDirectory;
+import org.eclipse.edc.heleade.federated.catalog.extension.api.node.directory.ParticipantNodeDirectory;
+import org.eclipse.edc.heleade.federated.catalog.extension.metrics.FederatedCatalogMetrics;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.FederatedCatalogStores;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.HeleadeFederatedCatalogCache;
+import org.eclipse.edc.runtime.metamodel.annotation.Extension;
+import org.eclipse.edc.runtime.metamodel.annotation.Inject;
+import org.eclipse.edc.spi.system.ServiceExtension;
+import org.eclipse.edc.spi.system.ServiceExtensionContext;
+import org.eclipse.edc.spi.types.TypeManager;
+import org.eclipse.edc.transform.spi.TypeTransformerRegistry;
+import org.eclipse.edc.web.spi.WebService;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Registers the API where registered participants push their catalog updates to the federated catalog, next to the
+ * verification API. The maximum age of an update is set in the {@value #PUSH_MAX_AGE_SECONDS_PROPERTY} setting.
+ */
+@Extension(CatalogPushApiExtension.NAME)
+public class CatalogPushApiExtension implements ServiceExtension {
+
+    public static final String NAME = "Federated Catalog Push API Extension";
+
+    private static final String PUSH_MAX_AGE_SECONDS_PROPERTY = "org.eclipse.edc.heleade.federated.catalog.extension.push.max.age.seconds";
+
+    @Inject
+    private TargetNodeDirectory targetNodeDirectory;
+
+    @Inject
+    private FederatedCatalogCache store;
+
+    @Inject
+    private TypeManager typeManager;
+
+    @Inject
+    private TypeTransformerRegistry transformerRegistry;
+
+    @Inject
+    private FederatedCatalogMetrics metrics;
+
+    @Inject
+    private WebService webService;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void initialize(ServiceExtensionContext context) {
+        var maxAge = Duration.ofSeconds(context.getConfig().getLong(PUSH_MAX_AGE_SECONDS_PROPERTY, CatalogPushApiController.DEFAULT_MAX_AGE_SECONDS));
+        webService.registerResource(new CatalogPushApiController((ParticipantNodeDirectory) targetNodeDirectory,
+                (HeleadeFederatedCatalogCache) store, FederatedCatalogStores.createJsonLd(context), transformerRegistry,
+                typeManager.getMapper(), context.getMonitor(), metrics, maxAge, Clock.systemUTC()));
+    }
+}
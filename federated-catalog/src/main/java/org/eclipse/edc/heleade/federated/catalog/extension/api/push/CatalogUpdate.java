@@ -0,0 +1,198 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.api.push;
+
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonValue;
+import org.eclipse.edc.catalog.spi.CatalogConstants;
+import org.eclipse.edc.connector.controlplane.catalog.spi.Catalog;
+import org.eclipse.edc.connector.controlplane.catalog.spi.Dataset;
+import org.eclipse.edc.transform.spi.TypeTransformerRegistry;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.eclipse.edc.heleade.federated.catalog.extension.api.node.directory.ParticipantNode.getStringValue;
+import static org.eclipse.edc.spi.constants.CoreConstants.EDC_NAMESPACE;
+
+/**
+ * A catalog update pushed by a participant: either its full catalog, or a delta of the datasets added, changed
+ * and removed since its cached catalog.
+ *
+ * @param issued the time the update was issued by the participant, used to reject stale and replayed updates
+ * @param catalog the full catalog, or null for a delta
+ * @param added the datasets added to the cached catalog
+ * @param changed the datasets of the cached catalog replaced
+ * @param removed the ids of the datasets removed from the cached catalog
+ */
+public record CatalogUpdate(Instant issued, Catalog catalog, List<Dataset> added, List<Dataset> changed, List<String> removed) {
+
+    /**
+     * Property holding the time the update was issued, as an ISO-8601 instant.
+     */
+    public static final String ISSUED_PROPERTY = EDC_NAMESPACE + "issued";
+
+    /**
+     * Property holding the full catalog of a full update.
+     */
+    public static final String CATALOG_PROPERTY = EDC_NAMESPACE + "catalog";
+
+    /**
+     * Property holding the datasets added by a delta.
+     */
+    public static final String ADDED_DATASETS_PROPERTY = EDC_NAMESPACE + "addedDatasets";
+
+    /**
+     * Property holding the datasets changed by a delta.
+     */
+    public static final String CHANGED_DATASETS_PROPERTY = EDC_NAMESPACE + "changedDatasets";
+
+    /**
+     * Property holding the ids of the datasets removed by a delta.
+     */
+    public static final String REMOVED_DATASETS_PROPERTY = EDC_NAMESPACE + "removedDatasets";
+
+    /**
+     * Reads a catalog update from its expanded JSON-LD representation.
+     *
+     * @param jsonObject the expanded catalog update
+     * @param transformerRegistry the registry transforming the catalog and the datasets
+     * @return the catalog update
+     * @throws IllegalArgumentException if the update is not valid
+     */
+    public static CatalogUpdate fromJsonObject(JsonObject jsonObject, TypeTransformerRegistry transformerRegistry) {
+        var issuedValue = getStringValue(jsonObject, ISSUED_PROPERTY);
+        if (issuedValue == null) {
+            throw new IllegalArgumentException("Missing issued time");
+        }
+        Instant issued;
+        try {
+            issued = Instant.parse(issuedValue);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid issued time: " + issuedValue);
+        }
+
+        var catalogs = objects(jsonObject, CATALOG_PROPERTY);
+        if (!catalogs.isEmpty()) {
+            var catalog = transformerRegistry.transform(catalogs.get(0), Catalog.class)
+                    .orElseThrow(failure -> new IllegalArgumentException("Invalid catalog: " + failure.getFailureDetail()));
+            return new CatalogUpdate(issued, catalog, List.of(), List.of(), List.of());
+        }
+
+        var removed = new ArrayList<String>();
+        for (JsonObject value : objects(jsonObject, REMOVED_DATASETS_PROPERTY)) {
+            var id = value.containsKey("@value") ? value.getString("@value") : value.getString("@id", null);
+            if (id == null) {
+                throw new IllegalArgumentException("Invalid removed dataset: " + value);
+            }
+            removed.add(id);
+        }
+        var added = datasets(jsonObject, ADDED_DATASETS_PROPERTY, transformerRegistry);
+        var changed = datasets(jsonObject, CHANGED_DATASETS_PROPERTY, transformerRegistry);
+        if (added.isEmpty() && changed.isEmpty() && removed.isEmpty()) {
+            throw new IllegalArgumentException("Neither a catalog nor added, changed or removed datasets");
+        }
+        return new CatalogUpdate(issued, null, added, changed, removed);
+    }
+
+    /**
+     * Checks whether this update is a delta of the cached catalog.
+     *
+     * @return true for a delta, false for a full catalog
+     */
+    public boolean isDelta() {
+        return catalog == null;
+    }
+
+    /**
+     * Builds the catalog to save from this update. The datasets of a delta are matched by id with those of the
+     * cached catalog, so adding an existing dataset replaces it, and changing or removing a missing one adds it or
+     * does nothing, which keeps a retried delta harmless.
+     *
+     * @param cached the cached catalog of the participant, or null if there is none
+     * @param participantId the participant the catalog is saved for
+     * @param originator the URL of the node, the id the catalog is cached under
+     * @return the catalog to save
+     * @throws IllegalStateException if this update is a delta and there is no cached catalog
+     */
+    public Catalog applyTo(Catalog cached, String participantId, String originator) {
+        Catalog base = catalog;
+        List<Dataset> datasets;
+        if (isDelta()) {
+            if (cached == null) {
+                throw new IllegalStateException("No cached catalog to apply the delta to");
+            }
+            base = cached;
+            var byId = new LinkedHashMap<String, Dataset>();
+            if (cached.getDatasets() != null) {
+                cached.getDatasets().forEach(dataset -> byId.put(dataset.getId(), dataset));
+            }
+            removed.forEach(byId::remove);
+            changed.forEach(dataset -> byId.put(dataset.getId(), dataset));
+            added.forEach(dataset -> byId.put(dataset.getId(), dataset));
+            datasets = new ArrayList<>(byId.values());
+        } else {
+            datasets = catalog.getDatasets() == null ? List.of() : catalog.getDatasets();
+        }
+
+        var properties = new HashMap<String, Object>();
+        if (base.getProperties() != null) {
+            properties.putAll(base.getProperties());
+        }
+        properties.put(CatalogConstants.PROPERTY_ORIGINATOR, originator);
+        var builder = Catalog.Builder.newInstance()
+                .id(base.getId())
+                .participantId(participantId)
+                .properties(properties)
+                .dataServices(base.getDataServices() == null ? List.of() : base.getDataServices())
+                .datasets(datasets);
+        if (base.getOffers() != null) {
+            builder.offers(base.getOffers());
+        }
+        if (base.getDistributions() != null) {
+            builder.distributions(base.getDistributions());
+        }
+        return builder.build();
+    }
+
+    private static List<Dataset> datasets(JsonObject jsonObject, String key, TypeTransformerRegistry transformerRegistry) {
+        var datasets = new ArrayList<Dataset>();
+        for (JsonObject value : objects(jsonObject, key)) {
+            datasets.add(transformerRegistry.transform(value, Dataset.class)
+                    .orElseThrow(failure -> new IllegalArgumentException("Invalid dataset: " + failure.getFailureDetail())));
+        }
+        return datasets;
+    }
+
+    private static List<JsonObject> objects(JsonObject jsonObject, String key) {
+        var value = jsonObject.get(key);
+        if (value == null || value.getValueType() != JsonValue.ValueType.ARRAY) {
+            return List.of();
+        }
+        var objects = new ArrayList<JsonObject>();
+        for (JsonValue item : (JsonArray) value) {
+            if (item.getValueType() != JsonValue.ValueType.OBJECT) {
+                throw new IllegalArgumentException("Invalid value of " + key + ": " + item);
+            }
+            objects.add(item.asJsonObject());
+        }
+        return objects;
+    }
+}
@@ -14,19 +14,33 @@
 
 package org.eclipse.edc.heleade.federated.catalog.extension.api.query;
 
+import jakarta.json.Json;
 import jakarta.json.JsonArray;
 import jakarta.json.JsonObject;
+import jakarta.json.stream.JsonGenerator;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.eclipse.edc.catalog.api.query.FederatedCatalogApi;
 import org.eclipse.edc.catalog.spi.QueryService;
+import org.eclipse.edc.connector.controlplane.catalog.spi.Catalog;
 import org.eclipse.edc.connector.controlplane.catalog.spi.Dataset;
 import org.eclipse.edc.federatedcatalog.util.FederatedCatalogUtil;
+import org.eclipse.edc.heleade.federated.catalog.extension.metrics.FederatedCatalogMetrics;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.FieldPaths;
+import org.eclipse.edc.jsonld.spi.JsonLd;
+import org.eclipse.edc.spi.query.Criterion;
 import org.eclipse.edc.spi.query.QuerySpec;
 import org.eclipse.edc.spi.result.AbstractResult;
 import org.eclipse.edc.spi.result.Result;
@@ -34,32 +48,68 @@ import org.eclipse.edc.transform.spi.TypeTransformerRegistry;
 import org.eclipse.edc.web.spi.exception.InvalidRequestException;
 import org.eclipse.edc.web.spi.exception.ServiceResultHandler;
 
-import javax.xml.catalog.Catalog;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import static jakarta.json.stream.JsonCollectors.toJsonArray;
+import static org.eclipse.edc.heleade.federated.catalog.extension.api.query.FederatedCatalogContentBasedApiExtension.CATALOG_QUERY_SCOPE;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.HeleadeFederatedCatalogCache.TEXT_SEARCH_OPERATOR;
 import static org.eclipse.edc.spi.constants.CoreConstants.EDC_NAMESPACE;
 
 /**
  * Handles API endpoints for querying cached federated catalog content.
  * Consumes and produces data in JSON format.
+ * <p>
+ * The content-based endpoints suspend their request and run the query on the {@link QueryExecutor}, which bounds
+ * the number of queries running at once and releases the web server threads while the cache works.
  */
 @Consumes({ MediaType.APPLICATION_JSON })
 @Produces({ MediaType.APPLICATION_JSON })
 @Path("/v1alpha/catalog/query-cbm")
 public class FederatedCatalogContentBasedApiController implements FederatedCatalogApi {
 
+    /**
+     * Response header carrying the continuation token of the next page of a keyset paginated query.
+     */
+    public static final String CONTINUATION_TOKEN_HEADER = "X-Continuation-Token";
+
+    /**
+     * Response header carrying the number of results matching a query across all pages, when requested.
+     */
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
     private final QueryService queryService;
     private final TypeTransformerRegistry transformerRegistry;
+    private final FederatedCatalogMetrics metrics;
+    private final JsonLd jsonLd;
+    private final JsonObject context;
+    private final QueryExecutor queryExecutor;
 
     /**
      * Constructs a controller for handling federated catalog content-based query APIs.
      *
      * @param queryService the service used to query catalog data
      * @param transformerRegistry the registry managing type transformations
+     * @param metrics the counters published by the federated catalog components
+     * @param jsonLd the JSON-LD service used to compact streamed results
+     * @param context the JSON-LD context of the catalog query scope, written by the fast read path
+     * @param queryExecutor the executor running the queries of the suspended requests
      */
-    public FederatedCatalogContentBasedApiController(QueryService queryService, TypeTransformerRegistry transformerRegistry) {
+    public FederatedCatalogContentBasedApiController(QueryService queryService, TypeTransformerRegistry transformerRegistry, FederatedCatalogMetrics metrics,
+                                                     JsonLd jsonLd, JsonObject context, QueryExecutor queryExecutor) {
         this.queryService = queryService;
         this.transformerRegistry = transformerRegistry;
+        this.metrics = metrics;
+        this.jsonLd = jsonLd;
+        this.context = context;
+        this.queryExecutor = queryExecutor;
     }
 
     /**
@@ -89,57 +139,399 @@ public class FederatedCatalogContentBasedApiController implements FederatedCatal
     }
 
     /**
-     * Retrieves cached datasets based on the provided query parameters.
+     * Retrieves a page of cached catalogs using keyset pagination. The token to request the next page is returned
+     * in the {@value #CONTINUATION_TOKEN_HEADER} header, which is absent on the last page. When requested, the
+     * number of catalogs matching the query across all pages is returned in the {@value #TOTAL_COUNT_HEADER} header.
      *
      * @param catalogQuery the query parameters as a JsonObject; if null, a default query specification is used
-     * @return a JsonArray containing the matching datasets
-     * @throws InvalidRequestException if the catalogQuery transformation to QuerySpec fails
-     * @throws IllegalStateException if the QueryService or cache is not of the correct type
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param stream whether to stream the catalogs to the response as they are read, without a continuation token
+     * @param count whether to count the catalogs matching the query in the same round trip as the page
+     * @param textSearch optional search terms matched against the text index, added as a {@code textSearch} criterion
+     * @param fields optional comma separated paths of the catalog fields to return, such as {@code dct:title}; the
+     *               other fields are neither read nor transformed
+     * @param response the suspended response, resumed with a Response containing a JsonArray with the matching
+     *                 catalogs, with an InvalidRequestException if the catalogQuery transformation to QuerySpec
+     *                 fails, if the count of a streamed response is requested, or if a field path is invalid, or with
+     *                 an IllegalStateException if the QueryService is not of the correct type; a continuation
+     *                 token or a projection on a cache without keyset pagination is answered with status 501
+     */
+    @Path("/catalogs")
+    @POST
+    public void getCachedCatalogsPage(JsonObject catalogQuery, @QueryParam("continuationToken") String continuationToken,
+                                      @DefaultValue("false") @QueryParam("stream") boolean stream,
+                                      @DefaultValue("false") @QueryParam("count") boolean count,
+                                      @QueryParam("textSearch") String textSearch,
+                                      @QueryParam("fields") String fields,
+                                      @Suspended AsyncResponse response) {
+        queryExecutor.submit(response, () -> queryCatalogsPage(catalogQuery, continuationToken, stream, count, textSearch, fields));
+    }
+
+    private Response queryCatalogsPage(JsonObject catalogQuery, String continuationToken, boolean stream, boolean count,
+                                       String textSearch, String fields) {
+        if (queryService instanceof HeleadeQueryServiceImpl) {
+            HeleadeQueryServiceImpl heleadeQueryService = (HeleadeQueryServiceImpl) queryService;
+            var querySpec = toQuerySpec(catalogQuery, textSearch);
+            validateCount(stream, count);
+            var projection = parseFields(fields);
+
+            if (!heleadeQueryService.supportsKeysetPagination()) {
+                validateOffsetRead(continuationToken, false, projection);
+                var catalogs = heleadeQueryService.getCatalog(querySpec)
+                        .orElseThrow(ServiceResultHandler.exceptionMapper(Catalog.class));
+                Long total = null;
+                if (count) {
+                    var all = QuerySpec.Builder.newInstance().filter(querySpec.getFilterExpression()).limit(Integer.MAX_VALUE).build();
+                    total = (long) heleadeQueryService.getCatalog(all)
+                            .orElseThrow(ServiceResultHandler.exceptionMapper(Catalog.class))
+                            .size();
+                }
+                return Response.ok(catalogs.stream()
+                                .map(c -> transformerRegistry.transform(c, JsonObject.class))
+                                .filter(Result::succeeded)
+                                .map(AbstractResult::getContent)
+                                .collect(toJsonArray()))
+                        .header(TOTAL_COUNT_HEADER, total)
+                        .build();
+            }
+
+            if (stream) {
+                validateContinuationToken(heleadeQueryService, querySpec, continuationToken);
+                StreamingOutput output = outputStream -> this.<Catalog>writeJsonArray(outputStream,
+                        consumer -> heleadeQueryService.streamCatalogs(querySpec, continuationToken, projection, consumer));
+                return Response.ok(output, MediaType.APPLICATION_JSON).build();
+            }
+
+            var page = heleadeQueryService.getCatalogsPage(querySpec, continuationToken, count, projection)
+                    .orElseThrow(ServiceResultHandler.exceptionMapper(Catalog.class));
+
+            var catalogs = page.items().stream()
+                    .map(c -> transformerRegistry.transform(c, JsonObject.class))
+                    .filter(Result::succeeded)
+                    .map(AbstractResult::getContent)
+                    .collect(toJsonArray());
+            return Response.ok(catalogs)
+                    .header(CONTINUATION_TOKEN_HEADER, page.continuationToken())
+                    .header(TOTAL_COUNT_HEADER, page.total())
+                    .build();
+        } else {
+            throw new IllegalStateException("Catalog query unavailable: QueryService is not of type HeleadeQueryServiceImpl");
+        }
+    }
+
+    /**
+     * Retrieves cached datasets based on the provided query parameters. A plain query is answered with the offset
+     * and limit of the query, from the query result cache. When a continuation token or any of the page options is
+     * given, the datasets are read with keyset pagination instead: the token to request the next page is returned
+     * in the {@value #CONTINUATION_TOKEN_HEADER} header, which is absent on the last page, and the offset of the
+     * query is ignored once a continuation token is given. When requested, the number of datasets matching the
+     * query across all pages is returned in the {@value #TOTAL_COUNT_HEADER} header. The data dictionaries of the
+     * distributions are returned as references, resolved by the {@code /data-dictionaries/{id}} endpoint, unless
+     * they are requested inline.
+     *
+     * @param catalogQuery the query parameters as a JsonObject; if null, a default query specification is used
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param paged whether to read the first page with keyset pagination, returning the token of the next page
+     * @param stream whether to stream the datasets to the response as they are read, without a continuation token
+     * @param fast whether to write the stored compacted JSON-LD datasets directly, skipping the JSON-LD expansion and
+     *             the transformation round trip
+     * @param count whether to count the datasets matching the query in the same round trip as the page
+     * @param textSearch optional search terms matched against the text index, added as a {@code textSearch} criterion
+     * @param fields optional comma separated paths of the dataset fields to return, such as {@code dct:title}; the
+     *               other fields are neither read nor transformed
+     * @param dataDictionaries whether to return the data dictionaries of the distributions inline instead of their
+     *                         references
+     * @param response the suspended response, resumed with a Response containing a JsonArray with the matching
+     *                 datasets, with an InvalidRequestException if the catalogQuery transformation to QuerySpec
+     *                 fails, if the count of a streamed response is requested, or if a field path is invalid, or with
+     *                 an IllegalStateException if the QueryService is not of the correct type; a continuation
+     *                 token or a projection on a cache without keyset pagination is answered with status 501
      */
     @Path("/datasets")
     @POST
-    public JsonArray getCachedDatasets(JsonObject catalogQuery) {
+    public void getCachedDatasets(JsonObject catalogQuery, @QueryParam("continuationToken") String continuationToken,
+                                  @DefaultValue("false") @QueryParam("paged") boolean paged,
+                                  @DefaultValue("false") @QueryParam("stream") boolean stream,
+                                  @DefaultValue("false") @QueryParam("fast") boolean fast,
+                                  @DefaultValue("false") @QueryParam("count") boolean count,
+                                  @QueryParam("textSearch") String textSearch,
+                                  @QueryParam("fields") String fields,
+                                  @DefaultValue("false") @QueryParam("dataDictionaries") boolean dataDictionaries,
+                                  @Suspended AsyncResponse response) {
+        queryExecutor.submit(response, () -> queryDatasets(catalogQuery, continuationToken, paged, stream, fast, count, textSearch, fields,
+                dataDictionaries));
+    }
+
+    private Response queryDatasets(JsonObject catalogQuery, String continuationToken, boolean paged, boolean stream, boolean fast,
+                                   boolean count, String textSearch, String fields, boolean dataDictionaries) {
         if (queryService instanceof HeleadeQueryServiceImpl) {
             HeleadeQueryServiceImpl heleadeQueryService = (HeleadeQueryServiceImpl) queryService;
-            var querySpec = catalogQuery == null
-                    ? QuerySpec.Builder.newInstance().build()
-                    : transformerRegistry.transform(catalogQuery, QuerySpec.class)
-                    .orElseThrow(InvalidRequestException::new);
+            var querySpec = toQuerySpec(catalogQuery, textSearch);
+            validateCount(stream, count);
+            var projection = parseFields(fields);
 
-            var datasets = heleadeQueryService.getDatasets(querySpec)
+            var keyset = paged || stream || fast || count || dataDictionaries || !projection.isEmpty()
+                    || (continuationToken != null && !continuationToken.isBlank());
+            var offsetRead = !heleadeQueryService.supportsKeysetPagination();
+            if (!keyset || offsetRead) {
+                // caches without keyset pagination keep the data dictionaries inline, and serve streamed and fast
+                // reads as a plain page
+                if (offsetRead) {
+                    validateOffsetRead(continuationToken, paged, projection);
+                }
+                var datasets = heleadeQueryService.getDatasets(querySpec)
+                        .orElseThrow(ServiceResultHandler.exceptionMapper(Dataset.class));
+                return Response.ok(datasets.stream()
+                                .map(c -> transformerRegistry.transform(c, JsonObject.class))
+                                .filter(Result::succeeded)
+                                .map(AbstractResult::getContent)
+                                .collect(toJsonArray()))
+                        .header(TOTAL_COUNT_HEADER, count ? heleadeQueryService.countDatasets(querySpec, true) : null)
+                        .build();
+            }
+
+            // the fast path writes JSON strings, so the JSON-LD interceptor does not compact the response again
+            if (fast && stream) {
+                validateContinuationToken(heleadeQueryService, querySpec, continuationToken);
+                StreamingOutput output = outputStream -> writeRawJsonArray(outputStream,
+                        consumer -> heleadeQueryService.streamDatasetsCompacted(querySpec, continuationToken, projection, dataDictionaries, context, consumer));
+                return Response.ok(output, MediaType.APPLICATION_JSON).build();
+            }
+            if (fast) {
+                var page = heleadeQueryService.getDatasetsPageCompacted(querySpec, continuationToken, count, projection, dataDictionaries, context)
+                        .orElseThrow(ServiceResultHandler.exceptionMapper(Dataset.class));
+                return Response.ok("[" + String.join(",", page.items()) + "]", MediaType.APPLICATION_JSON)
+                        .header(CONTINUATION_TOKEN_HEADER, page.continuationToken())
+                        .header(TOTAL_COUNT_HEADER, page.total())
+                        .build();
+            }
+
+            if (stream) {
+                validateContinuationToken(heleadeQueryService, querySpec, continuationToken);
+                StreamingOutput output = outputStream -> this.<Dataset>writeJsonArray(outputStream,
+                        consumer -> heleadeQueryService.streamDatasets(querySpec, continuationToken, projection, dataDictionaries, consumer));
+                return Response.ok(output, MediaType.APPLICATION_JSON).build();
+            }
+
+            var page = heleadeQueryService.getDatasetsPage(querySpec, continuationToken, count, projection, dataDictionaries)
                     .orElseThrow(ServiceResultHandler.exceptionMapper(Dataset.class));
 
-            return datasets.stream()
+            var datasets = page.items().stream()
                     .map(c -> transformerRegistry.transform(c, JsonObject.class))
                     .filter(Result::succeeded)
                     .map(AbstractResult::getContent)
                     .collect(toJsonArray());
+            return Response.ok(datasets)
+                    .header(CONTINUATION_TOKEN_HEADER, page.continuationToken())
+                    .header(TOTAL_COUNT_HEADER, page.total())
+                    .build();
         } else {
             throw new IllegalStateException("Dataset query unavailable: QueryService is not of type HeleadeQueryServiceImpl");
         }
     }
 
     /**
-     * Counts the number of cached datasets based on the provided query parameters.
+     * Retrieves a data dictionary referenced by the distributions of the cached datasets.
+     *
+     * @param id the {@code @id} of the reference, or the content hash of the dictionary
+     * @param response the suspended response, resumed with a JSON string with the compacted data dictionary,
+     *                 identified by its reference, with a WebApplicationException if there is no data dictionary
+     *                 with the given id (404) or the cache keeps the dictionaries inline (501), or with an
+     *                 IllegalStateException if the QueryService is not of type HeleadeQueryServiceImpl
+     */
+    @Path("/data-dictionaries/{id}")
+    @GET
+    public void getDataDictionary(@PathParam("id") String id, @Suspended AsyncResponse response) {
+        queryExecutor.submit(response, () -> queryDataDictionary(id));
+    }
+
+    private String queryDataDictionary(String id) {
+        if (queryService instanceof HeleadeQueryServiceImpl) {
+            HeleadeQueryServiceImpl heleadeQueryService = (HeleadeQueryServiceImpl) queryService;
+            if (!heleadeQueryService.supportsDataDictionaries()) {
+                throw notImplemented("Data dictionary references");
+            }
+            var dictionary = heleadeQueryService.getDataDictionary(id, context)
+                    .orElseThrow(ServiceResultHandler.exceptionMapper(Dataset.class));
+            if (dictionary == null) {
+                throw new WebApplicationException("Data dictionary not found", Response.Status.NOT_FOUND);
+            }
+            // written as a string, so the JSON-LD interceptor does not compact the response again
+            return dictionary;
+        } else {
+            throw new IllegalStateException("Data dictionary query unavailable: QueryService is not of type HeleadeQueryServiceImpl");
+        }
+    }
+
+    /**
+     * Writes the JSON strings produced by a streaming query as a JSON array, without parsing them.
+     *
+     * @param outputStream the response output stream
+     * @param query the streaming query, which feeds each JSON string to the given consumer
+     * @throws IOException if the response cannot be written
+     */
+    private void writeRawJsonArray(OutputStream outputStream, Consumer<Consumer<String>> query) throws IOException {
+        var writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write('[');
+        var first = new AtomicBoolean(true);
+        try {
+            query.accept(json -> {
+                try {
+                    if (!first.getAndSet(false)) {
+                        writer.write(',');
+                    }
+                    writer.write(json);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.write(']');
+        writer.flush();
+    }
+
+    /**
+     * Creates the query specification of a request from its body and its optional text search parameter.
      *
      * @param catalogQuery the query parameters as a JsonObject; if null, a default query specification is used
-     * @return a String representing the number of datasets matching the query
+     * @param textSearch optional search terms, added to the filter as a {@code textSearch} criterion
+     * @return the query specification
      * @throws InvalidRequestException if the catalogQuery transformation to QuerySpec fails
-     * @throws IllegalStateException if the QueryService is not of type HeleadeQueryServiceImpl
+     */
+    private QuerySpec toQuerySpec(JsonObject catalogQuery, String textSearch) {
+        var querySpec = catalogQuery == null
+                ? QuerySpec.Builder.newInstance().build()
+                : transformerRegistry.transform(catalogQuery, QuerySpec.class)
+                .orElseThrow(InvalidRequestException::new);
+        if (textSearch == null || textSearch.isBlank()) {
+            return querySpec;
+        }
+        return QuerySpec.Builder.newInstance()
+                .offset(querySpec.getOffset())
+                .limit(querySpec.getLimit())
+                .sortField(querySpec.getSortField())
+                .sortOrder(querySpec.getSortOrder())
+                .filter(querySpec.getFilterExpression())
+                .filter(Criterion.criterion("*", TEXT_SEARCH_OPERATOR, textSearch))
+                .build();
+    }
+
+    /**
+     * Checks the continuation token before a streamed response starts, since errors cannot be reported once the
+     * response status has been sent.
+     *
+     * @param heleadeQueryService the query service reading the cache
+     * @param querySpec the query specification of the request
+     * @param continuationToken the continuation token of the request, may be null
+     * @throws InvalidRequestException if the token is malformed or does not match the query sort
+     */
+    private void validateContinuationToken(HeleadeQueryServiceImpl heleadeQueryService, QuerySpec querySpec, String continuationToken) {
+        if (continuationToken != null && !continuationToken.isBlank()) {
+            try {
+                heleadeQueryService.validateContinuationToken(querySpec, continuationToken);
+            } catch (IllegalArgumentException e) {
+                throw new InvalidRequestException(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Rejects the options that a cache without keyset pagination, such as the in-memory cache, cannot serve: its
+     * results are only paged with the offset and limit of the query, and always returned with all their fields.
+     *
+     * @param continuationToken the continuation token of the request, may be null
+     * @param paged whether the first keyset page is requested
+     * @param projection the field paths of the request, empty if all the fields are requested
+     * @throws WebApplicationException with status 501 if a continuation token, a keyset page or a projection is requested
+     */
+    private void validateOffsetRead(String continuationToken, boolean paged, List<String> projection) {
+        if (paged || (continuationToken != null && !continuationToken.isBlank())) {
+            throw notImplemented("Keyset pagination");
+        }
+        if (!projection.isEmpty()) {
+            throw notImplemented("Field projection");
+        }
+    }
+
+    private WebApplicationException notImplemented(String feature) {
+        return new WebApplicationException(feature + " unavailable: not supported by the configured cache", Response.Status.NOT_IMPLEMENTED);
+    }
+
+    /**
+     * Parses the fields requested for a projection.
+     *
+     * @param fields the comma separated field paths of the request, may be null
+     * @return the field paths, empty if all the fields are requested
+     * @throws InvalidRequestException if a field path is invalid
+     */
+    private List<String> parseFields(String fields) {
+        try {
+            return FieldPaths.parse(fields);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException(e.getMessage());
+        }
+    }
+
+    /**
+     * Rejects the count of a streamed response, whose headers are sent before the results are read.
+     *
+     * @param stream whether the response is streamed
+     * @param count whether the count of the results is requested
+     * @throws InvalidRequestException if both are requested
+     */
+    private void validateCount(boolean stream, boolean count) {
+        if (stream && count) {
+            throw new InvalidRequestException("The count of the results is not available for streamed responses, use the count endpoint");
+        }
+    }
+
+    /**
+     * Writes the results produced by a streaming query as a JSON array. Each result is transformed and compacted
+     * the same way the JSON-LD interceptor does for non streamed responses, and written as soon as it is produced.
+     *
+     * @param outputStream the response output stream
+     * @param query the streaming query, which feeds each result to the given consumer
+     * @param <T> the result type
+     */
+    private <T> void writeJsonArray(OutputStream outputStream, Consumer<Consumer<T>> query) {
+        try (JsonGenerator generator = Json.createGenerator(outputStream)) {
+            generator.writeStartArray();
+            query.accept(result -> transformerRegistry.transform(result, JsonObject.class)
+                    .compose(jsonObject -> jsonLd.compact(jsonObject, CATALOG_QUERY_SCOPE))
+                    .onSuccess(generator::write));
+            generator.writeEnd();
+        }
+    }
+
+    /**
+     * Counts the number of cached datasets based on the provided query parameters.
+     *
+     * @param catalogQuery the query parameters as a JsonObject; if null, a default query specification is used
+     * @param textSearch optional search terms matched against the text index, added as a {@code textSearch} criterion
+     * @param response the suspended response, resumed with a JSON object string such as {@code {"count": 10}} with
+     *                 the number of datasets matching the query, with an InvalidRequestException if the catalogQuery
+     *                 transformation to QuerySpec fails, or with an IllegalStateException if the QueryService is not
+     *                 of type HeleadeQueryServiceImpl
      */
     @Path("/datasets/count")
     @POST
-    public String getCachedDatasetsCount(JsonObject catalogQuery) {
+    public void getCachedDatasetsCount(JsonObject catalogQuery, @QueryParam("textSearch") String textSearch,
+                                       @Suspended AsyncResponse response) {
+        queryExecutor.submit(response, () -> countDatasets(catalogQuery, textSearch));
+    }
+
+    private String countDatasets(JsonObject catalogQuery, String textSearch) {
         if (queryService instanceof HeleadeQueryServiceImpl) {
             HeleadeQueryServiceImpl heleadeQueryService = (HeleadeQueryServiceImpl) queryService;
-            var querySpec = catalogQuery == null
-                    ? QuerySpec.Builder.newInstance().build()
-                    : transformerRegistry.transform(catalogQuery, QuerySpec.class)
-                    .orElseThrow(InvalidRequestException::new);
+            var querySpec = toQuerySpec(catalogQuery, textSearch);
 
             //check if the original query did not have a limit
             boolean noLimit = (catalogQuery != null && !catalogQuery.containsKey(EDC_NAMESPACE + "limit"));
-            return heleadeQueryService.countDatasets(querySpec, noLimit);
+            var count = heleadeQueryService.countDatasets(querySpec, noLimit);
+            // written as a string, so the JSON-LD interceptor does not compact the response
+            return Json.createObjectBuilder().add("count", count).build().toString();
         } else {
             throw new IllegalStateException("Dataset query unavailable: QueryService is not of type HeleadeQueryServiceImpl");
         }
@@ -149,19 +541,23 @@ public class FederatedCatalogContentBasedApiController implements FederatedCatal
      * Counts the number of cached datasets per keyword based on the provided query parameters.
      *
      * @param catalogQuery the query parameters as a JsonObject; if null, a default query specification is used
-     * @return a String representing the number of datasets per keyword matching the query
-     * @throws InvalidRequestException if the catalogQuery transformation to QuerySpec fails
-     * @throws IllegalStateException if the QueryService is not of type HeleadeQueryServiceImpl
+     * @param textSearch optional search terms matched against the text index, added as a {@code textSearch} criterion
+     * @param response the suspended response, resumed with a String representing the number of datasets per keyword
+     *                 matching the query, with an InvalidRequestException if the catalogQuery transformation to
+     *                 QuerySpec fails, or with an IllegalStateException if the QueryService is not of type
+     *                 HeleadeQueryServiceImpl
      */
     @Path("/keywords/count")
     @POST
-    public String getCachedKeywordsCount(JsonObject catalogQuery) {
+    public void getCachedKeywordsCount(JsonObject catalogQuery, @QueryParam("textSearch") String textSearch,
+                                       @Suspended AsyncResponse response) {
+        queryExecutor.submit(response, () -> countKeywords(catalogQuery, textSearch));
+    }
+
+    private String countKeywords(JsonObject catalogQuery, String textSearch) {
         if (queryService instanceof HeleadeQueryServiceImpl) {
             HeleadeQueryServiceImpl heleadeQueryService = (HeleadeQueryServiceImpl) queryService;
-            var querySpec = catalogQuery == null
-                    ? QuerySpec.Builder.newInstance().build()
-                    : transformerRegistry.transform(catalogQuery, QuerySpec.class)
-                    .orElseThrow(InvalidRequestException::new);
+            var querySpec = toQuerySpec(catalogQuery, textSearch);
 
             //check if the original query did not have a limit
             boolean noLimit = (catalogQuery != null && !catalogQuery.containsKey(EDC_NAMESPACE + "limit"));
@@ -170,4 +566,71 @@ public class FederatedCatalogContentBasedApiController implements FederatedCatal
             throw new IllegalStateException("Dataset query unavailable: QueryService is not of type HeleadeQueryServiceImpl");
         }
     }
+
+    /**
+     * Counts the cached datasets per participant, format, access rights, license, theme and issued year in
+     * a single request, based on the provided query parameters.
+     *
+     * @param catalogQuery the query parameters as a JsonObject; if null, a default query specification is used
+     * @param textSearch optional search terms matched against the text index, added as a {@code textSearch} criterion
+     * @param response the suspended response, resumed with a String representing, for each facet, the number of
+     *                 datasets per value matching the query, with an InvalidRequestException if the catalogQuery
+     *                 transformation to QuerySpec fails, with a WebApplicationException (501) if the cache does not
+     *                 count facets, or with an IllegalStateException if the QueryService is not of type
+     *                 HeleadeQueryServiceImpl
+     */
+    @Path("/datasets/facets")
+    @POST
+    public void getCachedDatasetsFacets(JsonObject catalogQuery, @QueryParam("textSearch") String textSearch,
+                                        @Suspended AsyncResponse response) {
+        queryExecutor.submit(response, () -> countFacets(catalogQuery, textSearch));
+    }
+
+    private String countFacets(JsonObject catalogQuery, String textSearch) {
+        if (queryService instanceof HeleadeQueryServiceImpl) {
+            HeleadeQueryServiceImpl heleadeQueryService = (HeleadeQueryServiceImpl) queryService;
+            var querySpec = toQuerySpec(catalogQuery, textSearch);
+
+            //check if the original query did not have a limit
+            boolean noLimit = (catalogQuery != null && !catalogQuery.containsKey(EDC_NAMESPACE + "limit"));
+            if (!heleadeQueryService.supportsFacets()) {
+                throw notImplemented("Dataset facets");
+            }
+            return heleadeQueryService.countFacets(querySpec, noLimit);
+        } else {
+            throw new IllegalStateException("Dataset query unavailable: QueryService is not of type HeleadeQueryServiceImpl");
+        }
+    }
+
+    /**
+     * Retrieves the current federated catalog metrics, such as the content hash hit rate of the crawled catalogs.
+     *
+     * @return a JsonObject with the value of each counter and the derived hit rates
+     */
+    @Path("/metrics")
+    @GET
+    public JsonObject getMetrics() {
+        return metrics.asJsonObject();
+    }
+
+    /**
+     * Retrieves how many operations used each index of the federated catalog collections.
+     *
+     * @return a JsonObject mapping each collection to the number of operations per index
+     * @throws IllegalStateException if the QueryService is not of type HeleadeQueryServiceImpl
+     * @throws WebApplicationException with status 501 if the cache does not report its index usage
+     */
+    @Path("/indexes")
+    @GET
+    public JsonObject getIndexUsage() {
+        if (queryService instanceof HeleadeQueryServiceImpl) {
+            HeleadeQueryServiceImpl heleadeQueryService = (HeleadeQueryServiceImpl) queryService;
+            if (!heleadeQueryService.supportsIndexUsage()) {
+                throw notImplemented("Index usage");
+            }
+            return heleadeQueryService.getIndexUsage();
+        } else {
+            throw new IllegalStateException("Index usage unavailable: QueryService is not of type HeleadeQueryServiceImpl");
+        }
+    }
 }
@@ -19,6 +19,7 @@ import org.eclipse.edc.catalog.spi.QueryService;
 import org.eclipse.edc.catalog.transform.JsonObjectToCatalogTransformer;
 import org.eclipse.edc.connector.core.agent.NoOpParticipantIdMapper;
 import org.eclipse.edc.heleade.federated.catalog.extension.content.based.JsonObjectFromDatasetContentBasedTransformer;
+import org.eclipse.edc.heleade.federated.catalog.extension.metrics.FederatedCatalogMetrics;
 import org.eclipse.edc.jsonld.spi.JsonLd;
 import org.eclipse.edc.jsonld.spi.JsonLdNamespace;
 import org.eclipse.edc.protocol.dsp.catalog.transform.from.JsonObjectFromCatalogTransformer;
@@ -37,6 +38,8 @@ import org.eclipse.edc.transform.transformer.edc.to.JsonObjectToQuerySpecTransfo
 import org.eclipse.edc.web.spi.WebService;
 import org.eclipse.edc.web.spi.configuration.PortMappingRegistry;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import static org.eclipse.edc.catalog.spi.FccApiContexts.CATALOG_QUERY;
@@ -83,6 +86,14 @@ public class FederatedCatalogContentBasedApiExtension implements ServiceExtensio
      */
     public static final String NAME = "Content Based Cache Query API Extension";
     static final String CATALOG_QUERY_SCOPE = "CATALOG_QUERY_API";
+    private static final String QUERY_MAX_IN_FLIGHT_PROPERTY = "org.eclipse.edc.heleade.federated.catalog.extension.query.max.in.flight";
+    private static final String QUERY_MAX_QUEUED_PROPERTY = "org.eclipse.edc.heleade.federated.catalog.extension.query.max.queued";
+    private static final String QUERY_TIMEOUT_PROPERTY = "org.eclipse.edc.heleade.federated.catalog.extension.query.timeout.seconds";
+
+    /**
+     * The namespaces of the catalog query API scope, also written as the precomputed context of the fast read path.
+     */
+    static final Map<String, String> CATALOG_QUERY_NAMESPACES = createCatalogQueryNamespaces();
 
 
     @Inject
@@ -101,26 +112,39 @@ public class FederatedCatalogContentBasedApiExtension implements ServiceExtensio
     private ApiVersionService apiVersionService;
     @Inject
     private PortMappingRegistry portMappingRegistry;
+    @Inject
+    private FederatedCatalogMetrics metrics;
+
+    private QueryExecutor queryExecutor;
 
     @Override
     public String name() {
         return NAME;
     }
 
+    /**
+     * Registers the catalog query API, whose queries run on an executor bounded by the
+     * {@value #QUERY_MAX_IN_FLIGHT_PROPERTY}, {@value #QUERY_MAX_QUEUED_PROPERTY} and
+     * {@value #QUERY_TIMEOUT_PROPERTY} settings.
+     *
+     * @param context the service extension context
+     */
     @Override
     public void initialize(ServiceExtensionContext context) {
 
-        jsonLd.registerNamespace(VOCAB, EDC_NAMESPACE, CATALOG_QUERY_SCOPE);
-        jsonLd.registerNamespace(EDC_PREFIX, EDC_NAMESPACE, CATALOG_QUERY_SCOPE);
-        jsonLd.registerNamespace(ODRL_PREFIX, ODRL_SCHEMA, CATALOG_QUERY_SCOPE);
-        jsonLd.registerNamespace(DCAT_PREFIX, DCAT_SCHEMA, CATALOG_QUERY_SCOPE);
-        jsonLd.registerNamespace(DCT_PREFIX, DCT_SCHEMA, CATALOG_QUERY_SCOPE);
-        jsonLd.registerNamespace(DSPACE_PREFIX, DSPACE_SCHEMA, CATALOG_QUERY_SCOPE);
-        jsonLd.registerNamespace(CBM_PREFIX, CBM_SCHEMA, CATALOG_QUERY_SCOPE);
-        jsonLd.registerNamespace(RDF_PREFIX, RDF_NAMESPACE, CATALOG_QUERY_SCOPE);
-        jsonLd.registerNamespace(SCHEMA_PREFIX, SCHEMA_ORG_NAMESPACE, CATALOG_QUERY_SCOPE);
-
-        var catalogController = new FederatedCatalogContentBasedApiController(queryService, transformerRegistry);
+        var contextBuilder = Json.createObjectBuilder();
+        CATALOG_QUERY_NAMESPACES.forEach((prefix, namespace) -> {
+            jsonLd.registerNamespace(prefix, namespace, CATALOG_QUERY_SCOPE);
+            contextBuilder.add(prefix, namespace);
+        });
+
+        queryExecutor = new QueryExecutor(
+                context.getConfig().getInteger(QUERY_MAX_IN_FLIGHT_PROPERTY, QueryExecutor.DEFAULT_MAX_IN_FLIGHT),
+                context.getConfig().getInteger(QUERY_MAX_QUEUED_PROPERTY, QueryExecutor.DEFAULT_MAX_QUEUED),
+                context.getConfig().getLong(QUERY_TIMEOUT_PROPERTY, QueryExecutor.DEFAULT_TIMEOUT_SECONDS),
+                metrics);
+        var catalogController = new FederatedCatalogContentBasedApiController(queryService, transformerRegistry, metrics, jsonLd, contextBuilder.build(),
+                queryExecutor);
         webService.registerResource(CATALOG_QUERY, catalogController);
 
         var jsonFactory = Json.createBuilderFactory(Map.of());
@@ -135,4 +159,25 @@ public class FederatedCatalogContentBasedApiExtension implements ServiceExtensio
         transformerRegistry.register(new JsonObjectToCriterionTransformer());
 
     }
+
+    @Override
+    public void shutdown() {
+        if (queryExecutor != null) {
+            queryExecutor.shutdown();
+        }
+    }
+
+    private static Map<String, String> createCatalogQueryNamespaces() {
+        var namespaces = new LinkedHashMap<String, String>();
+        namespaces.put(VOCAB, EDC_NAMESPACE);
+        namespaces.put(EDC_PREFIX, EDC_NAMESPACE);
+        namespaces.put(ODRL_PREFIX, ODRL_SCHEMA);
+        namespaces.put(DCAT_PREFIX, DCAT_SCHEMA);
+        namespaces.put(DCT_PREFIX, DCT_SCHEMA);
+        namespaces.put(DSPACE_PREFIX, DSPACE_SCHEMA);
+        namespaces.put(CBM_PREFIX, CBM_SCHEMA);
+        namespaces.put(RDF_PREFIX, RDF_NAMESPACE);
+        namespaces.put(SCHEMA_PREFIX, SCHEMA_ORG_NAMESPACE);
+        return Collections.unmodifiableMap(namespaces);
+    }
 }
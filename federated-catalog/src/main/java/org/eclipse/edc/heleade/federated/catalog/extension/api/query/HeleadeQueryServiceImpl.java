@@ -14,33 +14,74 @@
 
 package org.eclipse.edc.heleade.federated.catalog.extension.api.query;
 
+import jakarta.json.JsonObject;
 import org.eclipse.edc.catalog.cache.query.QueryServiceImpl;
 import org.eclipse.edc.catalog.spi.FederatedCatalogCache;
 import org.eclipse.edc.catalog.spi.QueryService;
+import org.eclipse.edc.connector.controlplane.catalog.spi.Catalog;
 import org.eclipse.edc.connector.controlplane.catalog.spi.Dataset;
-import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCache;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.CachePage;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.HeleadeFederatedCatalogCache;
 import org.eclipse.edc.spi.query.QuerySpec;
 import org.eclipse.edc.spi.result.Result;
 import org.eclipse.edc.spi.result.ServiceResult;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Implementation of QueryService that retrieves dataset information using a FederatedCatalogCache.
  * This class is designed to provide query functionalities specifically for Heleade.
+ * <p>
+ * The results of {@link #getCatalog(QuerySpec)}, {@link #getDatasets(QuerySpec)}, of the keyset pages,
+ * {@link #countDatasets(QuerySpec, boolean)} and {@link #countKeywords(QuerySpec, boolean)} are kept in a
+ * {@link QueryResultCache} until a crawl changes the data version of the federated catalog cache. The pages are
+ * keyed on their continuation token, count and projection as well as on the query. Streamed results are not kept.
+ * <p>
+ * The optional operations of the cache, such as the keyset pages, are only called when the cache announces them,
+ * see {@link #supportsKeysetPagination()}, {@link #supportsFacets()}, {@link #supportsDataDictionaries()} and
+ * {@link #supportsIndexUsage()}.
  */
 public class HeleadeQueryServiceImpl extends QueryServiceImpl implements QueryService {
 
     private final FederatedCatalogCache cache;
+    private final QueryResultCache resultCache;
 
     /**
-     * Constructs a new instance of HeleadeQueryServiceImpl.
+     * Constructs a new instance of HeleadeQueryServiceImpl without a query result cache.
      *
      * @param cache the FederatedCatalogCache used for querying datasets
      */
     public HeleadeQueryServiceImpl(FederatedCatalogCache cache) {
+        this(cache, QueryResultCache.disabled());
+    }
+
+    /**
+     * Constructs a new instance of HeleadeQueryServiceImpl.
+     *
+     * @param cache the FederatedCatalogCache used for querying datasets
+     * @param resultCache the cache of query results, used only if the cache is a HeleadeFederatedCatalogCache
+     */
+    public HeleadeQueryServiceImpl(FederatedCatalogCache cache, QueryResultCache resultCache) {
         super(cache);
         this.cache = cache;
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * Retrieves catalogs based on the provided query specification.
+     *
+     * @param query the query specification containing filtering and pagination details
+     * @return a ServiceResult containing a collection of catalogs or an error result if the operation fails
+     */
+    @Override
+    public ServiceResult<Collection<Catalog>> getCatalog(QuerySpec query) {
+        if (this.cache instanceof HeleadeFederatedCatalogCache heleadeCache) {
+            return ServiceResult.from(Result.ofThrowable(() -> resultCache.get(QueryResultCache.key("catalogs", query, false),
+                    heleadeCache.dataVersion(), () -> List.copyOf(heleadeCache.query(query)))));
+        }
+        return super.getCatalog(query);
     }
 
     /**
@@ -50,28 +91,181 @@ public class HeleadeQueryServiceImpl extends QueryServiceImpl implements QuerySe
      * @return a ServiceResult containing a collection of datasets or an error result if the operation fails
      */
     public ServiceResult<Collection<Dataset>> getDatasets(QuerySpec query) {
-        if (this.cache instanceof MongodbFederatedCatalogCache) {
-            MongodbFederatedCatalogCache mongoCache = (MongodbFederatedCatalogCache) this.cache;
-            return ServiceResult.from(Result.ofThrowable(() -> mongoCache.queryDatasets(query)));
+        if (this.cache instanceof HeleadeFederatedCatalogCache) {
+            HeleadeFederatedCatalogCache heleadeCache = (HeleadeFederatedCatalogCache) this.cache;
+            return ServiceResult.from(Result.ofThrowable(() -> resultCache.get(QueryResultCache.key("datasets", query, false),
+                    heleadeCache.dataVersion(), () -> List.copyOf(heleadeCache.queryDatasets(query)))));
         } else {
-            throw new IllegalStateException("Dataset query unavailable: Cache is not of type MongodbFederatedCatalogCache");
+            throw new IllegalStateException("Dataset query unavailable: Cache is not of type HeleadeFederatedCatalogCache");
         }
     }
 
+    /**
+     * Checks whether the cache can be read with keyset pagination, streamed, projected, and read in compacted
+     * JSON-LD form.
+     *
+     * @return true if the cache is a HeleadeFederatedCatalogCache that supports keyset pagination
+     */
+    public boolean supportsKeysetPagination() {
+        return this.cache instanceof HeleadeFederatedCatalogCache heleadeCache && heleadeCache.supportsKeysetPagination();
+    }
+
+    /**
+     * Checks whether the cache counts the datasets per value of each facet.
+     *
+     * @return true if the cache is a HeleadeFederatedCatalogCache that counts facets
+     */
+    public boolean supportsFacets() {
+        return this.cache instanceof HeleadeFederatedCatalogCache heleadeCache && heleadeCache.supportsFacets();
+    }
+
+    /**
+     * Checks whether the cache returns the data dictionaries of the distributions as references.
+     *
+     * @return true if the cache is a HeleadeFederatedCatalogCache that stores the data dictionaries apart
+     */
+    public boolean supportsDataDictionaries() {
+        return this.cache instanceof HeleadeFederatedCatalogCache heleadeCache && heleadeCache.supportsDataDictionaries();
+    }
+
+    /**
+     * Checks whether the cache reports the usage of its indexes.
+     *
+     * @return true if the cache is a HeleadeFederatedCatalogCache that reports its index usage
+     */
+    public boolean supportsIndexUsage() {
+        return this.cache instanceof HeleadeFederatedCatalogCache heleadeCache && heleadeCache.supportsIndexUsage();
+    }
+
+    /**
+     * Checks a continuation token against a query.
+     *
+     * @param query the query specification the token is used with
+     * @param continuationToken the token returned with a previous page
+     * @throws IllegalArgumentException if the token is malformed or does not match the query sort
+     * @throws IllegalStateException if the cache does not support keyset pagination
+     */
+    public void validateContinuationToken(QuerySpec query, String continuationToken) {
+        keysetCache("Continuation token").validateContinuationToken(query, continuationToken);
+    }
+
+    /**
+     * Retrieves a page of catalogs using keyset pagination.
+     *
+     * @param query the query specification containing filtering, sorting, and page size
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param withTotal whether to also count the catalogs matching the query across all pages
+     * @param fields the field paths to return, or an empty list for all the fields
+     * @return a ServiceResult containing the page of catalogs or an error result if the operation fails
+     */
+    public ServiceResult<CachePage<Catalog>> getCatalogsPage(QuerySpec query, String continuationToken, boolean withTotal, List<String> fields) {
+        var heleadeCache = keysetCache("Catalog query");
+        return ServiceResult.from(Result.ofThrowable(() -> resultCache.get(
+                QueryResultCache.key("catalogsPage", query, false, continuationToken, withTotal, fields), heleadeCache.dataVersion(),
+                () -> heleadeCache.queryCatalogsPage(query, continuationToken, withTotal, fields))));
+    }
+
+    /**
+     * Retrieves a page of datasets using keyset pagination.
+     *
+     * @param query the query specification containing filtering, sorting, and page size
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param withTotal whether to also count the datasets matching the query across all pages
+     * @param fields the field paths to return, or an empty list for all the fields
+     * @param withDataDictionaries whether to replace the data dictionary references with the dictionaries
+     * @return a ServiceResult containing the page of datasets or an error result if the operation fails
+     */
+    public ServiceResult<CachePage<Dataset>> getDatasetsPage(QuerySpec query, String continuationToken, boolean withTotal, List<String> fields,
+                                                             boolean withDataDictionaries) {
+        var heleadeCache = keysetCache("Dataset query");
+        return ServiceResult.from(Result.ofThrowable(() -> resultCache.get(
+                QueryResultCache.key("datasetsPage", query, false, continuationToken, withTotal, fields, withDataDictionaries),
+                heleadeCache.dataVersion(), () -> heleadeCache.queryDatasetsPage(query, continuationToken, withTotal, fields, withDataDictionaries))));
+    }
+
+    /**
+     * Retrieves a page of datasets in compacted JSON-LD form straight from the stored documents. The cached pages
+     * are not keyed on the context, which is the same for every call of the query API.
+     *
+     * @param query the query specification containing filtering, sorting, and page size
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param withTotal whether to also count the datasets matching the query across all pages
+     * @param fields the field paths to return, or an empty list for all the fields
+     * @param withDataDictionaries whether to replace the data dictionary references with the dictionaries
+     * @param context the JSON-LD context written in every dataset
+     * @return a ServiceResult containing the page of compacted datasets or an error result if the operation fails
+     */
+    public ServiceResult<CachePage<String>> getDatasetsPageCompacted(QuerySpec query, String continuationToken, boolean withTotal, List<String> fields,
+                                                                     boolean withDataDictionaries, JsonObject context) {
+        var heleadeCache = keysetCache("Dataset query");
+        return ServiceResult.from(Result.ofThrowable(() -> resultCache.get(
+                QueryResultCache.key("datasetsPageCompacted", query, false, continuationToken, withTotal, fields, withDataDictionaries),
+                heleadeCache.dataVersion(),
+                () -> heleadeCache.queryDatasetsPageCompacted(query, continuationToken, withTotal, fields, withDataDictionaries, context))));
+    }
+
+    /**
+     * Streams the datasets matching the query in compacted JSON-LD form straight from the stored documents.
+     *
+     * @param query the query specification containing filtering, sorting, and paging criteria
+     * @param continuationToken the token returned with a previous page, or null to start from the first dataset
+     * @param fields the field paths to return, or an empty list for all the fields
+     * @param withDataDictionaries whether to replace the data dictionary references with the dictionaries
+     * @param context the JSON-LD context written in every dataset
+     * @param consumer the consumer receiving each compacted JSON-LD dataset
+     * @return the number of datasets streamed
+     * @throws IllegalStateException if the cache does not support keyset pagination
+     */
+    public long streamDatasetsCompacted(QuerySpec query, String continuationToken, List<String> fields, boolean withDataDictionaries,
+                                        JsonObject context, Consumer<String> consumer) {
+        return keysetCache("Dataset query").streamDatasetsCompacted(query, continuationToken, fields, withDataDictionaries, context, consumer);
+    }
+
+    /**
+     * Streams the catalogs matching the query to the given consumer, one at a time.
+     *
+     * @param query the query specification containing filtering, sorting, and paging criteria
+     * @param continuationToken the token returned with a previous page, or null to start from the first catalog
+     * @param fields the field paths to return, or an empty list for all the fields
+     * @param consumer the consumer receiving each catalog
+     * @return the number of catalogs streamed
+     * @throws IllegalStateException if the cache does not support keyset pagination
+     */
+    public long streamCatalogs(QuerySpec query, String continuationToken, List<String> fields, Consumer<Catalog> consumer) {
+        return keysetCache("Catalog query").streamCatalogs(query, continuationToken, fields, consumer);
+    }
+
+    /**
+     * Streams the datasets matching the query to the given consumer, one at a time.
+     *
+     * @param query the query specification containing filtering, sorting, and paging criteria
+     * @param continuationToken the token returned with a previous page, or null to start from the first dataset
+     * @param fields the field paths to return, or an empty list for all the fields
+     * @param withDataDictionaries whether to replace the data dictionary references with the dictionaries
+     * @param consumer the consumer receiving each dataset
+     * @return the number of datasets streamed
+     * @throws IllegalStateException if the cache does not support keyset pagination
+     */
+    public long streamDatasets(QuerySpec query, String continuationToken, List<String> fields, boolean withDataDictionaries,
+                               Consumer<Dataset> consumer) {
+        return keysetCache("Dataset query").streamDatasets(query, continuationToken, fields, withDataDictionaries, consumer);
+    }
+
     /**
      * Counts the datasets matching the specified query.
      *
      * @param query the query specification used to filter datasets
      * @param noLimit a flag indicating whether to bypass any limit on the dataset count
-     * @return a string representing the count of datasets matching the query
-     * @throws IllegalStateException if the cache is not an instance of MongodbFederatedCatalogCache
+     * @return the number of datasets matching the query
+     * @throws IllegalStateException if the cache is not an instance of HeleadeFederatedCatalogCache
      */
-    public String countDatasets(QuerySpec query, boolean noLimit) {
-        if (this.cache instanceof MongodbFederatedCatalogCache) {
-            MongodbFederatedCatalogCache mongoCache = (MongodbFederatedCatalogCache) this.cache;
-            return mongoCache.countDatasets(query, noLimit);
+    public long countDatasets(QuerySpec query, boolean noLimit) {
+        if (this.cache instanceof HeleadeFederatedCatalogCache) {
+            HeleadeFederatedCatalogCache heleadeCache = (HeleadeFederatedCatalogCache) this.cache;
+            return resultCache.get(QueryResultCache.key("countDatasets", query, noLimit), heleadeCache.dataVersion(),
+                    () -> heleadeCache.countDatasets(query, noLimit));
         } else {
-            throw new IllegalStateException("Dataset count unavailable: Cache is not of type MongodbFederatedCatalogCache");
+            throw new IllegalStateException("Dataset count unavailable: Cache is not of type HeleadeFederatedCatalogCache");
         }
     }
 
@@ -81,14 +275,69 @@ public class HeleadeQueryServiceImpl extends QueryServiceImpl implements QuerySe
      * @param query the query specification used to filter datasets
      * @param noLimit a flag indicating whether to bypass any limit on the dataset count
      * @return a string representing the count of datasets per keyword matching the query
-     * @throws IllegalStateException if the cache is not an instance of MongodbFederatedCatalogCache
+     * @throws IllegalStateException if the cache is not an instance of HeleadeFederatedCatalogCache
      */
     public String countKeywords(QuerySpec query, boolean noLimit) {
-        if (this.cache instanceof MongodbFederatedCatalogCache) {
-            MongodbFederatedCatalogCache mongoCache = (MongodbFederatedCatalogCache) this.cache;
-            return mongoCache.countKeywords(query, noLimit);
+        if (this.cache instanceof HeleadeFederatedCatalogCache) {
+            HeleadeFederatedCatalogCache heleadeCache = (HeleadeFederatedCatalogCache) this.cache;
+            return resultCache.get(QueryResultCache.key("countKeywords", query, noLimit), heleadeCache.dataVersion(),
+                    () -> heleadeCache.countKeywords(query, noLimit));
         } else {
-            throw new IllegalStateException("Dataset count unavailable: Cache is not of type MongodbFederatedCatalogCache");
+            throw new IllegalStateException("Dataset count unavailable: Cache is not of type HeleadeFederatedCatalogCache");
+        }
+    }
+
+    /**
+     * Counts the datasets per value of each facet field and per issued year that match the query.
+     *
+     * @param query   the query specification containing filtering, sorting, and pagination criteria
+     * @param noLimit a flag indicating whether the limit stage should be omitted from the query
+     * @return a JSON string mapping each facet to the count of datasets per value
+     * @throws IllegalStateException if the cache does not count facets
+     */
+    public String countFacets(QuerySpec query, boolean noLimit) {
+        if (supportsFacets()) {
+            return ((HeleadeFederatedCatalogCache) this.cache).countFacets(query, noLimit);
+        } else {
+            throw new IllegalStateException("Dataset facets unavailable: Cache does not count facets");
+        }
+    }
+
+    /**
+     * Finds a data dictionary referenced by the distributions of the cached datasets.
+     *
+     * @param reference the {@code @id} of the reference, or the content hash of the dictionary
+     * @param context the JSON-LD context written in the dictionary
+     * @return a ServiceResult containing the compacted JSON-LD data dictionary, or null if there is none
+     * @throws IllegalStateException if the cache keeps the data dictionaries inline
+     */
+    public ServiceResult<String> getDataDictionary(String reference, JsonObject context) {
+        if (supportsDataDictionaries()) {
+            HeleadeFederatedCatalogCache heleadeCache = (HeleadeFederatedCatalogCache) this.cache;
+            return ServiceResult.from(Result.ofThrowable(() -> heleadeCache.findDataDictionary(reference, context)));
+        } else {
+            throw new IllegalStateException("Data dictionary query unavailable: Cache keeps the data dictionaries inline");
+        }
+    }
+
+    /**
+     * Reports how many operations used each index of the federated catalog collections.
+     *
+     * @return a JsonObject mapping each collection to the number of operations per index
+     * @throws IllegalStateException if the cache does not report its index usage
+     */
+    public JsonObject getIndexUsage() {
+        if (supportsIndexUsage()) {
+            return ((HeleadeFederatedCatalogCache) this.cache).indexUsage();
+        } else {
+            throw new IllegalStateException("Index usage unavailable: Cache does not report its index usage");
+        }
+    }
+
+    private HeleadeFederatedCatalogCache keysetCache(String operation) {
+        if (supportsKeysetPagination()) {
+            return (HeleadeFederatedCatalogCache) this.cache;
         }
+        throw new IllegalStateException(operation + " unavailable: Cache does not support keyset pagination");
     }
 }
@@ -0,0 +1,161 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.api.query;
+
+import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.CompletionCallback;
+import org.eclipse.edc.heleade.federated.catalog.extension.metrics.FederatedCatalogMetrics;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the queries of suspended JAX-RS requests on a dedicated pool, so that the web server threads are
+ * released while MongoDB aggregates. At most {@code maxInFlight} queries run at once and at most
+ * {@code maxQueued} more wait for their turn; further requests are answered at once with a
+ * {@code 503 Service Unavailable} and a {@code Retry-After} header, instead of waiting for a web server thread.
+ * <p>
+ * A query keeps its in-flight slot until its response has been written, so a streamed response, whose cursor is
+ * iterated by the web server while it writes the body, counts against the limit for as long as it streams.
+ * Requests that are not answered within the timeout, such as those waiting in the queue behind long streams, are
+ * answered with a {@code 503 Service Unavailable} as well.
+ * <p>
+ * Completed, rejected and timed out queries are counted in the {@value #QUERY_EXECUTOR_METRIC}{@code .completed},
+ * {@value #QUERY_EXECUTOR_METRIC}{@code .rejected} and {@value #QUERY_EXECUTOR_METRIC}{@code .timedOut} metrics.
+ */
+public class QueryExecutor {
+
+    /**
+     * Prefix of the metrics counting the queries completed and rejected by the executor.
+     */
+    public static final String QUERY_EXECUTOR_METRIC = "query.executor";
+
+    /**
+     * Default maximum number of queries running at once.
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 16;
+
+    /**
+     * Default maximum number of queries waiting for a running query to complete.
+     */
+    public static final int DEFAULT_MAX_QUEUED = 64;
+
+    /**
+     * Default maximum time a request waits for its query to be answered, in seconds.
+     */
+    public static final long DEFAULT_TIMEOUT_SECONDS = 60;
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final ThreadPoolExecutor executor;
+    private final Semaphore inFlight;
+    private final long timeoutSeconds;
+    private final FederatedCatalogMetrics metrics;
+
+    /**
+     * Constructs a query executor with the default timeout.
+     *
+     * @param maxInFlight the maximum number of queries running at once
+     * @param maxQueued the maximum number of queries waiting to run
+     * @param metrics the metrics where completed and rejected queries are counted
+     */
+    public QueryExecutor(int maxInFlight, int maxQueued, FederatedCatalogMetrics metrics) {
+        this(maxInFlight, maxQueued, DEFAULT_TIMEOUT_SECONDS, metrics);
+    }
+
+    /**
+     * Constructs a query executor.
+     *
+     * @param maxInFlight the maximum number of queries running or writing their response at once
+     * @param maxQueued the maximum number of queries waiting to run
+     * @param timeoutSeconds the maximum time a request waits for its query to be answered
+     * @param metrics the metrics where completed, rejected and timed out queries are counted
+     */
+    public QueryExecutor(int maxInFlight, int maxQueued, long timeoutSeconds, FederatedCatalogMetrics metrics) {
+        if (maxInFlight <= 0 || maxQueued <= 0 || timeoutSeconds <= 0) {
+            throw new IllegalArgumentException("The in-flight and queued query limits and the query timeout must be positive");
+        }
+        var threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(maxInFlight, maxInFlight, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(maxQueued), runnable -> {
+            var thread = new Thread(runnable, "federated-catalog-query-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+        this.inFlight = new Semaphore(maxInFlight);
+        this.timeoutSeconds = timeoutSeconds;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Runs a query and resumes the suspended response with its result, or with the exception it threw so that
+     * it is mapped to an error response like on a synchronous request. The in-flight slot of the query is released
+     * once the response has been written, which for a {@link jakarta.ws.rs.core.StreamingOutput} is after the
+     * whole stream.
+     *
+     * @param response the suspended response of the request
+     * @param query the query, returning the response entity or a {@link jakarta.ws.rs.core.Response}
+     */
+    public void submit(AsyncResponse response, Supplier<?> query) {
+        response.setTimeoutHandler(timedOut -> {
+            metrics.increment(QUERY_EXECUTOR_METRIC + ".timedOut");
+            timedOut.resume(new ServiceUnavailableException("Query timed out, retry later", RETRY_AFTER_SECONDS));
+        });
+        response.setTimeout(timeoutSeconds, TimeUnit.SECONDS);
+        try {
+            executor.execute(() -> {
+                inFlight.acquireUninterruptibly();
+                var released = new AtomicBoolean();
+                Runnable release = () -> {
+                    if (released.compareAndSet(false, true)) {
+                        inFlight.release();
+                    }
+                };
+                var resumed = false;
+                try {
+                    if (!response.isDone()) {
+                        response.register((CompletionCallback) throwable -> release.run());
+                        resumed = response.resume(query.get());
+                    }
+                } catch (Throwable e) {
+                    resumed = response.resume(e);
+                } finally {
+                    // a response that was not resumed here, because it had timed out, is never completed again
+                    if (!resumed) {
+                        release.run();
+                    }
+                    metrics.increment(QUERY_EXECUTOR_METRIC + ".completed");
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            metrics.increment(QUERY_EXECUTOR_METRIC + ".rejected");
+            response.resume(new ServiceUnavailableException("Too many concurrent queries, retry later", RETRY_AFTER_SECONDS));
+        }
+    }
+
+    /**
+     * Stops accepting queries and lets the queued ones complete.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
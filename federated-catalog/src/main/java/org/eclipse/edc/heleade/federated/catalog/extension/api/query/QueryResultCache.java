@@ -0,0 +1,298 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.api.query;
+
+import org.eclipse.edc.connector.controlplane.catalog.spi.Catalog;
+import org.eclipse.edc.connector.controlplane.catalog.spi.Dataset;
+import org.eclipse.edc.heleade.federated.catalog.extension.metrics.FederatedCatalogMetrics;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.CachePage;
+import org.eclipse.edc.spi.query.Criterion;
+import org.eclipse.edc.spi.query.QuerySpec;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded least recently used cache of query results, bounded both by the number of entries and by their
+ * estimated size in bytes. Every result is stored with the data version of the federated catalog cache it was
+ * computed from, and all the entries are dropped as soon as a lookup sees a newer version, so that a crawl that
+ * changes the cache invalidates every result at once while crawls that change nothing keep them.
+ * <p>
+ * Hits and misses are counted in the {@value #QUERY_CACHE_METRIC}{@code .hits} and
+ * {@value #QUERY_CACHE_METRIC}{@code .misses} metrics. A cache with no entries allowed is disabled and always
+ * computes the result.
+ */
+public class QueryResultCache {
+
+    /**
+     * Prefix of the metrics counting query results served from the cache (hits) or computed (misses), and the
+     * entries evicted to stay within the bounds or dropped because the cached data changed.
+     */
+    public static final String QUERY_CACHE_METRIC = "query.cache";
+
+    /**
+     * Default maximum number of cached query results.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    /**
+     * Default maximum estimated size of the cached query results, 64 MiB.
+     */
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    // rough per object overheads of the JVM, only used to weigh the results against each other
+    private static final long OBJECT_OVERHEAD = 16;
+    private static final long ENTRY_OVERHEAD = 32;
+    private static final long POLICY_SIZE = 512;
+    private static final long DISTRIBUTION_SIZE = 256;
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final FederatedCatalogMetrics metrics;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long version = Long.MIN_VALUE;
+    private long bytes;
+
+    /**
+     * Constructs a query result cache.
+     *
+     * @param maxEntries the maximum number of cached results, zero or less to disable the cache
+     * @param maxBytes the maximum estimated size in bytes of all the cached results
+     * @param metrics the metrics where hits, misses, evictions and invalidations are counted
+     */
+    public QueryResultCache(int maxEntries, long maxBytes, FederatedCatalogMetrics metrics) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Creates a cache that stores nothing.
+     *
+     * @return a disabled query result cache
+     */
+    public static QueryResultCache disabled() {
+        return new QueryResultCache(0, 0, null);
+    }
+
+    /**
+     * Returns the cached result of a query, computing and caching it if there is none for the given data version.
+     * Failures of the loader are thrown to the caller and never cached.
+     *
+     * @param key the normalized key of the query, see {@link #key(String, QuerySpec, boolean)}
+     * @param dataVersion the data version of the federated catalog cache read before computing the result
+     * @param loader computes the result from the federated catalog cache
+     * @param <T> the type of the result
+     * @return the cached or computed result
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, long dataVersion, Supplier<T> loader) {
+        if (maxEntries <= 0) {
+            return loader.get();
+        }
+        synchronized (entries) {
+            invalidateOlderThan(dataVersion);
+            var entry = entries.get(key);
+            if (entry != null && entry.version() == dataVersion) {
+                metrics.increment(QUERY_CACHE_METRIC + ".hits");
+                return (T) entry.value();
+            }
+        }
+        metrics.increment(QUERY_CACHE_METRIC + ".misses");
+        var value = loader.get();
+        var size = ENTRY_OVERHEAD + estimateSize(key) + estimateSize(value);
+        if (size > maxBytes) {
+            return value;
+        }
+        synchronized (entries) {
+            // a result computed before the data changed is returned but not kept
+            invalidateOlderThan(dataVersion);
+            if (dataVersion == version) {
+                var previous = entries.put(key, new Entry(value, dataVersion, size));
+                bytes += size - (previous == null ? 0 : previous.size());
+                evict();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Returns the number of cached results.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Builds the cache key of a query. Criteria are combined with AND, so they are sorted and deduplicated, and
+     * operands are written with their type, so that the string {@code "1"} and the number {@code 1} do not share
+     * an entry. Every part is prefixed with its length, so that no operand can make two keys collide.
+     *
+     * @param operation the name of the query service operation
+     * @param query the query specification
+     * @param noLimit whether the offset and limit of the query are ignored by the operation
+     * @return the normalized key
+     */
+    public static String key(String operation, QuerySpec query, boolean noLimit) {
+        var key = new StringBuilder();
+        part(key, operation);
+        part(key, String.valueOf(noLimit));
+        if (!noLimit) {
+            part(key, String.valueOf(query.getOffset()));
+            part(key, String.valueOf(query.getLimit()));
+        }
+        part(key, query.getSortField() == null ? "" : query.getSortField() + " " + query.getSortOrder());
+        query.getFilterExpression().stream()
+                .map(QueryResultCache::criterionKey)
+                .distinct()
+                .sorted()
+                .forEach(criterion -> part(key, criterion));
+        return key.toString();
+    }
+
+    /**
+     * Builds the cache key of a query read with options of its own, such as the continuation token of a page or
+     * the fields of a projection. The options are written in order after the key of the query, with their type.
+     *
+     * @param operation the name of the query service operation
+     * @param query the query specification
+     * @param noLimit whether the offset and limit of the query are ignored by the operation
+     * @param options the options of the operation, null for an option that is not given
+     * @return the normalized key
+     */
+    public static String key(String operation, QuerySpec query, boolean noLimit, Object... options) {
+        var key = new StringBuilder(key(operation, query, noLimit));
+        Arrays.stream(options).forEach(option -> part(key, operandKey(option)));
+        return key.toString();
+    }
+
+    /**
+     * Estimates the size in bytes of a query result: strings, collections and maps, pages, and the catalogs and
+     * datasets with their properties. Policies and distributions are weighed with a fixed size.
+     *
+     * @param value the query result
+     * @return the estimated size in bytes
+     */
+    public static long estimateSize(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof CharSequence text) {
+            return OBJECT_OVERHEAD + 24 + 2L * text.length();
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return OBJECT_OVERHEAD;
+        }
+        if (value instanceof Catalog catalog) {
+            return estimateDataset(catalog) + estimateSize(catalog.getDatasets())
+                    + ENTRY_OVERHEAD * (catalog.getDataServices() == null ? 0 : catalog.getDataServices().size());
+        }
+        if (value instanceof Dataset dataset) {
+            return estimateDataset(dataset);
+        }
+        if (value instanceof CachePage<?> page) {
+            return OBJECT_OVERHEAD + estimateSize(page.items()) + estimateSize(page.continuationToken()) + estimateSize(page.total());
+        }
+        if (value instanceof Map<?, ?> map) {
+            long size = OBJECT_OVERHEAD + 32;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += ENTRY_OVERHEAD + estimateSize(entry.getKey()) + estimateSize(entry.getValue());
+            }
+            return size;
+        }
+        if (value instanceof Collection<?> collection) {
+            long size = OBJECT_OVERHEAD + 24;
+            for (Object element : collection) {
+                size += 8 + estimateSize(element);
+            }
+            return size;
+        }
+        return OBJECT_OVERHEAD + 2L * String.valueOf(value).length();
+    }
+
+    private static long estimateDataset(Dataset dataset) {
+        return OBJECT_OVERHEAD + estimateSize(dataset.getId()) + estimateSize(dataset.getProperties())
+                + POLICY_SIZE * (dataset.getOffers() == null ? 0 : dataset.getOffers().size())
+                + DISTRIBUTION_SIZE * (dataset.getDistributions() == null ? 0 : dataset.getDistributions().size());
+    }
+
+    private static String criterionKey(Criterion criterion) {
+        var key = new StringBuilder();
+        part(key, operandKey(criterion.getOperandLeft()));
+        part(key, String.valueOf(criterion.getOperator()));
+        part(key, operandKey(criterion.getOperandRight()));
+        return key.toString();
+    }
+
+    private static String operandKey(Object operand) {
+        if (operand == null) {
+            return "null";
+        }
+        if (operand instanceof String text) {
+            return "s" + text.length() + ":" + text;
+        }
+        if (operand instanceof Collection<?> collection) {
+            return collection.stream().map(QueryResultCache::operandKey).collect(Collectors.joining(",", "[", "]"));
+        }
+        if (operand instanceof Object[] array) {
+            return operandKey(Arrays.asList(array));
+        }
+        if (operand instanceof Map<?, ?> map) {
+            var sorted = new TreeMap<String, String>();
+            map.forEach((name, value) -> sorted.put(String.valueOf(name), operandKey(value)));
+            return sorted.entrySet().stream()
+                    .map(entry -> operandKey(entry.getKey()) + "=" + entry.getValue())
+                    .collect(Collectors.joining(",", "{", "}"));
+        }
+        var text = String.valueOf(operand);
+        return operand.getClass().getSimpleName() + text.length() + ":" + text;
+    }
+
+    private static void part(StringBuilder key, String part) {
+        key.append(part.length()).append(':').append(part).append(';');
+    }
+
+    private void invalidateOlderThan(long dataVersion) {
+        if (dataVersion > version) {
+            if (!entries.isEmpty()) {
+                metrics.increment(QUERY_CACHE_METRIC + ".invalidations", entries.size());
+                entries.clear();
+            }
+            bytes = 0;
+            version = dataVersion;
+        }
+    }
+
+    private void evict() {
+        var iterator = entries.values().iterator();
+        while ((entries.size() > maxEntries || bytes > maxBytes) && iterator.hasNext()) {
+            bytes -= iterator.next().size();
+            iterator.remove();
+            metrics.increment(QUERY_CACHE_METRIC + ".evictions");
+        }
+    }
+
+    private record Entry(Object value, long version, long size) {
+    }
+}
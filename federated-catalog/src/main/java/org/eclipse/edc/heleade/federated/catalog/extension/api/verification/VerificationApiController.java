@@ -27,7 +27,7 @@ import jakarta.ws.rs.core.MediaType;
 import org.eclipse.edc.crawler.spi.TargetNodeDirectory;
 import org.eclipse.edc.heleade.commons.verification.claims.checker.VerificationResult;
 import org.eclipse.edc.heleade.federated.catalog.extension.api.node.directory.ParticipantNode;
-import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.node.directory.MongodbFederatedCatalogNodeDirectory;
+import org.eclipse.edc.heleade.federated.catalog.extension.api.node.directory.ParticipantNodeDirectory;
 import org.eclipse.edc.jsonld.spi.JsonLd;
 import org.eclipse.edc.spi.monitor.Monitor;
 import org.eclipse.edc.spi.types.TypeManager;
@@ -56,7 +56,7 @@ public class VerificationApiController {
     private final JsonLd jsonLd;
     private final Monitor monitor;
     private final TypeManager typeManager;
-    private final MongodbFederatedCatalogNodeDirectory targetNodeDirectory;
+    private final ParticipantNodeDirectory targetNodeDirectory;
 
     /**
      * Constructor for the VerificationApiController.
@@ -71,7 +71,7 @@ public class VerificationApiController {
         this.monitor = monitor;
         this.jsonLd = jsonLd;
         this.typeManager = typeManager;
-        this.targetNodeDirectory = (MongodbFederatedCatalogNodeDirectory) targetNodeDirectory;
+        this.targetNodeDirectory = (ParticipantNodeDirectory) targetNodeDirectory;
     }
 
     /**
@@ -0,0 +1,252 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.crawl;
+
+import org.eclipse.edc.heleade.federated.catalog.extension.api.node.directory.ParticipantNode;
+import org.eclipse.edc.heleade.federated.catalog.extension.metrics.FederatedCatalogMetrics;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.CatalogSaveListener;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.eclipse.edc.spi.constants.CoreConstants.EDC_NAMESPACE;
+
+/**
+ * Decides which nodes are crawled in each run of the periodic crawl, adapting the crawl interval of every node
+ * to how often its catalog changes, to how long it takes to answer and to its failures:
+ * <ul>
+ *     <li>a node whose catalog changed is crawled again after its minimum interval, by default every run;</li>
+ *     <li>every crawl that finds the catalog unchanged doubles the interval, up to its maximum interval;</li>
+ *     <li>the interval is never shorter than {@code latencyFactor} times the time from the start of the crawl run
+ *     to the reception of the catalog of the node, so slow nodes are crawled less often; the time the catalog then
+ *     waits in the ingestion queue is not the node's;</li>
+ *     <li>a node crawled in a run whose catalog was not received by the next one failed, and is retried after an
+ *     exponential backoff from the crawl period up to the maximum backoff.</li>
+ * </ul>
+ * The minimum and maximum intervals of a node can be set in seconds with the {@value #INTERVAL_MIN_ATTRIBUTE} and
+ * {@value #INTERVAL_MAX_ATTRIBUTE} attributes of its {@link ParticipantNode}. Nodes are identified by their URL,
+ * which is also the id of their cached catalog. The schedules of the nodes no longer in the directory are dropped
+ * on the next run.
+ * <p>
+ * Crawled, skipped and failed nodes are counted in the {@value #CRAWL_SCHEDULE_METRIC} metrics.
+ */
+public class CrawlScheduler implements CatalogSaveListener {
+
+    /**
+     * Prefix of the metrics counting the nodes crawled, skipped and failed by the scheduler.
+     */
+    public static final String CRAWL_SCHEDULE_METRIC = "crawl.schedule";
+
+    /**
+     * Node attribute holding the minimum crawl interval of the node in seconds.
+     */
+    public static final String INTERVAL_MIN_ATTRIBUTE = "crawlIntervalMin";
+
+    /**
+     * Node attribute holding the maximum crawl interval of the node in seconds.
+     */
+    public static final String INTERVAL_MAX_ATTRIBUTE = "crawlIntervalMax";
+
+    /**
+     * Default maximum crawl interval of a node whose catalog does not change, in seconds.
+     */
+    public static final long DEFAULT_INTERVAL_MAX_SECONDS = 600;
+
+    /**
+     * Default maximum backoff of a node that cannot be crawled, in seconds.
+     */
+    public static final long DEFAULT_BACKOFF_MAX_SECONDS = 3600;
+
+    /**
+     * Default factor applied to the crawl latency of a node to get its shortest interval.
+     */
+    public static final int DEFAULT_LATENCY_FACTOR = 10;
+
+    private final long periodMillis;
+    private final long intervalMaxMillis;
+    private final long backoffMaxMillis;
+    private final int latencyFactor;
+    private final FederatedCatalogMetrics metrics;
+    private final Clock clock;
+    private final Map<String, NodeSchedule> schedules = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a crawl scheduler.
+     *
+     * @param periodSeconds the period of the crawl runs, the shortest possible crawl interval
+     * @param intervalMaxSeconds the default maximum crawl interval of a node whose catalog does not change
+     * @param backoffMaxSeconds the maximum backoff of a node that cannot be crawled
+     * @param latencyFactor the factor applied to the crawl latency of a node to get its shortest interval
+     * @param metrics the metrics where crawled, skipped and failed nodes are counted
+     * @param clock the clock measuring the intervals
+     */
+    public CrawlScheduler(long periodSeconds, long intervalMaxSeconds, long backoffMaxSeconds, int latencyFactor,
+                          FederatedCatalogMetrics metrics, Clock clock) {
+        this.periodMillis = Math.max(1, periodSeconds) * 1000;
+        this.intervalMaxMillis = Math.max(periodSeconds, intervalMaxSeconds) * 1000;
+        this.backoffMaxMillis = Math.max(periodSeconds, backoffMaxSeconds) * 1000;
+        this.latencyFactor = Math.max(0, latencyFactor);
+        this.metrics = metrics;
+        this.clock = clock;
+    }
+
+    /**
+     * Starts a crawl run: the schedules of the nodes no longer given are dropped, the nodes crawled in the previous
+     * run whose catalog was not received are recorded as failed, and the nodes due are selected with the crawl
+     * hints in their attributes. A node is due when its next crawl time
+     * falls before the middle of the period following this run.
+     *
+     * @param nodes the crawlable nodes of the directory
+     * @return the selection of the nodes to crawl in this run and of those skipped
+     */
+    public Selection select(List<ParticipantNode> nodes) {
+        var now = clock.millis();
+        var urls = nodes.stream().map(ParticipantNode::targetUrl).collect(Collectors.toSet());
+        schedules.keySet().retainAll(urls);
+        schedules.forEach((url, schedule) -> {
+            if (schedule.failPending()) {
+                metrics.increment(CRAWL_SCHEDULE_METRIC + ".failed");
+            }
+        });
+
+        var due = new ArrayList<ParticipantNode>();
+        var skipped = new ArrayList<ParticipantNode>();
+        for (ParticipantNode node : nodes) {
+            var schedule = schedules.computeIfAbsent(node.targetUrl(), url -> new NodeSchedule());
+            var min = hint(node, INTERVAL_MIN_ATTRIBUTE, periodMillis);
+            schedule.hints(min, Math.max(min, hint(node, INTERVAL_MAX_ATTRIBUTE, intervalMaxMillis)));
+            if (schedule.isDue(now + periodMillis / 2)) {
+                schedule.dispatch(now);
+                due.add(node);
+            } else {
+                skipped.add(node);
+            }
+        }
+        metrics.increment(CRAWL_SCHEDULE_METRIC + ".crawled", due.size());
+        metrics.increment(CRAWL_SCHEDULE_METRIC + ".skipped", skipped.size());
+        return new Selection(due, skipped);
+    }
+
+    /**
+     * Records that the catalog of a node has been received, which ends its crawl.
+     *
+     * @param id the URL of the node
+     */
+    @Override
+    public void received(String id) {
+        var schedule = schedules.get(id);
+        if (schedule != null) {
+            schedule.received(clock.millis());
+        }
+    }
+
+    /**
+     * Records that the catalog of a node has been saved, and computes its next crawl time.
+     *
+     * @param id the URL of the node
+     * @param changed whether its catalog changed since the last crawl
+     */
+    @Override
+    public void saved(String id, boolean changed) {
+        schedules.computeIfAbsent(id, url -> new NodeSchedule()).saved(clock.millis(), changed);
+    }
+
+    private static long hint(ParticipantNode node, String attribute, long defaultMillis) {
+        var attributes = node.attributes();
+        if (attributes == null) {
+            return defaultMillis;
+        }
+        var value = attributes.getOrDefault(attribute, attributes.get(EDC_NAMESPACE + attribute));
+        if (value == null) {
+            return defaultMillis;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value.trim())) * 1000;
+        } catch (NumberFormatException e) {
+            return defaultMillis;
+        }
+    }
+
+    /**
+     * The nodes selected for a crawl run.
+     *
+     * @param due the nodes to crawl
+     * @param skipped the nodes left out of the run, whose cached entries must be kept
+     */
+    public record Selection(List<ParticipantNode> due, List<ParticipantNode> skipped) {
+    }
+
+    /**
+     * The crawl schedule of a node. Guarded by its own monitor, since saves are notified from the ingestion
+     * writer threads.
+     */
+    private final class NodeSchedule {
+        private long minMillis = periodMillis;
+        private long maxMillis = intervalMaxMillis;
+        private long intervalMillis;
+        private long nextCrawlAt;
+        private long dispatchedAt = -1;
+        private long receivedAt = -1;
+        private long latencyMillis;
+        private int failures;
+
+        synchronized void hints(long minMillis, long maxMillis) {
+            this.minMillis = minMillis;
+            this.maxMillis = maxMillis;
+        }
+
+        synchronized boolean isDue(long at) {
+            return nextCrawlAt <= at;
+        }
+
+        synchronized void dispatch(long now) {
+            dispatchedAt = now;
+            receivedAt = -1;
+        }
+
+        synchronized void received(long now) {
+            if (dispatchedAt >= 0 && receivedAt < 0) {
+                receivedAt = now;
+                latencyMillis = now - dispatchedAt;
+            }
+        }
+
+        synchronized boolean failPending() {
+            // a received catalog still waiting in the ingestion queue is not a failure of the node
+            if (dispatchedAt < 0 || receivedAt >= 0) {
+                return false;
+            }
+            failures++;
+            var backoff = periodMillis << Math.min(failures, 30);
+            nextCrawlAt = dispatchedAt + Math.min(backoffMaxMillis, backoff);
+            dispatchedAt = -1;
+            return true;
+        }
+
+        synchronized void saved(long now, boolean changed) {
+            var crawledAt = dispatchedAt < 0 ? now : dispatchedAt;
+            failures = 0;
+            intervalMillis = changed ? minMillis : Math.min(maxMillis, Math.max(minMillis, intervalMillis * 2));
+            intervalMillis = Math.max(intervalMillis, Math.min(maxMillis, latencyMillis * latencyFactor));
+            nextCrawlAt = crawledAt + intervalMillis;
+            dispatchedAt = -1;
+            receivedAt = -1;
+        }
+    }
+}
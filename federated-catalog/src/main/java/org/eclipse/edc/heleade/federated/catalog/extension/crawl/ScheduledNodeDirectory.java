@@ -0,0 +1,95 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.crawl;
+
+import org.eclipse.edc.crawler.spi.TargetNode;
+import org.eclipse.edc.heleade.federated.catalog.extension.api.node.directory.ParticipantNode;
+import org.eclipse.edc.heleade.federated.catalog.extension.api.node.directory.ParticipantNodeDirectory;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.HeleadeFederatedCatalogCache;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link ParticipantNodeDirectory} handing the crawler only the nodes due in each run, as decided by a
+ * {@link CrawlScheduler}. The crawler reads {@link #getAll()} once per run, after the cached entries have been
+ * expired, so the entries of the nodes skipped in the run are kept in the cache to survive the deletion of the
+ * expired entries at its end. Every other operation is delegated to the wrapped directory.
+ * <p>
+ * {@link #getAll()} is meant to be called by the crawler only: every call advances the schedules of the nodes and
+ * keeps the cached entries of the skipped ones, so any other caller would make nodes miss their crawl. Readers of
+ * the directory, such as the node directory API, use {@link #getParticipantNodes()}, which has no side effects.
+ */
+public class ScheduledNodeDirectory implements ParticipantNodeDirectory {
+
+    private final ParticipantNodeDirectory delegate;
+    private final CrawlScheduler scheduler;
+    private final HeleadeFederatedCatalogCache cache;
+
+    /**
+     * Constructs a scheduled node directory.
+     *
+     * @param delegate the directory holding the nodes
+     * @param scheduler the scheduler selecting the nodes due in each run
+     * @param cache the cache where the entries of the skipped nodes are kept
+     */
+    public ScheduledNodeDirectory(ParticipantNodeDirectory delegate, CrawlScheduler scheduler, HeleadeFederatedCatalogCache cache) {
+        this.delegate = delegate;
+        this.scheduler = scheduler;
+        this.cache = cache;
+    }
+
+    /**
+     * Selects the nodes due in the current crawl run and keeps the cached entries of the others. To be called by
+     * the crawler only, once per run, see the class documentation.
+     *
+     * @return the nodes to crawl in this run
+     */
+    @Override
+    public List<TargetNode> getAll() {
+        var crawlable = delegate.getAll().stream().map(TargetNode::id).collect(Collectors.toSet());
+        var nodes = delegate.getParticipantNodes().stream()
+                .filter(node -> crawlable.contains(node.id()))
+                .toList();
+        var selection = scheduler.select(nodes);
+        selection.skipped().forEach(node -> cache.keep(node.targetUrl()));
+        return selection.due().stream().map(ParticipantNode::asTargetNode).toList();
+    }
+
+    @Override
+    public void insert(TargetNode targetNode) {
+        delegate.insert(targetNode);
+    }
+
+    @Override
+    public TargetNode remove(String id) {
+        return delegate.remove(id);
+    }
+
+    @Override
+    public List<ParticipantNode> getParticipantNodes() {
+        return delegate.getParticipantNodes();
+    }
+
+    @Override
+    public void insert(ParticipantNode participantNode) {
+        delegate.insert(participantNode);
+    }
+
+    @Override
+    public ParticipantNode getParticipantNode(String participantId) {
+        return delegate.getParticipantNode(participantId);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.metrics;
+
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the named counters published by the federated catalog components (cache store, query service,
+ * crawler helpers). Counters are created on first use. For every pair of counters named
+ * {@code <prefix>.hits} and {@code <prefix>.misses} a derived {@code <prefix>.hit.rate} is reported.
+ */
+public class FederatedCatalogMetrics {
+
+    private static final String HITS_SUFFIX = ".hits";
+    private static final String MISSES_SUFFIX = ".misses";
+    private static final String HIT_RATE_SUFFIX = ".hit.rate";
+
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Increments the named counter by one.
+     *
+     * @param name the counter name
+     */
+    public void increment(String name) {
+        increment(name, 1);
+    }
+
+    /**
+     * Increments the named counter by the given amount.
+     *
+     * @param name the counter name
+     * @param delta the amount to add to the counter
+     */
+    public void increment(String name, long delta) {
+        counters.computeIfAbsent(name, k -> new AtomicLong()).addAndGet(delta);
+    }
+
+    /**
+     * Retrieves the current value of the named counter.
+     *
+     * @param name the counter name
+     * @return the counter value, or zero if the counter was never incremented
+     */
+    public long get(String name) {
+        var counter = counters.get(name);
+        return counter == null ? 0 : counter.get();
+    }
+
+    /**
+     * Computes the hit rate of the {@code <prefix>.hits} and {@code <prefix>.misses} counters.
+     *
+     * @param prefix the common prefix of the hit and miss counters
+     * @return the ratio of hits over hits plus misses, or zero if there were no lookups
+     */
+    public double hitRate(String prefix) {
+        long hits = get(prefix + HITS_SUFFIX);
+        long total = hits + get(prefix + MISSES_SUFFIX);
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Converts the current counters into a JsonObject, including the derived hit rates.
+     *
+     * @return a JsonObject with one entry per counter, sorted by name
+     */
+    public JsonObject asJsonObject() {
+        var snapshot = new TreeMap<String, Long>();
+        counters.forEach((name, value) -> snapshot.put(name, value.get()));
+
+        JsonObjectBuilder builder = Json.createObjectBuilder();
+        snapshot.forEach(builder::add);
+        snapshot.keySet().stream()
+                .filter(name -> name.endsWith(HITS_SUFFIX))
+                .map(name -> name.substring(0, name.length() - HITS_SUFFIX.length()))
+                .forEach(prefix -> builder.add(prefix + HIT_RATE_SUFFIX, hitRate(prefix)));
+        return builder.build();
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store;
+
+import java.util.List;
+
+/**
+ * A page of results read from the federated catalog cache with keyset pagination.
+ *
+ * @param items the results of the page
+ * @param continuationToken the token to request the next page, or null if this is the last page
+ * @param total the number of results matching the query across all pages, or null if it was not requested
+ * @param <T> the type of the results
+ */
+public record CachePage<T>(List<T> items, String continuationToken, Long total) {
+
+    /**
+     * Creates a page without the total number of results.
+     *
+     * @param items the results of the page
+     * @param continuationToken the token to request the next page, or null if this is the last page
+     */
+    public CachePage(List<T> items, String continuationToken) {
+        this(items, continuationToken, null);
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store;
+
+/**
+ * Notified by a {@link HeleadeFederatedCatalogCache} every time a crawled catalog is handed to it, from the crawler
+ * thread, and every time a catalog has been written, from the thread that wrote it.
+ */
+@FunctionalInterface
+public interface CatalogSaveListener {
+
+    /**
+     * Called once a crawled catalog has been saved.
+     *
+     * @param id the id of the catalog, the URL of the node it was crawled from
+     * @param changed whether the content of the catalog changed since it was last saved
+     */
+    void saved(String id, boolean changed);
+
+    /**
+     * Called when a crawled catalog is handed to the cache, before it is written, which may wait in the ingestion
+     * queue.
+     *
+     * @param id the id of the catalog, the URL of the node it was crawled from
+     */
+    default void received(String id) {
+    }
+}
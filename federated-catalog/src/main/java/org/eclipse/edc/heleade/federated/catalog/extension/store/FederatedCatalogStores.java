@@ -0,0 +1,157 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store;
+
+import org.eclipse.edc.connector.controlplane.transform.odrl.to.JsonObjectToActionTransformer;
+import org.eclipse.edc.connector.controlplane.transform.odrl.to.JsonObjectToConstraintTransformer;
+import org.eclipse.edc.connector.controlplane.transform.odrl.to.JsonObjectToDutyTransformer;
+import org.eclipse.edc.connector.controlplane.transform.odrl.to.JsonObjectToOperatorTransformer;
+import org.eclipse.edc.connector.controlplane.transform.odrl.to.JsonObjectToPermissionTransformer;
+import org.eclipse.edc.connector.controlplane.transform.odrl.to.JsonObjectToProhibitionTransformer;
+import org.eclipse.edc.heleade.federated.catalog.extension.api.node.directory.ParticipantNodeDirectory;
+import org.eclipse.edc.heleade.federated.catalog.extension.crawl.CrawlScheduler;
+import org.eclipse.edc.heleade.federated.catalog.extension.crawl.ScheduledNodeDirectory;
+import org.eclipse.edc.heleade.federated.catalog.extension.metrics.FederatedCatalogMetrics;
+import org.eclipse.edc.jsonld.JsonLdExtension;
+import org.eclipse.edc.jsonld.spi.JsonLd;
+import org.eclipse.edc.spi.system.ServiceExtensionContext;
+import org.eclipse.edc.transform.spi.TypeTransformerRegistry;
+
+import java.time.Clock;
+
+import static org.eclipse.edc.heleade.commons.content.based.catalog.CbmConstants.CBM_PREFIX;
+import static org.eclipse.edc.heleade.commons.content.based.catalog.CbmConstants.CBM_SCHEMA;
+import static org.eclipse.edc.heleade.commons.content.based.catalog.CbmConstants.RDF_NAMESPACE;
+import static org.eclipse.edc.heleade.commons.content.based.catalog.CbmConstants.RDF_PREFIX;
+import static org.eclipse.edc.heleade.commons.content.based.catalog.CbmConstants.SCHEMA_PREFIX;
+import static org.eclipse.edc.iam.verifiablecredentials.spi.VcConstants.SCHEMA_ORG_NAMESPACE;
+import static org.eclipse.edc.jsonld.spi.JsonLdKeywords.VOCAB;
+import static org.eclipse.edc.jsonld.spi.Namespaces.DCAT_PREFIX;
+import static org.eclipse.edc.jsonld.spi.Namespaces.DCAT_SCHEMA;
+import static org.eclipse.edc.jsonld.spi.Namespaces.DCT_PREFIX;
+import static org.eclipse.edc.jsonld.spi.Namespaces.DCT_SCHEMA;
+import static org.eclipse.edc.jsonld.spi.Namespaces.DSPACE_PREFIX;
+import static org.eclipse.edc.jsonld.spi.Namespaces.DSPACE_SCHEMA;
+import static org.eclipse.edc.policy.model.OdrlNamespace.ODRL_PREFIX;
+import static org.eclipse.edc.policy.model.OdrlNamespace.ODRL_SCHEMA;
+import static org.eclipse.edc.spi.constants.CoreConstants.EDC_NAMESPACE;
+
+/**
+ * Setup shared by the storage backends of the federated catalog. Only the backend selected in the
+ * {@value #BACKEND_PROPERTY} setting provides the cache, the node directory and the metrics; the
+ * other backends stay idle.
+ */
+public final class FederatedCatalogStores {
+
+    /**
+     * Setting selecting the storage backend of the federated catalog.
+     */
+    public static final String BACKEND_PROPERTY = "org.eclipse.edc.heleade.federated.catalog.extension.store.backend";
+
+    /**
+     * Backend storing the cache and the node directory in MongoDB, the default.
+     */
+    public static final String MONGODB_BACKEND = "mongodb";
+
+    /**
+     * Backend keeping the cache and the node directory in memory, with snapshots on the local file system.
+     */
+    public static final String MEMORY_BACKEND = "memory";
+
+    /**
+     * Setting enabling the adaptive crawl scheduling, which crawls each node at an interval adapted to how often
+     * its catalog changes instead of on every run of the crawler. Disabled by default.
+     */
+    public static final String CRAWL_SCHEDULE_ADAPTIVE_PROPERTY = "org.eclipse.edc.heleade.federated.catalog.extension.crawl.schedule.adaptive";
+
+    private static final String CRAWL_SCHEDULE_INTERVAL_MAX_SECONDS_PROPERTY = "org.eclipse.edc.heleade.federated.catalog.extension.crawl.schedule.interval.max.seconds";
+    private static final String CRAWL_SCHEDULE_BACKOFF_MAX_SECONDS_PROPERTY = "org.eclipse.edc.heleade.federated.catalog.extension.crawl.schedule.backoff.max.seconds";
+    private static final String CRAWL_SCHEDULE_LATENCY_FACTOR_PROPERTY = "org.eclipse.edc.heleade.federated.catalog.extension.crawl.schedule.latency.factor";
+    private static final String CRAWL_PERIOD_SECONDS_PROPERTY = "edc.catalog.cache.execution.period.seconds";
+    private static final long CRAWL_PERIOD_SECONDS_DEFAULT = 60;
+
+    private FederatedCatalogStores() {
+    }
+
+    /**
+     * Checks whether the given backend is the one selected in the configuration.
+     *
+     * @param context the service extension context holding the configuration
+     * @param backend the backend name
+     * @return true if the backend is selected
+     */
+    public static boolean isSelected(ServiceExtensionContext context, String backend) {
+        return backend.equalsIgnoreCase(context.getConfig().getString(BACKEND_PROPERTY, MONGODB_BACKEND).trim());
+    }
+
+    /**
+     * Registers the ODRL transformers needed to read the policies of the cached catalogs back.
+     *
+     * @param transformerRegistry the transformer registry
+     */
+    public static void registerTransformers(TypeTransformerRegistry transformerRegistry) {
+        transformerRegistry.register(new JsonObjectToPermissionTransformer());
+        transformerRegistry.register(new JsonObjectToProhibitionTransformer());
+        transformerRegistry.register(new JsonObjectToActionTransformer());
+        transformerRegistry.register(new JsonObjectToConstraintTransformer());
+        transformerRegistry.register(new JsonObjectToDutyTransformer());
+        transformerRegistry.register(new JsonObjectToOperatorTransformer());
+    }
+
+    /**
+     * Creates the JSON-LD service used to compact the catalogs before storing them and to expand them back.
+     *
+     * @param context the service extension context
+     * @return the JSON-LD service with the namespaces of the stored documents registered
+     */
+    public static JsonLd createJsonLd(ServiceExtensionContext context) {
+        var jsonLd = new JsonLdExtension().createJsonLdService(context);
+        jsonLd.registerNamespace(VOCAB, EDC_NAMESPACE);
+        jsonLd.registerNamespace(DCAT_PREFIX, DCAT_SCHEMA);
+        jsonLd.registerNamespace(DCT_PREFIX, DCT_SCHEMA);
+        jsonLd.registerNamespace(DSPACE_PREFIX, DSPACE_SCHEMA);
+        jsonLd.registerNamespace(ODRL_PREFIX, ODRL_SCHEMA);
+        jsonLd.registerNamespace(CBM_PREFIX, CBM_SCHEMA);
+        jsonLd.registerNamespace(SCHEMA_PREFIX, SCHEMA_ORG_NAMESPACE);
+        jsonLd.registerNamespace(RDF_PREFIX, RDF_NAMESPACE);
+        return jsonLd;
+    }
+
+    /**
+     * Wraps the node directory of a backend so that the crawler only gets the nodes due in each run, if the
+     * adaptive scheduling is enabled in the {@value #CRAWL_SCHEDULE_ADAPTIVE_PROPERTY} setting.
+     *
+     * @param context the service extension context holding the configuration
+     * @param directory the node directory of the backend
+     * @param cache the catalog cache of the backend, notifying the saved catalogs to the scheduler
+     * @param metrics the metrics where the scheduled nodes are counted
+     * @return the directory to register for the crawler
+     */
+    public static ParticipantNodeDirectory scheduleCrawls(ServiceExtensionContext context, ParticipantNodeDirectory directory,
+                                                          HeleadeFederatedCatalogCache cache, FederatedCatalogMetrics metrics) {
+        var config = context.getConfig();
+        if (!config.getBoolean(CRAWL_SCHEDULE_ADAPTIVE_PROPERTY, false)) {
+            return directory;
+        }
+        var scheduler = new CrawlScheduler(
+                config.getLong(CRAWL_PERIOD_SECONDS_PROPERTY, CRAWL_PERIOD_SECONDS_DEFAULT),
+                config.getLong(CRAWL_SCHEDULE_INTERVAL_MAX_SECONDS_PROPERTY, CrawlScheduler.DEFAULT_INTERVAL_MAX_SECONDS),
+                config.getLong(CRAWL_SCHEDULE_BACKOFF_MAX_SECONDS_PROPERTY, CrawlScheduler.DEFAULT_BACKOFF_MAX_SECONDS),
+                config.getInteger(CRAWL_SCHEDULE_LATENCY_FACTOR_PROPERTY, CrawlScheduler.DEFAULT_LATENCY_FACTOR),
+                metrics, Clock.systemUTC());
+        cache.setSaveListener(scheduler);
+        return new ScheduledNodeDirectory(directory, scheduler, cache);
+    }
+}
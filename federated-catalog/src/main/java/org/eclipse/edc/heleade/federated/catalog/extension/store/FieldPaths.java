@@ -0,0 +1,54 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses the fields requested for a projection of the catalogs or datasets read from the federated catalog cache.
+ * Fields are the compacted JSON-LD paths of the stored documents, such as {@code dct:title} or
+ * {@code dcat:dataset.dct:title}.
+ */
+public final class FieldPaths {
+
+    private FieldPaths() {
+    }
+
+    /**
+     * Parses the comma separated fields of a request.
+     *
+     * @param fields the comma separated field paths, or null
+     * @return the field paths, empty if all the fields are requested
+     * @throws IllegalArgumentException if a field path is empty between dots or starts with {@code $}
+     */
+    public static List<String> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return List.of();
+        }
+        var paths = new ArrayList<String>();
+        for (String field : fields.split(",")) {
+            var path = field.trim();
+            if (path.isEmpty()) {
+                continue;
+            }
+            if (path.startsWith("$") || path.startsWith(".") || path.endsWith(".") || path.contains("..")) {
+                throw new IllegalArgumentException("Invalid field path: " + path);
+            }
+            paths.add(path);
+        }
+        return List.copyOf(paths);
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store;
+
+import jakarta.json.JsonObject;
+import org.eclipse.edc.catalog.spi.FederatedCatalogCache;
+import org.eclipse.edc.connector.controlplane.catalog.spi.Catalog;
+import org.eclipse.edc.connector.controlplane.catalog.spi.Dataset;
+import org.eclipse.edc.spi.query.QuerySpec;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A {@link FederatedCatalogCache} that also stores the crawled datasets on their own, so that they can be
+ * queried and counted independently of their catalogs. Implemented by every cache backend of the federated
+ * catalog.
+ * <p>
+ * The query features that not every backend offers are optional operations: each group of them is announced by a
+ * capability method, such as {@link #supportsKeysetPagination()}, and throws {@link UnsupportedOperationException}
+ * on the backends that do not announce it.
+ */
+public interface HeleadeFederatedCatalogCache extends FederatedCatalogCache {
+
+    /**
+     * Operator of the criteria matching the documents whose text index contains the search terms given as right
+     * operand. The left operand is ignored, the searched fields are those of the text index.
+     */
+    String TEXT_SEARCH_OPERATOR = "textSearch";
+
+    /**
+     * Queries datasets from the federated catalog cache based on the provided query specification.
+     *
+     * @param query the query specification containing filtering, sorting, and pagination criteria
+     * @return a collection of datasets that match the criteria specified in the query
+     */
+    Collection<Dataset> queryDatasets(QuerySpec query);
+
+    /**
+     * Counts the datasets in the federated catalog cache based on the provided query specification.
+     *
+     * @param query   the query specification containing filtering, sorting, and pagination criteria
+     * @param noLimit a flag indicating whether the limit stage should be omitted from the query
+     * @return the number of datasets that match the query criteria
+     */
+    long countDatasets(QuerySpec query, boolean noLimit);
+
+    /**
+     * Counts the datasets per keyword in the federated catalog cache based on the provided query specification.
+     *
+     * @param query   the query specification containing filtering, sorting, and pagination criteria
+     * @param noLimit a flag indicating whether the limit stage should be omitted from the query
+     * @return a JSON array string of keyword counts, sorted decreasingly by count
+     */
+    String countKeywords(QuerySpec query, boolean noLimit);
+
+    /**
+     * Returns the version of the cached content, which increases every time {@code save} or {@code deleteExpired}
+     * changes a catalog or a dataset. Saving a catalog whose content did not change keeps the version, so query
+     * results computed for a version stay valid until the next crawl that actually changes the cache.
+     *
+     * @return the current data version
+     */
+    long dataVersion();
+
+    /**
+     * Marks the catalog with the given id and its datasets as seen in the current crawl generation, so that a node
+     * left out of a crawl by the crawl scheduler keeps its cached entries.
+     *
+     * @param id the id of the catalog, the URL of the node it was crawled from
+     */
+    void keep(String id);
+
+    /**
+     * Sets the listener notified every time a crawled catalog has been saved.
+     *
+     * @param listener the listener, or null for none
+     */
+    void setSaveListener(CatalogSaveListener listener);
+
+    /**
+     * Waits until every catalog saved so far has been written, so that it can be read back.
+     */
+    void flush();
+
+    /**
+     * Finds the cached catalog with the given id with all its datasets, as they were crawled, including the data
+     * dictionaries of their distributions.
+     *
+     * @param id the id of the catalog, the URL of the node it was crawled from
+     * @return the cached catalog, or null if there is none
+     */
+    Catalog findCatalog(String id);
+
+    /**
+     * Saves a catalog like {@code save}, but returns only once it has been written, after the catalogs of the same
+     * node saved before it.
+     *
+     * @param catalog the catalog to save
+     * @throws org.eclipse.edc.spi.persistence.EdcPersistenceException if the catalog could not be written
+     */
+    void saveAndWait(Catalog catalog);
+
+    /**
+     * Checks whether the cache can be read with keyset pagination, streamed, projected on some fields, and read
+     * in compacted JSON-LD form, see {@link #queryCatalogsPage}, {@link #queryDatasetsPage},
+     * {@link #queryDatasetsPageCompacted}, {@link #streamCatalogs}, {@link #streamDatasets},
+     * {@link #streamDatasetsCompacted} and {@link #validateContinuationToken}.
+     *
+     * @return true if these operations are supported, false by default
+     */
+    default boolean supportsKeysetPagination() {
+        return false;
+    }
+
+    /**
+     * Checks whether the cache counts the datasets per value of each facet, see {@link #countFacets}.
+     *
+     * @return true if the operation is supported, false by default
+     */
+    default boolean supportsFacets() {
+        return false;
+    }
+
+    /**
+     * Checks whether the cache stores the data dictionaries of the distributions apart, replacing them with
+     * references resolved by {@link #findDataDictionary}. The other caches keep the dictionaries inline.
+     *
+     * @return true if the operation is supported, false by default
+     */
+    default boolean supportsDataDictionaries() {
+        return false;
+    }
+
+    /**
+     * Checks whether the cache reports how many operations used each of its indexes, see {@link #indexUsage()}.
+     *
+     * @return true if the operation is supported, false by default
+     */
+    default boolean supportsIndexUsage() {
+        return false;
+    }
+
+    /**
+     * Checks a continuation token against a query, so that a streamed response can be rejected before it starts.
+     *
+     * @param query the query specification the token is used with
+     * @param continuationToken the token returned with a previous page
+     * @throws IllegalArgumentException if the token is malformed or does not match the query sort
+     * @throws UnsupportedOperationException if the cache does not support keyset pagination
+     */
+    default void validateContinuationToken(QuerySpec query, String continuationToken) {
+        throw new UnsupportedOperationException("Keyset pagination");
+    }
+
+    /**
+     * Queries a page of catalogs using keyset pagination.
+     *
+     * @param query the query specification containing filtering, sorting, and page size
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param withTotal whether to also count the catalogs matching the query across all pages
+     * @param fields the field paths to return, see {@link FieldPaths}, or an empty list for all the fields
+     * @return the page of catalogs and the token of the next page
+     * @throws IllegalArgumentException if the continuation token is malformed or does not match the query sort
+     * @throws UnsupportedOperationException if the cache does not support keyset pagination
+     */
+    default CachePage<Catalog> queryCatalogsPage(QuerySpec query, String continuationToken, boolean withTotal, List<String> fields) {
+        throw new UnsupportedOperationException("Keyset pagination");
+    }
+
+    /**
+     * Queries a page of datasets using keyset pagination.
+     *
+     * @param query the query specification containing filtering, sorting, and page size
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param withTotal whether to also count the datasets matching the query across all pages
+     * @param fields the field paths to return, see {@link FieldPaths}, or an empty list for all the fields
+     * @param withDataDictionaries whether to replace the data dictionary references with the dictionaries
+     * @return the page of datasets and the token of the next page
+     * @throws IllegalArgumentException if the continuation token is malformed or does not match the query sort
+     * @throws UnsupportedOperationException if the cache does not support keyset pagination
+     */
+    default CachePage<Dataset> queryDatasetsPage(QuerySpec query, String continuationToken, boolean withTotal, List<String> fields,
+                                                 boolean withDataDictionaries) {
+        throw new UnsupportedOperationException("Keyset pagination");
+    }
+
+    /**
+     * Queries a page of datasets using keyset pagination and returns them as compacted JSON-LD strings, skipping
+     * the JSON-LD expansion and the transformation to {@link Dataset}.
+     *
+     * @param query the query specification containing filtering, sorting, and page size
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param withTotal whether to also count the datasets matching the query across all pages
+     * @param fields the field paths to return, see {@link FieldPaths}, or an empty list for all the fields
+     * @param withDataDictionaries whether to replace the data dictionary references with the dictionaries
+     * @param context the JSON-LD context written in every dataset
+     * @return the page of compacted JSON-LD datasets and the token of the next page
+     * @throws IllegalArgumentException if the continuation token is malformed or does not match the query sort
+     * @throws UnsupportedOperationException if the cache does not support keyset pagination
+     */
+    default CachePage<String> queryDatasetsPageCompacted(QuerySpec query, String continuationToken, boolean withTotal, List<String> fields,
+                                                        boolean withDataDictionaries, JsonObject context) {
+        throw new UnsupportedOperationException("Keyset pagination");
+    }
+
+    /**
+     * Streams the catalogs matching the query to the given consumer, one at a time.
+     *
+     * @param query the query specification containing filtering, sorting, and paging criteria
+     * @param continuationToken the token returned with a previous page, or null to start from the first catalog
+     * @param fields the field paths to return, see {@link FieldPaths}, or an empty list for all the fields
+     * @param consumer the consumer receiving each catalog
+     * @return the number of catalogs streamed
+     * @throws UnsupportedOperationException if the cache does not support keyset pagination
+     */
+    default long streamCatalogs(QuerySpec query, String continuationToken, List<String> fields, Consumer<Catalog> consumer) {
+        throw new UnsupportedOperationException("Keyset pagination");
+    }
+
+    /**
+     * Streams the datasets matching the query to the given consumer, one at a time.
+     *
+     * @param query the query specification containing filtering, sorting, and paging criteria
+     * @param continuationToken the token returned with a previous page, or null to start from the first dataset
+     * @param fields the field paths to return, see {@link FieldPaths}, or an empty list for all the fields
+     * @param withDataDictionaries whether to replace the data dictionary references with the dictionaries
+     * @param consumer the consumer receiving each dataset
+     * @return the number of datasets streamed
+     * @throws UnsupportedOperationException if the cache does not support keyset pagination
+     */
+    default long streamDatasets(QuerySpec query, String continuationToken, List<String> fields, boolean withDataDictionaries,
+                                Consumer<Dataset> consumer) {
+        throw new UnsupportedOperationException("Keyset pagination");
+    }
+
+    /**
+     * Streams the datasets matching the query as compacted JSON-LD strings, skipping the JSON-LD expansion and the
+     * transformation to {@link Dataset}.
+     *
+     * @param query the query specification containing filtering, sorting, and paging criteria
+     * @param continuationToken the token returned with a previous page, or null to start from the first dataset
+     * @param fields the field paths to return, see {@link FieldPaths}, or an empty list for all the fields
+     * @param withDataDictionaries whether to replace the data dictionary references with the dictionaries
+     * @param context the JSON-LD context written in every dataset
+     * @param consumer the consumer receiving each compacted JSON-LD dataset
+     * @return the number of datasets streamed
+     * @throws UnsupportedOperationException if the cache does not support keyset pagination
+     */
+    default long streamDatasetsCompacted(QuerySpec query, String continuationToken, List<String> fields, boolean withDataDictionaries,
+                                         JsonObject context, Consumer<String> consumer) {
+        throw new UnsupportedOperationException("Keyset pagination");
+    }
+
+    /**
+     * Counts the datasets per value of each facet field and per issued year that match the query.
+     *
+     * @param query   the query specification containing filtering, sorting, and pagination criteria
+     * @param noLimit a flag indicating whether the limit stage should be omitted from the query
+     * @return a JSON string mapping each facet to the count of datasets per value
+     * @throws UnsupportedOperationException if the cache does not count facets
+     */
+    default String countFacets(QuerySpec query, boolean noLimit) {
+        throw new UnsupportedOperationException("Dataset facets");
+    }
+
+    /**
+     * Finds a data dictionary referenced by the distributions of the cached datasets.
+     *
+     * @param reference the {@code @id} of the reference, or the content hash of the dictionary
+     * @param context the JSON-LD context written in the dictionary
+     * @return the compacted JSON-LD data dictionary, identified by its reference, or null if there is none
+     * @throws UnsupportedOperationException if the cache keeps the data dictionaries inline
+     */
+    default String findDataDictionary(String reference, JsonObject context) {
+        throw new UnsupportedOperationException("Data dictionary references");
+    }
+
+    /**
+     * Reports how many operations used each index of the cache.
+     *
+     * @return a JsonObject mapping each collection to the number of operations per index
+     * @throws UnsupportedOperationException if the cache does not report its index usage
+     */
+    default JsonObject indexUsage() {
+        throw new UnsupportedOperationException("Index usage");
+    }
+}
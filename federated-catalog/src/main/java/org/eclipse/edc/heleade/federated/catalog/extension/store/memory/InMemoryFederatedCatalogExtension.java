@@ -0,0 +1,101 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.memory;
+
+import org.eclipse.edc.catalog.spi.FederatedCatalogCache;
+import org.eclipse.edc.connector.controlplane.catalog.spi.Catalog;
+import org.eclipse.edc.connector.controlplane.catalog.spi.Dataset;
+import org.eclipse.edc.crawler.spi.TargetNodeDirectory;
+import org.eclipse.edc.heleade.federated.catalog.extension.metrics.FederatedCatalogMetrics;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.FederatedCatalogStores;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.memory.cache.InMemoryFederatedCatalogCache;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.memory.node.directory.InMemoryParticipantNodeDirectory;
+import org.eclipse.edc.runtime.metamodel.annotation.Extension;
+import org.eclipse.edc.runtime.metamodel.annotation.Inject;
+import org.eclipse.edc.runtime.metamodel.annotation.Provides;
+import org.eclipse.edc.spi.monitor.Monitor;
+import org.eclipse.edc.spi.system.ServiceExtension;
+import org.eclipse.edc.spi.system.ServiceExtensionContext;
+import org.eclipse.edc.spi.types.TypeManager;
+import org.eclipse.edc.transform.spi.TypeTransformerRegistry;
+
+import java.nio.file.Path;
+
+/**
+ * This class is an implementation of a ServiceExtension providing a Federated Catalog Cache and node directory
+ * held in the memory of the process, for edge deployments without a MongoDB server. Both are saved to files on
+ * the local file system and loaded back on start. The extension stays idle unless the in-memory storage backend
+ * is selected in the {@value FederatedCatalogStores#BACKEND_PROPERTY} setting.
+ */
+@Provides({FederatedCatalogCache.class, TargetNodeDirectory.class, FederatedCatalogMetrics.class})
+@Extension(value = InMemoryFederatedCatalogExtension.NAME)
+public class InMemoryFederatedCatalogExtension implements ServiceExtension {
+
+    public static final String NAME = "Federated Catalog In-Memory Extension";
+
+    private static final String FEDERATED_CATALOG_SNAPSHOT_PATH_PROPERTY = "org.eclipse.edc.heleade.federated.catalog.extension.store.memory.snapshot.path";
+    private static final String FEDERATED_CATALOG_SNAPSHOT_PATH_DEFAULT = "fc-memory-snapshot.jsonl";
+    private static final String FEDERATED_CATALOG_NODES_PATH_PROPERTY = "org.eclipse.edc.heleade.federated.catalog.extension.store.memory.nodes.path";
+    private static final String FEDERATED_CATALOG_NODES_PATH_DEFAULT = "fc-memory-nodes.json";
+
+    private Monitor monitor;
+    private InMemoryFederatedCatalogCache store;
+
+    @Inject
+    private TypeManager typeManager;
+    @Inject
+    private TypeTransformerRegistry transformerRegistry;
+
+    @Override
+    public void initialize(ServiceExtensionContext context) {
+        monitor = context.getMonitor();
+        if (!FederatedCatalogStores.isSelected(context, FederatedCatalogStores.MEMORY_BACKEND)) {
+            monitor.info("In-memory storage backend not selected");
+            return;
+        }
+
+        typeManager.registerTypes(Catalog.class, Dataset.class);
+        FederatedCatalogStores.registerTransformers(transformerRegistry);
+        var jsonLd = FederatedCatalogStores.createJsonLd(context);
+
+        var metrics = new FederatedCatalogMetrics();
+        context.registerService(FederatedCatalogMetrics.class, metrics);
+
+        var snapshotPath = toPath(context.getConfig().getString(FEDERATED_CATALOG_SNAPSHOT_PATH_PROPERTY, FEDERATED_CATALOG_SNAPSHOT_PATH_DEFAULT));
+        store = new InMemoryFederatedCatalogCache(jsonLd, transformerRegistry, typeManager.getMapper(), monitor, metrics, snapshotPath);
+        store.load();
+        monitor.info("In-Memory Cache Store Ready");
+        context.registerService(FederatedCatalogCache.class, store);
+
+        var nodesPath = toPath(context.getConfig().getString(FEDERATED_CATALOG_NODES_PATH_PROPERTY, FEDERATED_CATALOG_NODES_PATH_DEFAULT));
+        var nodeDirectory = new InMemoryParticipantNodeDirectory(typeManager.getMapper(), nodesPath);
+        nodeDirectory.load();
+        monitor.info("In-Memory Node Directory Store Ready");
+        context.registerService(TargetNodeDirectory.class, FederatedCatalogStores.scheduleCrawls(context, nodeDirectory, store, metrics));
+    }
+
+    @Override
+    public void shutdown() {
+        if (store != null) {
+            store.snapshot();
+            store = null;
+            monitor.info("In-Memory Cache Store Saved");
+        }
+    }
+
+    private static Path toPath(String path) {
+        return path == null || path.isBlank() ? null : Path.of(path.trim());
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.memory.cache;
+
+import org.bson.Document;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheQuery;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.SpatialGeometry;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.TemporalRange;
+import org.eclipse.edc.spi.query.Criterion;
+import org.eclipse.edc.spi.query.QuerySpec;
+import org.eclipse.edc.spi.query.SortOrder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.HeleadeFederatedCatalogCache.TEXT_SEARCH_OPERATOR;
+
+/**
+ * Evaluates {@link QuerySpec} criteria and sorts against stored documents in memory, following the semantics of
+ * the MongoDB filters built by {@link MongodbFederatedCatalogCacheQuery#createFilter(QuerySpec, String)}: dotted
+ * paths traverse arrays, a criterion matches when any of the values found at its path satisfies it, and values
+ * of different types are only compared for equality. Spatial operators use the planar predicates of
+ * {@link SpatialGeometry} on the stored GeoJSON geometries and {@code overlaps} the normalized period of
+ * {@link TemporalRange}. Arrays are sorted by their smallest value in ascending
+ * order and by their largest value in descending order.
+ */
+public final class DocumentMatcher {
+
+    /**
+     * Relevance weight of each field searched by the {@code textSearch} operator, the defaults of the MongoDB
+     * text index.
+     */
+    public static final Map<String, Integer> TEXT_FIELD_WEIGHTS = Map.of("dct:title", 10, "dcat:keyword", 5, "dct:description", 1);
+
+    private static final String VALUE_FIELD = "@value";
+    private static final String DATASET_PREFIX = "dcat:dataset.";
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private DocumentMatcher() {
+    }
+
+    /**
+     * Checks whether a document satisfies all the criteria of a query.
+     *
+     * @param document the stored document
+     * @param criteria the filter expression of the query
+     * @return true if every criterion matches
+     * @throws IllegalArgumentException if a criterion uses an unsupported operator
+     */
+    public static boolean matches(Document document, List<Criterion> criteria) {
+        for (Criterion criterion : criteria) {
+            if (!matches(document, criterion)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a document satisfies a criterion.
+     *
+     * @param document the stored document
+     * @param criterion the criterion
+     * @return true if the criterion matches
+     * @throws IllegalArgumentException if the criterion uses an unsupported operator
+     */
+    public static boolean matches(Document document, Criterion criterion) {
+        var operator = criterion.getOperator();
+        var right = criterion.getOperandRight();
+        if (TEXT_SEARCH_OPERATOR.equals(operator)) {
+            return textScore(document, right.toString()) > 0;
+        }
+        if (SpatialGeometry.isSpatialOperator(operator)) {
+            var query = SpatialGeometry.NEAR_OPERATOR.equals(operator) ? SpatialGeometry.circle(right) : SpatialGeometry.fromOperand(right);
+            return values(document, SpatialGeometry.geometryPath(criterion.getOperandLeft().toString())).stream()
+                    .anyMatch(value -> value instanceof Document geometry && (SpatialGeometry.WITHIN_OPERATOR.equals(operator) ?
+                            SpatialGeometry.within(geometry, query) : SpatialGeometry.intersects(geometry, query)));
+        }
+        if (TemporalRange.OVERLAPS_OPERATOR.equals(operator)) {
+            var path = criterion.getOperandLeft().toString();
+            return TemporalRange.overlaps(firstDate(document, TemporalRange.periodPath(path, MongodbFederatedCatalogCacheStore.getTemporalStartField())),
+                    firstDate(document, TemporalRange.periodPath(path, MongodbFederatedCatalogCacheStore.getTemporalEndField())), right);
+        }
+        var values = values(document, criterion.getOperandLeft().toString());
+        return switch (operator) {
+            case "=" -> values.stream().anyMatch(value -> isEqual(value, right));
+            case "!=" -> values.stream().noneMatch(value -> isEqual(value, right));
+            case ">" -> values.stream().anyMatch(value -> isComparable(value, right) && compareValues(value, right) > 0);
+            case ">=" -> values.stream().anyMatch(value -> isComparable(value, right) && compareValues(value, right) >= 0);
+            case "<" -> values.stream().anyMatch(value -> isComparable(value, right) && compareValues(value, right) < 0);
+            case "<=" -> values.stream().anyMatch(value -> isComparable(value, right) && compareValues(value, right) <= 0);
+            case "in" -> values.stream().anyMatch(value -> asCollection(right).stream().anyMatch(option -> isEqual(value, option)));
+            case "like", "contains" -> {
+                var pattern = Pattern.compile(MongodbFederatedCatalogCacheQuery.getRegExp(right.toString()), Pattern.CASE_INSENSITIVE);
+                yield values.stream().anyMatch(value -> value instanceof String string && pattern.matcher(string).find());
+            }
+            case "exists" -> Boolean.parseBoolean(right.toString()) != values.isEmpty();
+            case "between" -> {
+                var bounds = new ArrayList<>(asCollection(right));
+                if (bounds.size() != 2) {
+                    throw new IllegalArgumentException("Between operator requires exactly two values for comparison");
+                }
+                yield matches(document, new Criterion(criterion.getOperandLeft(), ">=", bounds.get(0))) &&
+                        matches(document, new Criterion(criterion.getOperandLeft(), "<=", bounds.get(1)));
+            }
+            default -> throw new IllegalArgumentException("Unsupported operator: " + operator);
+        };
+    }
+
+    /**
+     * Computes the relevance of a document for the terms of a text search: the sum, over the searched fields, of
+     * the field weight times the number of field words equal to a search term, ignoring case. The fields of the
+     * datasets embedded in a catalog are searched as well.
+     *
+     * @param document the stored document
+     * @param search the search terms
+     * @return the relevance score, zero if no term is found
+     */
+    public static double textScore(Document document, String search) {
+        var terms = words(search);
+        double score = 0;
+        for (var field : TEXT_FIELD_WEIGHTS.entrySet()) {
+            var values = new ArrayList<>(values(document, field.getKey()));
+            values.addAll(values(document, DATASET_PREFIX + field.getKey()));
+            for (Object value : values) {
+                var text = value instanceof Document literal ? literal.get(VALUE_FIELD) : value;
+                if (text instanceof String string) {
+                    for (String word : WORD_SEPARATOR.split(string.toLowerCase(Locale.ROOT))) {
+                        if (terms.contains(word)) {
+                            score += field.getValue();
+                        }
+                    }
+                }
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Creates the comparator implementing the sort of a query, followed by the {@code @id} and {@code _id}
+     * tiebreakers. Queries sorted by {@code text_score} are sorted by decreasing relevance.
+     *
+     * @param querySpec the query specification
+     * @return the comparator
+     */
+    public static Comparator<Document> comparator(QuerySpec querySpec) {
+        var sortField = querySpec.getSortField();
+        Comparator<Document> tiebreakers = Comparator.<Document, Object>comparing(doc -> sortKey(doc, "@id", true), DocumentMatcher::compareValues)
+                .thenComparing(doc -> sortKey(doc, "_id", true), DocumentMatcher::compareValues);
+        if (sortField == null || sortField.isEmpty()) {
+            return Comparator.<Document, Object>comparing(doc -> sortKey(doc, "_id", true), DocumentMatcher::compareValues);
+        }
+        if (MongodbFederatedCatalogCacheStore.getTextScoreField().equals(sortField)) {
+            var search = querySpec.getFilterExpression().stream()
+                    .filter(criterion -> TEXT_SEARCH_OPERATOR.equals(criterion.getOperator()))
+                    .map(criterion -> criterion.getOperandRight().toString())
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Sorting by " + sortField + " requires a " + TEXT_SEARCH_OPERATOR + " criterion"));
+            return Comparator.<Document>comparingDouble(doc -> textScore(doc, search)).reversed().thenComparing(tiebreakers);
+        }
+        var ascending = querySpec.getSortOrder() != SortOrder.DESC;
+        Comparator<Document> sort = Comparator.comparing(doc -> sortKey(doc, sortField, ascending), DocumentMatcher::compareValues);
+        return (ascending ? sort : sort.reversed()).thenComparing(tiebreakers);
+    }
+
+    /**
+     * Resolves a dotted path in a document. Arrays met along the path are traversed, and arrays found at the end
+     * of the path are expanded into their elements. A field present with a null value yields a null value.
+     *
+     * @param document the document
+     * @param path the dotted field path
+     * @return the values found at the path, empty if the path does not exist
+     */
+    public static List<Object> values(Document document, String path) {
+        List<Object> current = List.of(document);
+        for (String segment : path.split("\\.")) {
+            var next = new ArrayList<>();
+            for (Object value : current) {
+                for (Object element : value instanceof List<?> list ? list : List.of(value)) {
+                    if (element instanceof Document nested && nested.containsKey(segment)) {
+                        next.add(nested.get(segment));
+                    }
+                }
+            }
+            current = next;
+        }
+        var values = new ArrayList<>();
+        for (Object value : current) {
+            if (value instanceof List<?> list) {
+                values.addAll(list);
+            } else {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Compares two values in the MongoDB sort order: null first, then numbers, strings, documents, arrays,
+     * booleans and dates, each type ordered by its natural order.
+     *
+     * @param left the first value
+     * @param right the second value
+     * @return a negative number, zero or a positive number as the first value sorts before, with or after the second
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static int compareValues(Object left, Object right) {
+        var rank = Integer.compare(typeRank(left), typeRank(right));
+        if (rank != 0) {
+            return rank;
+        }
+        if (left == null) {
+            return 0;
+        }
+        if (left instanceof Number leftNumber && right instanceof Number rightNumber) {
+            return Double.compare(leftNumber.doubleValue(), rightNumber.doubleValue());
+        }
+        if (left instanceof Comparable comparable && left.getClass().equals(right.getClass())) {
+            return comparable.compareTo(right);
+        }
+        return left.toString().compareTo(right.toString());
+    }
+
+    private static Object sortKey(Document document, String path, boolean ascending) {
+        var values = values(document, path);
+        if (values.isEmpty()) {
+            return null;
+        }
+        Comparator<Object> order = DocumentMatcher::compareValues;
+        return ascending ? values.stream().min(order).orElse(null) : values.stream().max(order).orElse(null);
+    }
+
+    private static Date firstDate(Document document, String path) {
+        return values(document, path).stream().filter(Date.class::isInstance).map(Date.class::cast).findFirst().orElse(null);
+    }
+
+    private static boolean isEqual(Object value, Object operand) {
+        if (value instanceof Number && operand instanceof Number) {
+            return compareValues(value, operand) == 0;
+        }
+        return Objects.equals(value, operand);
+    }
+
+    private static boolean isComparable(Object value, Object operand) {
+        return value != null && operand != null && typeRank(value) == typeRank(operand);
+    }
+
+    private static Collection<?> asCollection(Object operand) {
+        if (operand instanceof Collection<?> collection) {
+            return collection;
+        }
+        if (operand instanceof Object[] array) {
+            return Arrays.asList(array);
+        }
+        return List.of(operand);
+    }
+
+    private static int typeRank(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof Number) {
+            return 1;
+        }
+        if (value instanceof String) {
+            return 2;
+        }
+        if (value instanceof Document) {
+            return 3;
+        }
+        if (value instanceof List) {
+            return 4;
+        }
+        if (value instanceof Boolean) {
+            return 5;
+        }
+        if (value instanceof Date) {
+            return 6;
+        }
+        return 7;
+    }
+
+    private static Set<String> words(String text) {
+        var words = new HashSet<>(Arrays.asList(WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))));
+        words.remove("");
+        return words;
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.memory.cache;
+
+import org.bson.Document;
+import org.eclipse.edc.spi.query.Criterion;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * In-process store of cached documents with inverted indexes on equality fields, such as keywords and
+ * participants, and sorted indexes on range fields, such as dates. Each document is given an internal
+ * {@code _id} in insertion order, which is the default sort of the queries, as in MongoDB.
+ * <p>
+ * Queries intersect the documents selected by the indexes of the criteria that can use one and check every
+ * criterion of the query on the remaining documents, so the indexes only narrow the documents to inspect.
+ * Only string values are indexed. The index is not thread safe, callers must synchronize the access.
+ */
+public class InMemoryDocumentIndex {
+
+    private static final String OBJECT_ID_FIELD = "_id";
+    private static final String VALUE_FIELD = "@value";
+
+    private final Map<Long, Document> documents = new TreeMap<>();
+    private final Map<String, Long> keys = new HashMap<>();
+    private final Map<String, Map<String, Set<Long>>> equalityIndexes = new HashMap<>();
+    private final Map<String, NavigableMap<String, Set<Long>>> rangeIndexes = new HashMap<>();
+    private long nextId = 1;
+
+    /**
+     * Constructs an index.
+     *
+     * @param equalityFields the fields indexed for equality and {@code in} criteria
+     * @param rangeFields the fields indexed for range criteria, also indexed through their {@code @value}
+     */
+    public InMemoryDocumentIndex(List<String> equalityFields, List<String> rangeFields) {
+        equalityFields.forEach(field -> equalityIndexes.put(field, new HashMap<>()));
+        rangeFields.forEach(field -> {
+            rangeIndexes.put(field, new TreeMap<>());
+            rangeIndexes.put(field + "." + VALUE_FIELD, new TreeMap<>());
+        });
+    }
+
+    /**
+     * Returns the document stored under a key.
+     *
+     * @param key the key of the document
+     * @return the document, or null if there is none
+     */
+    public Document get(String key) {
+        var id = keys.get(key);
+        return id == null ? null : documents.get(id);
+    }
+
+    /**
+     * Stores a document under a key, replacing the document previously stored under the same key, which keeps
+     * its internal {@code _id}. Documents loaded from a snapshot keep the {@code _id} they already have.
+     *
+     * @param key the key of the document
+     * @param document the document to store
+     */
+    public void put(String key, Document document) {
+        var id = keys.get(key);
+        if (id != null) {
+            unindex(id, documents.get(id));
+        } else {
+            id = document.get(OBJECT_ID_FIELD) instanceof Long loaded ? loaded : nextId;
+            keys.put(key, id);
+        }
+        nextId = Math.max(nextId, id + 1);
+        document.put(OBJECT_ID_FIELD, id);
+        documents.put(id, document);
+        index(id, document);
+    }
+
+    /**
+     * Removes the documents matching a predicate.
+     *
+     * @param predicate the predicate selecting the documents to remove
+     * @return the removed documents
+     */
+    public List<Document> removeIf(Predicate<Document> predicate) {
+        var removed = new ArrayList<Document>();
+        keys.entrySet().removeIf(entry -> {
+            var document = documents.get(entry.getValue());
+            if (!predicate.test(document)) {
+                return false;
+            }
+            unindex(entry.getValue(), document);
+            documents.remove(entry.getValue());
+            removed.add(document);
+            return true;
+        });
+        return removed;
+    }
+
+    /**
+     * Finds the documents matching all the given criteria, in {@code _id} order.
+     *
+     * @param criteria the filter expression of a query
+     * @return the matching documents
+     * @throws IllegalArgumentException if a criterion uses an unsupported operator
+     */
+    public List<Document> find(List<Criterion> criteria) {
+        var candidates = candidates(criteria);
+        var results = new ArrayList<Document>();
+        if (candidates == null) {
+            documents.values().stream().filter(document -> DocumentMatcher.matches(document, criteria)).forEach(results::add);
+        } else {
+            candidates.stream()
+                    .sorted()
+                    .map(documents::get)
+                    .filter(document -> DocumentMatcher.matches(document, criteria))
+                    .forEach(results::add);
+        }
+        return results;
+    }
+
+    /**
+     * Returns every stored document, in {@code _id} order.
+     *
+     * @return the stored documents
+     */
+    public Collection<Document> documents() {
+        return documents.values();
+    }
+
+    /**
+     * Counts the documents per value of an equality indexed field.
+     *
+     * @param field the indexed field
+     * @return the number of documents per value
+     */
+    public Map<String, Integer> countValues(String field) {
+        var counts = new HashMap<String, Integer>();
+        equalityIndexes.getOrDefault(field, Map.of()).forEach((value, ids) -> counts.put(value, ids.size()));
+        return counts;
+    }
+
+    /**
+     * Returns the number of stored documents.
+     *
+     * @return the number of documents
+     */
+    public int size() {
+        return documents.size();
+    }
+
+    private Set<Long> candidates(List<Criterion> criteria) {
+        Set<Long> candidates = null;
+        for (Criterion criterion : criteria) {
+            var ids = lookup(criterion);
+            if (ids != null) {
+                if (candidates == null) {
+                    candidates = new HashSet<>(ids);
+                } else {
+                    candidates.retainAll(ids);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private Set<Long> lookup(Criterion criterion) {
+        var field = String.valueOf(criterion.getOperandLeft());
+        var operator = criterion.getOperator();
+        var right = criterion.getOperandRight();
+
+        var equalityIndex = equalityIndexes.get(field);
+        if (equalityIndex != null) {
+            if ("=".equals(operator) && right instanceof String value) {
+                return equalityIndex.getOrDefault(value, Set.of());
+            }
+            if ("in".equals(operator) && right instanceof Collection<?> values && values.stream().allMatch(String.class::isInstance)) {
+                var ids = new HashSet<Long>();
+                values.forEach(value -> ids.addAll(equalityIndex.getOrDefault((String) value, Set.of())));
+                return ids;
+            }
+            return null;
+        }
+
+        var rangeIndex = rangeIndexes.get(field);
+        if (rangeIndex == null || !(right instanceof String value)) {
+            return null;
+        }
+        NavigableMap<String, Set<Long>> range = switch (operator) {
+            case "=" -> rangeIndex.subMap(value, true, value, true);
+            case ">" -> rangeIndex.tailMap(value, false);
+            case ">=" -> rangeIndex.tailMap(value, true);
+            case "<" -> rangeIndex.headMap(value, false);
+            case "<=" -> rangeIndex.headMap(value, true);
+            default -> null;
+        };
+        if (range == null) {
+            return null;
+        }
+        var ids = new HashSet<Long>();
+        range.values().forEach(ids::addAll);
+        return ids;
+    }
+
+    private void index(long id, Document document) {
+        equalityIndexes.forEach((field, index) -> stringValues(document, field)
+                .forEach(value -> index.computeIfAbsent(value, v -> new HashSet<>()).add(id)));
+        rangeIndexes.forEach((field, index) -> stringValues(document, field)
+                .forEach(value -> index.computeIfAbsent(value, v -> new HashSet<>()).add(id)));
+    }
+
+    private void unindex(long id, Document document) {
+        equalityIndexes.forEach((field, index) -> stringValues(document, field).forEach(value -> remove(index, value, id)));
+        rangeIndexes.forEach((field, index) -> stringValues(document, field).forEach(value -> remove(index, value, id)));
+    }
+
+    private static void remove(Map<String, Set<Long>> index, String value, long id) {
+        var ids = index.get(value);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                index.remove(value);
+            }
+        }
+    }
+
+    private static List<String> stringValues(Document document, String field) {
+        return DocumentMatcher.values(document, field).stream()
+                .filter(String.class::isInstance)
+                .map(String.class::cast)
+                .toList();
+    }
+}
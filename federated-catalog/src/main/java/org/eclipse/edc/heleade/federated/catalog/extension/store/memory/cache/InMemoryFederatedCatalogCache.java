@@ -0,0 +1,538 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.memory.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.json.Json;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonValue;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.eclipse.edc.catalog.spi.CatalogConstants;
+import org.eclipse.edc.connector.controlplane.catalog.spi.Catalog;
+import org.eclipse.edc.connector.controlplane.catalog.spi.Dataset;
+import org.eclipse.edc.heleade.federated.catalog.extension.metrics.FederatedCatalogMetrics;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.CatalogSaveListener;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.HeleadeFederatedCatalogCache;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.CatalogFingerprint;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.ContentHash;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.DatasetIngestionResult;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheQuery;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.SpatialGeometry;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.TemporalRange;
+import org.eclipse.edc.jsonld.spi.JsonLd;
+import org.eclipse.edc.spi.monitor.Monitor;
+import org.eclipse.edc.spi.persistence.EdcPersistenceException;
+import org.eclipse.edc.spi.query.Criterion;
+import org.eclipse.edc.spi.query.QuerySpec;
+import org.eclipse.edc.transform.spi.TypeTransformerRegistry;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static java.util.Optional.ofNullable;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCache.CATALOG_HASH_METRIC;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCache.DATASET_FIELD;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCache.DATASET_HASH_METRIC;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCache.PARTICIPANT_FIELD;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getContentHashField;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getGenerationField;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getIdField;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getSourceFingerprintField;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getSpatialGeometryField;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getTemporalStartField;
+
+/**
+ * Federated catalog cache held in the memory of the process, for deployments without a MongoDB server. Catalogs
+ * and datasets are stored as the same compacted JSON-LD documents written to MongoDB, so queries use the same
+ * field paths and operators, and are answered from an {@link InMemoryDocumentIndex} with inverted indexes on
+ * participants and keywords and sorted indexes on the issue and modification dates.
+ * <p>
+ * The cache is written to a JSON lines snapshot file after every crawl and on shutdown, and read back on start,
+ * so that a restart does not serve an empty catalog until the next crawl completes.
+ */
+public class InMemoryFederatedCatalogCache implements HeleadeFederatedCatalogCache {
+
+    private static final String ID_FIELD = "@id";
+    private static final String KEYWORD_FIELD = "dcat:keyword";
+    private static final String COUNT_FIELD = "count";
+    private static final String SNAPSHOT_GENERATION = "generation";
+    private static final String SNAPSHOT_CATALOG = "catalog";
+    private static final String SNAPSHOT_DATASET = "dataset";
+    private static final List<String> DATE_FIELDS = List.of("dct:issued", "dct:modified");
+    private static final JsonWriterSettings SNAPSHOT_WRITER_SETTINGS = JsonWriterSettings.builder().outputMode(JsonMode.EXTENDED).build();
+
+    private final JsonLd jsonLd;
+    private final TypeTransformerRegistry transformerRegistry;
+    private final Monitor monitor;
+    private final FederatedCatalogMetrics metrics;
+    private final CatalogFingerprint catalogFingerprint;
+    private final Path snapshotPath;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final InMemoryDocumentIndex catalogs = new InMemoryDocumentIndex(List.of(PARTICIPANT_FIELD), List.of());
+    private final InMemoryDocumentIndex datasets = new InMemoryDocumentIndex(List.of(PARTICIPANT_FIELD, KEYWORD_FIELD), DATE_FIELDS);
+    private final AtomicLong dataVersion = new AtomicLong();
+    private long generation;
+    private volatile CatalogSaveListener saveListener;
+
+    /**
+     * Constructs an in-memory federated catalog cache.
+     *
+     * @param jsonLd the JsonLd instance for processing JSON-LD data
+     * @param transformerRegistry the registry for type transformers
+     * @param objectMapper the object mapper used to compute the fingerprints of the crawled catalogs
+     * @param monitor the monitor used to report ingestion statistics
+     * @param metrics the metrics where content hash hits and misses are counted
+     * @param snapshotPath the file the cache is saved to and loaded from, or null to keep the cache only in memory
+     */
+    public InMemoryFederatedCatalogCache(JsonLd jsonLd, TypeTransformerRegistry transformerRegistry, ObjectMapper objectMapper, Monitor monitor,
+                                         FederatedCatalogMetrics metrics, Path snapshotPath) {
+        this.jsonLd = jsonLd;
+        this.transformerRegistry = transformerRegistry;
+        this.catalogFingerprint = new CatalogFingerprint(objectMapper);
+        this.monitor = monitor;
+        this.metrics = metrics;
+        this.snapshotPath = snapshotPath;
+    }
+
+    /**
+     * Adds a catalog and its datasets to the cache, replacing the previous version of the catalog
+     */
+    @Override
+    public void save(Catalog catalog) {
+        var id = catalogId(catalog);
+        var listener = saveListener;
+        if (listener != null) {
+            listener.received(id);
+        }
+        upsert(id, catalog);
+    }
+
+    /**
+     * Deletes all entries from the cache that were not seen in the current crawl generation and saves the
+     * cache snapshot
+     */
+    @Override
+    public void deleteExpired() {
+        write(() -> {
+            var deletedCatalogs = catalogs.removeIf(this::isExpired).size();
+            var deletedDatasets = datasets.removeIf(this::isExpired).size();
+            if (deletedCatalogs + deletedDatasets > 0) {
+                dataVersion.incrementAndGet();
+            }
+            monitor.debug(() -> "Deleted " + deletedCatalogs + " catalogs and " + deletedDatasets + " datasets older than generation " + generation);
+            writeSnapshot();
+            return null;
+        });
+    }
+
+    /**
+     * Starts a new crawl generation, so that every entry not saved again before the next call to
+     * {@link #deleteExpired()} is considered expired.
+     */
+    @Override
+    public void expireAll() {
+        write(() -> generation++);
+    }
+
+    /**
+     * Queries the cache for catalogs
+     *
+     * @param query A list of criteria the catalog must fulfill
+     * @return A collection of catalogs that are already in the store and that satisfy a given list of criteria.
+     */
+    @Override
+    public Collection<Catalog> query(QuerySpec query) {
+        var documents = read(() -> page(query, catalogs.find(query.getFilterExpression())));
+        return documents.stream().map(MongodbFederatedCatalogCacheQuery.entityConverter(jsonLd, transformerRegistry, Catalog.class)).toList();
+    }
+
+    /**
+     * Queries datasets from the cache based on the provided query specification.
+     *
+     * @param query the query specification containing filtering, sorting, and pagination criteria
+     * @return a collection of datasets that match the criteria specified in the query
+     */
+    @Override
+    public Collection<Dataset> queryDatasets(QuerySpec query) {
+        var documents = read(() -> page(query, datasets.find(query.getFilterExpression())));
+        return documents.stream().map(MongodbFederatedCatalogCacheQuery.entityConverter(jsonLd, transformerRegistry, Dataset.class)).toList();
+    }
+
+    /**
+     * Counts the datasets in the cache based on the provided query specification.
+     *
+     * @param query   the query specification containing filtering, sorting, and pagination criteria
+     * @param noLimit a flag indicating whether the offset and limit of the query should be ignored
+     * @return the number of datasets that match the query criteria
+     */
+    @Override
+    public long countDatasets(QuerySpec query, boolean noLimit) {
+        int matches = read(() -> datasets.find(query.getFilterExpression()).size());
+        if (noLimit) {
+            return matches;
+        }
+        // the size of the page, without sorting the matches
+        int remaining = Math.max(matches - Math.max(query.getOffset(), 0), 0);
+        return query.getLimit() > 0 ? Math.min(remaining, query.getLimit()) : remaining;
+    }
+
+    /**
+     * Counts the datasets per keyword in the cache based on the provided query specification. Requests that are
+     * not paginated and not filtered are answered from the keyword index.
+     *
+     * @param query   the query specification containing filtering, sorting, and pagination criteria
+     * @param noLimit a flag indicating whether the offset and limit of the query should be ignored
+     * @return a JSON array string of keyword counts, sorted decreasingly by count
+     */
+    @Override
+    public String countKeywords(QuerySpec query, boolean noLimit) {
+        var counts = read(() -> {
+            if (noLimit && query.getFilterExpression().isEmpty()) {
+                return datasets.countValues(KEYWORD_FIELD);
+            }
+            var matches = datasets.find(query.getFilterExpression());
+            var tally = new HashMap<String, Integer>();
+            for (Document dataset : noLimit ? matches : page(query, matches)) {
+                DocumentMatcher.values(dataset, KEYWORD_FIELD).stream()
+                        .filter(String.class::isInstance)
+                        .forEach(keyword -> tally.merge((String) keyword, 1, Integer::sum));
+            }
+            return tally;
+        });
+        var results = counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .map(entry -> new Document(COUNT_FIELD, entry.getValue()).append(KEYWORD_FIELD, entry.getKey()).toJson())
+                .toList();
+        return "[" + String.join(", ", results) + "]";
+    }
+
+    /**
+     * Returns the version of the cached content, increased after every save or deletion that changed it.
+     *
+     * @return the current data version
+     */
+    @Override
+    public long dataVersion() {
+        return dataVersion.get();
+    }
+
+    /**
+     * Marks the catalog with the given id and the datasets of its participant as seen in the current crawl
+     * generation, so that a node left out of a crawl keeps its cached entries.
+     *
+     * @param id the id of the catalog, the URL of the node it was crawled from
+     */
+    @Override
+    public void keep(String id) {
+        write(() -> {
+            var catalog = catalogs.get(id);
+            if (catalog != null) {
+                catalog.put(getGenerationField(), generation);
+                datasets.find(List.of(new Criterion(PARTICIPANT_FIELD, "=", catalog.getString(PARTICIPANT_FIELD))))
+                        .forEach(dataset -> dataset.put(getGenerationField(), generation));
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void setSaveListener(CatalogSaveListener listener) {
+        this.saveListener = listener;
+    }
+
+    /**
+     * Does nothing, the catalogs are written as they are saved.
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Finds the cached catalog with the given id, stored with its datasets inline.
+     *
+     * @param id the id of the catalog, the URL of the node it was crawled from
+     * @return the cached catalog, or null if there is none
+     */
+    @Override
+    public Catalog findCatalog(String id) {
+        var document = read(() -> catalogs.get(id));
+        return document == null ? null : MongodbFederatedCatalogCacheQuery.entityConverter(jsonLd, transformerRegistry, Catalog.class).apply(document);
+    }
+
+    /**
+     * Saves a catalog, which is written as it is saved.
+     *
+     * @param catalog the catalog to save
+     */
+    @Override
+    public void saveAndWait(Catalog catalog) {
+        upsert(catalogId(catalog), catalog);
+    }
+
+    /**
+     * Loads the cache from its snapshot file, if there is one.
+     */
+    public void load() {
+        if (snapshotPath == null || !Files.exists(snapshotPath)) {
+            return;
+        }
+        write(() -> {
+            try (var lines = Files.lines(snapshotPath, StandardCharsets.UTF_8)) {
+                lines.filter(line -> !line.isBlank()).map(Document::parse).forEach(entry -> {
+                    if (entry.containsKey(SNAPSHOT_GENERATION)) {
+                        generation = entry.getLong(SNAPSHOT_GENERATION);
+                    } else if (entry.containsKey(SNAPSHOT_CATALOG)) {
+                        var catalog = entry.get(SNAPSHOT_CATALOG, Document.class);
+                        catalogs.put(catalog.getString(getIdField()), catalog);
+                    } else if (entry.containsKey(SNAPSHOT_DATASET)) {
+                        var dataset = entry.get(SNAPSHOT_DATASET, Document.class);
+                        if (!dataset.containsKey(getSpatialGeometryField())) {
+                            dataset.append(getSpatialGeometryField(), SpatialGeometry.fromDataset(dataset));
+                        }
+                        if (!dataset.containsKey(getTemporalStartField())) {
+                            dataset.putAll(TemporalRange.fromDataset(dataset));
+                        }
+                        datasets.put(datasetKey(dataset.getString(PARTICIPANT_FIELD), dataset.getString(ID_FIELD)), dataset);
+                    }
+                });
+            }
+            dataVersion.incrementAndGet();
+            monitor.info("Loaded " + catalogs.size() + " catalogs and " + datasets.size() + " datasets from " + snapshotPath);
+            return null;
+        });
+    }
+
+    /**
+     * Saves the cache to its snapshot file. The snapshot is written to a temporary file first and then moved over
+     * the previous one, so that a failure never leaves a partial snapshot behind.
+     */
+    public void snapshot() {
+        read(() -> {
+            writeSnapshot();
+            return null;
+        });
+    }
+
+    private void upsert(String id, Catalog catalog) {
+        write(() -> {
+            var result = upsertInternal(id, catalog);
+            monitor.debug(() -> "Catalog " + id + " saved, " + result);
+            return null;
+        });
+    }
+
+    private static String catalogId(Catalog catalog) {
+        return ofNullable(catalog.getProperties().get(CatalogConstants.PROPERTY_ORIGINATOR))
+                .map(Object::toString)
+                .orElse(catalog.getId());
+    }
+
+    private DatasetIngestionResult upsertInternal(String id, Catalog catalog) {
+        var existingCatalog = catalogs.get(id);
+
+        // Skip the node before any JSON-LD processing when it returned the same catalog as on the last crawl
+        var fingerprint = catalogFingerprint.of(catalog);
+        var datasetCount = catalog.getDatasets() == null ? 0 : catalog.getDatasets().size();
+        if (existingCatalog != null && fingerprint != null && fingerprint.equals(existingCatalog.getString(getSourceFingerprintField()))) {
+            var storedParticipantId = existingCatalog.getString(PARTICIPANT_FIELD);
+            existingCatalog.put(getGenerationField(), generation);
+            datasets.find(List.of(new Criterion(PARTICIPANT_FIELD, "=", storedParticipantId)))
+                    .forEach(dataset -> dataset.put(getGenerationField(), generation));
+            CatalogFingerprint.count(metrics, id, true);
+            notifySaved(id, false);
+            metrics.increment(DATASET_HASH_METRIC + ".hits", datasetCount);
+            return DatasetIngestionResult.empty(storedParticipantId).plusUnchanged(datasetCount);
+        }
+        CatalogFingerprint.count(metrics, id, false);
+
+        JsonObject catalogJson = this.transformerRegistry.transform(catalog, JsonObject.class).getContent();
+        JsonObject catalogJsonCompacted = jsonLd.compact(catalogJson).getContent();
+        JsonObject catalogJsonCompactedDatasetArray = ensureDatasetAsArray(catalogJsonCompacted);
+        String catalogHash = ContentHash.of(catalogJsonCompactedDatasetArray);
+        Document catalogDoc = Document.parse(catalogJsonCompactedDatasetArray.toString()).append(getIdField(), id);
+        String participantId = catalogDoc.getString(PARTICIPANT_FIELD);
+        var datasetValues = ofNullable(catalogJsonCompactedDatasetArray.getJsonArray(DATASET_FIELD)).orElse(JsonValue.EMPTY_JSON_ARRAY);
+
+        // Skip the whole catalog when its content did not change since the last crawl
+        var storedDatasets = datasets.find(List.of(new Criterion(PARTICIPANT_FIELD, "=", participantId)));
+        if (existingCatalog != null && catalogHash.equals(existingCatalog.getString(getContentHashField()))) {
+            existingCatalog.put(getGenerationField(), generation);
+            existingCatalog.put(getSourceFingerprintField(), fingerprint);
+            storedDatasets.forEach(dataset -> dataset.put(getGenerationField(), generation));
+            metrics.increment(CATALOG_HASH_METRIC + ".hits");
+            notifySaved(id, false);
+            metrics.increment(DATASET_HASH_METRIC + ".hits", datasetValues.size());
+            return DatasetIngestionResult.empty(participantId).plusUnchanged(datasetValues.size());
+        }
+        metrics.increment(CATALOG_HASH_METRIC + ".misses");
+
+        catalogDoc.append(getContentHashField(), catalogHash).append(getGenerationField(), generation).append(getSourceFingerprintField(), fingerprint);
+        catalogs.put(id, catalogDoc);
+
+        var context = catalogDoc.get("@context");
+        var storedHashes = new HashMap<String, String>();
+        storedDatasets.forEach(dataset -> storedHashes.put(dataset.getString(ID_FIELD), dataset.getString(getContentHashField())));
+        int inserted = 0;
+        int modified = 0;
+        var unchangedIds = new HashSet<String>();
+        for (JsonValue dataset : datasetValues) {
+            var datasetJson = dataset.asJsonObject();
+            var datasetId = datasetJson.getString(ID_FIELD);
+            var datasetHash = ContentHash.of(datasetJson);
+            if (datasetHash.equals(storedHashes.get(datasetId))) {
+                unchangedIds.add(datasetId);
+                continue;
+            }
+            var datasetDoc = Document.parse(datasetJson.toString())
+                    .append(PARTICIPANT_FIELD, participantId)
+                    .append("@context", context)
+                    .append(getContentHashField(), datasetHash)
+                    .append(getGenerationField(), generation);
+            datasetDoc.append(getSpatialGeometryField(), SpatialGeometry.fromDataset(datasetDoc));
+            datasetDoc.putAll(TemporalRange.fromDataset(datasetDoc));
+            if (storedHashes.containsKey(datasetId)) {
+                modified++;
+            } else {
+                inserted++;
+            }
+            datasets.put(datasetKey(participantId, datasetId), datasetDoc);
+        }
+
+        // Delete the stored datasets the catalog no longer has, e.g. removed by a pushed update, which the crawl
+        // generation would not expire since the node was seen
+        var datasetIds = new HashSet<String>();
+        datasetValues.forEach(dataset -> datasetIds.add(dataset.asJsonObject().getString(ID_FIELD)));
+        var deleted = datasets.removeIf(dataset -> participantId != null && participantId.equals(dataset.getString(PARTICIPANT_FIELD))
+                && !datasetIds.contains(dataset.getString(ID_FIELD))).size();
+
+        // Only refresh the seen marker of the datasets whose content did not change
+        storedDatasets.stream()
+                .filter(dataset -> unchangedIds.contains(dataset.getString(ID_FIELD)))
+                .forEach(dataset -> dataset.put(getGenerationField(), generation));
+        metrics.increment(DATASET_HASH_METRIC + ".hits", unchangedIds.size());
+        metrics.increment(DATASET_HASH_METRIC + ".misses", datasetValues.size() - unchangedIds.size());
+        dataVersion.incrementAndGet();
+        notifySaved(id, true);
+        return new DatasetIngestionResult(participantId, inserted, modified, unchangedIds.size(), 0, deleted, 0);
+    }
+
+    private void notifySaved(String id, boolean changed) {
+        var listener = saveListener;
+        if (listener != null) {
+            listener.saved(id, changed);
+        }
+    }
+
+    private List<Document> page(QuerySpec query, List<Document> matches) {
+        Comparator<Document> comparator = DocumentMatcher.comparator(query);
+        var sorted = new ArrayList<>(matches);
+        sorted.sort(comparator);
+        int from = Math.min(Math.max(query.getOffset(), 0), sorted.size());
+        int to = query.getLimit() > 0 ? Math.min(from + query.getLimit(), sorted.size()) : sorted.size();
+        return sorted.subList(from, to);
+    }
+
+    private boolean isExpired(Document document) {
+        // documents without a generation were written before generations existed and are also expired
+        return !(document.get(getGenerationField()) instanceof Number seen) || seen.longValue() < generation;
+    }
+
+    private void writeSnapshot() throws IOException {
+        if (snapshotPath == null) {
+            return;
+        }
+        var temporary = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            writeLine(writer, new Document(SNAPSHOT_GENERATION, generation));
+            for (Document catalog : catalogs.documents()) {
+                writeLine(writer, new Document(SNAPSHOT_CATALOG, catalog));
+            }
+            for (Document dataset : datasets.documents()) {
+                writeLine(writer, new Document(SNAPSHOT_DATASET, dataset));
+            }
+        }
+        Files.move(temporary, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeLine(BufferedWriter writer, Document entry) throws IOException {
+        writer.write(entry.toJson(SNAPSHOT_WRITER_SETTINGS));
+        writer.newLine();
+    }
+
+    private static String datasetKey(String participantId, String datasetId) {
+        return participantId + '\u0000' + datasetId;
+    }
+
+    private <T> T read(ThrowingSupplier<T> action) {
+        return locked(lock.readLock(), action);
+    }
+
+    private <T> T write(ThrowingSupplier<T> action) {
+        return locked(lock.writeLock(), action);
+    }
+
+    private static <T> T locked(Lock lock, ThrowingSupplier<T> action) {
+        lock.lock();
+        try {
+            return action.get();
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new EdcPersistenceException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private JsonObject ensureDatasetAsArray(JsonObject catalogJson) {
+        var dataset = catalogJson.get(DATASET_FIELD);
+        if (dataset instanceof JsonObject) {
+            var catalogWithArrayBuilder = Json.createObjectBuilder(catalogJson);
+            JsonArrayBuilder arrayBuilder = Json.createArrayBuilder();
+            arrayBuilder.add(dataset);
+            catalogWithArrayBuilder.add(DATASET_FIELD, arrayBuilder.build());
+            return catalogWithArrayBuilder.build();
+        }
+        return catalogJson;
+    }
+
+    /**
+     * An action that may throw checked exceptions, run while holding the cache lock.
+     *
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    private interface ThrowingSupplier<T> {
+        T get() throws Exception;
+    }
+}
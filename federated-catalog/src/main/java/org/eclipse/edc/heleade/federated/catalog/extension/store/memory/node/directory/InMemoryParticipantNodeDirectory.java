@@ -0,0 +1,143 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.memory.node.directory;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.eclipse.edc.crawler.spi.TargetNode;
+import org.eclipse.edc.heleade.federated.catalog.extension.api.node.directory.ParticipantNode;
+import org.eclipse.edc.heleade.federated.catalog.extension.api.node.directory.ParticipantNodeDirectory;
+import org.eclipse.edc.spi.persistence.EdcPersistenceException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Node directory held in the memory of the process, used with the in-memory federated catalog cache. The nodes
+ * are written to a JSON file on every change and read back on start, or only kept in memory if no file is set.
+ */
+public class InMemoryParticipantNodeDirectory implements ParticipantNodeDirectory {
+
+    private final Map<String, ParticipantNode> nodes = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final Path snapshotPath;
+
+    /**
+     * Constructs an in-memory node directory.
+     *
+     * @param objectMapper the ObjectMapper instance used for JSON serialization and deserialization
+     * @param snapshotPath the file the nodes are saved to and loaded from, or null to keep them only in memory
+     */
+    public InMemoryParticipantNodeDirectory(ObjectMapper objectMapper, Path snapshotPath) {
+        this.objectMapper = objectMapper;
+        this.snapshotPath = snapshotPath;
+    }
+
+    /**
+     * Loads the nodes from the snapshot file, if there is one.
+     */
+    public void load() {
+        if (snapshotPath == null || !Files.exists(snapshotPath)) {
+            return;
+        }
+        try {
+            List<ParticipantNode> loaded = objectMapper.readValue(snapshotPath.toFile(), new TypeReference<>() {
+            });
+            loaded.forEach(node -> nodes.put(node.id(), node));
+        } catch (IOException e) {
+            throw new EdcPersistenceException(e);
+        }
+    }
+
+    /**
+     * Retrieves the nodes that can be crawled, those with a URL and at least one supported protocol.
+     *
+     * @return a list of {@code TargetNode} instances
+     */
+    @Override
+    public List<TargetNode> getAll() {
+        return nodes.values().stream()
+                .filter(node -> node.targetUrl() != null && !node.targetUrl().isEmpty())
+                .filter(node -> node.supportedProtocols() != null && !node.supportedProtocols().isEmpty())
+                .map(ParticipantNode::asTargetNode)
+                .toList();
+    }
+
+    @Override
+    public void insert(TargetNode targetNode) {
+        insert(new ParticipantNode(targetNode));
+    }
+
+    @Override
+    public TargetNode remove(String id) {
+        var existing = nodes.remove(id);
+        if (existing == null) {
+            return null;
+        }
+        writeSnapshot();
+        return existing.asTargetNode();
+    }
+
+    /**
+     * Retrieves a list of all {@code ParticipantNode} objects from the node directory.
+     *
+     * @return a list of {@code ParticipantNode} instances representing all participant nodes in the directory.
+     */
+    @Override
+    public List<ParticipantNode> getParticipantNodes() {
+        return new ArrayList<>(nodes.values());
+    }
+
+    /**
+     * Inserts the provided {@code ParticipantNode} into the node directory, replacing the node with the same id.
+     *
+     * @param participantNode the {@code ParticipantNode} to be inserted; must not be null
+     */
+    @Override
+    public void insert(ParticipantNode participantNode) {
+        nodes.put(participantNode.id(), participantNode);
+        writeSnapshot();
+    }
+
+    /**
+     * Retrieves a {@code ParticipantNode} corresponding to the given participant identifier.
+     *
+     * @param participantId the unique identifier of the participant
+     * @return the {@code ParticipantNode} associated with the given identifier, or null if not found
+     */
+    @Override
+    public ParticipantNode getParticipantNode(String participantId) {
+        return nodes.get(participantId);
+    }
+
+    private synchronized void writeSnapshot() {
+        if (snapshotPath == null) {
+            return;
+        }
+        try {
+            var temporary = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+            objectMapper.writeValue(temporary.toFile(), new ArrayList<>(nodes.values()));
+            Files.move(temporary, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new EdcPersistenceException(e);
+        }
+    }
+}
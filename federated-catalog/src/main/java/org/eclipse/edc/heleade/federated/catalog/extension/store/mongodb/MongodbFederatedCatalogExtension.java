@@ -14,54 +14,47 @@
 
 package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb;
 
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.ServerApi;
+import com.mongodb.ServerApiVersion;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
 import org.eclipse.edc.catalog.spi.FederatedCatalogCache;
 import org.eclipse.edc.connector.controlplane.catalog.spi.Catalog;
 import org.eclipse.edc.connector.controlplane.catalog.spi.Dataset;
-import org.eclipse.edc.connector.controlplane.transform.odrl.to.JsonObjectToActionTransformer;
-import org.eclipse.edc.connector.controlplane.transform.odrl.to.JsonObjectToConstraintTransformer;
-import org.eclipse.edc.connector.controlplane.transform.odrl.to.JsonObjectToDutyTransformer;
-import org.eclipse.edc.connector.controlplane.transform.odrl.to.JsonObjectToOperatorTransformer;
-import org.eclipse.edc.connector.controlplane.transform.odrl.to.JsonObjectToPermissionTransformer;
-import org.eclipse.edc.connector.controlplane.transform.odrl.to.JsonObjectToProhibitionTransformer;
 import org.eclipse.edc.crawler.spi.TargetNodeDirectory;
+import org.eclipse.edc.heleade.federated.catalog.extension.metrics.FederatedCatalogMetrics;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.FederatedCatalogStores;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.CatalogIngestionQueue;
 import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCache;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.index.MongodbIndexManager;
 import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.node.directory.MongodbFederatedCatalogNodeDirectory;
-import org.eclipse.edc.jsonld.JsonLdExtension;
 import org.eclipse.edc.jsonld.spi.JsonLd;
 import org.eclipse.edc.runtime.metamodel.annotation.Extension;
 import org.eclipse.edc.runtime.metamodel.annotation.Inject;
-import org.eclipse.edc.runtime.metamodel.annotation.Provider;
 import org.eclipse.edc.runtime.metamodel.annotation.Provides;
 import org.eclipse.edc.spi.monitor.Monitor;
+import org.eclipse.edc.spi.persistence.EdcPersistenceException;
+import org.eclipse.edc.spi.system.configuration.Config;
 import org.eclipse.edc.spi.system.ServiceExtension;
 import org.eclipse.edc.spi.system.ServiceExtensionContext;
 import org.eclipse.edc.spi.types.TypeManager;
 import org.eclipse.edc.transaction.spi.TransactionContext;
 import org.eclipse.edc.transform.spi.TypeTransformerRegistry;
 
-import static org.eclipse.edc.heleade.commons.content.based.catalog.CbmConstants.CBM_PREFIX;
-import static org.eclipse.edc.heleade.commons.content.based.catalog.CbmConstants.CBM_SCHEMA;
-import static org.eclipse.edc.heleade.commons.content.based.catalog.CbmConstants.RDF_NAMESPACE;
-import static org.eclipse.edc.heleade.commons.content.based.catalog.CbmConstants.RDF_PREFIX;
-import static org.eclipse.edc.heleade.commons.content.based.catalog.CbmConstants.SCHEMA_PREFIX;
-import static org.eclipse.edc.iam.verifiablecredentials.spi.VcConstants.SCHEMA_ORG_NAMESPACE;
-import static org.eclipse.edc.jsonld.spi.JsonLdKeywords.VOCAB;
-import static org.eclipse.edc.jsonld.spi.Namespaces.DCAT_PREFIX;
-import static org.eclipse.edc.jsonld.spi.Namespaces.DCAT_SCHEMA;
-import static org.eclipse.edc.jsonld.spi.Namespaces.DCT_PREFIX;
-import static org.eclipse.edc.jsonld.spi.Namespaces.DCT_SCHEMA;
-import static org.eclipse.edc.jsonld.spi.Namespaces.DSPACE_PREFIX;
-import static org.eclipse.edc.jsonld.spi.Namespaces.DSPACE_SCHEMA;
-import static org.eclipse.edc.policy.model.OdrlNamespace.ODRL_PREFIX;
-import static org.eclipse.edc.policy.model.OdrlNamespace.ODRL_SCHEMA;
-import static org.eclipse.edc.spi.constants.CoreConstants.EDC_NAMESPACE;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class is an implementation of a ServiceExtension providing a MongoDB-based Federated Catalog Cache.
  * It defines configurations and initializes the required components for managing and interacting with a
  * federated catalog stored in a MongoDB database.
+ * A single pooled {@link MongoClient} is created on initialization, shared by the cache and the node
+ * directory stores, and closed when the runtime shuts down. The extension stays idle unless MongoDB is the
+ * storage backend selected in the {@value FederatedCatalogStores#BACKEND_PROPERTY} setting, which is the default.
  */
-@Provides({FederatedCatalogCache.class, TargetNodeDirectory.class})
+@Provides({FederatedCatalogCache.class, TargetNodeDirectory.class, FederatedCatalogMetrics.class})
 @Extension(value = MongodbFederatedCatalogExtension.NAME)
 public class MongodbFederatedCatalogExtension implements ServiceExtension {
 
@@ -71,11 +64,37 @@ public class MongodbFederatedCatalogExtension implements ServiceExtension {
     private static final String FEDERATED_CATALOG_URI_DEFAULT = "mongodb://localhost:27017/";
     private static final String FEDERATED_CATALOG_DB_PROPERTY = "org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.db";
     private static final String FEDERATED_CATALOG_DB_DEFAULT = "federatedcatalogdb";
+    private static final String FEDERATED_CATALOG_POOL_MAX_SIZE_PROPERTY = "org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.pool.max.size";
+    private static final int FEDERATED_CATALOG_POOL_MAX_SIZE_DEFAULT = 100;
+    private static final String FEDERATED_CATALOG_POOL_MIN_SIZE_PROPERTY = "org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.pool.min.size";
+    private static final int FEDERATED_CATALOG_POOL_MIN_SIZE_DEFAULT = 0;
+    private static final String FEDERATED_CATALOG_POOL_MAX_IDLE_SECONDS_PROPERTY = "org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.pool.max.idle.seconds";
+    private static final long FEDERATED_CATALOG_POOL_MAX_IDLE_SECONDS_DEFAULT = 300;
+    private static final String FEDERATED_CATALOG_POOL_MAX_WAIT_MILLIS_PROPERTY = "org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.pool.max.wait.millis";
+    private static final long FEDERATED_CATALOG_POOL_MAX_WAIT_MILLIS_DEFAULT = 120000;
+    private static final String FEDERATED_CATALOG_POOL_MAX_CONNECTING_PROPERTY = "org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.pool.max.connecting";
+    private static final int FEDERATED_CATALOG_POOL_MAX_CONNECTING_DEFAULT = 2;
+    private static final String FEDERATED_CATALOG_BULK_BATCH_SIZE_PROPERTY = "org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.bulk.batch.size";
+    private static final String FEDERATED_CATALOG_INGESTION_WRITERS_PROPERTY = "org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.ingestion.writers";
+    private static final String FEDERATED_CATALOG_INGESTION_QUEUE_CAPACITY_PROPERTY = "org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.ingestion.queue.capacity";
+    private static final String FEDERATED_CATALOG_INDEX_CATALOG_FIELDS_PROPERTY = "org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.index.catalog.fields";
+    private static final String FEDERATED_CATALOG_INDEX_DATASET_FIELDS_PROPERTY = "org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.index.dataset.fields";
+    private static final String FEDERATED_CATALOG_INDEX_DATASET_FIELDS_DEFAULT = "dcat:keyword,dct:issued";
+    private static final String FEDERATED_CATALOG_INDEX_SCAN_CHECK_INTERVAL_PROPERTY = "org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.index.scan.check.interval";
+    private static final int FEDERATED_CATALOG_INDEX_SCAN_CHECK_INTERVAL_DEFAULT = 100;
+    private static final String FEDERATED_CATALOG_INDEX_TEXT_FIELDS_PROPERTY = "org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.index.text.fields";
+    private static final String FEDERATED_CATALOG_INDEX_TEXT_FIELDS_DEFAULT = "dct:title=10,dcat:keyword=5,dct:description=1";
+    private static final String FEDERATED_CATALOG_INDEX_TEXT_LANGUAGE_PROPERTY = "org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.index.text.language";
+    private static final String FEDERATED_CATALOG_INDEX_TEXT_LANGUAGE_DEFAULT = "none";
+    private static final String FEDERATED_CATALOG_INDEX_TEXT_LANGUAGE_OVERRIDE_PROPERTY = "org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.index.text.language.override";
+    private static final String FEDERATED_CATALOG_INDEX_TEXT_LANGUAGE_OVERRIDE_DEFAULT = "text_search_language";
 
     private Monitor monitor;
     private String dataSourceUri;
     private String dataSourceDb;
     private JsonLd jsonLd;
+    private MongoClient mongoClient;
+    private MongodbFederatedCatalogCache catalogCache;
     private MongodbFederatedCatalogNodeDirectory catalogNodeDirectory;
 
     @Inject
@@ -85,16 +104,6 @@ public class MongodbFederatedCatalogExtension implements ServiceExtension {
     @Inject
     private TypeTransformerRegistry transformerRegistry;
 
-    /**
-     * Provides the TargetNodeDirectory component configured for use with the federated catalog.
-     *
-     * @return an instance of TargetNodeDirectory representing the node directory for the federated catalog.
-     */
-    @Provider
-    public TargetNodeDirectory federatedCacheNodeDirectory() {
-        return this.catalogNodeDirectory;
-    }
-
     @Override
     public void initialize(ServiceExtensionContext context) {
         typeManager.registerTypes(Catalog.class, Dataset.class);
@@ -102,31 +111,101 @@ public class MongodbFederatedCatalogExtension implements ServiceExtension {
         dataSourceDb = context.getConfig().getString(FEDERATED_CATALOG_DB_PROPERTY, FEDERATED_CATALOG_DB_DEFAULT);
         monitor = context.getMonitor();
 
-        transformerRegistry.register(new JsonObjectToPermissionTransformer());
-        transformerRegistry.register(new JsonObjectToProhibitionTransformer());
-        transformerRegistry.register(new JsonObjectToActionTransformer());
-        transformerRegistry.register(new JsonObjectToConstraintTransformer());
-        transformerRegistry.register(new JsonObjectToDutyTransformer());
-        transformerRegistry.register(new JsonObjectToOperatorTransformer());
-
-        jsonLd = new JsonLdExtension().createJsonLdService(context);
-        jsonLd.registerNamespace(VOCAB, EDC_NAMESPACE);
-        jsonLd.registerNamespace(DCAT_PREFIX, DCAT_SCHEMA);
-        jsonLd.registerNamespace(DCT_PREFIX, DCT_SCHEMA);
-        jsonLd.registerNamespace(DSPACE_PREFIX, DSPACE_SCHEMA);
-        jsonLd.registerNamespace(ODRL_PREFIX, ODRL_SCHEMA);
-        jsonLd.registerNamespace(VOCAB, EDC_NAMESPACE);
-        jsonLd.registerNamespace(ODRL_PREFIX, ODRL_SCHEMA);
-        jsonLd.registerNamespace(CBM_PREFIX, CBM_SCHEMA);
-        jsonLd.registerNamespace(SCHEMA_PREFIX, SCHEMA_ORG_NAMESPACE);
-        jsonLd.registerNamespace(RDF_PREFIX, RDF_NAMESPACE);
-
-        var store = new MongodbFederatedCatalogCache(dataSourceUri, dataSourceDb, trxContext, typeManager.getMapper(), jsonLd, transformerRegistry);
+        if (!FederatedCatalogStores.isSelected(context, FederatedCatalogStores.MONGODB_BACKEND)) {
+            monitor.info("MongoDB storage backend not selected");
+            return;
+        }
+
+        FederatedCatalogStores.registerTransformers(transformerRegistry);
+        jsonLd = FederatedCatalogStores.createJsonLd(context);
+
+        mongoClient = createMongoClient(context.getConfig());
+        monitor.info("MongoDB Client Ready");
+
+        var metrics = new FederatedCatalogMetrics();
+        context.registerService(FederatedCatalogMetrics.class, metrics);
+
+        var indexManager = new MongodbIndexManager(mongoClient, dataSourceDb, monitor, metrics,
+                context.getConfig().getInteger(FEDERATED_CATALOG_INDEX_SCAN_CHECK_INTERVAL_PROPERTY, FEDERATED_CATALOG_INDEX_SCAN_CHECK_INTERVAL_DEFAULT));
+        indexManager.ensureRequiredIndexes();
+        indexManager.ensureFieldIndexes(MongodbFederatedCatalogCache.getFederatedCatalogCollectionName(),
+                List.of(context.getConfig().getString(FEDERATED_CATALOG_INDEX_CATALOG_FIELDS_PROPERTY, "").split(",")));
+        indexManager.ensureFieldIndexes(MongodbFederatedCatalogCache.getFederatedCatalogDatasetCollectionName(),
+                List.of(context.getConfig().getString(FEDERATED_CATALOG_INDEX_DATASET_FIELDS_PROPERTY, FEDERATED_CATALOG_INDEX_DATASET_FIELDS_DEFAULT).split(",")));
+        var textFields = List.of(context.getConfig().getString(FEDERATED_CATALOG_INDEX_TEXT_FIELDS_PROPERTY, FEDERATED_CATALOG_INDEX_TEXT_FIELDS_DEFAULT).split(","));
+        var textLanguage = context.getConfig().getString(FEDERATED_CATALOG_INDEX_TEXT_LANGUAGE_PROPERTY, FEDERATED_CATALOG_INDEX_TEXT_LANGUAGE_DEFAULT);
+        var textLanguageOverride = context.getConfig().getString(FEDERATED_CATALOG_INDEX_TEXT_LANGUAGE_OVERRIDE_PROPERTY, FEDERATED_CATALOG_INDEX_TEXT_LANGUAGE_OVERRIDE_DEFAULT);
+        indexManager.ensureTextIndex(MongodbFederatedCatalogCache.getFederatedCatalogDatasetCollectionName(), "",
+                textFields, textLanguage, textLanguageOverride);
+        monitor.info("MongoDB Indexes Ready");
+
+        var bulkBatchSize = context.getConfig().getInteger(FEDERATED_CATALOG_BULK_BATCH_SIZE_PROPERTY, MongodbFederatedCatalogCache.DEFAULT_BULK_BATCH_SIZE);
+        var store = new MongodbFederatedCatalogCache(mongoClient, dataSourceDb, trxContext, typeManager.getMapper(), jsonLd, transformerRegistry, monitor, metrics, indexManager, bulkBatchSize);
+        store.initializeKeywordFacets();
+        store.initializeDerivedFields();
+        store.initializeDataDictionaries();
+        store.initializeCatalogReferences();
+        // zero writers keeps writing the crawled catalogs on the crawler threads
+        var ingestionWriters = context.getConfig().getInteger(FEDERATED_CATALOG_INGESTION_WRITERS_PROPERTY, CatalogIngestionQueue.DEFAULT_WRITERS);
+        if (ingestionWriters > 0) {
+            store.startIngestionQueue(ingestionWriters,
+                    context.getConfig().getInteger(FEDERATED_CATALOG_INGESTION_QUEUE_CAPACITY_PROPERTY, CatalogIngestionQueue.DEFAULT_QUEUE_CAPACITY));
+        }
+        this.catalogCache = store;
         monitor.info("MongoDB Cache Store Ready");
         context.registerService(FederatedCatalogCache.class, store);
 
-        this.catalogNodeDirectory = new MongodbFederatedCatalogNodeDirectory(dataSourceUri, dataSourceDb, trxContext, typeManager.getMapper());
+        this.catalogNodeDirectory = new MongodbFederatedCatalogNodeDirectory(mongoClient, dataSourceDb, trxContext, typeManager.getMapper());
         monitor.info("MongoDB Node Directory Store Ready");
-        context.registerService(TargetNodeDirectory.class, this.catalogNodeDirectory);
+        context.registerService(TargetNodeDirectory.class,
+                FederatedCatalogStores.scheduleCrawls(context, this.catalogNodeDirectory, store, metrics));
+    }
+
+    @Override
+    public void shutdown() {
+        if (catalogCache != null) {
+            // the queued catalogs are written before the client is closed
+            catalogCache.shutdown();
+            catalogCache = null;
+        }
+        if (mongoClient != null) {
+            mongoClient.close();
+            mongoClient = null;
+            monitor.info("MongoDB Client Closed");
+        }
+    }
+
+    /**
+     * Creates the pooled MongoDB client shared by all the federated catalog stores.
+     *
+     * @param config the configuration holding the connection pool settings
+     * @return a MongoClient connected to the configured data source
+     */
+    private MongoClient createMongoClient(Config config) {
+        ServerApi serverApi = ServerApi.builder()
+                .version(ServerApiVersion.V1)
+                .build();
+        MongoClientSettings settings = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(dataSourceUri))
+                .applyToConnectionPoolSettings(builder ->
+                        builder.maxSize(config.getInteger(FEDERATED_CATALOG_POOL_MAX_SIZE_PROPERTY, FEDERATED_CATALOG_POOL_MAX_SIZE_DEFAULT))
+                                .minSize(config.getInteger(FEDERATED_CATALOG_POOL_MIN_SIZE_PROPERTY, FEDERATED_CATALOG_POOL_MIN_SIZE_DEFAULT))
+                                .maxConnectionIdleTime(config.getLong(FEDERATED_CATALOG_POOL_MAX_IDLE_SECONDS_PROPERTY, FEDERATED_CATALOG_POOL_MAX_IDLE_SECONDS_DEFAULT), TimeUnit.SECONDS)
+                                .maxWaitTime(config.getLong(FEDERATED_CATALOG_POOL_MAX_WAIT_MILLIS_PROPERTY, FEDERATED_CATALOG_POOL_MAX_WAIT_MILLIS_DEFAULT), TimeUnit.MILLISECONDS)
+                                .maxConnecting(config.getInteger(FEDERATED_CATALOG_POOL_MAX_CONNECTING_PROPERTY, FEDERATED_CATALOG_POOL_MAX_CONNECTING_DEFAULT)))
+                .applyToSocketSettings(builder ->
+                        builder.connectTimeout(30, TimeUnit.SECONDS)
+                                .readTimeout(30, TimeUnit.SECONDS))
+                .applyToClusterSettings(builder ->
+                        builder.serverSelectionTimeout(30, TimeUnit.SECONDS))
+                .retryWrites(true)
+                .retryReads(true)
+                .serverApi(serverApi)
+                .build();
+        try {
+            return MongoClients.create(settings);
+        } catch (Exception e) {
+            throw new EdcPersistenceException(e);
+        }
     }
 }
@@ -16,12 +16,7 @@ package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.mongodb.ConnectionString;
-import com.mongodb.MongoClientSettings;
-import com.mongodb.ServerApi;
-import com.mongodb.ServerApiVersion;
 import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 import org.bson.Document;
@@ -29,12 +24,13 @@ import org.eclipse.edc.spi.persistence.EdcPersistenceException;
 import org.eclipse.edc.transaction.spi.TransactionContext;
 
 import java.util.Objects;
-import java.util.concurrent.TimeUnit;
 
 
 /**
  * A base class for MongoDB-based storage implementations, providing utility methods
- * for database operations such as serialization, deserialization, and establishing connections.
+ * for database operations such as serialization, deserialization, and access to collections.
+ * The underlying {@link MongoClient} is shared and owned by the extension that creates the store,
+ * so stores must never close it.
  */
 public class MongodbStore {
 
@@ -43,62 +39,33 @@ public class MongodbStore {
      * Final field initialized during construction.
      */
     protected final TransactionContext transactionContext;
-    private final String dataSourceUri;
+    private final MongoClient mongoClient;
     private final String dataSourceDb;
     private final ObjectMapper objectMapper;
 
     /**
      * Constructs a new instance of MongodbStore, initializing it with the specified parameters.
      *
-     * @param dataSourceUri       the connection URI for the data source; must not be null
+     * @param mongoClient         the shared, pooled client used to access the data source; must not be null
      * @param dataSourceDb        the name of the database to use; must not be null
      * @param transactionContext  the context for handling transactions; must not be null
      * @param objectMapper        the ObjectMapper instance for JSON serialization and deserialization; must not be null
      */
-    public MongodbStore(String dataSourceUri, String dataSourceDb, TransactionContext transactionContext, ObjectMapper objectMapper) {
-        this.dataSourceUri = Objects.requireNonNull(dataSourceUri);
+    public MongodbStore(MongoClient mongoClient, String dataSourceDb, TransactionContext transactionContext, ObjectMapper objectMapper) {
+        this.mongoClient = Objects.requireNonNull(mongoClient);
         this.dataSourceDb = Objects.requireNonNull(dataSourceDb);
         this.objectMapper = Objects.requireNonNull(objectMapper);
         this.transactionContext = Objects.requireNonNull(transactionContext);
     }
 
     /**
-     * Creates a connection to a MongoDB database using a connection URI string
+     * Retrieves a MongoDB collection from the configured database using the shared client.
      *
-     * @return A MongoClient instance representing the connection
-     */
-    protected MongoClient getConnection()  {
-        ServerApi serverApi = ServerApi.builder()
-                .version(ServerApiVersion.V1)
-                .build();
-        MongoClientSettings settings = MongoClientSettings.builder()
-                .applyConnectionString(new ConnectionString(dataSourceUri))
-                .applyToSocketSettings(builder ->
-                        builder.connectTimeout(30, TimeUnit.SECONDS)
-                                .readTimeout(30, TimeUnit.SECONDS))
-                .applyToClusterSettings(builder ->
-                        builder.serverSelectionTimeout(30, TimeUnit.SECONDS))
-                .retryWrites(true)
-                .retryReads(true)
-                .serverApi(serverApi)
-                .build();
-        // Create a new client and connect to the server
-        try {
-            return MongoClients.create(settings);
-        } catch (Exception e) {
-            throw new EdcPersistenceException(e);
-        }
-    }
-
-    /**
-     * Retrieves a MongoDB collection from the specified database connection.
-     *
-     * @param connection      the MongoClient instance representing the connection to the MongoDB server; must not be null
      * @param collectionName  the name of the collection to retrieve; must not be null
      * @return the MongoCollection representing the specified collection in the MongoDB database
      */
-    protected MongoCollection<Document> getCollection(MongoClient connection, String collectionName) {
-        MongoDatabase database = connection.getDatabase(dataSourceDb);
+    protected MongoCollection<Document> getCollection(String collectionName) {
+        MongoDatabase database = mongoClient.getDatabase(dataSourceDb);
         return database.getCollection(collectionName);
     }
 
@@ -0,0 +1,245 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.eclipse.edc.spi.query.Criterion;
+import org.eclipse.edc.spi.query.QuerySpec;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCache.DATASET_FIELD;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCache.PARTICIPANT_FIELD;
+
+/**
+ * Reassembles the stored catalogs with their datasets. Datasets are only stored in the dataset collection, and
+ * the {@code dcat:dataset} array of a stored catalog holds references with just the {@code @id} of each
+ * dataset, which is unique within the participant of the catalog.
+ * <p>
+ * Catalog criteria on the dataset fields, those whose left operand starts with {@code dcat:dataset.}, and text
+ * searches are run against the dataset collection and replaced with the participants owning a matching dataset.
+ */
+public class CatalogAssembler {
+
+    private static final String ID_FIELD = "@id";
+    private static final String CONTEXT_FIELD = "@context";
+    private static final String DATASET_PREFIX = DATASET_FIELD + ".";
+
+    private final MongoCollection<Document> datasetCollection;
+
+    /**
+     * Constructs a catalog assembler.
+     *
+     * @param datasetCollection the collection holding the cached datasets
+     */
+    public CatalogAssembler(MongoCollection<Document> datasetCollection) {
+        this.datasetCollection = datasetCollection;
+    }
+
+    /**
+     * Creates the dataset references stored in a catalog in place of its datasets.
+     *
+     * @param datasets the compacted datasets of the catalog
+     * @return the references, in the order of the datasets
+     */
+    public static List<Document> references(JsonArray datasets) {
+        var references = new ArrayList<Document>(datasets.size());
+        for (JsonValue dataset : datasets) {
+            references.add(new Document(ID_FIELD, dataset.asJsonObject().getString(ID_FIELD)));
+        }
+        return references;
+    }
+
+    /**
+     * Maps the fields requested for a catalog projection to the stored catalog fields: a dataset sub-field needs
+     * the whole reference array, and the participant is needed to find the datasets.
+     *
+     * @param fields the requested field paths, empty for all the fields
+     * @return the field paths to project the stored catalogs with
+     */
+    public static List<String> catalogFields(List<String> fields) {
+        if (fields.isEmpty() || !requestsDatasets(fields)) {
+            return fields;
+        }
+        var catalogFields = new LinkedHashSet<String>();
+        for (String field : fields) {
+            catalogFields.add(field.startsWith(DATASET_PREFIX) ? DATASET_FIELD : field);
+        }
+        catalogFields.add(PARTICIPANT_FIELD);
+        return List.copyOf(catalogFields);
+    }
+
+    /**
+     * Replaces the criteria on dataset fields and the text searches of a catalog query with a criterion on the
+     * participants owning a dataset that matches all of them.
+     *
+     * @param querySpec the catalog query specification
+     * @return the query specification to run against the catalog collection
+     * @throws IllegalArgumentException if the catalogs are sorted by relevance, which only datasets have
+     */
+    public QuerySpec resolveDatasetCriteria(QuerySpec querySpec) {
+        if (MongodbFederatedCatalogCacheQuery.isSortedByRelevance(querySpec)) {
+            throw new IllegalArgumentException("Catalogs cannot be sorted by " + MongodbFederatedCatalogCacheStore.getTextScoreField()
+                    + ", sort the datasets instead");
+        }
+        var catalogCriteria = new ArrayList<Criterion>();
+        var datasetCriteria = new ArrayList<Criterion>();
+        for (Criterion criterion : querySpec.getFilterExpression()) {
+            var left = String.valueOf(criterion.getOperandLeft());
+            if (MongodbFederatedCatalogCacheQuery.TEXT_SEARCH_OPERATOR.equals(criterion.getOperator())) {
+                datasetCriteria.add(criterion);
+            } else if (left.startsWith(DATASET_PREFIX)) {
+                datasetCriteria.add(new Criterion(left.substring(DATASET_PREFIX.length()), criterion.getOperator(), criterion.getOperandRight()));
+            } else {
+                catalogCriteria.add(criterion);
+            }
+        }
+        if (datasetCriteria.isEmpty()) {
+            return querySpec;
+        }
+
+        var datasetQuery = QuerySpec.Builder.newInstance().filter(datasetCriteria).build();
+        var participants = new ArrayList<String>();
+        datasetCollection.aggregate(List.of(
+                        Aggregates.match(MongodbFederatedCatalogCacheQuery.createFilter(datasetQuery, "")),
+                        Aggregates.group("$" + PARTICIPANT_FIELD)))
+                .forEach(doc -> participants.add(doc.getString("_id")));
+        catalogCriteria.add(new Criterion(PARTICIPANT_FIELD, "in", participants));
+
+        return QuerySpec.Builder.newInstance()
+                .offset(querySpec.getOffset())
+                .limit(querySpec.getLimit())
+                .sortField(querySpec.getSortField())
+                .sortOrder(querySpec.getSortOrder())
+                .filter(catalogCriteria)
+                .build();
+    }
+
+    /**
+     * Replaces the dataset references of stored catalogs with the datasets, read from the dataset collection in
+     * a single query for all the catalogs. References to datasets no longer cached are dropped, and catalogs
+     * stored with their datasets inline are returned as they are.
+     *
+     * @param catalogs the stored catalog documents, modified in place
+     * @param fields the requested field paths, empty for all the fields
+     * @return the catalog documents, in the same order
+     */
+    public List<Document> assemble(List<Document> catalogs, List<String> fields) {
+        if (!fields.isEmpty() && !requestsDatasets(fields)) {
+            return catalogs;
+        }
+        var participants = catalogs.stream()
+                .filter(catalog -> catalog.get(DATASET_FIELD) instanceof List<?>)
+                .map(catalog -> catalog.getString(PARTICIPANT_FIELD))
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (participants.isEmpty()) {
+            return catalogs;
+        }
+
+        Map<String, Map<String, Document>> datasets = new HashMap<>();
+        var find = datasetCollection.find(Filters.in(PARTICIPANT_FIELD, participants));
+        var projection = datasetProjection(fields);
+        if (projection != null) {
+            find.projection(projection);
+        }
+        for (Document dataset : find) {
+            datasets.computeIfAbsent(dataset.getString(PARTICIPANT_FIELD), participant -> new HashMap<>())
+                    .put(dataset.getString(ID_FIELD), dataset);
+        }
+
+        for (Document catalog : catalogs) {
+            if (!(catalog.get(DATASET_FIELD) instanceof List<?> references)) {
+                continue;
+            }
+            var participantDatasets = datasets.getOrDefault(catalog.getString(PARTICIPANT_FIELD), Map.of());
+            var assembled = new ArrayList<Object>(references.size());
+            for (Object reference : references) {
+                if (reference instanceof Document referenceDoc && referenceDoc.size() == 1 && referenceDoc.get(ID_FIELD) instanceof String id) {
+                    var dataset = participantDatasets.get(id);
+                    if (dataset != null) {
+                        assembled.add(content(dataset));
+                    }
+                } else {
+                    // stored inline before catalogs referenced their datasets
+                    assembled.add(reference);
+                }
+            }
+            catalog.put(DATASET_FIELD, assembled);
+        }
+        return catalogs;
+    }
+
+    /**
+     * Creates the filter of the stored catalogs that still hold their datasets inline, whose datasets have a
+     * {@code @type}, unlike the references.
+     *
+     * @return the filter
+     */
+    public static Bson inlineDatasetsFilter() {
+        return Filters.exists(DATASET_PREFIX + "@type");
+    }
+
+    /**
+     * Creates the update replacing the inline datasets of a stored catalog with references, computed by the
+     * server.
+     *
+     * @return the update pipeline
+     */
+    public static List<Bson> toReferencesUpdate() {
+        var references = new Document("$map", new Document("input", "$" + DATASET_FIELD)
+                .append("in", new Document(ID_FIELD, "$$this." + ID_FIELD)));
+        return List.of(new Document("$set", new Document(DATASET_FIELD, references)));
+    }
+
+    private static boolean requestsDatasets(List<String> fields) {
+        return fields.stream().anyMatch(field -> field.equals(DATASET_FIELD) || field.startsWith(DATASET_PREFIX));
+    }
+
+    private static Bson datasetProjection(List<String> fields) {
+        if (fields.isEmpty() || fields.contains(DATASET_FIELD)) {
+            return null;
+        }
+        var datasetFields = fields.stream()
+                .filter(field -> field.startsWith(DATASET_PREFIX))
+                .map(field -> field.substring(DATASET_PREFIX.length()))
+                .toList();
+        return Projections.fields(FieldProjection.create(datasetFields, null), Projections.include(PARTICIPANT_FIELD));
+    }
+
+    /**
+     * Returns the content of a stored dataset as it is embedded in its catalog, without the internal fields,
+     * the context and the participant stored with every dataset.
+     */
+    private static Document content(Document dataset) {
+        var content = MongodbFederatedCatalogCacheQuery.withoutInternalFields(dataset);
+        content.remove(CONTEXT_FIELD);
+        content.remove(PARTICIPANT_FIELD);
+        return content;
+    }
+}
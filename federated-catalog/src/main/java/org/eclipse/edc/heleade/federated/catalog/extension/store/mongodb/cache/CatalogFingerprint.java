@@ -0,0 +1,75 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.eclipse.edc.connector.controlplane.catalog.spi.Catalog;
+import org.eclipse.edc.heleade.federated.catalog.extension.metrics.FederatedCatalogMetrics;
+
+/**
+ * Computes the fingerprint of a crawled catalog as received from its node, before the JSON-LD transformation and
+ * compaction the caches run to store it. The fingerprint is the SHA-256 hash of the Jackson serialization of the
+ * catalog with the map entries sorted by key, which is far cheaper than the JSON-LD processing, so that a node
+ * whose catalog did not change since the last crawl is skipped at that cost.
+ * <p>
+ * Skips are counted in the {@value #CATALOG_FINGERPRINT_METRIC} metrics, both for all the nodes and for each node
+ * under {@value #CATALOG_FINGERPRINT_METRIC}{@code .<catalog id>}, whose derived hit rate is the skip rate of the node.
+ */
+public class CatalogFingerprint {
+
+    /**
+     * Prefix of the metrics counting the crawled catalogs whose fingerprint matched (hits) or not (misses) on save.
+     */
+    public static final String CATALOG_FINGERPRINT_METRIC = "cache.fingerprint.catalog";
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructs a catalog fingerprint calculator.
+     *
+     * @param objectMapper the object mapper the catalog types are registered in, copied to sort the map entries
+     */
+    public CatalogFingerprint(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper.copy().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+    }
+
+    /**
+     * Computes the fingerprint of a crawled catalog.
+     *
+     * @param catalog the crawled catalog
+     * @return the fingerprint, or null if the catalog cannot be serialized, in which case it is never skipped
+     */
+    public String of(Catalog catalog) {
+        try {
+            return ContentHash.of(objectMapper.writeValueAsString(catalog));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Counts a fingerprint comparison for all the nodes and for the node of the catalog.
+     *
+     * @param metrics the metrics to count in
+     * @param id the id of the catalog, identifying its node
+     * @param hit whether the fingerprint matched the stored one and the catalog was skipped
+     */
+    public static void count(FederatedCatalogMetrics metrics, String id, boolean hit) {
+        var suffix = hit ? ".hits" : ".misses";
+        metrics.increment(CATALOG_FINGERPRINT_METRIC + suffix);
+        metrics.increment(CATALOG_FINGERPRINT_METRIC + "." + id + suffix);
+    }
+}
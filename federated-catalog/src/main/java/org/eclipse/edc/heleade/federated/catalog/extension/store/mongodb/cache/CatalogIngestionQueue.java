@@ -0,0 +1,216 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache;
+
+import org.eclipse.edc.connector.controlplane.catalog.spi.Catalog;
+import org.eclipse.edc.heleade.federated.catalog.extension.metrics.FederatedCatalogMetrics;
+import org.eclipse.edc.spi.monitor.Monitor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
+
+/**
+ * Decouples the crawlers from the writes of the crawled catalogs. Each writer thread has a bounded queue, and the
+ * catalogs are assigned to a writer by their id, so that the catalogs of different participants are transformed,
+ * compacted and written in parallel while those of a single participant keep their order. A crawler enqueuing a
+ * catalog into a full queue waits for room, which keeps the crawl from running ahead of MongoDB.
+ * <p>
+ * Failed writes are counted in the {@value #INGESTION_METRIC}{@code .failed} metric and reported to the monitor,
+ * since the crawler has moved on by the time they happen, unless the caller waits for the write with
+ * {@link #submitAndWait(String, Catalog)}, which throws the failure to it instead.
+ */
+public class CatalogIngestionQueue {
+
+    /**
+     * Prefix of the metrics counting the catalogs written and failed by the ingestion writers.
+     */
+    public static final String INGESTION_METRIC = "cache.ingestion";
+
+    /**
+     * Default number of writer threads.
+     */
+    public static final int DEFAULT_WRITERS = 4;
+
+    /**
+     * Default number of catalogs waiting in the queue of each writer.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 8;
+
+    private final List<BlockingQueue<Runnable>> queues;
+    private final List<Thread> writers;
+    private final BiConsumer<String, Catalog> writer;
+    private final Monitor monitor;
+    private final FederatedCatalogMetrics metrics;
+    private final Object lock = new Object();
+    private long pending;
+    private volatile boolean closed;
+
+    /**
+     * Constructs an ingestion queue and starts its writer threads.
+     *
+     * @param writerCount the number of writer threads
+     * @param queueCapacity the maximum number of catalogs waiting in the queue of each writer
+     * @param writer the function writing a catalog with its id to the store
+     * @param monitor the monitor where failed writes are reported
+     * @param metrics the metrics where written and failed catalogs are counted
+     */
+    public CatalogIngestionQueue(int writerCount, int queueCapacity, BiConsumer<String, Catalog> writer, Monitor monitor,
+                                 FederatedCatalogMetrics metrics) {
+        if (writerCount <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("The number of ingestion writers and their queue capacity must be positive");
+        }
+        this.writer = writer;
+        this.monitor = monitor;
+        this.metrics = metrics;
+        this.queues = new ArrayList<>(writerCount);
+        this.writers = new ArrayList<>(writerCount);
+        for (int i = 0; i < writerCount; i++) {
+            var queue = new ArrayBlockingQueue<Runnable>(queueCapacity);
+            var thread = new Thread(() -> run(queue), "federated-catalog-ingestion-" + (i + 1));
+            thread.setDaemon(true);
+            queues.add(queue);
+            writers.add(thread);
+            thread.start();
+        }
+    }
+
+    /**
+     * Enqueues a catalog to be written, waiting for room in the queue of its writer.
+     *
+     * @param id the id of the catalog, which selects its writer
+     * @param catalog the crawled catalog
+     * @throws IllegalStateException if the queue is closed or the caller is interrupted while waiting
+     */
+    public void submit(String id, Catalog catalog) {
+        enqueue(id, () -> {
+            try {
+                write(id, catalog);
+            } catch (Exception e) {
+                monitor.severe("Catalog " + id + " could not be saved", e);
+            }
+        });
+    }
+
+    /**
+     * Enqueues a catalog to be written like {@link #submit(String, Catalog)}, then waits until its writer has written
+     * it. A failed write is thrown to the caller instead of being reported to the monitor.
+     *
+     * @param id the id of the catalog, which selects its writer
+     * @param catalog the catalog
+     * @throws IllegalStateException if the queue is closed or the caller is interrupted while waiting
+     * @throws RuntimeException the exception thrown by the failed write
+     */
+    public void submitAndWait(String id, Catalog catalog) {
+        var written = new CompletableFuture<Void>();
+        enqueue(id, () -> {
+            try {
+                write(id, catalog);
+                written.complete(null);
+            } catch (Exception e) {
+                written.completeExceptionally(e);
+            }
+        });
+        try {
+            written.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while writing catalog " + id, e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Waits until every catalog enqueued so far has been written or has failed.
+     *
+     * @throws IllegalStateException if the caller is interrupted while waiting
+     */
+    public void flush() {
+        synchronized (lock) {
+            while (pending > 0) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while flushing the catalog ingestion queue", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the enqueued catalogs and stops the writer threads.
+     */
+    public void close() {
+        closed = true;
+        flush();
+        writers.forEach(Thread::interrupt);
+    }
+
+    private void run(BlockingQueue<Runnable> queue) {
+        while (!closed || !queue.isEmpty()) {
+            try {
+                queue.take().run();
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void enqueue(String id, Runnable write) {
+        if (closed) {
+            throw new IllegalStateException("Catalog ingestion queue closed");
+        }
+        synchronized (lock) {
+            pending++;
+        }
+        try {
+            queues.get(Math.floorMod(id.hashCode(), queues.size())).put(() -> {
+                try {
+                    write.run();
+                } finally {
+                    done();
+                }
+            });
+        } catch (InterruptedException e) {
+            done();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while enqueuing catalog " + id, e);
+        }
+    }
+
+    private void write(String id, Catalog catalog) {
+        try {
+            writer.accept(id, catalog);
+            metrics.increment(INGESTION_METRIC + ".written");
+        } catch (RuntimeException e) {
+            metrics.increment(INGESTION_METRIC + ".failed");
+            throw e;
+        }
+    }
+
+    private void done() {
+        synchronized (lock) {
+            if (--pending == 0) {
+                lock.notifyAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache;
+
+import jakarta.json.Json;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonValue;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.TreeSet;
+
+/**
+ * Computes stable content hashes of compacted JSON-LD documents. The document is serialized in a
+ * canonical form (object keys sorted, no whitespace) so that two documents with the same content
+ * always produce the same hash regardless of the key order produced by the JSON-LD processor.
+ */
+public class ContentHash {
+
+    private static final String ALGORITHM = "SHA-256";
+
+    private ContentHash() {
+    }
+
+    /**
+     * Computes the SHA-256 hash of the canonical form of the given JSON value.
+     *
+     * @param value the JSON value to hash
+     * @return the hash as a lowercase hexadecimal string
+     */
+    public static String of(JsonValue value) {
+        return of(canonicalize(value));
+    }
+
+    /**
+     * Computes the SHA-256 hash of the given string.
+     *
+     * @param content the string to hash
+     * @return the hash as a lowercase hexadecimal string
+     */
+    public static String of(String content) {
+        try {
+            var digest = MessageDigest.getInstance(ALGORITHM);
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHM + " not available", e);
+        }
+    }
+
+    /**
+     * Serializes the given JSON value in canonical form, with object keys sorted lexicographically.
+     *
+     * @param value the JSON value to serialize
+     * @return the canonical JSON string
+     */
+    public static String canonicalize(JsonValue value) {
+        var builder = new StringBuilder();
+        appendCanonical(builder, value);
+        return builder.toString();
+    }
+
+    private static void appendCanonical(StringBuilder builder, JsonValue value) {
+        switch (value.getValueType()) {
+            case OBJECT -> {
+                JsonObject object = value.asJsonObject();
+                builder.append('{');
+                var first = true;
+                for (String key : new TreeSet<>(object.keySet())) {
+                    if (!first) {
+                        builder.append(',');
+                    }
+                    first = false;
+                    builder.append(Json.createValue(key)).append(':');
+                    appendCanonical(builder, object.get(key));
+                }
+                builder.append('}');
+            }
+            case ARRAY -> {
+                JsonArray array = value.asJsonArray();
+                builder.append('[');
+                for (int i = 0; i < array.size(); i++) {
+                    if (i > 0) {
+                        builder.append(',');
+                    }
+                    appendCanonical(builder, array.get(i));
+                }
+                builder.append(']');
+            }
+            default -> builder.append(value);
+        }
+    }
+}
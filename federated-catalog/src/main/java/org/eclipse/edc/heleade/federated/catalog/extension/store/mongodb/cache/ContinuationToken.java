@@ -0,0 +1,171 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.eclipse.edc.spi.query.QuerySpec;
+import org.eclipse.edc.spi.query.SortOrder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Opaque continuation token used for keyset pagination of the cache queries.
+ * The token records the sort of the query together with the sort value, {@code @id} and {@code _id} of the
+ * last document of a page. The next page is selected with a range {@code $match} on those keys, so the cost
+ * of reading a page does not grow with its position in the result, as it does with {@code $skip}.
+ * When the query has no sort field the documents are paged in {@code _id} order.
+ */
+public class ContinuationToken {
+
+    private static final String ID_FIELD = "@id";
+    private static final String OBJECT_ID_FIELD = "_id";
+    private static final String SORT_KEY = "s";
+    private static final String ORDER_KEY = "o";
+    private static final String VALUE_KEY = "v";
+    private static final String ID_KEY = "i";
+    private static final String OBJECT_ID_KEY = "k";
+    private static final JsonWriterSettings WRITER_SETTINGS = JsonWriterSettings.builder().outputMode(JsonMode.EXTENDED).build();
+
+    private ContinuationToken() {
+    }
+
+    /**
+     * Creates the continuation token that follows the given document.
+     *
+     * @param querySpec the query specification of the page the document belongs to
+     * @param lastDocument the last document of the page
+     * @return the encoded continuation token
+     * @throws IllegalArgumentException if the sort value of the document is an array or inside one
+     */
+    public static String create(QuerySpec querySpec, Document lastDocument) {
+        var token = new Document(SORT_KEY, sortField(querySpec))
+                .append(ORDER_KEY, sortOrder(querySpec).name())
+                .append(VALUE_KEY, sortField(querySpec) == null ? null : getValue(lastDocument, sortField(querySpec)))
+                .append(ID_KEY, lastDocument.get(ID_FIELD))
+                .append(OBJECT_ID_KEY, lastDocument.get(OBJECT_ID_FIELD));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.toJson(WRITER_SETTINGS).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a continuation token and checks it was created for a query with the same sort.
+     *
+     * @param querySpec the query specification of the requested page
+     * @param token the encoded continuation token
+     * @return the decoded token document
+     * @throws IllegalArgumentException if the token is malformed or was created for a different sort
+     */
+    public static Document decode(QuerySpec querySpec, String token) {
+        Document document;
+        try {
+            document = Document.parse(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed continuation token", e);
+        }
+        if (!document.containsKey(OBJECT_ID_KEY) || !Objects.equals(document.getString(SORT_KEY), sortField(querySpec)) ||
+                !sortOrder(querySpec).name().equals(document.getString(ORDER_KEY))) {
+            throw new IllegalArgumentException("Continuation token does not match the sort of the query");
+        }
+        return document;
+    }
+
+    /**
+     * Creates the sort of a keyset paginated query, the query sort followed by the {@code @id} and {@code _id}
+     * tiebreakers, or the {@code _id} order when the query has no sort field.
+     *
+     * @param querySpec the query specification
+     * @return the BSON sort
+     */
+    public static Bson createSort(QuerySpec querySpec) {
+        var sort = MongodbFederatedCatalogCacheQuery.createSort(querySpec);
+        return sort == null ? Sorts.ascending(OBJECT_ID_FIELD) : sort;
+    }
+
+    /**
+     * Creates the range filter selecting the documents that come after the token in the sort order.
+     *
+     * @param token the decoded token document
+     * @return the BSON range filter
+     */
+    public static Bson createRangeFilter(Document token) {
+        var objectId = token.get(OBJECT_ID_KEY);
+        var sortField = token.getString(SORT_KEY);
+        if (sortField == null) {
+            return Filters.gt(OBJECT_ID_FIELD, objectId);
+        }
+        var id = token.get(ID_KEY);
+        var value = token.get(VALUE_KEY);
+        var ascending = SortOrder.ASC.name().equals(token.getString(ORDER_KEY));
+
+        List<Bson> after = new ArrayList<>();
+        if (value == null) {
+            // missing values sort first, so only an ascending sort has non null values left
+            if (ascending) {
+                after.add(Filters.ne(sortField, null));
+            }
+        } else if (ascending) {
+            after.add(Filters.gt(sortField, value));
+        } else {
+            // missing values sort last in a descending sort, and $lt never matches them
+            after.add(Filters.lt(sortField, value));
+            after.add(Filters.eq(sortField, null));
+        }
+        if (!sortField.equals(ID_FIELD) && !sortField.equals(OBJECT_ID_FIELD)) {
+            after.add(Filters.and(Filters.eq(sortField, value), Filters.gt(ID_FIELD, id)));
+            after.add(Filters.and(Filters.eq(sortField, value), Filters.eq(ID_FIELD, id), Filters.gt(OBJECT_ID_FIELD, objectId)));
+        } else if (sortField.equals(ID_FIELD)) {
+            after.add(Filters.and(Filters.eq(ID_FIELD, id), Filters.gt(OBJECT_ID_FIELD, objectId)));
+        }
+        return Filters.or(after);
+    }
+
+    private static String sortField(QuerySpec querySpec) {
+        var sortField = querySpec.getSortField();
+        return sortField == null || sortField.isEmpty() ? null : sortField;
+    }
+
+    private static SortOrder sortOrder(QuerySpec querySpec) {
+        if (MongodbFederatedCatalogCacheQuery.isSortedByRelevance(querySpec)) {
+            return SortOrder.DESC;
+        }
+        return querySpec.getSortOrder() == null ? SortOrder.ASC : querySpec.getSortOrder();
+    }
+
+    /**
+     * Reads the sort value of a document. An array sorts by its smallest or largest element, which a range on the
+     * sort field cannot resume from, so multi-valued sort keys are rejected rather than paged from a wrong place.
+     */
+    private static Object getValue(Document document, String path) {
+        Object value = document;
+        for (String key : path.split("\\.")) {
+            if (value instanceof List<?>) {
+                throw new IllegalArgumentException("Sort field " + path + " goes through an array and cannot be paged with a continuation token");
+            }
+            value = value instanceof Document embedded ? embedded.get(key) : null;
+        }
+        if (value instanceof List<?>) {
+            throw new IllegalArgumentException("Sort field " + path + " holds an array and cannot be paged with a continuation token");
+        }
+        return value;
+    }
+}
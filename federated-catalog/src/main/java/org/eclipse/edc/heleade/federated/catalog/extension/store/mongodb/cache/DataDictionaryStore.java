@@ -0,0 +1,236 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import jakarta.json.Json;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getDataDictionariesField;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getGenerationField;
+
+/**
+ * Keeps the data dictionaries of the cached dataset distributions in a dedicated collection, keyed by their
+ * content hash, so that a dictionary describing hundreds of columns is stored once however many datasets and
+ * participants share it, and is not read by the queries that do not ask for it.
+ * <p>
+ * The stored datasets reference their dictionaries with a JSON-LD node reference whose {@code @id} is
+ * {@value #REFERENCE_PREFIX} followed by the hash, and list the hashes in an internal field used to delete the
+ * dictionaries no longer referenced. Every dictionary is stamped with the crawl generation that last stored it, so
+ * that a dictionary stored by a save still running, before the datasets referencing it are written, is never
+ * taken for an unreferenced one.
+ */
+public class DataDictionaryStore {
+
+    /**
+     * Prefix of the {@code @id} of the references to the stored data dictionaries.
+     */
+    public static final String REFERENCE_PREFIX = "urn:cbm:data-dictionary:";
+
+    private static final String DISTRIBUTION_FIELD = "dcat:distribution";
+    private static final String DATA_DICTIONARY_FIELD = "cbm:hasDataDictionary";
+    private static final String DICTIONARY_FIELD = "dictionary";
+    private static final String ID_FIELD = "@id";
+
+    private final MongoCollection<Document> datasetCollection;
+    private final MongoCollection<Document> dictionaryCollection;
+
+    /**
+     * Constructs a data dictionary store.
+     *
+     * @param datasetCollection the collection holding the cached datasets
+     * @param dictionaryCollection the collection holding the data dictionaries by content hash
+     */
+    public DataDictionaryStore(MongoCollection<Document> datasetCollection, MongoCollection<Document> dictionaryCollection) {
+        this.datasetCollection = datasetCollection;
+        this.dictionaryCollection = dictionaryCollection;
+    }
+
+    /**
+     * Replaces the inline data dictionaries of the distributions of a dataset document with references and sets
+     * the field listing their hashes, also when it has none, so that an upsert clears the previous ones.
+     *
+     * @param datasetDoc the compacted dataset document, modified in place
+     * @return the data dictionaries taken out of the dataset by content hash, to be stored with {@link #store(Map)}
+     */
+    public static Map<String, Object> split(Document datasetDoc) {
+        var dictionaries = new LinkedHashMap<String, Object>();
+        for (Document distribution : distributions(datasetDoc)) {
+            var dictionary = distribution.get(DATA_DICTIONARY_FIELD);
+            if (dictionary == null || hash(dictionary) != null) {
+                continue;
+            }
+            var hash = ContentHash.of(Json.createReader(new StringReader(new Document(DICTIONARY_FIELD, dictionary).toJson()))
+                    .readObject().get(DICTIONARY_FIELD));
+            dictionaries.put(hash, dictionary);
+            distribution.put(DATA_DICTIONARY_FIELD, new Document(ID_FIELD, REFERENCE_PREFIX + hash));
+        }
+        var references = new ArrayList<String>();
+        for (Document distribution : distributions(datasetDoc)) {
+            var hash = hash(distribution.get(DATA_DICTIONARY_FIELD));
+            if (hash != null && !references.contains(hash)) {
+                references.add(hash);
+            }
+        }
+        datasetDoc.put(getDataDictionariesField(), references);
+        return dictionaries;
+    }
+
+    /**
+     * Stores the given data dictionaries, skipping the content of those already stored, and stamps them all with
+     * the given crawl generation.
+     *
+     * @param dictionaries the data dictionaries by content hash
+     * @param generation the current crawl generation
+     */
+    public void store(Map<String, Object> dictionaries, long generation) {
+        if (dictionaries.isEmpty()) {
+            return;
+        }
+        var options = new UpdateOptions().upsert(true);
+        List<WriteModel<Document>> upserts = new ArrayList<>(dictionaries.size());
+        dictionaries.forEach((hash, dictionary) ->
+                upserts.add(new UpdateOneModel<>(Filters.eq("_id", hash), Updates.combine(Updates.setOnInsert(DICTIONARY_FIELD, dictionary),
+                        Updates.set(getGenerationField(), generation)), options)));
+        dictionaryCollection.bulkWrite(upserts, new BulkWriteOptions().ordered(false));
+    }
+
+    /**
+     * Finds a stored data dictionary.
+     *
+     * @param reference the content hash of the dictionary, or the {@code @id} of a reference to it
+     * @return the compacted data dictionary, or null if there is none
+     */
+    public Object find(String reference) {
+        var hash = reference.startsWith(REFERENCE_PREFIX) ? reference.substring(REFERENCE_PREFIX.length()) : reference;
+        var stored = dictionaryCollection.find(Filters.eq("_id", hash)).first();
+        return stored == null ? null : stored.get(DICTIONARY_FIELD);
+    }
+
+    /**
+     * Creates a function replacing the data dictionary references of stored dataset documents with the
+     * dictionaries, for the queries that explicitly ask for them. Each dictionary is read once per function,
+     * so a page of datasets sharing a dictionary reads it a single time.
+     *
+     * @return the function modifying the stored dataset documents in place
+     */
+    public Function<Document, Document> resolver() {
+        var resolved = new HashMap<String, Object>();
+        return datasetDoc -> {
+            for (Document distribution : distributions(datasetDoc)) {
+                var hash = hash(distribution.get(DATA_DICTIONARY_FIELD));
+                if (hash != null) {
+                    var dictionary = resolved.computeIfAbsent(hash, this::find);
+                    if (dictionary != null) {
+                        distribution.put(DATA_DICTIONARY_FIELD, dictionary);
+                    }
+                }
+            }
+            return datasetDoc;
+        };
+    }
+
+    /**
+     * Deletes the data dictionaries that no cached dataset references anymore. Only the dictionaries last stored
+     * before the given generation are considered, since those stored during it may belong to datasets not
+     * written yet.
+     *
+     * @param generation the current crawl generation
+     * @return the number of dictionaries deleted
+     */
+    public long deleteUnreferenced(long generation) {
+        var referenced = datasetCollection.distinct(getDataDictionariesField(), String.class).into(new ArrayList<>());
+        return dictionaryCollection.deleteMany(unreferencedFilter(referenced, generation)).getDeletedCount();
+    }
+
+    /**
+     * Creates the filter of the data dictionaries deleted by {@link #deleteUnreferenced(long)}. Dictionaries
+     * stored before they were stamped with a generation are also expired.
+     *
+     * @param referenced the hashes of the dictionaries referenced by the cached datasets
+     * @param generation the current crawl generation
+     * @return the filter of the unreferenced dictionaries stored before the generation
+     */
+    public static Bson unreferencedFilter(List<String> referenced, long generation) {
+        return Filters.and(Filters.not(Filters.gte(getGenerationField(), generation)), Filters.nin("_id", referenced));
+    }
+
+    /**
+     * Moves the inline data dictionaries of the datasets cached before the dictionaries were stored apart.
+     * Datasets whose content did not change are not written again on crawls, so this is done once on start.
+     *
+     * @param generation the current crawl generation
+     * @return the number of datasets updated
+     */
+    public long initialize(long generation) {
+        long updated = 0;
+        var inline = Filters.and(Filters.exists(DISTRIBUTION_FIELD + "." + DATA_DICTIONARY_FIELD), Filters.exists(getDataDictionariesField(), false));
+        for (Document datasetDoc : datasetCollection.find(inline).projection(Projections.include(DISTRIBUTION_FIELD))) {
+            store(split(datasetDoc), generation);
+            datasetCollection.updateOne(Filters.eq("_id", datasetDoc.get("_id")), Updates.combine(
+                    Updates.set(DISTRIBUTION_FIELD, datasetDoc.get(DISTRIBUTION_FIELD)),
+                    Updates.set(getDataDictionariesField(), datasetDoc.get(getDataDictionariesField()))));
+            updated++;
+        }
+        return updated;
+    }
+
+    /**
+     * Returns the distributions of a compacted dataset document, whose {@code dcat:distribution} is a single
+     * object or an array.
+     */
+    private static List<Document> distributions(Document datasetDoc) {
+        var value = datasetDoc.get(DISTRIBUTION_FIELD);
+        if (value instanceof Document distribution) {
+            return List.of(distribution);
+        }
+        var distributions = new ArrayList<Document>();
+        if (value instanceof List<?> list) {
+            for (Object element : list) {
+                if (element instanceof Document distribution) {
+                    distributions.add(distribution);
+                }
+            }
+        }
+        return distributions;
+    }
+
+    /**
+     * Returns the content hash of a data dictionary reference, or null if the value is an inline dictionary.
+     */
+    private static String hash(Object dictionary) {
+        if (dictionary instanceof Document reference && reference.size() == 1
+                && reference.get(ID_FIELD) instanceof String id && id.startsWith(REFERENCE_PREFIX)) {
+            return id.substring(REFERENCE_PREFIX.length());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.eclipse.edc.spi.monitor.Monitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCache.PARTICIPANT_FIELD;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getSpatialGeometryField;
+
+/**
+ * Upserts the datasets of a participant into the dataset collection in unordered bulk writes, one round trip per
+ * batch. Datasets whose geometry is rejected by the {@code 2dsphere} index, e.g. a self-intersecting polygon, are
+ * written again without geometry, so that they are still cached but not spatially searchable. Datasets rejected
+ * for any other reason are reported and counted as failed; since the writes are unordered, the other datasets of
+ * the batch are written anyway.
+ */
+public class DatasetBulkWriter {
+
+    /**
+     * Code of the write error raised when the {@code 2dsphere} index cannot extract the keys of a geometry.
+     */
+    public static final int GEO_KEYS_ERROR_CODE = 16755;
+
+    private final MongoCollection<Document> datasetCollection;
+    private final Monitor monitor;
+
+    /**
+     * Constructs a bulk writer of datasets.
+     *
+     * @param datasetCollection the dataset collection
+     * @param monitor the monitor where the datasets cached without geometry are reported
+     */
+    public DatasetBulkWriter(MongoCollection<Document> datasetCollection, Monitor monitor) {
+        this.datasetCollection = datasetCollection;
+        this.monitor = monitor;
+    }
+
+    /**
+     * Upserts a batch of datasets in one unordered bulk write, and adds its counters to the given result,
+     * including the datasets that could not be written.
+     *
+     * @param participantId the participant that owns the datasets
+     * @param datasetDocs the dataset documents, matched by {@code @id} and participant
+     * @param result the result of the previous batches of the catalog
+     * @return the result including the datasets of this batch
+     * @throws MongoBulkWriteException if a dataset written again without geometry is rejected too
+     */
+    public DatasetIngestionResult write(String participantId, List<Document> datasetDocs, DatasetIngestionResult result) {
+        try {
+            return result.plus(datasetCollection.bulkWrite(upserts(participantId, datasetDocs), new BulkWriteOptions().ordered(false)));
+        } catch (MongoBulkWriteException e) {
+            var retried = new ArrayList<Document>();
+            var failed = 0;
+            for (BulkWriteError error : e.getWriteErrors()) {
+                var datasetDoc = datasetDocs.get(error.getIndex());
+                if (error.getCode() != GEO_KEYS_ERROR_CODE || datasetDoc.get(getSpatialGeometryField()) == null) {
+                    monitor.warning("Dataset " + datasetDoc.get("@id") + " of " + participantId + " not cached: " + error.getMessage());
+                    failed++;
+                    continue;
+                }
+                monitor.warning("Dataset " + datasetDoc.get("@id") + " of " + participantId + " cached without geometry: " + error.getMessage());
+                datasetDoc.put(getSpatialGeometryField(), null);
+                retried.add(datasetDoc);
+            }
+            result = result.plus(e.getWriteResult()).plusFailed(failed);
+            if (retried.isEmpty()) {
+                return result;
+            }
+            return result.plus(datasetCollection.bulkWrite(upserts(participantId, retried), new BulkWriteOptions().ordered(false)));
+        }
+    }
+
+    private static List<WriteModel<Document>> upserts(String participantId, List<Document> datasetDocs) {
+        UpdateOptions options = new UpdateOptions().upsert(true);
+        List<WriteModel<Document>> upserts = new ArrayList<>(datasetDocs.size());
+        for (Document datasetDoc : datasetDocs) {
+            upserts.add(new UpdateOneModel<>(Filters.and(Filters.eq("@id", datasetDoc.get("@id")),
+                    Filters.eq(PARTICIPANT_FIELD, participantId)),
+                    new Document("$set", datasetDoc), options));
+        }
+        return upserts;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache;
+
+import com.mongodb.bulk.BulkWriteResult;
+
+/**
+ * Summarizes how the datasets of a single crawled catalog were written to the dataset collection.
+ *
+ * @param participantId the participant that owns the catalog
+ * @param inserted the number of datasets that did not exist and were inserted
+ * @param modified the number of existing datasets whose content changed
+ * @param unchanged the number of existing datasets left untouched, either because their content hash
+ *                  matched the stored one or because the upsert did not modify them
+ * @param failed the number of datasets rejected by the dataset collection, e.g. by a validation rule
+ * @param deleted the number of stored datasets deleted because the catalog no longer has them
+ * @param batches the number of bulk write round trips used
+ */
+public record DatasetIngestionResult(String participantId, int inserted, int modified, int unchanged, int failed, long deleted, int batches) {
+
+    /**
+     * Creates an empty result for the given participant.
+     *
+     * @param participantId the participant that owns the catalog
+     * @return a result with all counters set to zero
+     */
+    public static DatasetIngestionResult empty(String participantId) {
+        return new DatasetIngestionResult(participantId, 0, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Adds the counters reported by one bulk write round trip.
+     *
+     * @param bulkWriteResult the result of an unordered bulk write of dataset upserts
+     * @return a new result including the counters of the given batch
+     */
+    public DatasetIngestionResult plus(BulkWriteResult bulkWriteResult) {
+        int batchInserted = bulkWriteResult.getUpserts().size();
+        int batchModified = bulkWriteResult.getModifiedCount();
+        int batchUnchanged = bulkWriteResult.getMatchedCount() - batchModified;
+        return new DatasetIngestionResult(participantId, inserted + batchInserted, modified + batchModified, unchanged + batchUnchanged, failed, deleted,
+                batches + 1);
+    }
+
+    /**
+     * Adds datasets that were skipped because their content did not change.
+     *
+     * @param count the number of skipped datasets
+     * @return a new result including the skipped datasets as unchanged
+     */
+    public DatasetIngestionResult plusUnchanged(int count) {
+        return new DatasetIngestionResult(participantId, inserted, modified, unchanged + count, failed, deleted, batches);
+    }
+
+    /**
+     * Adds datasets that were deleted because the catalog no longer has them.
+     *
+     * @param count the number of deleted datasets
+     * @return a new result including the deleted datasets
+     */
+    public DatasetIngestionResult plusDeleted(long count) {
+        return new DatasetIngestionResult(participantId, inserted, modified, unchanged, failed, deleted + count, batches);
+    }
+
+    /**
+     * Adds datasets that the dataset collection rejected.
+     *
+     * @param count the number of rejected datasets
+     * @return a new result including the rejected datasets as failed
+     */
+    public DatasetIngestionResult plusFailed(int count) {
+        return new DatasetIngestionResult(participantId, inserted, modified, unchanged, failed + count, deleted, batches);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("participant %s: %d inserted, %d modified, %d unchanged, %d failed, %d deleted datasets in %d batches",
+                participantId, inserted, modified, unchanged, failed, deleted, batches);
+    }
+}
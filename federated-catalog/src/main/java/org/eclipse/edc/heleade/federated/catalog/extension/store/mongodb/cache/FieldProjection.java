@@ -0,0 +1,63 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache;
+
+import com.mongodb.client.model.Projections;
+import org.bson.conversions.Bson;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.FieldPaths;
+import org.eclipse.edc.spi.query.QuerySpec;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Builds the {@code $project} stage that restricts the stored documents returned by a query to the requested
+ * fields, so that bulky sub-trees such as data dictionaries and policies are neither read from the server nor
+ * expanded and transformed. Fields are the compacted JSON-LD paths of the stored documents, as parsed by
+ * {@link FieldPaths}.
+ * <p>
+ * The {@code @id}, {@code @type} and {@code @context} fields are always returned, since the JSON-LD expansion
+ * and the transformers need them, and so is the sort field of the query, which the continuation token is built from.
+ */
+public final class FieldProjection {
+
+    private static final List<String> REQUIRED_FIELDS = List.of("@id", "@type", "@context");
+
+    private FieldProjection() {
+    }
+
+    /**
+     * Creates the inclusion projection of the requested fields, adding the required fields and dropping the paths
+     * already included by one of their parents, which MongoDB rejects as a path collision.
+     *
+     * @param fields the requested field paths, empty for all the fields
+     * @param querySpec the query specification, whose sort field is always included
+     * @return the projection, or null if all the fields are requested
+     */
+    public static Bson create(List<String> fields, QuerySpec querySpec) {
+        if (fields == null || fields.isEmpty()) {
+            return null;
+        }
+        var paths = new LinkedHashSet<>(REQUIRED_FIELDS);
+        if (querySpec != null && querySpec.getSortField() != null) {
+            paths.add(querySpec.getSortField());
+        }
+        paths.addAll(fields);
+        var included = paths.stream()
+                .filter(path -> paths.stream().noneMatch(parent -> path.startsWith(parent + ".")))
+                .toList();
+        return Projections.include(included);
+    }
+}
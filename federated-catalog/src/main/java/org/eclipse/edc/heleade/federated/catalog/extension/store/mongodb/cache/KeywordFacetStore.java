@@ -0,0 +1,156 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BsonField;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UnwindOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.eclipse.edc.spi.query.Criterion;
+import org.eclipse.edc.spi.query.QuerySpec;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCache.PARTICIPANT_FIELD;
+
+/**
+ * Keeps the number of datasets per keyword and participant in a dedicated collection, so that keyword facet
+ * requests that are not filtered, or only filtered by participant, read a few small documents instead of
+ * unwinding and grouping every dataset. The counts of a participant are recomputed from its datasets whenever
+ * they change on ingestion or some of them expire.
+ * <p>
+ * A refresh upserts the count of each keyword and then deletes the keywords of the participant it did not see, so
+ * refreshes of the same participant running at once, e.g. on two ingestion writers, overwrite each other's counts
+ * instead of adding them up. The facet collection is indexed uniquely on participant and keyword.
+ */
+public class KeywordFacetStore {
+
+    /**
+     * Field of the facet documents holding the keyword, named like the dataset field it is counted from.
+     */
+    public static final String KEYWORD_FIELD = "dcat:keyword";
+
+    private static final String COUNT_FIELD = "count";
+
+    private final MongoCollection<Document> datasetCollection;
+    private final MongoCollection<Document> facetCollection;
+
+    /**
+     * Constructs a keyword facet store.
+     *
+     * @param datasetCollection the collection holding the cached datasets
+     * @param facetCollection the collection holding the keyword counts per participant
+     */
+    public KeywordFacetStore(MongoCollection<Document> datasetCollection, MongoCollection<Document> facetCollection) {
+        this.datasetCollection = datasetCollection;
+        this.facetCollection = facetCollection;
+    }
+
+    /**
+     * Checks whether a keyword count request can be answered from the facet store: the request must not be
+     * paginated and its filter must be empty or a single participant equality.
+     *
+     * @param querySpec the query specification of the request
+     * @param noLimit whether the request is not paginated
+     * @return true if the facet store holds the answer
+     */
+    public static boolean supports(QuerySpec querySpec, boolean noLimit) {
+        if (!noLimit) {
+            return false;
+        }
+        var filter = querySpec.getFilterExpression();
+        return filter.isEmpty() || (filter.size() == 1 && isParticipantEquality(filter.get(0)));
+    }
+
+    /**
+     * Counts the datasets per keyword from the facet store.
+     *
+     * @param querySpec a query specification accepted by {@link #supports(QuerySpec, boolean)}
+     * @return a JSON array string of keyword counts, sorted decreasingly by count, as returned by the aggregation
+     */
+    public String countKeywords(QuerySpec querySpec) {
+        var aggregations = new ArrayList<Bson>();
+        if (!querySpec.getFilterExpression().isEmpty()) {
+            aggregations.add(Aggregates.match(Filters.eq(PARTICIPANT_FIELD, querySpec.getFilterExpression().get(0).getOperandRight())));
+        }
+        aggregations.add(Aggregates.group("$" + KEYWORD_FIELD, List.of(new BsonField(COUNT_FIELD, new Document("$sum", "$" + COUNT_FIELD)))));
+        aggregations.add(Aggregates.project(Document.parse("{_id: 0, \"dcat:keyword\": \"$_id\", count: 1}")));
+        aggregations.add(Aggregates.sort(Document.parse("{\"count\": -1, \"dcat:keyword\": 1}")));
+
+        var resultsStr = new ArrayList<String>();
+        facetCollection.aggregate(aggregations).forEach(doc -> resultsStr.add(doc.toJson()));
+        return "[" + String.join(", ", resultsStr) + "]";
+    }
+
+    /**
+     * Recomputes the keyword counts of the given participants from their current datasets.
+     *
+     * @param participantIds the participants whose datasets changed
+     */
+    public void refresh(Collection<String> participantIds) {
+        participantIds.forEach(this::refresh);
+    }
+
+    /**
+     * Recomputes the keyword counts of a participant from its current datasets.
+     *
+     * @param participantId the participant whose datasets changed
+     */
+    public void refresh(String participantId) {
+        var aggregations = List.of(
+                Aggregates.match(Filters.eq(PARTICIPANT_FIELD, participantId)),
+                Aggregates.project(Document.parse("{_id: 0, \"dcat:keyword\": 1}")),
+                Aggregates.unwind("$" + KEYWORD_FIELD, new UnwindOptions().preserveNullAndEmptyArrays(false)),
+                Aggregates.group("$" + KEYWORD_FIELD, List.of(new BsonField(COUNT_FIELD, new Document("$sum", 1)))));
+
+        var keywords = new ArrayList<>();
+        var upserts = new ArrayList<WriteModel<Document>>();
+        var options = new UpdateOptions().upsert(true);
+        datasetCollection.aggregate(aggregations).forEach(doc -> {
+            keywords.add(doc.get("_id"));
+            upserts.add(new UpdateOneModel<>(Filters.and(Filters.eq(PARTICIPANT_FIELD, participantId), Filters.eq(KEYWORD_FIELD, doc.get("_id"))),
+                    Updates.set(COUNT_FIELD, doc.get(COUNT_FIELD)), options));
+        });
+
+        if (!upserts.isEmpty()) {
+            facetCollection.bulkWrite(upserts, new BulkWriteOptions().ordered(false));
+        }
+        facetCollection.deleteMany(Filters.and(Filters.eq(PARTICIPANT_FIELD, participantId), Filters.nin(KEYWORD_FIELD, keywords)));
+    }
+
+    /**
+     * Builds the keyword counts of every participant when the facet store is empty, e.g. on the first start
+     * after an upgrade.
+     */
+    public void initialize() {
+        if (facetCollection.estimatedDocumentCount() == 0) {
+            refresh(datasetCollection.distinct(PARTICIPANT_FIELD, String.class).into(new ArrayList<>()));
+        }
+    }
+
+    private static boolean isParticipantEquality(Criterion criterion) {
+        return "=".equals(criterion.getOperator()) && PARTICIPANT_FIELD.equals(String.valueOf(criterion.getOperandLeft()));
+    }
+}
@@ -15,10 +15,15 @@
 package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoWriteException;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReturnDocument;
 import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
 import jakarta.json.Json;
 import jakarta.json.JsonArrayBuilder;
 import jakarta.json.JsonObject;
@@ -26,16 +31,30 @@ import jakarta.json.JsonValue;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 import org.eclipse.edc.catalog.spi.CatalogConstants;
-import org.eclipse.edc.catalog.spi.FederatedCatalogCache;
 import org.eclipse.edc.connector.controlplane.catalog.spi.Catalog;
 import org.eclipse.edc.connector.controlplane.catalog.spi.Dataset;
+import org.eclipse.edc.heleade.federated.catalog.extension.metrics.FederatedCatalogMetrics;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.CachePage;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.CatalogSaveListener;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.HeleadeFederatedCatalogCache;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.index.MongodbIndexManager;
 import org.eclipse.edc.jsonld.spi.JsonLd;
+import org.eclipse.edc.spi.monitor.Monitor;
 import org.eclipse.edc.spi.persistence.EdcPersistenceException;
 import org.eclipse.edc.spi.query.QuerySpec;
 import org.eclipse.edc.transaction.spi.TransactionContext;
 import org.eclipse.edc.transform.spi.TypeTransformerRegistry;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import static java.util.Optional.ofNullable;
 
@@ -43,7 +62,7 @@ import static java.util.Optional.ofNullable;
  * Represents a MongoDB-based cache for federated catalog data, providing functionalities
  * for storing, querying, and managing `ContractOffer` and dataset information.
  */
-public class MongodbFederatedCatalogCache extends MongodbFederatedCatalogCacheStore implements FederatedCatalogCache {
+public class MongodbFederatedCatalogCache extends MongodbFederatedCatalogCacheStore implements HeleadeFederatedCatalogCache {
 
     /**
      * Represents the field used to identify datasets in the DCAT context within
@@ -57,36 +76,84 @@ public class MongodbFederatedCatalogCache extends MongodbFederatedCatalogCacheSt
      */
     public static final String PARTICIPANT_FIELD = "dspace:participantId";
 
+    /**
+     * Default number of dataset upserts sent to MongoDB in a single bulk write.
+     */
+    public static final int DEFAULT_BULK_BATCH_SIZE = 500;
+
+    private static final String GENERATION_META_ID = "crawl_generation";
+
+    /**
+     * Prefix of the metrics counting catalogs whose content hash matched (hits) or not (misses) on save.
+     */
+    public static final String CATALOG_HASH_METRIC = "cache.content.hash.catalog";
+
+    /**
+     * Prefix of the metrics counting datasets whose content hash matched (hits) or not (misses) on save.
+     */
+    public static final String DATASET_HASH_METRIC = "cache.content.hash.dataset";
+
+    /**
+     * Prefix of the metrics counting keyword count requests served from the keyword facet store (hits) or by
+     * aggregating the datasets (misses).
+     */
+    public static final String KEYWORD_FACET_METRIC = "keyword.facet";
+
     private final JsonLd jsonLd;
     private final TypeTransformerRegistry transformerRegistry;
+    private final Monitor monitor;
+    private final FederatedCatalogMetrics metrics;
+    private final MongodbIndexManager indexManager;
+    private final int bulkBatchSize;
+    private final KeywordFacetStore keywordFacetStore;
+    private final DataDictionaryStore dataDictionaryStore;
+    private final CatalogAssembler catalogAssembler;
+    private final CatalogFingerprint catalogFingerprint;
+    private final AtomicLong currentGeneration = new AtomicLong(-1);
+    private final AtomicLong dataVersion = new AtomicLong();
+    private volatile CatalogIngestionQueue ingestionQueue;
+    private volatile CatalogSaveListener saveListener;
+    private volatile ConvertedContext lastContext;
 
     /**
      * Represents a cache for federated catalog data stored in MongoDB.
      *
-     * @param dataSourceUri the URI of the MongoDB data source to connect to
+     * @param mongoClient the shared MongoDB client used to access the data source
      * @param dataSourceDb the name of the MongoDB database to use
      * @param transactionContext the transaction context to manage database transactions
      * @param objectMapper the object mapper for handling JSON serialization and deserialization
      * @param jsonLd the JsonLd instance for processing JSON-LD data
      * @param transformerRegistry the registry for type transformers
+     * @param monitor the monitor used to report ingestion statistics
+     * @param metrics the metrics where content hash hits and misses are counted
+     * @param indexManager the index manager used to check the query plans for collection scans
+     * @param bulkBatchSize the maximum number of dataset upserts sent in a single bulk write
      */
-    public MongodbFederatedCatalogCache(String dataSourceUri, String dataSourceDb, TransactionContext transactionContext, ObjectMapper objectMapper, JsonLd jsonLd, TypeTransformerRegistry transformerRegistry) {
-        super(dataSourceUri, dataSourceDb, transactionContext, objectMapper);
+    public MongodbFederatedCatalogCache(MongoClient mongoClient, String dataSourceDb, TransactionContext transactionContext, ObjectMapper objectMapper, JsonLd jsonLd, TypeTransformerRegistry transformerRegistry,
+                                        Monitor monitor, FederatedCatalogMetrics metrics, MongodbIndexManager indexManager, int bulkBatchSize) {
+        super(mongoClient, dataSourceDb, transactionContext, objectMapper);
         this.jsonLd = jsonLd;
         this.transformerRegistry = transformerRegistry;
+        this.monitor = monitor;
+        this.metrics = metrics;
+        this.indexManager = indexManager;
+        this.bulkBatchSize = bulkBatchSize > 0 ? bulkBatchSize : DEFAULT_BULK_BATCH_SIZE;
+        this.keywordFacetStore = new KeywordFacetStore(getCollection(getFederatedCatalogDatasetCollectionName()),
+                getCollection(getFederatedCatalogKeywordFacetCollectionName()));
+        this.dataDictionaryStore = new DataDictionaryStore(getCollection(getFederatedCatalogDatasetCollectionName()),
+                getCollection(getFederatedCatalogDataDictionaryCollectionName()));
+        this.catalogAssembler = new CatalogAssembler(getCollection(getFederatedCatalogDatasetCollectionName()));
+        this.catalogFingerprint = new CatalogFingerprint(objectMapper);
     }
 
     /**
-     * Adds an {@code ContractOffer} to the store
+     * Builds the keyword facet store from the cached datasets if it is empty, e.g. on the first start after
+     * an upgrade.
      */
-    @Override
-    public void save(Catalog catalog) {
+    public void initializeKeywordFacets() {
         transactionContext.execute(() -> {
-            try (var connection = getConnection()) {
-                var id = ofNullable(catalog.getProperties().get(CatalogConstants.PROPERTY_ORIGINATOR))
-                        .map(Object::toString)
-                        .orElse(catalog.getId());
-                upsertInternal(connection, id, catalog);
+            try {
+                keywordFacetStore.initialize();
             } catch (Exception e) {
                 throw new EdcPersistenceException(e);
             }
@@ -94,13 +161,141 @@ public class MongodbFederatedCatalogCache extends MongodbFederatedCatalogCacheSt
     }
 
     /**
-     * Deletes all entries from the cache that are marked as "expired"
+     * Moves the data dictionaries of the cached datasets stored before dictionaries were kept in their own
+     * collection, see {@link DataDictionaryStore#initialize()}.
+     */
+    public void initializeDataDictionaries() {
+        transactionContext.execute(() -> {
+            try {
+                var updated = dataDictionaryStore.initialize(currentGeneration());
+                monitor.debug(() -> "Data dictionaries moved out of " + updated + " cached datasets");
+            } catch (Exception e) {
+                throw new EdcPersistenceException(e);
+            }
+        });
+    }
+
+    /**
+     * Replaces the inline datasets of the catalogs stored before catalogs referenced their datasets, see
+     * {@link CatalogAssembler}. Catalogs whose content did not change are not written again on crawls, so this
+     * is done once on start.
+     */
+    public void initializeCatalogReferences() {
+        transactionContext.execute(() -> {
+            try {
+                var updated = getCollection(getFederatedCatalogCollectionName())
+                        .updateMany(CatalogAssembler.inlineDatasetsFilter(), CatalogAssembler.toReferencesUpdate())
+                        .getModifiedCount();
+                monitor.debug(() -> "Datasets replaced with references in " + updated + " cached catalogs");
+            } catch (Exception e) {
+                throw new EdcPersistenceException(e);
+            }
+        });
+    }
+
+    /**
+     * Adds the GeoJSON geometry and the normalized period to the cached datasets stored before spatial and
+     * temporal queries existed. Datasets whose content did not change are not written again on crawls, so
+     * these fields are computed once on start.
+     */
+    public void initializeDerivedFields() {
+        transactionContext.execute(() -> {
+            try {
+                var datasetCollection = getCollection(getFederatedCatalogDatasetCollectionName());
+                var missing = Filters.or(
+                        Filters.and(Filters.exists(SpatialGeometry.SPATIAL_FIELD), Filters.exists(getSpatialGeometryField(), false)),
+                        Filters.and(Filters.exists(TemporalRange.TEMPORAL_FIELD), Filters.exists(getTemporalStartField(), false)));
+                long updated = 0;
+                for (Document datasetDoc : datasetCollection.find(missing).projection(Projections.include(SpatialGeometry.SPATIAL_FIELD, TemporalRange.TEMPORAL_FIELD))) {
+                    var derived = TemporalRange.fromDataset(datasetDoc).append(getSpatialGeometryField(), SpatialGeometry.fromDataset(datasetDoc));
+                    var byId = Filters.eq("_id", datasetDoc.get("_id"));
+                    try {
+                        datasetCollection.updateOne(byId, new Document("$set", derived));
+                    } catch (MongoWriteException e) {
+                        if (e.getError().getCode() != DatasetBulkWriter.GEO_KEYS_ERROR_CODE) {
+                            throw e;
+                        }
+                        // geometry rejected by the 2dsphere index
+                        datasetCollection.updateOne(byId, new Document("$set", derived.append(getSpatialGeometryField(), null)));
+                    }
+                    updated++;
+                }
+                var total = updated;
+                monitor.debug(() -> "Geometry and period added to " + total + " cached datasets");
+            } catch (Exception e) {
+                throw new EdcPersistenceException(e);
+            }
+        });
+    }
+
+    /**
+     * Starts the writer threads of the {@link CatalogIngestionQueue}, so that {@link #save(Catalog)} enqueues the
+     * crawled catalogs instead of writing them on the crawler thread.
+     *
+     * @param writers the number of writer threads
+     * @param queueCapacity the maximum number of catalogs waiting in the queue of each writer
+     */
+    public void startIngestionQueue(int writers, int queueCapacity) {
+        ingestionQueue = new CatalogIngestionQueue(writers, queueCapacity, this::write, monitor, metrics);
+    }
+
+    /**
+     * Writes the catalogs still waiting in the ingestion queue and stops its writer threads.
+     */
+    public void shutdown() {
+        var queue = ingestionQueue;
+        ingestionQueue = null;
+        if (queue != null) {
+            queue.close();
+        }
+    }
+
+    /**
+     * Adds an {@code ContractOffer} to the store. When the ingestion queue is started the catalog is written by
+     * one of its writers, and the caller only waits while the queue is full.
+     */
+    @Override
+    public void save(Catalog catalog) {
+        var id = catalogId(catalog);
+        var listener = saveListener;
+        if (listener != null) {
+            listener.received(id);
+        }
+        var queue = ingestionQueue;
+        if (queue != null) {
+            queue.submit(id, catalog);
+        } else {
+            write(id, catalog);
+        }
+    }
+
+    /**
+     * Saves a catalog and waits until it has been written. When the ingestion queue is started the catalog is
+     * written by the writer of its node, after the catalogs of the node already enqueued.
+     *
+     * @param catalog the catalog to save
+     */
+    @Override
+    public void saveAndWait(Catalog catalog) {
+        var id = catalogId(catalog);
+        var queue = ingestionQueue;
+        if (queue != null) {
+            queue.submitAndWait(id, catalog);
+        } else {
+            write(id, catalog);
+        }
+    }
+
+    /**
+     * Deletes all entries from the cache that were not seen in the current crawl generation, once the catalogs
+     * waiting in the ingestion queue have been written.
      */
     @Override
     public void deleteExpired() {
+        flushIngestionQueue();
         transactionContext.execute(() -> {
-            try (var connection = getConnection()) {
-                deleteByMarkedTemplateInternal(connection);
+            try {
+                deleteByGenerationInternal();
             } catch (Exception e) {
                 throw new EdcPersistenceException(e);
             }
@@ -108,13 +303,16 @@ public class MongodbFederatedCatalogCache extends MongodbFederatedCatalogCacheSt
     }
 
     /**
-     * Marks all entries as "expired", i.e. marks them for deletion
+     * Starts a new crawl generation, so that every entry not saved again before the next call to
+     * {@link #deleteExpired()} is considered expired. No stored document is modified. The catalogs of the previous
+     * crawl still waiting in the ingestion queue are written first.
      */
     @Override
     public void expireAll() {
+        flushIngestionQueue();
         transactionContext.execute(() -> {
-            try (var connection = getConnection()) {
-                expireAllInternal(connection);
+            try {
+                expireAllInternal();
             } catch (Exception e) {
                 throw new EdcPersistenceException(e);
             }
@@ -122,7 +320,86 @@ public class MongodbFederatedCatalogCache extends MongodbFederatedCatalogCacheSt
     }
 
     /**
-     * Queries the store for {@code ContractOffer}s
+     * Returns the version of the cached content, increased after every save or deletion that wrote to the
+     * collections. The version is kept in memory, so it is only meaningful to the process running the crawler.
+     *
+     * @return the current data version
+     */
+    @Override
+    public long dataVersion() {
+        return dataVersion.get();
+    }
+
+    /**
+     * Marks the catalog with the given id and the datasets of its participant as seen in the current crawl
+     * generation, so that a node left out of a crawl keeps its cached entries.
+     *
+     * @param id the id of the catalog, the URL of the node it was crawled from
+     */
+    @Override
+    public void keep(String id) {
+        transactionContext.execute(() -> {
+            try {
+                long generation = currentGeneration();
+                var filter = Filters.eq(getIdField(), id);
+                var collection = getCollection(getFederatedCatalogCollectionName());
+                var catalog = collection.find(filter).projection(Projections.include(PARTICIPANT_FIELD)).first();
+                if (catalog != null) {
+                    collection.updateOne(filter, seenUpdate(generation));
+                    getCollection(getFederatedCatalogDatasetCollectionName())
+                            .updateMany(Filters.eq(PARTICIPANT_FIELD, catalog.getString(PARTICIPANT_FIELD)), seenUpdate(generation));
+                }
+            } catch (Exception e) {
+                throw new EdcPersistenceException(e);
+            }
+        });
+    }
+
+    @Override
+    public void setSaveListener(CatalogSaveListener listener) {
+        this.saveListener = listener;
+    }
+
+    /**
+     * Waits until the catalogs waiting in the ingestion queue have been written.
+     */
+    @Override
+    public void flush() {
+        flushIngestionQueue();
+    }
+
+    /**
+     * Finds the cached catalog with the given id. Its datasets are read from the dataset collection, and the data
+     * dictionaries their distributions reference are put back in place.
+     *
+     * @param id the id of the catalog, the URL of the node it was crawled from
+     * @return the cached catalog, or null if there is none
+     */
+    @Override
+    public Catalog findCatalog(String id) {
+        return transactionContext.execute(() -> {
+            try {
+                var stored = getCollection(getFederatedCatalogCollectionName()).find(Filters.eq(getIdField(), id)).first();
+                if (stored == null) {
+                    return null;
+                }
+                var catalogDoc = catalogAssembler.assemble(new ArrayList<>(List.of(stored)), List.of()).get(0);
+                if (catalogDoc.get(DATASET_FIELD) instanceof List<?> datasets) {
+                    var resolver = dataDictionaryStore.resolver();
+                    datasets.stream()
+                            .filter(Document.class::isInstance)
+                            .forEach(dataset -> resolver.apply((Document) dataset));
+                }
+                return MongodbFederatedCatalogCacheQuery.entityConverter(jsonLd, transformerRegistry, Catalog.class).apply(catalogDoc);
+            } catch (Exception e) {
+                throw new EdcPersistenceException(e);
+            }
+        });
+    }
+
+    /**
+     * Queries the store for {@code ContractOffer}s. Criteria on the {@code dcat:dataset.} fields and text searches
+     * select the catalogs with at least one dataset matching all of them.
      *
      * @param query A list of criteria the catalog must fulfill
      * @return A collection of catalogs that are already in the store and that satisfy a given list of criteria.
@@ -130,9 +407,11 @@ public class MongodbFederatedCatalogCache extends MongodbFederatedCatalogCacheSt
     @Override
     public Collection<Catalog> query(QuerySpec query) {
         return transactionContext.execute(() -> {
-            try (var connection = getConnection()) {
-                var collection = getCollection(connection, getFederatedCatalogCollectionName());
-                return MongodbFederatedCatalogCacheQuery.queryInternalCatalog(query, collection, jsonLd, transformerRegistry);
+            try {
+                var collection = getCollection(getFederatedCatalogCollectionName());
+                var catalogQuery = catalogAssembler.resolveDatasetCriteria(query);
+                indexManager.inspectQueryPlan(collection, MongodbFederatedCatalogCacheQuery.createAggregationPipeline(catalogQuery));
+                return MongodbFederatedCatalogCacheQuery.queryInternalCatalog(catalogQuery, collection, catalogAssembler, jsonLd, transformerRegistry);
             } catch (Exception e) {
                 throw new EdcPersistenceException(e);
             }
@@ -145,10 +424,12 @@ public class MongodbFederatedCatalogCache extends MongodbFederatedCatalogCacheSt
      * @param query the query specification containing filtering, sorting, and pagination criteria
      * @return a collection of datasets that match the criteria specified in the query
      */
+    @Override
     public Collection<Dataset> queryDatasets(QuerySpec query) {
         return transactionContext.execute(() -> {
-            try (var connection = getConnection()) {
-                var collection = getCollection(connection, getFederatedCatalogDatasetCollectionName());
+            try {
+                var collection = getCollection(getFederatedCatalogDatasetCollectionName());
+                indexManager.inspectQueryPlan(collection, MongodbFederatedCatalogCacheQuery.createAggregationPipeline(query));
                 return MongodbFederatedCatalogCacheQuery.queryInternalDatasets(query, collection, jsonLd, transformerRegistry);
             } catch (Exception e) {
                 throw new EdcPersistenceException(e);
@@ -157,17 +438,286 @@ public class MongodbFederatedCatalogCache extends MongodbFederatedCatalogCacheSt
     }
 
     /**
-     * Counts the datasets in the federated catalog cache based on the provided query specification.
+     * Queries a page of catalogs from the federated catalog cache using keyset pagination.
+     *
+     * @param query the query specification containing filtering, sorting, and page size
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param withTotal whether to also count the catalogs matching the query across all pages
+     * @param fields the field paths to return, see {@link FieldProjection}, or an empty list for all the fields
+     * @return the page of catalogs and the token of the next page
+     */
+    @Override
+    public CachePage<Catalog> queryCatalogsPage(QuerySpec query, String continuationToken, boolean withTotal, List<String> fields) {
+        return transactionContext.execute(() -> {
+            try {
+                var collection = getCollection(getFederatedCatalogCollectionName());
+                var catalogQuery = catalogAssembler.resolveDatasetCriteria(query);
+                indexManager.inspectQueryPlan(collection, MongodbFederatedCatalogCacheQuery.createKeysetAggregationPipeline(catalogQuery, continuationToken,
+                        CatalogAssembler.catalogFields(fields)));
+                return MongodbFederatedCatalogCacheQuery.queryInternalCatalogPage(catalogQuery, continuationToken, withTotal, fields, collection, catalogAssembler,
+                        jsonLd, transformerRegistry);
+            } catch (IllegalArgumentException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new EdcPersistenceException(e);
+            }
+        });
+    }
+
+    /**
+     * Queries a page of datasets from the federated catalog cache using keyset pagination.
+     *
+     * @param query the query specification containing filtering, sorting, and page size
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param withTotal whether to also count the datasets matching the query across all pages
+     * @param fields the field paths to return, see {@link FieldProjection}, or an empty list for all the fields
+     * @param withDataDictionaries whether to replace the data dictionary references with the dictionaries
+     * @return the page of datasets and the token of the next page
+     */
+    @Override
+    public CachePage<Dataset> queryDatasetsPage(QuerySpec query, String continuationToken, boolean withTotal, List<String> fields,
+                                                boolean withDataDictionaries) {
+        return transactionContext.execute(() -> {
+            try {
+                var collection = getCollection(getFederatedCatalogDatasetCollectionName());
+                indexManager.inspectQueryPlan(collection, MongodbFederatedCatalogCacheQuery.createKeysetAggregationPipeline(query, continuationToken, fields));
+                return MongodbFederatedCatalogCacheQuery.queryInternalDatasetsPage(query, continuationToken, withTotal, fields, collection, jsonLd, transformerRegistry,
+                        resolver(withDataDictionaries));
+            } catch (IllegalArgumentException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new EdcPersistenceException(e);
+            }
+        });
+    }
+
+    /**
+     * Streams the catalogs matching the query to the given consumer, one at a time, while the cursor is iterated.
+     *
+     * @param query the query specification containing filtering, sorting, and paging criteria
+     * @param continuationToken the token returned with a previous page, or null to start from the first catalog
+     * @param fields the field paths to return, see {@link FieldProjection}, or an empty list for all the fields
+     * @param consumer the consumer receiving each catalog
+     * @return the number of catalogs streamed
+     */
+    @Override
+    public long streamCatalogs(QuerySpec query, String continuationToken, List<String> fields, Consumer<Catalog> consumer) {
+        Function<Document, Document> assembler = catalog -> catalogAssembler.assemble(List.of(catalog), fields).get(0);
+        return stream(getFederatedCatalogCollectionName(), resolveDatasetCriteria(query), continuationToken, CatalogAssembler.catalogFields(fields),
+                assembler.andThen(MongodbFederatedCatalogCacheQuery.entityConverter(jsonLd, transformerRegistry, Catalog.class)), consumer);
+    }
+
+    /**
+     * Streams the datasets matching the query to the given consumer, one at a time, while the cursor is iterated.
+     *
+     * @param query the query specification containing filtering, sorting, and paging criteria
+     * @param continuationToken the token returned with a previous page, or null to start from the first dataset
+     * @param fields the field paths to return, see {@link FieldProjection}, or an empty list for all the fields
+     * @param withDataDictionaries whether to replace the data dictionary references with the dictionaries
+     * @param consumer the consumer receiving each dataset
+     * @return the number of datasets streamed
+     */
+    @Override
+    public long streamDatasets(QuerySpec query, String continuationToken, List<String> fields, boolean withDataDictionaries,
+                               Consumer<Dataset> consumer) {
+        return stream(getFederatedCatalogDatasetCollectionName(), query, continuationToken, fields,
+                resolver(withDataDictionaries).andThen(MongodbFederatedCatalogCacheQuery.entityConverter(jsonLd, transformerRegistry, Dataset.class)), consumer);
+    }
+
+    /**
+     * Queries a page of datasets and returns them in compacted JSON-LD form straight from the stored documents,
+     * skipping the JSON-LD expansion and the transformation to {@link Dataset}.
+     *
+     * @param query the query specification containing filtering, sorting, and page size
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param withTotal whether to also count the datasets matching the query across all pages
+     * @param fields the field paths to return, see {@link FieldProjection}, or an empty list for all the fields
+     * @param withDataDictionaries whether to replace the data dictionary references with the dictionaries
+     * @param context the JSON-LD context written in every dataset
+     * @return the page of compacted JSON-LD datasets and the token of the next page
+     */
+    @Override
+    public CachePage<String> queryDatasetsPageCompacted(QuerySpec query, String continuationToken, boolean withTotal, List<String> fields,
+                                                       boolean withDataDictionaries, JsonObject context) {
+        return transactionContext.execute(() -> {
+            try {
+                var collection = getCollection(getFederatedCatalogDatasetCollectionName());
+                indexManager.inspectQueryPlan(collection, MongodbFederatedCatalogCacheQuery.createKeysetAggregationPipeline(query, continuationToken, fields));
+                return MongodbFederatedCatalogCacheQuery.queryInternalCompactedPage(query, continuationToken, withTotal, fields, collection,
+                        contextDocument(context), resolver(withDataDictionaries));
+            } catch (IllegalArgumentException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new EdcPersistenceException(e);
+            }
+        });
+    }
+
+    /**
+     * Streams the datasets matching the query in compacted JSON-LD form straight from the stored documents,
+     * skipping the JSON-LD expansion and the transformation to {@link Dataset}.
+     *
+     * @param query the query specification containing filtering, sorting, and paging criteria
+     * @param continuationToken the token returned with a previous page, or null to start from the first dataset
+     * @param fields the field paths to return, see {@link FieldProjection}, or an empty list for all the fields
+     * @param withDataDictionaries whether to replace the data dictionary references with the dictionaries
+     * @param context the JSON-LD context written in every dataset
+     * @param consumer the consumer receiving each compacted JSON-LD dataset
+     * @return the number of datasets streamed
+     */
+    @Override
+    public long streamDatasetsCompacted(QuerySpec query, String continuationToken, List<String> fields, boolean withDataDictionaries,
+                                        JsonObject context, Consumer<String> consumer) {
+        var resolver = resolver(withDataDictionaries);
+        var contextDocument = contextDocument(context);
+        return stream(getFederatedCatalogDatasetCollectionName(), query, continuationToken, fields,
+                doc -> MongodbFederatedCatalogCacheQuery.toCompactedJson(resolver.apply(doc), contextDocument), consumer);
+    }
+
+    /**
+     * Finds a data dictionary referenced by the distributions of the cached datasets and returns it identified by
+     * its reference, {@value DataDictionaryStore#REFERENCE_PREFIX} followed by the content hash.
+     *
+     * @param reference the {@code @id} of the reference, or the content hash of the dictionary
+     * @param context the JSON-LD context written in the dictionary
+     * @return the compacted JSON-LD data dictionary, or null if there is none
+     */
+    @Override
+    public String findDataDictionary(String reference, JsonObject context) {
+        var dictionary = transactionContext.execute(() -> {
+            try {
+                return dataDictionaryStore.find(reference);
+            } catch (Exception e) {
+                throw new EdcPersistenceException(e);
+            }
+        });
+        if (dictionary == null) {
+            return null;
+        }
+        var id = reference.startsWith(DataDictionaryStore.REFERENCE_PREFIX) ? reference : DataDictionaryStore.REFERENCE_PREFIX + reference;
+        var document = new Document("@id", id);
+        if (dictionary instanceof Document fields) {
+            document.putAll(fields);
+        } else {
+            document.append("@graph", dictionary);
+        }
+        return MongodbFederatedCatalogCacheQuery.toCompactedJson(document, contextDocument(context));
+    }
+
+    /**
+     * Checks a continuation token against a query, see {@link ContinuationToken#decode(QuerySpec, String)}.
+     *
+     * @param query the query specification the token is used with
+     * @param continuationToken the token returned with a previous page
+     * @throws IllegalArgumentException if the token is malformed or does not match the query sort
+     */
+    @Override
+    public void validateContinuationToken(QuerySpec query, String continuationToken) {
+        ContinuationToken.decode(query, continuationToken);
+    }
+
+    /**
+     * Reads keyset pages and streams, projects them and writes them in compacted JSON-LD form.
+     *
+     * @return true
+     */
+    @Override
+    public boolean supportsKeysetPagination() {
+        return true;
+    }
+
+    /**
+     * Counts the dataset facets in a single aggregation.
+     *
+     * @return true
+     */
+    @Override
+    public boolean supportsFacets() {
+        return true;
+    }
+
+    /**
+     * Stores the data dictionaries once per content hash in their own collection, see {@link DataDictionaryStore}.
+     *
+     * @return true
+     */
+    @Override
+    public boolean supportsDataDictionaries() {
+        return true;
+    }
+
+    /**
+     * Reports the index usage collected by the {@link MongodbIndexManager}.
+     *
+     * @return true
+     */
+    @Override
+    public boolean supportsIndexUsage() {
+        return true;
+    }
+
+    /**
+     * Converts the JSON-LD context of the query API into the document written in the compacted results. The API
+     * passes the same context to every call, so the last conversion is kept.
+     *
+     * @param context the JSON-LD context
+     * @return the context as a document
+     */
+    private Document contextDocument(JsonObject context) {
+        var converted = lastContext;
+        if (converted == null || converted.context() != context) {
+            converted = new ConvertedContext(context, Document.parse(context.toString()));
+            lastContext = converted;
+        }
+        return converted.document();
+    }
+
+    private QuerySpec resolveDatasetCriteria(QuerySpec query) {
+        return transactionContext.execute(() -> {
+            try {
+                return catalogAssembler.resolveDatasetCriteria(query);
+            } catch (IllegalArgumentException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new EdcPersistenceException(e);
+            }
+        });
+    }
+
+    private Function<Document, Document> resolver(boolean withDataDictionaries) {
+        return withDataDictionaries ? dataDictionaryStore.resolver() : Function.identity();
+    }
+
+    private <T> long stream(String collectionName, QuerySpec query, String continuationToken, List<String> fields,
+                            Function<Document, T> converter, Consumer<T> consumer) {
+        return transactionContext.execute(() -> {
+            try {
+                var collection = getCollection(collectionName);
+                indexManager.inspectQueryPlan(collection, MongodbFederatedCatalogCacheQuery.createKeysetAggregationPipeline(query, continuationToken, fields));
+                return MongodbFederatedCatalogCacheQuery.streamInternal(query, continuationToken, fields, collection, converter, consumer);
+            } catch (IllegalArgumentException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new EdcPersistenceException(e);
+            }
+        });
+    }
+
+    /**
+     * Counts the datasets in the federated catalog cache based on the provided query specification. Filtered
+     * counts are hinted to the index of the first criterion that has one.
      *
      * @param query   the query specification containing filtering, sorting, and pagination criteria
-     * @param noLimit a flag indicating whether the limit stage should be omitted from the query
-     * @return a JSON string representing the count of datasets that match the query criteria
+     * @param noLimit a flag indicating whether the offset and limit of the query should be ignored
+     * @return the number of datasets that match the query criteria
      */
-    public String countDatasets(QuerySpec query, boolean noLimit) {
+    @Override
+    public long countDatasets(QuerySpec query, boolean noLimit) {
         return transactionContext.execute(() -> {
-            try (var connection = getConnection()) {
-                var collection = getCollection(connection, getFederatedCatalogDatasetCollectionName());
-                return MongodbFederatedCatalogCacheQuery.countInternalDatasets(query, collection, noLimit);
+            try {
+                var collection = getCollection(getFederatedCatalogDatasetCollectionName());
+                var hint = indexManager.countHint(getFederatedCatalogDatasetCollectionName(), query);
+                return MongodbFederatedCatalogCacheQuery.countInternal(query, collection, noLimit, hint);
             } catch (Exception e) {
                 throw new EdcPersistenceException(e);
             }
@@ -176,15 +726,23 @@ public class MongodbFederatedCatalogCache extends MongodbFederatedCatalogCacheSt
 
     /**
      * Counts the datasets per keyword in the federated catalog cache based on the provided query specification.
+     * Requests that are not paginated and not filtered, or only filtered by participant, are answered from the
+     * keyword facet store, the others aggregate the datasets.
      *
      * @param query   the query specification containing filtering, sorting, and pagination criteria
      * @param noLimit a flag indicating whether the limit stage should be omitted from the query
      * @return a JSON string representing the count of datasets per keyword that match the query criteria
      */
+    @Override
     public String countKeywords(QuerySpec query, boolean noLimit) {
         return transactionContext.execute(() -> {
-            try (var connection = getConnection()) {
-                var collection = getCollection(connection, getFederatedCatalogDatasetCollectionName());
+            try {
+                if (KeywordFacetStore.supports(query, noLimit)) {
+                    metrics.increment(KEYWORD_FACET_METRIC + ".hits");
+                    return keywordFacetStore.countKeywords(query);
+                }
+                metrics.increment(KEYWORD_FACET_METRIC + ".misses");
+                var collection = getCollection(getFederatedCatalogDatasetCollectionName());
                 return MongodbFederatedCatalogCacheQuery.countInternalKeywords(query, collection, noLimit);
             } catch (Exception e) {
                 throw new EdcPersistenceException(e);
@@ -192,13 +750,121 @@ public class MongodbFederatedCatalogCache extends MongodbFederatedCatalogCacheSt
         });
     }
 
-    private void upsertInternal(MongoClient connection, String id, Catalog catalog) {
+    /**
+     * Counts the datasets per value of each facet field and per issued year in a single aggregation.
+     *
+     * @param query   the query specification containing filtering, sorting, and pagination criteria
+     * @param noLimit a flag indicating whether the limit stage should be omitted from the query
+     * @return a JSON string mapping each facet to the count of datasets per value that match the query criteria
+     */
+    @Override
+    public String countFacets(QuerySpec query, boolean noLimit) {
+        return transactionContext.execute(() -> {
+            try {
+                var collection = getCollection(getFederatedCatalogDatasetCollectionName());
+                return MongodbFederatedCatalogCacheQuery.countInternalFacets(query, collection, noLimit);
+            } catch (Exception e) {
+                throw new EdcPersistenceException(e);
+            }
+        });
+    }
+
+    /**
+     * Reports how many operations used each index of the federated catalog collections.
+     *
+     * @return a JsonObject with one entry per collection, mapping each index name to its number of operations
+     */
+    @Override
+    public JsonObject indexUsage() {
+        return transactionContext.execute(() -> {
+            try {
+                return indexManager.indexUsage();
+            } catch (Exception e) {
+                throw new EdcPersistenceException(e);
+            }
+        });
+    }
+
+    private void write(String id, Catalog catalog) {
+        transactionContext.execute(() -> {
+            try {
+                var result = upsertInternal(id, catalog);
+                if (result.participantId() != null && result.inserted() + result.modified() + result.deleted() > 0) {
+                    keywordFacetStore.refresh(result.participantId());
+                }
+                monitor.debug(() -> "Catalog " + id + " saved, " + result);
+            } catch (Exception e) {
+                throw new EdcPersistenceException(e);
+            }
+        });
+    }
+
+    private static String catalogId(Catalog catalog) {
+        return ofNullable(catalog.getProperties().get(CatalogConstants.PROPERTY_ORIGINATOR))
+                .map(Object::toString)
+                .orElse(catalog.getId());
+    }
+
+    private void notifySaved(String id, boolean changed) {
+        var listener = saveListener;
+        if (listener != null) {
+            listener.saved(id, changed);
+        }
+    }
+
+    private void flushIngestionQueue() {
+        var queue = ingestionQueue;
+        if (queue != null) {
+            queue.flush();
+        }
+    }
+
+    private DatasetIngestionResult upsertInternal(String id, Catalog catalog) {
         Bson filter = Filters.eq(getIdField(), id);
         UpdateOptions options = new UpdateOptions().upsert(true);
+        MongoCollection<Document> collection = getCollection(getFederatedCatalogCollectionName());
+        MongoCollection<Document> datasetCollection = getCollection(getFederatedCatalogDatasetCollectionName());
+
+        long generation = currentGeneration();
+        var existingCatalog = collection.find(filter)
+                .projection(Projections.include(getContentHashField(), getSourceFingerprintField(), PARTICIPANT_FIELD))
+                .first();
+
+        // Skip the node before any JSON-LD processing when it returned the same catalog as on the last crawl
+        var fingerprint = catalogFingerprint.of(catalog);
+        var datasetCount = catalog.getDatasets() == null ? 0 : catalog.getDatasets().size();
+        if (existingCatalog != null && fingerprint != null && fingerprint.equals(existingCatalog.getString(getSourceFingerprintField()))) {
+            var storedParticipantId = existingCatalog.getString(PARTICIPANT_FIELD);
+            collection.updateOne(filter, seenUpdate(generation));
+            datasetCollection.updateMany(Filters.eq(PARTICIPANT_FIELD, storedParticipantId), seenUpdate(generation));
+            CatalogFingerprint.count(metrics, id, true);
+            notifySaved(id, false);
+            metrics.increment(DATASET_HASH_METRIC + ".hits", datasetCount);
+            return DatasetIngestionResult.empty(storedParticipantId).plusUnchanged(datasetCount);
+        }
+        CatalogFingerprint.count(metrics, id, false);
+
         JsonObject catalogJson = this.transformerRegistry.transform(catalog, JsonObject.class).getContent();
         JsonObject catalogJsonCompacted = jsonLd.compact(catalogJson).getContent();
         JsonObject catalogJsonCompactedDatasetArray = ensureDatasetAsArray(catalogJsonCompacted);
-        Document catalogDoc = Document.parse(catalogJsonCompactedDatasetArray.toString()).append(getIdField(), id);
+        String catalogHash = ContentHash.of(catalogJsonCompactedDatasetArray);
+        // the datasets are parsed one by one below, only when they changed
+        Document catalogDoc = Document.parse(Json.createObjectBuilder(catalogJsonCompactedDatasetArray).remove(DATASET_FIELD).build().toString())
+                .append(getIdField(), id);
+        String participantId = catalogDoc.getString(PARTICIPANT_FIELD);
+        var datasets = ofNullable(catalogJsonCompactedDatasetArray.getJsonArray(DATASET_FIELD)).orElse(JsonValue.EMPTY_JSON_ARRAY);
+
+        // Skip the whole catalog when its content did not change since the last crawl
+        if (existingCatalog != null && catalogHash.equals(existingCatalog.getString(getContentHashField()))) {
+            collection.updateOne(filter, Updates.combine(seenUpdate(generation), Updates.set(getSourceFingerprintField(), fingerprint)));
+            datasetCollection.updateMany(Filters.eq(PARTICIPANT_FIELD, participantId), seenUpdate(generation));
+            metrics.increment(CATALOG_HASH_METRIC + ".hits");
+            notifySaved(id, false);
+            metrics.increment(DATASET_HASH_METRIC + ".hits", datasets.size());
+            return DatasetIngestionResult.empty(participantId).plusUnchanged(datasets.size());
+        }
+        metrics.increment(CATALOG_HASH_METRIC + ".misses");
+
         // Create a new document with just the fields we want to set
         Document setDoc = new Document();
 
@@ -206,41 +872,143 @@ public class MongodbFederatedCatalogCache extends MongodbFederatedCatalogCacheSt
         for (String key : catalogDoc.keySet()) {
             setDoc.append(key, catalogDoc.get(key));
         }
+        // the datasets are only stored in the dataset collection, the catalog references them
+        setDoc.append(DATASET_FIELD, CatalogAssembler.references(datasets));
         setDoc.append(getIdField(), id);
+        setDoc.append(getGenerationField(), generation);
 
-        Bson update = new Document("$set", setDoc);
-        MongoCollection<Document> collection = getCollection(connection, getFederatedCatalogCollectionName());
+        // the hash and fingerprint are only set once every dataset is written, so that a catalog whose datasets
+        // failed to be written is not skipped by the next crawl
+        Bson update = new Document("$set", setDoc)
+                .append("$unset", new Document(getContentHashField(), "").append(getSourceFingerprintField(), ""));
         collection.updateOne(filter, update, options);
 
-        // Upsert datasets
-        String participantId = catalogDoc.getString("dspace:participantId");
+        // Upsert changed datasets in unordered bulk write batches
         var context = catalogDoc.get("@context");
-        for (JsonValue dataset : catalogJsonCompactedDatasetArray.getJsonArray("dcat:dataset")) {
+        var result = DatasetIngestionResult.empty(participantId);
+        var writer = new DatasetBulkWriter(datasetCollection, monitor);
+        var storedHashes = findDatasetHashes(datasetCollection, participantId);
+        Set<String> datasetIds = new HashSet<>();
+        List<String> unchangedIds = new ArrayList<>();
+        List<Document> batch = new ArrayList<>(Math.min(bulkBatchSize, datasets.size()));
+        Map<String, Object> dictionaries = new HashMap<>();
+        for (JsonValue dataset : datasets) {
             var datasetJson = dataset.asJsonObject();
             var datasetId = datasetJson.getString("@id");
-            var datasetDoc = Document.parse(datasetJson.toString()).append("dspace:participantId", participantId).append("@context", context);
-            collection = getCollection(connection, getFederatedCatalogDatasetCollectionName());
-            collection.updateOne(Filters.and(Filters.eq("@id", datasetId),
-                    Filters.eq("dspace:participantId", participantId)),
-                    new Document("$set", datasetDoc), options);
+            var datasetHash = ContentHash.of(datasetJson);
+            datasetIds.add(datasetId);
+            if (datasetHash.equals(storedHashes.get(datasetId))) {
+                unchangedIds.add(datasetId);
+                continue;
+            }
+            var datasetDoc = Document.parse(datasetJson.toString())
+                    .append(PARTICIPANT_FIELD, participantId)
+                    .append("@context", context)
+                    .append(getContentHashField(), datasetHash)
+                    .append(getGenerationField(), generation);
+            datasetDoc.append(getSpatialGeometryField(), SpatialGeometry.fromDataset(datasetDoc));
+            datasetDoc.putAll(TemporalRange.fromDataset(datasetDoc));
+            dictionaries.putAll(DataDictionaryStore.split(datasetDoc));
+            batch.add(datasetDoc);
+            if (batch.size() >= bulkBatchSize) {
+                // dictionaries are stored first, so that no stored dataset references a missing one
+                dataDictionaryStore.store(dictionaries, generation);
+                dictionaries.clear();
+                result = writer.write(participantId, batch, result);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            dataDictionaryStore.store(dictionaries, generation);
+            result = writer.write(participantId, batch, result);
+        }
+
+        // Only refresh the seen marker of the datasets whose content did not change
+        for (int from = 0; from < unchangedIds.size(); from += bulkBatchSize) {
+            var ids = unchangedIds.subList(from, Math.min(from + bulkBatchSize, unchangedIds.size()));
+            datasetCollection.updateMany(Filters.and(Filters.eq(PARTICIPANT_FIELD, participantId), Filters.in("@id", ids)), seenUpdate(generation));
+        }
+        // Delete the stored datasets the catalog no longer has, e.g. removed by a pushed update, which the crawl
+        // generation would not expire since the node was seen
+        var deleted = storedHashes.keySet().stream().anyMatch(storedId -> !datasetIds.contains(storedId))
+                ? datasetCollection.deleteMany(Filters.and(Filters.eq(PARTICIPANT_FIELD, participantId), Filters.nin("@id", datasetIds))).getDeletedCount()
+                : 0;
+        result = result.plusDeleted(deleted);
+        if (result.failed() > 0) {
+            // the catalog keeps no hash, so that the next crawl writes its datasets again
+            dataVersion.incrementAndGet();
+            throw new EdcPersistenceException(result.failed() + " datasets of catalog " + id + " could not be written, " + result);
+        }
+
+        collection.updateOne(filter, Updates.combine(Updates.set(getContentHashField(), catalogHash),
+                Updates.set(getSourceFingerprintField(), fingerprint)));
+        metrics.increment(DATASET_HASH_METRIC + ".hits", unchangedIds.size());
+        metrics.increment(DATASET_HASH_METRIC + ".misses", datasets.size() - unchangedIds.size());
+        // increased once the writes are done, so that results computed while writing are not reused
+        dataVersion.incrementAndGet();
+        notifySaved(id, true);
+        return result.plusUnchanged(unchangedIds.size());
+    }
+
+    private Map<String, String> findDatasetHashes(MongoCollection<Document> datasetCollection, String participantId) {
+        Map<String, String> hashes = new HashMap<>();
+        datasetCollection.find(Filters.eq(PARTICIPANT_FIELD, participantId))
+                .projection(Projections.include("@id", getContentHashField()))
+                .forEach(doc -> hashes.put(doc.getString("@id"), doc.getString(getContentHashField())));
+        return hashes;
+    }
+
+    private Bson seenUpdate(long generation) {
+        return Updates.set(getGenerationField(), generation);
+    }
+
+    /**
+     * Returns the generation of the crawl currently running, reading it from the meta collection the
+     * first time it is needed.
+     *
+     * @return the current crawl generation, or zero if no crawl has ever started
+     */
+    private long currentGeneration() {
+        var generation = currentGeneration.get();
+        if (generation < 0) {
+            var meta = getCollection(getFederatedCatalogMetaCollectionName()).find(Filters.eq("_id", GENERATION_META_ID)).first();
+            generation = meta == null ? 0 : meta.getLong(getGenerationField());
+            currentGeneration.compareAndSet(-1, generation);
         }
+        return currentGeneration.get();
     }
 
-    private void deleteByMarkedTemplateInternal(MongoClient connection) {
-        Bson filter = Filters.eq(getMarkedField(), true);
-        MongoCollection<Document> collection =  getCollection(connection, getFederatedCatalogCollectionName());
-        collection.deleteMany(filter);
-        MongoCollection<Document> collectionDatasets =  getCollection(connection, getFederatedCatalogDatasetCollectionName());
-        collectionDatasets.deleteMany(filter);
+    private void deleteByGenerationInternal() {
+        var meta = getCollection(getFederatedCatalogMetaCollectionName()).find(Filters.eq("_id", GENERATION_META_ID)).first();
+        if (meta == null) {
+            // no crawl has ever started, so nothing can be older than the current generation
+            return;
+        }
+        long generation = meta.getLong(getGenerationField());
+        currentGeneration.set(generation);
+        // documents without a generation were written before generations existed and are also expired
+        Bson filter = Filters.not(Filters.gte(getGenerationField(), generation));
+        MongoCollection<Document> collection =  getCollection(getFederatedCatalogCollectionName());
+        var deletedCatalogs = collection.deleteMany(filter).getDeletedCount();
+        MongoCollection<Document> collectionDatasets =  getCollection(getFederatedCatalogDatasetCollectionName());
+        var expiredParticipants = collectionDatasets.distinct(PARTICIPANT_FIELD, filter, String.class).into(new ArrayList<>());
+        var deletedDatasets = collectionDatasets.deleteMany(filter).getDeletedCount();
+        keywordFacetStore.refresh(expiredParticipants);
+        // datasets written again during the crawl may also have dropped dictionaries, so this runs every time
+        var deletedDictionaries = dataDictionaryStore.deleteUnreferenced(generation);
+        if (deletedCatalogs + deletedDatasets > 0) {
+            dataVersion.incrementAndGet();
+        }
+        monitor.debug(() -> "Deleted " + deletedCatalogs + " catalogs, " + deletedDatasets + " datasets and " + deletedDictionaries
+                + " data dictionaries older than generation " + generation);
     }
 
-    private void expireAllInternal(MongoClient connection) {
-        UpdateOptions options = new UpdateOptions().upsert(false);
-        Document doc = Document.parse("{ $set: { " + getMarkedField() + ": true } }");
-        MongoCollection<Document> collection = getCollection(connection, getFederatedCatalogCollectionName());
-        collection.updateMany(Filters.empty(), doc, options);
-        MongoCollection<Document> collectionDatasets =  getCollection(connection, getFederatedCatalogDatasetCollectionName());
-        collectionDatasets.updateMany(Filters.empty(), doc, options);
+    private void expireAllInternal() {
+        var meta = getCollection(getFederatedCatalogMetaCollectionName()).findOneAndUpdate(
+                Filters.eq("_id", GENERATION_META_ID),
+                Updates.inc(getGenerationField(), 1L),
+                new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER));
+        currentGeneration.set(meta.getLong(getGenerationField()));
     }
 
     private JsonObject ensureDatasetAsArray(JsonObject catalogJson) {
@@ -257,6 +1025,6 @@ public class MongodbFederatedCatalogCache extends MongodbFederatedCatalogCacheSt
         return catalogJson;
     }
 
+    private record ConvertedContext(JsonObject context, Document document) {
+    }
 }
-
-
@@ -16,10 +16,15 @@ package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache;
 
 import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
 import com.mongodb.client.model.Aggregates;
 import com.mongodb.client.model.BsonField;
+import com.mongodb.client.model.CountOptions;
+import com.mongodb.client.model.Facet;
+import com.mongodb.client.model.Field;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.TextSearchOptions;
 import com.mongodb.client.model.UnwindOptions;
 import jakarta.json.Json;
 import jakarta.json.JsonObject;
@@ -27,9 +32,12 @@ import jakarta.json.JsonReader;
 import org.bson.BsonDocument;
 import org.bson.Document;
 import org.bson.conversions.Bson;
+import org.bson.json.JsonMode;
 import org.bson.json.JsonWriterSettings;
 import org.eclipse.edc.connector.controlplane.catalog.spi.Catalog;
 import org.eclipse.edc.connector.controlplane.catalog.spi.Dataset;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.CachePage;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.HeleadeFederatedCatalogCache;
 import org.eclipse.edc.jsonld.spi.JsonLd;
 import org.eclipse.edc.spi.query.Criterion;
 import org.eclipse.edc.spi.query.QuerySpec;
@@ -44,6 +52,9 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 /**
@@ -52,21 +63,53 @@ import java.util.stream.Collectors;
  */
 public class MongodbFederatedCatalogCacheQuery {
 
+    private static final int STREAM_BATCH_SIZE = 100;
+    private static final String CONTEXT_FIELD = "@context";
+    private static final JsonWriterSettings WIRE_WRITER_SETTINGS = JsonWriterSettings.builder().outputMode(JsonMode.RELAXED).build();
+
+    private static final String ID_FIELD = "@id";
+    private static final String OBJECT_ID_FIELD = "_id";
+    private static final String COUNT_FIELD = "count";
+    private static final String TOTAL_FACET = "total";
+    private static final String PAGE_FACET = "page";
+
     /**
-     * Queries the internal catalog from a MongoDB collection using the specified query specification.
+     * Dataset fields whose values are counted by the facet aggregation.
+     */
+    public static final List<String> FACET_FIELDS = List.of("dspace:participantId", "dct:format", "dct:accessRights", "dct:license", "dcat:theme");
+
+    /**
+     * Name of the facet counting the datasets per year of their {@code dct:issued} date.
+     */
+    public static final String ISSUED_YEAR_FACET = "issuedYear";
+
+    private static final String ISSUED_FIELD = "dct:issued";
+
+    /**
+     * Operator of the criteria matching the documents whose text index contains the search terms, see
+     * {@link HeleadeFederatedCatalogCache#TEXT_SEARCH_OPERATOR}.
+     */
+    public static final String TEXT_SEARCH_OPERATOR = HeleadeFederatedCatalogCache.TEXT_SEARCH_OPERATOR;
+
+    /**
+     * Queries the internal catalog from a MongoDB collection using the specified query specification. The
+     * datasets of all the catalogs found are read at once, see {@link CatalogAssembler}.
      *
      * @param querySpec the query specification containing filtering, sorting, and pagination criteria
      * @param collection the MongoDB collection to query
+     * @param assembler the assembler replacing the dataset references of the catalogs with the datasets
      * @param jsonLd the JSON-LD processor used for data expansion
      * @param transformerRegistry the registry for transforming JSON-LD expanded objects into Catalog instances
      * @return a collection of catalogs matching the query criteria
      */
-    public static Collection<Catalog> queryInternalCatalog(QuerySpec querySpec, MongoCollection<Document> collection, JsonLd jsonLd, TypeTransformerRegistry transformerRegistry) {
+    public static Collection<Catalog> queryInternalCatalog(QuerySpec querySpec, MongoCollection<Document> collection, CatalogAssembler assembler,
+                                                           JsonLd jsonLd, TypeTransformerRegistry transformerRegistry) {
         List<Bson> aggregations = createAggregationPipeline(querySpec);
         var resultsStr = new ArrayList<String>();
         var results = new ArrayList<Catalog>();
 
-        collection.aggregate(aggregations).forEach(doc -> resultsStr.add(doc.toJson()));
+        var catalogs = collection.aggregate(aggregations).into(new ArrayList<>());
+        assembler.assemble(catalogs, List.of()).forEach(doc -> resultsStr.add(withoutInternalFields(doc).toJson()));
 
         for (String s : resultsStr) {
             JsonReader jsonReader = Json.createReader(new StringReader(s));
@@ -94,7 +137,7 @@ public class MongodbFederatedCatalogCacheQuery {
         var resultsStr = new java.util.ArrayList<String>();
         var results = new java.util.ArrayList<Dataset>();
 
-        collection.aggregate(aggregations).forEach(doc -> resultsStr.add(doc.toJson()));
+        collection.aggregate(aggregations).forEach(doc -> resultsStr.add(withoutInternalFields(doc).toJson()));
 
         for (String s : resultsStr) {
             JsonReader jsonReader = Json.createReader(new StringReader(s));
@@ -109,35 +152,220 @@ public class MongodbFederatedCatalogCacheQuery {
     }
 
     /**
-     * Counts the datasets that match the query specification, applying an optional limit removal.
+     * Queries a page of catalogs using keyset pagination. The datasets of the catalogs in the page are read at
+     * once, see {@link CatalogAssembler}.
      *
-     * @param querySpec the query specification containing filtering, sorting, and pagination criteria
+     * @param querySpec the query specification containing filtering, sorting, and paging criteria
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param withTotal whether to also count the catalogs matching the query across all pages
+     * @param fields the field paths to return, see {@link FieldProjection}, or an empty list for all the fields
      * @param collection the MongoDB collection to query
-     * @param noLimit whether to remove limit and skip stages from the aggregation pipeline
-     * @return a JSON string representing the count of datasets, with a default of {"count": 0} if no matches are found
+     * @param assembler the assembler replacing the dataset references of the catalogs with the datasets
+     * @param jsonLd the JSON-LD processor used for data expansion
+     * @param transformerRegistry the registry for transforming JSON-LD expanded objects into Catalog instances
+     * @return the page of catalogs and the token of the next page
+     * @throws IllegalArgumentException if the continuation token is malformed or does not match the query sort
      */
-    public static String countInternalDatasets(QuerySpec querySpec, MongoCollection<Document> collection, boolean noLimit) {
-        List<Bson> aggregations = createAggregationPipeline(querySpec);
-        // remove limit stage
-        if (noLimit) {
-            aggregations.removeIf(stage -> (stage.getClass().getSimpleName().equals("BsonDocument") && stage.toBsonDocument().containsKey("$limit")));
-            aggregations.removeIf(stage -> (stage.getClass().getSimpleName().equals("BsonDocument") && stage.toBsonDocument().containsKey("$skip")));
-        }
-        // add count
-        aggregations.add(Aggregates.count());
+    public static CachePage<Catalog> queryInternalCatalogPage(QuerySpec querySpec, String continuationToken, boolean withTotal, List<String> fields,
+                                                              MongoCollection<Document> collection, CatalogAssembler assembler,
+                                                              JsonLd jsonLd, TypeTransformerRegistry transformerRegistry) {
+        return queryInternalPage(querySpec, continuationToken, withTotal, CatalogAssembler.catalogFields(fields), collection,
+                catalogs -> assembler.assemble(catalogs, fields), entityConverter(jsonLd, transformerRegistry, Catalog.class));
+    }
 
-        // run the aggregation
-        var documents = collection.aggregate(aggregations);
+    /**
+     * Queries a page of datasets using keyset pagination.
+     *
+     * @param querySpec the query specification containing filtering, sorting, and paging criteria
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param withTotal whether to also count the datasets matching the query across all pages
+     * @param fields the field paths to return, see {@link FieldProjection}, or an empty list for all the fields
+     * @param collection the MongoDB collection to query for datasets
+     * @param jsonLd the JSON-LD processor used for data expansion
+     * @param transformerRegistry the registry used to transform JSON-LD expanded objects to Dataset instances
+     * @param resolver the function applied to every stored document before its conversion, such as the data
+     *                 dictionary resolver of {@link DataDictionaryStore#resolver()}
+     * @return the page of datasets and the token of the next page
+     * @throws IllegalArgumentException if the continuation token is malformed or does not match the query sort
+     */
+    public static CachePage<Dataset> queryInternalDatasetsPage(QuerySpec querySpec, String continuationToken, boolean withTotal, List<String> fields,
+                                                               MongoCollection<Document> collection, JsonLd jsonLd, TypeTransformerRegistry transformerRegistry,
+                                                               Function<Document, Document> resolver) {
+        return queryInternalPage(querySpec, continuationToken, withTotal, fields, collection, UnaryOperator.identity(),
+                resolver.andThen(entityConverter(jsonLd, transformerRegistry, Dataset.class)));
+    }
 
-        // check result is not empty
-        if (documents.iterator().hasNext()) {
-            var document = documents.first();
-            if (document != null && !document.isEmpty()) {
-                return document.toJson();
+    /**
+     * Queries a page of stored documents using keyset pagination and returns them as compacted JSON-LD strings,
+     * without JSON-LD expansion nor transformation. See {@link #toCompactedJson(Document, Document)}.
+     *
+     * @param querySpec the query specification containing filtering, sorting, and paging criteria
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param withTotal whether to also count the documents matching the query across all pages
+     * @param fields the field paths to return, see {@link FieldProjection}, or an empty list for all the fields
+     * @param collection the MongoDB collection to query
+     * @param context the precomputed JSON-LD context written in every result
+     * @param resolver the function applied to every stored document before its conversion, such as the data
+     *                 dictionary resolver of {@link DataDictionaryStore#resolver()}
+     * @return the page of compacted JSON-LD strings and the token of the next page
+     * @throws IllegalArgumentException if the continuation token is malformed or does not match the query sort
+     */
+    public static CachePage<String> queryInternalCompactedPage(QuerySpec querySpec, String continuationToken, boolean withTotal, List<String> fields,
+                                                               MongoCollection<Document> collection, Document context, Function<Document, Document> resolver) {
+        return queryInternalPage(querySpec, continuationToken, withTotal, fields, collection, UnaryOperator.identity(),
+                doc -> toCompactedJson(resolver.apply(doc), context));
+    }
+
+    /**
+     * Converts a stored document straight into its compacted JSON-LD wire form. Documents are stored in the
+     * compacted form produced by the catalog transformers, so only the internal bookkeeping fields have to be
+     * removed and the stored context replaced with the precomputed one.
+     *
+     * @param doc the stored document
+     * @param context the precomputed JSON-LD context
+     * @return the compacted JSON-LD string
+     */
+    public static String toCompactedJson(Document doc, Document context) {
+        var compacted = new Document(CONTEXT_FIELD, context);
+        doc.forEach((key, value) -> {
+            if (!MongodbFederatedCatalogCacheStore.getInternalFields().contains(key) && !CONTEXT_FIELD.equals(key)) {
+                compacted.append(key, value);
+            }
+        });
+        return compacted.toJson(WIRE_WRITER_SETTINGS);
+    }
+
+    /**
+     * Copies a stored document without its internal bookkeeping fields, which would otherwise be expanded
+     * with the default vocabulary and returned as properties of the catalog or dataset.
+     *
+     * @param doc the stored document
+     * @return a new document with only the JSON-LD content
+     */
+    public static Document withoutInternalFields(Document doc) {
+        var content = new Document();
+        doc.forEach((key, value) -> {
+            if (!MongodbFederatedCatalogCacheStore.getInternalFields().contains(key)) {
+                content.append(key, value);
             }
+        });
+        return content;
+    }
+
+    /**
+     * Creates the converter used by the default read path: the stored document is parsed, JSON-LD expanded and
+     * transformed into the requested type.
+     *
+     * @param jsonLd the JSON-LD processor used for data expansion
+     * @param transformerRegistry the registry used to transform JSON-LD expanded objects to the result type
+     * @param type the result type, Catalog or Dataset
+     * @param <T> the result type
+     * @return the converter from stored documents to the result type
+     */
+    public static <T> Function<Document, T> entityConverter(JsonLd jsonLd, TypeTransformerRegistry transformerRegistry, Class<T> type) {
+        return doc -> {
+            JsonReader jsonReader = Json.createReader(new StringReader(withoutInternalFields(doc).toJson()));
+            JsonObject result = jsonReader.readObject();
+            JsonObject resultExpanded = jsonLd.expand(result).getContent();
+            jsonReader.close();
+            return transformerRegistry.transform(resultExpanded, type).getContent();
+        };
+    }
+
+    /**
+     * Streams the results of a keyset paginated query one by one, iterating the MongoDB cursor so that only the
+     * document being converted is held in memory. No continuation token is produced.
+     *
+     * @param querySpec the query specification containing filtering, sorting, and page size
+     * @param continuationToken the token returned with the previous page, or null to start from the first result
+     * @param fields the field paths to return, see {@link FieldProjection}, or an empty list for all the fields
+     * @param collection the MongoDB collection to query
+     * @param converter the converter from stored documents to results
+     * @param consumer the consumer receiving each result as soon as it is converted
+     * @param <T> the result type
+     * @return the number of results streamed
+     * @throws IllegalArgumentException if the continuation token is malformed or does not match the query sort
+     */
+    public static <T> long streamInternal(QuerySpec querySpec, String continuationToken, List<String> fields, MongoCollection<Document> collection,
+                                          Function<Document, T> converter, Consumer<T> consumer) {
+        List<Bson> aggregations = createKeysetAggregationPipeline(querySpec, continuationToken, fields);
+        long count = 0;
+        try (MongoCursor<Document> cursor = collection.aggregate(aggregations).batchSize(STREAM_BATCH_SIZE).cursor()) {
+            while (cursor.hasNext()) {
+                consumer.accept(converter.apply(cursor.next()));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Reads a keyset paginated page. When the total is requested for a bounded page, the page and the total are read
+     * in one round trip through {@link #createCountedKeysetAggregationPipeline(QuerySpec, String, List)}; an unbounded page
+     * may not fit in the single document returned by {@code $facet}, so its total is counted apart. The documents
+     * of the page go through the page processor before they are converted.
+     */
+    private static <T> CachePage<T> queryInternalPage(QuerySpec querySpec, String continuationToken, boolean withTotal, List<String> fields,
+                                                      MongoCollection<Document> collection, UnaryOperator<List<Document>> pageProcessor,
+                                                      Function<Document, T> converter) {
+        List<Document> documents;
+        Long total = null;
+        if (withTotal && querySpec.getLimit() > 0) {
+            var counted = collection.aggregate(createCountedKeysetAggregationPipeline(querySpec, continuationToken, fields)).first();
+            var totals = counted == null ? List.<Document>of() : counted.getList(TOTAL_FACET, Document.class);
+            documents = counted == null ? List.of() : counted.getList(PAGE_FACET, Document.class);
+            total = totals.isEmpty() ? 0L : ((Number) totals.get(0).get(COUNT_FIELD)).longValue();
+        } else {
+            documents = collection.aggregate(createKeysetAggregationPipeline(querySpec, continuationToken, fields)).into(new ArrayList<>());
+            if (withTotal) {
+                total = countInternal(querySpec, collection, true, null);
+            }
+        }
+
+        var results = new ArrayList<T>();
+        Document last = null;
+        for (Document doc : pageProcessor.apply(documents)) {
+            last = doc;
+            results.add(converter.apply(doc));
+        }
+
+        // a short page is the last one
+        var nextToken = last != null && querySpec.getLimit() > 0 && results.size() == querySpec.getLimit()
+                ? ContinuationToken.create(querySpec, last)
+                : null;
+        return new CachePage<>(results, nextToken, total);
+    }
+
+    /**
+     * Counts the documents that match the query specification. Unfiltered queries are answered from the collection
+     * metadata with {@code estimatedDocumentCount}, which may drift after an unclean shutdown until the collection is
+     * validated; filtered queries run {@code countDocuments} once, with the given index hint if any. The sort of the
+     * query never changes the count.
+     *
+     * @param querySpec the query specification containing filtering and pagination criteria
+     * @param collection the MongoDB collection to query
+     * @param noLimit whether to count all the matches instead of those in the page selected by the offset and limit
+     * @param hint the index the filtered count should use, or null to let the query planner choose
+     * @return the number of matching documents
+     */
+    public static long countInternal(QuerySpec querySpec, MongoCollection<Document> collection, boolean noLimit, Bson hint) {
+        Bson filter = createFilter(querySpec, "");
+        int offset = noLimit ? 0 : Math.max(querySpec.getOffset(), 0);
+        int limit = noLimit ? 0 : Math.max(querySpec.getLimit(), 0);
+
+        if (Objects.equals(filter, Filters.empty())) {
+            long remaining = Math.max(collection.estimatedDocumentCount() - offset, 0);
+            return limit > 0 ? Math.min(remaining, limit) : remaining;
         }
 
-        return "{\"count\": 0}";
+        var options = new CountOptions().skip(offset);
+        if (limit > 0) {
+            options.limit(limit);
+        }
+        if (hint != null) {
+            options.hint(hint);
+        }
+        return collection.countDocuments(filter, options);
     }
 
     /**
@@ -170,8 +398,66 @@ public class MongodbFederatedCatalogCacheQuery {
     }
 
 
+    /**
+     * Counts the datasets that match the query specification per value of each facet field and per issued year.
+     *
+     * @param querySpec the query specification containing filtering, sorting, and pagination criteria
+     * @param collection the MongoDB collection to query
+     * @param noLimit whether to remove limit and skip stages from the aggregation pipeline
+     * @return a JSON object string mapping each facet to an array of values and counts
+     */
+    public static String countInternalFacets(QuerySpec querySpec, MongoCollection<Document> collection, boolean noLimit) {
+        var document = collection.aggregate(createFacetAggregationPipeline(querySpec, noLimit)).first();
+        return document == null ? "{}" : document.toJson();
+    }
+
+    /**
+     * Creates a MongoDB aggregation pipeline that counts datasets per value of several fields in one pass. The query
+     * filter is applied once by a shared {@code $match} and a single {@code $facet} stage computes the counts of every
+     * field in {@link #FACET_FIELDS}, as {@code value} and {@code count} pairs sorted decreasingly by count, plus the
+     * {@link #ISSUED_YEAR_FACET} counts sorted by year.
+     *
+     * @param querySpec the query specification containing filtering, sorting, and pagination criteria
+     * @param noLimit whether to remove limit and skip stages from the aggregation pipeline
+     * @return a list of BSON objects representing the aggregation pipeline
+     */
+    public static List<Bson> createFacetAggregationPipeline(QuerySpec querySpec, boolean noLimit) {
+        List<Bson> aggregations = createAggregationPipeline(querySpec);
+
+        // remove limit stage, the sort only matters to select the page of datasets
+        if (noLimit) {
+            removeStages(aggregations, "$limit", "$skip", "$sort");
+        }
+
+        var facets = new ArrayList<Facet>();
+        for (String field : FACET_FIELDS) {
+            facets.add(new Facet(field,
+                    Aggregates.project(new Document(OBJECT_ID_FIELD, 0).append(field, 1)),
+                    Aggregates.unwind("$" + field, new UnwindOptions().preserveNullAndEmptyArrays(false)),
+                    Aggregates.group("$" + field, List.of(new BsonField("count", Document.parse("{ $sum: 1}")))),
+                    Aggregates.project(Document.parse("{_id: 0, value: \"$_id\", count: 1}")),
+                    Aggregates.sort(Document.parse("{count: -1, value: 1}"))));
+        }
+
+        // dct:issued may be a plain or typed literal, possibly repeated; the year is the start of its lexical form
+        facets.add(new Facet(ISSUED_YEAR_FACET,
+                Aggregates.match(Filters.and(Filters.exists(ISSUED_FIELD), Filters.ne(ISSUED_FIELD, null))),
+                Aggregates.project(Document.parse("{_id: 0, year: {$let: {" +
+                        "vars: {issued: {$cond: [{$isArray: \"$dct:issued\"}, {$arrayElemAt: [\"$dct:issued\", 0]}, \"$dct:issued\"]}}, " +
+                        "in: {$substrCP: [{$toString: {$ifNull: [\"$$issued.@value\", \"$$issued\"]}}, 0, 4]}}}}")),
+                Aggregates.group("$year", List.of(new BsonField("count", Document.parse("{ $sum: 1}")))),
+                Aggregates.project(Document.parse("{_id: 0, value: \"$_id\", count: 1}")),
+                Aggregates.sort(Document.parse("{value: 1}"))));
+
+        aggregations.add(Aggregates.facet(facets));
+        return aggregations;
+    }
+
     /**
      * Creates a MongoDB aggregation pipeline based on the provided query specification and optional dataset unwinding.
+     * Stages are emitted as {@code $match}, {@code $sort}, {@code $skip} and {@code $limit}, so that sorting applies to
+     * the whole result before paging, the server can use an index on the sort field, and a {@code $sort} followed by a
+     * {@code $limit} is coalesced by the server into a top-k sort that keeps only {@code offset + limit} documents in memory.
      *
      * @param querySpec the query specification containing filtering, sorting, and pagination criteria
      * @return a list of BSON objects representing the aggregation pipeline
@@ -186,8 +472,15 @@ public class MongodbFederatedCatalogCacheQuery {
         if (!(Objects.equals(filter, Filters.empty()))) {
             aggregations.add(Aggregates.match(filter));
         }
+        addTextScoreStage(querySpec, aggregations);
 
-        // Add pagination and sorting stages if necessary
+        // Sort before paging so that pages are slices of one stable order
+        Bson sort = createSort(querySpec);
+        if (sort != null) {
+            aggregations.add(Aggregates.sort(sort));
+        }
+
+        // Add pagination stages if necessary
         if (querySpec.getOffset() > 0) {
             aggregations.add(Aggregates.skip(querySpec.getOffset()));
         }
@@ -195,14 +488,153 @@ public class MongodbFederatedCatalogCacheQuery {
             aggregations.add(Aggregates.limit(querySpec.getLimit()));
         }
 
-        Bson sort = createSort(querySpec);
-        if (sort != null) {
-            aggregations.add(Aggregates.sort(sort));
+        return aggregations;
+    }
+
+    /**
+     * Creates a keyset paginated aggregation pipeline: {@code $match} on the query filter and on the range after the
+     * continuation token, {@code $sort} on the query sort with tiebreakers and {@code $limit}. The offset of the query
+     * is only applied with {@code $skip} when no continuation token is given. Queries sorted by relevance match the
+     * range in a second {@code $match}, after the text score has been added to the documents.
+     *
+     * @param querySpec the query specification containing filtering, sorting, and page size
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @return a list of BSON objects representing the aggregation pipeline
+     * @throws IllegalArgumentException if the continuation token is malformed or does not match the query sort
+     */
+    public static List<Bson> createKeysetAggregationPipeline(QuerySpec querySpec, String continuationToken) {
+        var aggregations = new ArrayList<Bson>();
+
+        Bson filter = createFilter(querySpec, "");
+        Bson range = null;
+        if (continuationToken != null && !continuationToken.isBlank()) {
+            range = ContinuationToken.createRangeFilter(ContinuationToken.decode(querySpec, continuationToken));
+        }
+        if (isSortedByRelevance(querySpec)) {
+            // the score only exists once the text search has run, so the range is matched on it afterwards
+            aggregations.add(Aggregates.match(filter));
+            addTextScoreStage(querySpec, aggregations);
+            if (range != null) {
+                aggregations.add(Aggregates.match(range));
+            }
+        } else {
+            if (range != null) {
+                filter = Objects.equals(filter, Filters.empty()) ? range : Filters.and(filter, range);
+            }
+            if (!(Objects.equals(filter, Filters.empty()))) {
+                aggregations.add(Aggregates.match(filter));
+            }
+        }
+
+        aggregations.add(Aggregates.sort(ContinuationToken.createSort(querySpec)));
+
+        boolean hasToken = continuationToken != null && !continuationToken.isBlank();
+        if (!hasToken && querySpec.getOffset() > 0) {
+            aggregations.add(Aggregates.skip(querySpec.getOffset()));
+        }
+        if (querySpec.getLimit() > 0) {
+            aggregations.add(Aggregates.limit(querySpec.getLimit()));
         }
 
         return aggregations;
     }
 
+    /**
+     * Creates a keyset paginated aggregation pipeline, see {@link #createKeysetAggregationPipeline(QuerySpec, String)},
+     * that returns only the given fields. The {@code $project} stage comes last, so that the filter, sort and
+     * paging still use the indexes and the whole documents.
+     *
+     * @param querySpec the query specification containing filtering, sorting, and page size
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param fields the field paths to return, see {@link FieldProjection}, or an empty list for all the fields
+     * @return a list of BSON objects representing the aggregation pipeline
+     * @throws IllegalArgumentException if the continuation token is malformed or does not match the query sort
+     */
+    public static List<Bson> createKeysetAggregationPipeline(QuerySpec querySpec, String continuationToken, List<String> fields) {
+        var aggregations = createKeysetAggregationPipeline(querySpec, continuationToken);
+        var projection = FieldProjection.create(fields, querySpec);
+        if (projection != null) {
+            aggregations.add(Aggregates.project(projection));
+        }
+        return aggregations;
+    }
+
+    /**
+     * Creates a keyset paginated aggregation pipeline that also counts the matches across all pages, in a single
+     * round trip: the query filter is matched once, then a {@code $facet} stage counts the matches in its
+     * {@code total} output and selects the page in its {@code page} output with the range, sort and limit of
+     * {@link #createKeysetAggregationPipeline(QuerySpec, String, List)}. Stages inside {@code $facet} cannot use
+     * indexes, but the {@code $sort} followed by {@code $limit} is still coalesced into a top-k sort.
+     *
+     * @param querySpec the query specification containing filtering, sorting, and page size
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param fields the field paths to return, see {@link FieldProjection}, or an empty list for all the fields
+     * @return a list of BSON objects representing the aggregation pipeline
+     * @throws IllegalArgumentException if the continuation token is malformed or does not match the query sort
+     */
+    public static List<Bson> createCountedKeysetAggregationPipeline(QuerySpec querySpec, String continuationToken, List<String> fields) {
+        var aggregations = new ArrayList<Bson>();
+
+        Bson filter = createFilter(querySpec, "");
+        if (isSortedByRelevance(querySpec) || !Objects.equals(filter, Filters.empty())) {
+            aggregations.add(Aggregates.match(filter));
+        }
+        addTextScoreStage(querySpec, aggregations);
+
+        var page = new ArrayList<Bson>();
+        boolean hasToken = continuationToken != null && !continuationToken.isBlank();
+        if (hasToken) {
+            page.add(Aggregates.match(ContinuationToken.createRangeFilter(ContinuationToken.decode(querySpec, continuationToken))));
+        }
+        page.add(Aggregates.sort(ContinuationToken.createSort(querySpec)));
+        if (!hasToken && querySpec.getOffset() > 0) {
+            page.add(Aggregates.skip(querySpec.getOffset()));
+        }
+        if (querySpec.getLimit() > 0) {
+            page.add(Aggregates.limit(querySpec.getLimit()));
+        }
+        var projection = FieldProjection.create(fields, querySpec);
+        if (projection != null) {
+            page.add(Aggregates.project(projection));
+        }
+
+        aggregations.add(Aggregates.facet(new Facet(TOTAL_FACET, Aggregates.count(COUNT_FIELD)), new Facet(PAGE_FACET, page)));
+        return aggregations;
+    }
+
+    /**
+     * Checks whether the query is sorted by the text search relevance score, see
+     * {@link MongodbFederatedCatalogCacheStore#getTextScoreField()}.
+     *
+     * @param querySpec the query specification
+     * @return true if the sort field is the text score
+     */
+    public static boolean isSortedByRelevance(QuerySpec querySpec) {
+        return querySpec != null && MongodbFederatedCatalogCacheStore.getTextScoreField().equals(querySpec.getSortField());
+    }
+
+    private static void addTextScoreStage(QuerySpec querySpec, List<Bson> aggregations) {
+        if (!isSortedByRelevance(querySpec)) {
+            return;
+        }
+        if (querySpec.getFilterExpression().stream().noneMatch(criterion -> TEXT_SEARCH_OPERATOR.equals(criterion.getOperator()))) {
+            throw new IllegalArgumentException("Sorting by " + MongodbFederatedCatalogCacheStore.getTextScoreField() + " requires a " + TEXT_SEARCH_OPERATOR + " criterion");
+        }
+        aggregations.add(Aggregates.addFields(new Field<>(MongodbFederatedCatalogCacheStore.getTextScoreField(),
+                new Document("$meta", "textScore"))));
+    }
+
+    /**
+     * Removes the stages with the given operators from an aggregation pipeline.
+     *
+     * @param aggregations the aggregation pipeline to modify
+     * @param operators the stage operators to remove, such as {@code $limit} or {@code $sort}
+     */
+    public static void removeStages(List<Bson> aggregations, String... operators) {
+        var removed = List.of(operators);
+        aggregations.removeIf(stage -> stage.toBsonDocument().keySet().stream().anyMatch(removed::contains));
+    }
+
     /**
      * Creates a MongoDB aggregation pipeline based on the provided query specification for keyword totals.
      *
@@ -214,15 +646,11 @@ public class MongodbFederatedCatalogCacheQuery {
 
         List<Bson> aggregations = createAggregationPipeline(querySpec);
 
-        // remove limit stage
+        // remove limit stage, the sort only matters to select the page of datasets
         if (noLimit) {
-            aggregations.removeIf(stage -> (stage.getClass().getSimpleName().equals("BsonDocument") && stage.toBsonDocument().containsKey("$limit")));
-            aggregations.removeIf(stage -> (stage.getClass().getSimpleName().equals("BsonDocument") && stage.toBsonDocument().containsKey("$skip")));
+            removeStages(aggregations, "$limit", "$skip", "$sort");
         }
 
-        // remove sort
-        aggregations.removeIf(stage -> (stage.getClass().getSimpleName().equals("BsonDocument") && stage.toBsonDocument().containsKey("$sort")));
-
         // project to leave only the keyword field
         aggregations.add(Aggregates.project(Document.parse("{_id: 0, \"dcat:keyword\": 1}")));
 
@@ -243,7 +671,9 @@ public class MongodbFederatedCatalogCacheQuery {
     }
 
     /**
-     * Creates a MongoDB BSON filter from the given QuerySpec
+     * Creates a MongoDB BSON filter from the given QuerySpec. The spatial operators of {@link SpatialGeometry}
+     * match the GeoJSON geometry stored next to {@code dct:spatial}, and the {@code overlaps} operator of
+     * {@link TemporalRange} the period dates stored next to {@code dct:temporal}.
      *
      * @param querySpec The query specification containing filter criteria
      * @param prefix Prefix to use for the fields
@@ -297,6 +727,23 @@ public class MongodbFederatedCatalogCacheQuery {
                         filters.add(Filters.in(fieldPath, Collections.singletonList(rightOperand)));
                     }
                     break;
+                case TEXT_SEARCH_OPERATOR:
+                    // served by the text index of the collection, whatever the left operand
+                    filters.add(Filters.text(rightOperand.toString(), new TextSearchOptions().caseSensitive(false)));
+                    break;
+                case SpatialGeometry.INTERSECTS_OPERATOR:
+                    filters.add(Filters.geoIntersects(SpatialGeometry.geometryPath(fieldPath), SpatialGeometry.fromOperand(rightOperand)));
+                    break;
+                case SpatialGeometry.WITHIN_OPERATOR:
+                    filters.add(Filters.geoWithin(SpatialGeometry.geometryPath(fieldPath), SpatialGeometry.fromOperand(rightOperand)));
+                    break;
+                case SpatialGeometry.NEAR_OPERATOR:
+                    // $near sorts by distance and is not allowed in $match, a circle keeps the query sort
+                    filters.add(Filters.geoIntersects(SpatialGeometry.geometryPath(fieldPath), SpatialGeometry.circle(rightOperand)));
+                    break;
+                case TemporalRange.OVERLAPS_OPERATOR:
+                    filters.add(TemporalRange.createFilter(fieldPath, rightOperand));
+                    break;
                 case "like", "contains":
                     // For 'like' and 'contains' queries, convert SQL-like patterns to regex
                     filters.add(Filters.regex(fieldPath, getRegExp(rightOperand.toString()), "i"));
@@ -333,7 +780,15 @@ public class MongodbFederatedCatalogCacheQuery {
         return filters.isEmpty() ? Filters.empty() : Filters.and(filters);
     }
 
-    private static String getRegExp(String pattern) {
+    /**
+     * Converts the SQL-like pattern of a {@code like} or {@code contains} criterion into a regular expression:
+     * {@code %} matches any sequence of characters, {@code _} any single character, and the pattern is anchored
+     * unless it starts or ends with {@code %}.
+     *
+     * @param pattern the SQL-like pattern
+     * @return the regular expression, to be matched case-insensitively
+     */
+    public static String getRegExp(String pattern) {
         // For 'like' and 'contains' queries, convert SQL-like patterns to regex
         if (!pattern.startsWith("%")) {
             pattern = "^" + pattern; // Anchor to start if no leading wildcard
@@ -352,7 +807,8 @@ public class MongodbFederatedCatalogCacheQuery {
     }
 
     /**
-     * Creates a MongoDB BSON sort parameter from the given QuerySpec
+     * Creates a MongoDB BSON sort parameter from the given QuerySpec, followed by ascending {@code @id} and
+     * {@code _id} tiebreakers so that documents with equal sort values always come back in the same order
      *
      * @param querySpec The query specification containing sort field and order
      * @return A BSON sort object that can be used with MongoDB queries, or null if no sorting is specified
@@ -371,12 +827,27 @@ public class MongodbFederatedCatalogCacheQuery {
             sortOrder = SortOrder.ASC; // Default to ascending if not specified
         }
 
+        // Relevance is always sorted from the best match
+        if (sortField.equals(MongodbFederatedCatalogCacheStore.getTextScoreField())) {
+            sortOrder = SortOrder.DESC;
+        }
+
         // Convert SortOrder to MongoDB sort direction
-        return switch (sortOrder) {
+        Bson sort = switch (sortOrder) {
             case ASC -> Sorts.ascending(sortField);
             case DESC -> Sorts.descending(sortField);
             default -> throw new IllegalArgumentException("Unsupported sort order: " + sortOrder);
         };
+
+        // Add the tiebreakers unless the client already sorts on them
+        var sorts = new ArrayList<Bson>(List.of(sort));
+        if (!sortField.equals(ID_FIELD) && !sortField.equals(OBJECT_ID_FIELD)) {
+            sorts.add(Sorts.ascending(ID_FIELD));
+        }
+        if (!sortField.equals(OBJECT_ID_FIELD)) {
+            sorts.add(Sorts.ascending(OBJECT_ID_FIELD));
+        }
+        return Sorts.orderBy(sorts);
     }
 
     /**
@@ -15,26 +15,29 @@
 package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.MongoClient;
 import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.MongodbStore;
 import org.eclipse.edc.transaction.spi.TransactionContext;
 
+import java.util.List;
+
 
 /**
  * A base class for MongoDB-based storage implementations, providing utility methods
- * for database operations such as serialization, deserialization, and establishing connections.
+ * for database operations such as serialization, deserialization, and access to collections.
  */
 public class MongodbFederatedCatalogCacheStore extends MongodbStore {
 
     /**
      * Constructs a new MongodbStore instance with the specified parameters.
      *
-     * @param dataSourceUri the URI of the MongoDB data source to connect to
+     * @param mongoClient the shared MongoDB client used to access the data source
      * @param dataSourceDb the name of the MongoDB database to use
      * @param transactionContext the transaction context to manage database transactions
      * @param objectMapper the object mapper for handling JSON serialization and deserialization
      */
-    public MongodbFederatedCatalogCacheStore(String dataSourceUri, String dataSourceDb, TransactionContext transactionContext, ObjectMapper objectMapper) {
-        super(dataSourceUri, dataSourceDb, transactionContext, objectMapper);
+    public MongodbFederatedCatalogCacheStore(MongoClient mongoClient, String dataSourceDb, TransactionContext transactionContext, ObjectMapper objectMapper) {
+        super(mongoClient, dataSourceDb, transactionContext, objectMapper);
     }
 
     /**
@@ -55,6 +58,35 @@ public class MongodbFederatedCatalogCacheStore extends MongodbStore {
         return "edc_federated_catalog_dataset";
     }
 
+    /**
+     * Provides the name of the MongoDB collection holding the federated catalog bookkeeping, such as the
+     * current crawl generation.
+     *
+     * @return the name of the collection as a String, which is "edc_federated_catalog_meta"
+     */
+    public static String getFederatedCatalogMetaCollectionName() {
+        return "edc_federated_catalog_meta";
+    }
+
+    /**
+     * Provides the name of the MongoDB collection holding the number of datasets per keyword and participant.
+     *
+     * @return the name of the collection as a String, which is "edc_federated_catalog_keyword_facet"
+     */
+    public static String getFederatedCatalogKeywordFacetCollectionName() {
+        return "edc_federated_catalog_keyword_facet";
+    }
+
+    /**
+     * Provides the name of the MongoDB collection holding the data dictionaries of the cached datasets by
+     * content hash.
+     *
+     * @return the name of the collection as a String, which is "edc_federated_catalog_data_dictionary"
+     */
+    public static String getFederatedCatalogDataDictionaryCollectionName() {
+        return "edc_federated_catalog_data_dictionary";
+    }
+
     /**
      * Retrieves the name of the identifier field used in the MongoDB store.
      *
@@ -66,12 +98,92 @@ public class MongodbFederatedCatalogCacheStore extends MongodbStore {
 
 
     /**
-     * Returns the name of the field representing a marked entity or record.
+     * Returns the name of the field holding the crawl generation in which a catalog or dataset was last seen.
+     *
+     * @return the string "generation", indicating the field name.
+     */
+    public static String getGenerationField() {
+        return "generation";
+    }
+
+    /**
+     * Returns the name of the field holding the content hash of a stored catalog or dataset.
+     *
+     * @return the string "content_hash", indicating the field name.
+     */
+    public static String getContentHashField() {
+        return "content_hash";
+    }
+
+    /**
+     * Returns the name of the field holding the text search relevance score of a query result. The field is only
+     * added by queries sorted by relevance and never stored.
      *
-     * @return the string "marked", indicating the field name.
+     * @return the string "text_score", indicating the field name.
      */
-    public static String getMarkedField() {
-        return "marked";
+    public static String getTextScoreField() {
+        return "text_score";
     }
 
+    /**
+     * Returns the name of the field holding the GeoJSON geometry parsed from the WKT {@code dct:spatial} of a
+     * stored dataset, indexed with a {@code 2dsphere} index.
+     *
+     * @return the string "spatial_geometry", indicating the field name.
+     */
+    public static String getSpatialGeometryField() {
+        return "spatial_geometry";
+    }
+
+    /**
+     * Returns the name of the field holding the start of the {@code dct:temporal} period of a stored dataset as
+     * a date, indexed together with the end field.
+     *
+     * @return the string "temporal_start", indicating the field name.
+     */
+    public static String getTemporalStartField() {
+        return "temporal_start";
+    }
+
+    /**
+     * Returns the name of the field holding the end of the {@code dct:temporal} period of a stored dataset as
+     * a date.
+     *
+     * @return the string "temporal_end", indicating the field name.
+     */
+    public static String getTemporalEndField() {
+        return "temporal_end";
+    }
+
+    /**
+     * Returns the name of the field listing the content hashes of the data dictionaries referenced by the
+     * distributions of a stored dataset.
+     *
+     * @return the string "data_dictionaries", indicating the field name.
+     */
+    public static String getDataDictionariesField() {
+        return "data_dictionaries";
+    }
+
+    /**
+     * Returns the name of the field holding the fingerprint of a stored catalog as it was received from its node,
+     * see {@link CatalogFingerprint}.
+     *
+     * @return the string "source_fingerprint", indicating the field name.
+     */
+    public static String getSourceFingerprintField() {
+        return "source_fingerprint";
+    }
+
+    /**
+     * Returns the names of the bookkeeping fields added to the stored catalogs and datasets, which are not part
+     * of their JSON-LD content.
+     *
+     * @return the list of internal field names
+     */
+    public static List<String> getInternalFields() {
+        return List.of("_id", getIdField(), getContentHashField(), getGenerationField(), getTextScoreField(),
+                getSpatialGeometryField(), getTemporalStartField(), getTemporalEndField(), getDataDictionariesField(),
+                getSourceFingerprintField());
+    }
 }
@@ -0,0 +1,538 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache;
+
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Converts the WKT geometries found in {@code dct:spatial} into GeoJSON, the format indexed by MongoDB
+ * {@code 2dsphere} indexes, and builds the geometries of the spatial query operators:
+ * <ul>
+ *     <li>{@code intersects}: datasets whose geometry intersects the operand geometry,</li>
+ *     <li>{@code within}: datasets whose geometry lies inside the operand polygon,</li>
+ *     <li>{@code near}: datasets whose geometry comes within a distance of a point.</li>
+ * </ul>
+ * Operand geometries are WKT strings, GeoJSON objects or bounding boxes given as
+ * {@code [minLon, minLat, maxLon, maxLat]}; the {@code near} operand is {@code [lon, lat, meters]}.
+ * Coordinates are longitude and latitude in degrees, as in CRS84 WKT literals.
+ * <p>
+ * The planar {@link #intersects(Document, Document)} and {@link #within(Document, Document)} predicates are used
+ * by the stores without spatial indexes; they agree with the spherical geometry of MongoDB for regional extents.
+ */
+public final class SpatialGeometry {
+
+    /**
+     * The dataset property holding the WKT geometry.
+     */
+    public static final String SPATIAL_FIELD = "dct:spatial";
+
+    /**
+     * Operator matching the datasets whose geometry intersects the operand geometry.
+     */
+    public static final String INTERSECTS_OPERATOR = "intersects";
+
+    /**
+     * Operator matching the datasets whose geometry lies inside the operand polygon.
+     */
+    public static final String WITHIN_OPERATOR = "within";
+
+    /**
+     * Operator matching the datasets whose geometry comes within a distance of a point.
+     */
+    public static final String NEAR_OPERATOR = "near";
+
+    private static final String TYPE = "type";
+    private static final String COORDINATES = "coordinates";
+    private static final String VALUE_FIELD = "@value";
+    private static final double EARTH_RADIUS_METERS = 6378100;
+    private static final int CIRCLE_VERTICES = 32;
+    private static final double CLOSING_TOLERANCE = 1e-9;
+
+    private SpatialGeometry() {
+    }
+
+    /**
+     * Checks whether an operator is one of the spatial operators.
+     *
+     * @param operator the criterion operator
+     * @return true for {@code intersects}, {@code within} and {@code near}
+     */
+    public static boolean isSpatialOperator(String operator) {
+        return INTERSECTS_OPERATOR.equals(operator) || WITHIN_OPERATOR.equals(operator) || NEAR_OPERATOR.equals(operator);
+    }
+
+    /**
+     * Maps the field path of a spatial criterion to the field holding the GeoJSON geometry: a path ending in
+     * {@code dct:spatial} is redirected to the geometry field next to it, other paths are used as given.
+     *
+     * @param fieldPath the field path of the criterion
+     * @return the path of the GeoJSON geometry
+     */
+    public static String geometryPath(String fieldPath) {
+        if (fieldPath.equals(SPATIAL_FIELD) || fieldPath.endsWith("." + SPATIAL_FIELD)) {
+            return fieldPath.substring(0, fieldPath.length() - SPATIAL_FIELD.length()) + MongodbFederatedCatalogCacheStore.getSpatialGeometryField();
+        }
+        return fieldPath;
+    }
+
+    /**
+     * Extracts the geometry of a stored dataset from its {@code dct:spatial} values, plain or language tagged
+     * literals, keeping the first valid WKT geometry.
+     *
+     * @param dataset the stored dataset document
+     * @return the GeoJSON geometry, or null if the dataset has no valid WKT geometry
+     */
+    public static Document fromDataset(Document dataset) {
+        var value = dataset.get(SPATIAL_FIELD);
+        for (Object item : value instanceof List<?> list ? list : Arrays.asList(value)) {
+            var literal = item instanceof Document document ? document.get(VALUE_FIELD) : item;
+            if (literal instanceof String wkt) {
+                try {
+                    return fromWkt(wkt);
+                } catch (IllegalArgumentException e) {
+                    // not a WKT literal, e.g. a place name or an IRI
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Creates the query geometry of an {@code intersects} or {@code within} criterion.
+     *
+     * @param operand a WKT string, a GeoJSON object or a bounding box {@code [minLon, minLat, maxLon, maxLat]}
+     * @return the GeoJSON geometry
+     * @throws IllegalArgumentException if the operand is not a valid geometry
+     */
+    public static Document fromOperand(Object operand) {
+        if (operand instanceof String wkt) {
+            return fromWkt(wkt);
+        }
+        if (operand instanceof Map<?, ?> map && map.containsKey(TYPE) && map.containsKey(COORDINATES)) {
+            return new Document(TYPE, map.get(TYPE)).append(COORDINATES, map.get(COORDINATES));
+        }
+        var numbers = numbers(operand);
+        if (numbers.size() != 4) {
+            throw new IllegalArgumentException("Spatial operand must be a WKT geometry, a GeoJSON geometry or a bounding box [minLon, minLat, maxLon, maxLat]");
+        }
+        double minLon = numbers.get(0);
+        double minLat = numbers.get(1);
+        double maxLon = numbers.get(2);
+        double maxLat = numbers.get(3);
+        var ring = List.of(coordinate(minLon, minLat), coordinate(maxLon, minLat), coordinate(maxLon, maxLat),
+                coordinate(minLon, maxLat), coordinate(minLon, minLat));
+        return validate(new Document(TYPE, "Polygon").append(COORDINATES, List.of(ring)));
+    }
+
+    /**
+     * Creates the query geometry of a {@code near} criterion, a polygon approximating the circle of the given
+     * radius around a point.
+     *
+     * @param operand the point and radius {@code [lon, lat, meters]}
+     * @return the GeoJSON polygon
+     * @throws IllegalArgumentException if the operand is not a point and a positive radius
+     */
+    public static Document circle(Object operand) {
+        var numbers = numbers(operand);
+        if (numbers.size() != 3 || numbers.get(2) <= 0) {
+            throw new IllegalArgumentException("Near operator requires [lon, lat, meters] with a positive distance");
+        }
+        double lon = Math.toRadians(numbers.get(0));
+        double lat = Math.toRadians(numbers.get(1));
+        double distance = numbers.get(2) / EARTH_RADIUS_METERS;
+        var ring = new ArrayList<List<Double>>();
+        for (int i = 0; i < CIRCLE_VERTICES; i++) {
+            double bearing = 2 * Math.PI * i / CIRCLE_VERTICES;
+            double vertexLat = Math.asin(Math.sin(lat) * Math.cos(distance) + Math.cos(lat) * Math.sin(distance) * Math.cos(bearing));
+            double vertexLon = lon + Math.atan2(Math.sin(bearing) * Math.sin(distance) * Math.cos(lat),
+                    Math.cos(distance) - Math.sin(lat) * Math.sin(vertexLat));
+            ring.add(coordinate(normalizeLongitude(Math.toDegrees(vertexLon)), Math.toDegrees(vertexLat)));
+        }
+        ring.add(ring.get(0));
+        return validate(new Document(TYPE, "Polygon").append(COORDINATES, List.of(ring)));
+    }
+
+    /**
+     * Parses a WKT geometry into GeoJSON. {@code POINT}, {@code LINESTRING}, {@code POLYGON} and their
+     * {@code MULTI} variants are supported, optionally preceded by an {@code SRID=...;} or CRS IRI prefix.
+     * Unclosed polygon rings are closed and coordinates beyond longitude and latitude are dropped.
+     *
+     * @param wkt the WKT geometry
+     * @return the GeoJSON geometry
+     * @throws IllegalArgumentException if the text is not a supported WKT geometry
+     */
+    public static Document fromWkt(String wkt) {
+        var text = wkt.trim();
+        if (text.regionMatches(true, 0, "SRID=", 0, 5) && text.indexOf(';') > 0) {
+            text = text.substring(text.indexOf(';') + 1).trim();
+        }
+        if (text.startsWith("<") && text.indexOf('>') > 0) {
+            text = text.substring(text.indexOf('>') + 1).trim();
+        }
+        int open = text.indexOf('(');
+        if (open < 0) {
+            throw new IllegalArgumentException("Not a WKT geometry: " + wkt);
+        }
+        var type = text.substring(0, open).trim().split("\\s+")[0].toUpperCase(Locale.ROOT);
+        var parser = new WktParser(text, open);
+        var tree = parser.parseList();
+        if (!parser.atEnd()) {
+            throw new IllegalArgumentException("Unexpected text after WKT geometry: " + wkt);
+        }
+        var geometry = switch (type) {
+            case "POINT" -> new Document(TYPE, "Point").append(COORDINATES, single(tree));
+            case "LINESTRING" -> new Document(TYPE, "LineString").append(COORDINATES, line(tree));
+            case "POLYGON" -> new Document(TYPE, "Polygon").append(COORDINATES, polygon(tree));
+            case "MULTIPOINT" -> new Document(TYPE, "MultiPoint").append(COORDINATES,
+                    tree.stream().map(item -> isCoordinate(item) ? coordinate(item) : single(asList(item))).toList());
+            case "MULTILINESTRING" -> new Document(TYPE, "MultiLineString").append(COORDINATES, tree.stream().map(item -> line(asList(item))).toList());
+            case "MULTIPOLYGON" -> new Document(TYPE, "MultiPolygon").append(COORDINATES, tree.stream().map(item -> polygon(asList(item))).toList());
+            default -> throw new IllegalArgumentException("Unsupported WKT geometry type: " + type);
+        };
+        return validate(geometry);
+    }
+
+    /**
+     * Checks, in planar longitude and latitude coordinates, whether two GeoJSON geometries have a point in common.
+     *
+     * @param first a GeoJSON geometry
+     * @param second another GeoJSON geometry
+     * @return true if the geometries intersect
+     */
+    public static boolean intersects(Document first, Document second) {
+        var a = Shape.of(first);
+        var b = Shape.of(second);
+        for (double[][] segment : a.segments) {
+            for (double[][] other : b.segments) {
+                if (segmentsIntersect(segment[0], segment[1], other[0], other[1])) {
+                    return true;
+                }
+            }
+        }
+        return a.vertices.stream().anyMatch(b::contains) || b.vertices.stream().anyMatch(a::contains);
+    }
+
+    /**
+     * Checks, in planar longitude and latitude coordinates, whether a GeoJSON geometry lies inside a polygon.
+     *
+     * @param inner a GeoJSON geometry
+     * @param outer a GeoJSON Polygon or MultiPolygon
+     * @return true if every point of the inner geometry belongs to the outer polygon
+     */
+    public static boolean within(Document inner, Document outer) {
+        var a = Shape.of(inner);
+        var b = Shape.of(outer);
+        if (b.polygons.isEmpty() || !a.vertices.stream().allMatch(b::contains)) {
+            return false;
+        }
+        for (double[][] segment : a.segments) {
+            for (double[][] other : b.segments) {
+                if (segmentsCross(segment[0], segment[1], other[0], other[1])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static Document validate(Document geometry) {
+        var shape = Shape.of(geometry);
+        for (double[] vertex : shape.vertices) {
+            if (Math.abs(vertex[0]) > 180 || Math.abs(vertex[1]) > 90) {
+                throw new IllegalArgumentException("Coordinates out of range: " + vertex[0] + " " + vertex[1]);
+            }
+        }
+        return geometry;
+    }
+
+    private static List<Double> single(List<?> tree) {
+        if (tree.size() != 1 || !isCoordinate(tree.get(0))) {
+            throw new IllegalArgumentException("A point has exactly one coordinate");
+        }
+        return coordinate(tree.get(0));
+    }
+
+    private static List<List<Double>> line(List<?> tree) {
+        var line = tree.stream().map(SpatialGeometry::coordinate).toList();
+        if (line.size() < 2) {
+            throw new IllegalArgumentException("A line has at least two coordinates");
+        }
+        return line;
+    }
+
+    private static List<List<List<Double>>> polygon(List<?> tree) {
+        var rings = new ArrayList<List<List<Double>>>();
+        for (Object item : tree) {
+            var ring = new ArrayList<>(line(asList(item)));
+            var first = ring.get(0);
+            var last = ring.get(ring.size() - 1);
+            if (Math.abs(first.get(0) - last.get(0)) < CLOSING_TOLERANCE && Math.abs(first.get(1) - last.get(1)) < CLOSING_TOLERANCE) {
+                // rounding in the source may leave the ring almost closed, a near duplicate vertex is rejected by MongoDB
+                ring.set(ring.size() - 1, first);
+            } else {
+                ring.add(first);
+            }
+            if (ring.size() < 4) {
+                throw new IllegalArgumentException("A polygon ring has at least four coordinates");
+            }
+            rings.add(ring);
+        }
+        if (rings.isEmpty()) {
+            throw new IllegalArgumentException("A polygon has at least one ring");
+        }
+        return rings;
+    }
+
+    private static boolean isCoordinate(Object item) {
+        return item instanceof double[];
+    }
+
+    private static List<Double> coordinate(Object item) {
+        if (!(item instanceof double[] values) || values.length < 2) {
+            throw new IllegalArgumentException("Expected a coordinate with longitude and latitude");
+        }
+        return coordinate(values[0], values[1]);
+    }
+
+    private static List<Double> coordinate(double lon, double lat) {
+        return List.of(lon, lat);
+    }
+
+    private static List<?> asList(Object item) {
+        if (!(item instanceof List<?> list)) {
+            throw new IllegalArgumentException("Expected a parenthesized list of coordinates");
+        }
+        return list;
+    }
+
+    private static List<Double> numbers(Object operand) {
+        Collection<?> values;
+        if (operand instanceof Collection<?> collection) {
+            values = collection;
+        } else if (operand instanceof Object[] array) {
+            values = Arrays.asList(array);
+        } else {
+            return List.of();
+        }
+        var numbers = new ArrayList<Double>();
+        for (Object value : values) {
+            if (value instanceof Number number) {
+                numbers.add(number.doubleValue());
+            } else {
+                try {
+                    numbers.add(Double.parseDouble(String.valueOf(value).trim()));
+                } catch (NumberFormatException e) {
+                    return List.of();
+                }
+            }
+        }
+        return numbers;
+    }
+
+    private static double normalizeLongitude(double lon) {
+        return ((lon + 540) % 360) - 180;
+    }
+
+    private static boolean segmentsIntersect(double[] p1, double[] p2, double[] q1, double[] q2) {
+        int o1 = orientation(p1, p2, q1);
+        int o2 = orientation(p1, p2, q2);
+        int o3 = orientation(q1, q2, p1);
+        int o4 = orientation(q1, q2, p2);
+        if (o1 != o2 && o3 != o4) {
+            return true;
+        }
+        return (o1 == 0 && onSegment(p1, q1, p2)) || (o2 == 0 && onSegment(p1, q2, p2)) ||
+                (o3 == 0 && onSegment(q1, p1, q2)) || (o4 == 0 && onSegment(q1, p2, q2));
+    }
+
+    private static boolean segmentsCross(double[] p1, double[] p2, double[] q1, double[] q2) {
+        int o1 = orientation(p1, p2, q1);
+        int o2 = orientation(p1, p2, q2);
+        int o3 = orientation(q1, q2, p1);
+        int o4 = orientation(q1, q2, p2);
+        return o1 * o2 < 0 && o3 * o4 < 0;
+    }
+
+    private static int orientation(double[] a, double[] b, double[] c) {
+        double cross = (b[0] - a[0]) * (c[1] - a[1]) - (b[1] - a[1]) * (c[0] - a[0]);
+        return cross > 0 ? 1 : cross < 0 ? -1 : 0;
+    }
+
+    private static boolean onSegment(double[] a, double[] p, double[] b) {
+        return p[0] >= Math.min(a[0], b[0]) && p[0] <= Math.max(a[0], b[0]) &&
+                p[1] >= Math.min(a[1], b[1]) && p[1] <= Math.max(a[1], b[1]);
+    }
+
+    /**
+     * The vertices, segments and polygons of a GeoJSON geometry. Points are degenerate segments, so that the
+     * segment tests also cover points lying on lines and polygon boundaries.
+     */
+    private static final class Shape {
+        private final List<double[]> vertices = new ArrayList<>();
+        private final List<double[][]> segments = new ArrayList<>();
+        private final List<List<List<double[]>>> polygons = new ArrayList<>();
+
+        static Shape of(Document geometry) {
+            var shape = new Shape();
+            var coordinates = geometry.get(COORDINATES);
+            switch (String.valueOf(geometry.get(TYPE))) {
+                case "Point" -> shape.addPoint(point(coordinates));
+                case "MultiPoint" -> asList(coordinates).forEach(item -> shape.addPoint(point(item)));
+                case "LineString" -> shape.addLine(points(coordinates));
+                case "MultiLineString" -> asList(coordinates).forEach(item -> shape.addLine(points(item)));
+                case "Polygon" -> shape.addPolygon(asList(coordinates));
+                case "MultiPolygon" -> asList(coordinates).forEach(item -> shape.addPolygon(asList(item)));
+                default -> throw new IllegalArgumentException("Unsupported GeoJSON geometry type: " + geometry.get(TYPE));
+            }
+            return shape;
+        }
+
+        boolean contains(double[] point) {
+            for (var polygon : polygons) {
+                boolean inside = false;
+                for (var ring : polygon) {
+                    for (int i = 0, j = ring.size() - 1; i < ring.size(); j = i++) {
+                        var a = ring.get(i);
+                        var b = ring.get(j);
+                        if (orientation(a, b, point) == 0 && onSegment(a, point, b)) {
+                            return true;
+                        }
+                        if ((a[1] > point[1]) != (b[1] > point[1]) &&
+                                point[0] < (b[0] - a[0]) * (point[1] - a[1]) / (b[1] - a[1]) + a[0]) {
+                            inside = !inside;
+                        }
+                    }
+                }
+                if (inside) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void addPoint(double[] point) {
+            vertices.add(point);
+            segments.add(new double[][]{point, point});
+        }
+
+        private void addLine(List<double[]> line) {
+            vertices.addAll(line);
+            for (int i = 1; i < line.size(); i++) {
+                segments.add(new double[][]{line.get(i - 1), line.get(i)});
+            }
+        }
+
+        private void addPolygon(List<?> rings) {
+            var polygon = new ArrayList<List<double[]>>();
+            rings.forEach(ring -> {
+                var points = points(ring);
+                addLine(points);
+                polygon.add(points);
+            });
+            polygons.add(polygon);
+        }
+
+        private static List<double[]> points(Object coordinates) {
+            return asList(coordinates).stream().map(Shape::point).toList();
+        }
+
+        private static double[] point(Object coordinate) {
+            var values = asList(coordinate);
+            if (values.size() < 2 || !(values.get(0) instanceof Number lon) || !(values.get(1) instanceof Number lat)) {
+                throw new IllegalArgumentException("Expected a GeoJSON position with longitude and latitude");
+            }
+            return new double[]{lon.doubleValue(), lat.doubleValue()};
+        }
+    }
+
+    /**
+     * Parses the parenthesized part of a WKT geometry into nested lists whose leaves are coordinates.
+     */
+    private static final class WktParser {
+        private final String text;
+        private int position;
+
+        WktParser(String text, int position) {
+            this.text = text;
+            this.position = position;
+        }
+
+        List<Object> parseList() {
+            expect('(');
+            var items = new ArrayList<>();
+            do {
+                skipWhitespace();
+                items.add(peek() == '(' ? parseList() : parseCoordinate());
+                skipWhitespace();
+            } while (consume(','));
+            expect(')');
+            return items;
+        }
+
+        boolean atEnd() {
+            skipWhitespace();
+            return position >= text.length();
+        }
+
+        private double[] parseCoordinate() {
+            int start = position;
+            while (position < text.length() && text.charAt(position) != ',' && text.charAt(position) != ')') {
+                position++;
+            }
+            var parts = text.substring(start, position).trim().split("\\s+");
+            if (parts.length < 2) {
+                throw new IllegalArgumentException("Expected a coordinate at position " + start);
+            }
+            try {
+                return Arrays.stream(parts).mapToDouble(Double::parseDouble).toArray();
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid coordinate at position " + start, e);
+            }
+        }
+
+        private void expect(char expected) {
+            skipWhitespace();
+            if (!consume(expected)) {
+                throw new IllegalArgumentException("Expected '" + expected + "' at position " + position);
+            }
+        }
+
+        private boolean consume(char expected) {
+            skipWhitespace();
+            if (position < text.length() && text.charAt(position) == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private char peek() {
+            return position < text.length() ? text.charAt(position) : 0;
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+    }
+}
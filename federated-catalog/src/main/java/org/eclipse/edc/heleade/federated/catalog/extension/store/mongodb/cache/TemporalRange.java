@@ -0,0 +1,228 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache;
+
+import com.mongodb.client.model.Filters;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Normalizes the {@code dct:temporal} period of a dataset, whose {@code dcat:startDate} and {@code dcat:endDate}
+ * are ISO 8601 literals, into BSON dates stored in two fields covered by a compound index, and builds the
+ * {@code overlaps} operator matching the datasets whose period shares at least one instant with an interval.
+ * <p>
+ * Dates without time cover the whole day and partial dates, such as {@code 2021} or {@code 2021-06}, the whole
+ * year or month. A missing bound leaves the period open on that side, and a dataset declaring several periods
+ * is indexed with the smallest period covering all of them. The interval of the operator is a list of two dates
+ * or an ISO 8601 interval {@code start/end}, where a null, empty or {@code ..} bound is open.
+ */
+public final class TemporalRange {
+
+    /**
+     * The dataset property holding the period of time.
+     */
+    public static final String TEMPORAL_FIELD = "dct:temporal";
+
+    /**
+     * Operator matching the datasets whose period overlaps the operand interval.
+     */
+    public static final String OVERLAPS_OPERATOR = "overlaps";
+
+    private static final String START_DATE = "dcat:startDate";
+    private static final String END_DATE = "dcat:endDate";
+    private static final String VALUE_FIELD = "@value";
+    private static final String OPEN_BOUND = "..";
+    // the range of dates representable in BSON and JavaScript, used for open bounds so that they stay indexable
+    private static final Date OPEN_START = new Date(-8_640_000_000_000_000L);
+    private static final Date OPEN_END = new Date(8_640_000_000_000_000L);
+
+    private TemporalRange() {
+    }
+
+    /**
+     * Computes the normalized period of a stored dataset.
+     *
+     * @param dataset the stored dataset document
+     * @return a document with the start and end fields, both null if the dataset declares no valid period
+     */
+    public static Document fromDataset(Document dataset) {
+        Date start = null;
+        Date end = null;
+        var value = dataset.get(TEMPORAL_FIELD);
+        for (Object period : value instanceof List<?> list ? list : Arrays.asList(value)) {
+            if (!(period instanceof Document periodDoc)) {
+                continue;
+            }
+            var periodStart = parse(periodDoc.get(START_DATE), false);
+            var periodEnd = parse(periodDoc.get(END_DATE), true);
+            if (periodStart == null && periodEnd == null) {
+                continue;
+            }
+            periodStart = periodStart == null ? OPEN_START : periodStart;
+            periodEnd = periodEnd == null ? OPEN_END : periodEnd;
+            start = start == null || periodStart.before(start) ? periodStart : start;
+            end = end == null || periodEnd.after(end) ? periodEnd : end;
+        }
+        return new Document(MongodbFederatedCatalogCacheStore.getTemporalStartField(), start)
+                .append(MongodbFederatedCatalogCacheStore.getTemporalEndField(), end);
+    }
+
+    /**
+     * Creates the filter of an {@code overlaps} criterion: the period starts before the end of the interval and
+     * ends after its start.
+     *
+     * @param fieldPath the field path of the criterion, which must end in {@code dct:temporal}
+     * @param operand the interval
+     * @return the BSON filter on the normalized period
+     * @throws IllegalArgumentException if the field is not a period or the operand is not a valid interval
+     */
+    public static Bson createFilter(String fieldPath, Object operand) {
+        var interval = interval(operand);
+        var startPath = periodPath(fieldPath, MongodbFederatedCatalogCacheStore.getTemporalStartField());
+        var endPath = periodPath(fieldPath, MongodbFederatedCatalogCacheStore.getTemporalEndField());
+        List<Bson> filters = new ArrayList<>();
+        if (interval[1] != null) {
+            filters.add(Filters.lte(startPath, interval[1]));
+        }
+        if (interval[0] != null) {
+            filters.add(Filters.gte(endPath, interval[0]));
+        }
+        if (filters.isEmpty()) {
+            filters.add(Filters.ne(startPath, null));
+        }
+        return Filters.and(filters);
+    }
+
+    /**
+     * Checks whether a normalized period overlaps the interval of an {@code overlaps} criterion.
+     *
+     * @param start the start of the period, or null if the dataset declares no period
+     * @param end the end of the period
+     * @param operand the interval
+     * @return true if the period and the interval share at least one instant
+     * @throws IllegalArgumentException if the operand is not a valid interval
+     */
+    public static boolean overlaps(Date start, Date end, Object operand) {
+        var interval = interval(operand);
+        if (start == null || end == null) {
+            return false;
+        }
+        return (interval[1] == null || !start.after(interval[1])) && (interval[0] == null || !end.before(interval[0]));
+    }
+
+    /**
+     * Maps the field path of an {@code overlaps} criterion to one of the normalized period fields next to it.
+     *
+     * @param fieldPath the field path of the criterion
+     * @param periodField the start or end field
+     * @return the path of the normalized field
+     * @throws IllegalArgumentException if the field path does not end in {@code dct:temporal}
+     */
+    public static String periodPath(String fieldPath, String periodField) {
+        if (fieldPath.equals(TEMPORAL_FIELD) || fieldPath.endsWith("." + TEMPORAL_FIELD)) {
+            return fieldPath.substring(0, fieldPath.length() - TEMPORAL_FIELD.length()) + periodField;
+        }
+        throw new IllegalArgumentException("The " + OVERLAPS_OPERATOR + " operator applies to " + TEMPORAL_FIELD + ", not " + fieldPath);
+    }
+
+    private static Date[] interval(Object operand) {
+        List<?> bounds;
+        if (operand instanceof String text) {
+            bounds = Arrays.asList(text.split("/", -1));
+        } else if (operand instanceof Collection<?> collection) {
+            bounds = new ArrayList<>(collection);
+        } else if (operand instanceof Object[] array) {
+            bounds = Arrays.asList(array);
+        } else {
+            bounds = List.of();
+        }
+        if (bounds.size() != 2) {
+            throw new IllegalArgumentException("Overlaps operator requires an interval of two dates, as a list or as start/end");
+        }
+        var start = bound(bounds.get(0), false);
+        var end = bound(bounds.get(1), true);
+        if (start != null && end != null && start.after(end)) {
+            throw new IllegalArgumentException("Overlaps operator requires an interval starting before its end");
+        }
+        return new Date[]{start, end};
+    }
+
+    private static Date bound(Object value, boolean end) {
+        if (value == null || value.toString().isBlank() || OPEN_BOUND.equals(value.toString().trim())) {
+            return null;
+        }
+        var date = parse(value, end);
+        if (date == null) {
+            throw new IllegalArgumentException("Invalid ISO 8601 date in interval: " + value);
+        }
+        return date;
+    }
+
+    private static Date parse(Object value, boolean end) {
+        var literal = value instanceof Document document ? document.get(VALUE_FIELD) : value;
+        if (literal instanceof Date date) {
+            return date;
+        }
+        if (!(literal instanceof String text) || text.isBlank()) {
+            return null;
+        }
+        var trimmed = text.trim();
+        try {
+            return Date.from(OffsetDateTime.parse(trimmed).toInstant());
+        } catch (DateTimeParseException e) {
+            // not a date time with offset
+        }
+        try {
+            return Date.from(LocalDateTime.parse(trimmed).toInstant(ZoneOffset.UTC));
+        } catch (DateTimeParseException e) {
+            // not a local date time
+        }
+        LocalDate first;
+        LocalDate last;
+        try {
+            first = LocalDate.parse(trimmed);
+            last = first;
+        } catch (DateTimeParseException e) {
+            try {
+                var month = YearMonth.parse(trimmed);
+                first = month.atDay(1);
+                last = month.atEndOfMonth();
+            } catch (DateTimeParseException monthException) {
+                try {
+                    var year = Year.parse(trimmed);
+                    first = year.atDay(1);
+                    last = year.atMonth(12).atEndOfMonth();
+                } catch (DateTimeParseException yearException) {
+                    return null;
+                }
+            }
+        }
+        var instant = end ? last.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC).minusMillis(1) : first.atStartOfDay().toInstant(ZoneOffset.UTC);
+        return Date.from(instant);
+    }
+}
@@ -0,0 +1,336 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.index;
+
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.eclipse.edc.heleade.federated.catalog.extension.metrics.FederatedCatalogMetrics;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.KeywordFacetStore;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheQuery;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.SpatialGeometry;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.TemporalRange;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.node.directory.MongodbFederatedCatalogNodeDirectoryStore;
+import org.eclipse.edc.spi.monitor.Monitor;
+import org.eclipse.edc.spi.query.Criterion;
+import org.eclipse.edc.spi.query.QuerySpec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCache.PARTICIPANT_FIELD;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getDataDictionariesField;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getFederatedCatalogCollectionName;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getFederatedCatalogDatasetCollectionName;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getFederatedCatalogKeywordFacetCollectionName;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getGenerationField;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getIdField;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getSpatialGeometryField;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getTemporalEndField;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getTemporalStartField;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.node.directory.MongodbFederatedCatalogNodeDirectoryStore.getFederatedCatalogNodeDirectoryCollectionName;
+
+/**
+ * Creates and inspects the indexes of the federated catalog collections.
+ * On startup the indexes required by the cache and node directory stores are created, together with the
+ * declarative field indexes configured for catalogs and datasets. The query path can ask the manager to
+ * explain a sample of the aggregation pipelines it runs, so that collection scans are counted in the
+ * {@link FederatedCatalogMetrics} and reported to the monitor.
+ */
+public class MongodbIndexManager {
+
+    /**
+     * Metric counting the query pipelines whose plan was explained.
+     */
+    public static final String QUERY_PLAN_EXPLAINED_METRIC = "query.plan.explained";
+
+    /**
+     * Metric counting the explained query pipelines that required a collection scan.
+     */
+    public static final String QUERY_PLAN_COLLSCAN_METRIC = "query.plan.collscan";
+
+    private static final String COLLSCAN_STAGE = "\"COLLSCAN\"";
+    private static final String TEXT_INDEX_NAME = "text_search";
+    private static final Set<String> EQUALITY_OPERATORS = Set.of("=", "in");
+    private static final Set<String> RANGE_OPERATORS = Set.of(">", ">=", "<", "<=", "between");
+
+    private final MongoClient mongoClient;
+    private final String dataSourceDb;
+    private final Monitor monitor;
+    private final FederatedCatalogMetrics metrics;
+    private final int scanCheckInterval;
+    private final AtomicLong queryCounter = new AtomicLong();
+    private final Map<String, List<BsonDocument>> createdIndexes = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an index manager for the federated catalog collections.
+     *
+     * @param mongoClient the shared MongoDB client used to access the data source
+     * @param dataSourceDb the name of the MongoDB database to use
+     * @param monitor the monitor used to report index creation and collection scans
+     * @param metrics the metrics where explained plans and collection scans are counted
+     * @param scanCheckInterval explain one out of every this many query pipelines; zero or less disables the check
+     */
+    public MongodbIndexManager(MongoClient mongoClient, String dataSourceDb, Monitor monitor, FederatedCatalogMetrics metrics, int scanCheckInterval) {
+        this.mongoClient = mongoClient;
+        this.dataSourceDb = dataSourceDb;
+        this.monitor = monitor;
+        this.metrics = metrics;
+        this.scanCheckInterval = scanCheckInterval;
+    }
+
+    /**
+     * Creates the indexes the stores rely on for upserts, lookups, spatial and temporal queries and generation based expiry.
+     * Index creation is idempotent, so this can safely run on every startup.
+     */
+    public void ensureRequiredIndexes() {
+        createIndex(getFederatedCatalogCollectionName(), Indexes.ascending(getIdField()), new IndexOptions().unique(true));
+        createIndex(getFederatedCatalogCollectionName(), Indexes.ascending(getGenerationField()), new IndexOptions());
+
+        createIndex(getFederatedCatalogDatasetCollectionName(), Indexes.ascending(PARTICIPANT_FIELD, "@id"), new IndexOptions().unique(true));
+        createIndex(getFederatedCatalogDatasetCollectionName(), Indexes.ascending("@id"), new IndexOptions());
+        createIndex(getFederatedCatalogDatasetCollectionName(), Indexes.ascending(getGenerationField()), new IndexOptions());
+        createIndex(getFederatedCatalogDatasetCollectionName(), Indexes.geo2dsphere(getSpatialGeometryField()), new IndexOptions());
+        createIndex(getFederatedCatalogDatasetCollectionName(), Indexes.ascending(getTemporalStartField(), getTemporalEndField()), new IndexOptions());
+        createIndex(getFederatedCatalogDatasetCollectionName(), Indexes.ascending(getDataDictionariesField()), new IndexOptions());
+
+        createIndex(getFederatedCatalogKeywordFacetCollectionName(), Indexes.ascending(PARTICIPANT_FIELD, KeywordFacetStore.KEYWORD_FIELD),
+                new IndexOptions().unique(true));
+
+        createIndex(getFederatedCatalogNodeDirectoryCollectionName(), Indexes.ascending(MongodbFederatedCatalogNodeDirectoryStore.getIdField()), new IndexOptions().unique(true));
+    }
+
+    /**
+     * Creates the declarative field indexes of a collection. Each entry is a field path optionally followed
+     * by {@code =asc}, {@code =desc} or {@code =hashed}, for example {@code dcat:keyword} or {@code dct:issued=desc}.
+     *
+     * @param collectionName the name of the collection to index
+     * @param fieldIndexes the configured field index definitions
+     */
+    public void ensureFieldIndexes(String collectionName, List<String> fieldIndexes) {
+        for (String definition : fieldIndexes) {
+            var trimmed = definition.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            try {
+                createIndex(collectionName, parseFieldIndex(trimmed), new IndexOptions());
+            } catch (IllegalArgumentException e) {
+                monitor.warning("Ignoring invalid index definition '" + trimmed + "' for collection " + collectionName + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Creates the text index used by the {@code textSearch} operator. A collection holds a single text index, so
+     * all the searched fields share it, each with its relevance weight. Language tagged literals are indexed through
+     * their {@code @value}. The stemming language is the default language of the index; a document or language
+     * tagged literal can select its own language in the language override field, provided MongoDB supports it.
+     *
+     * @param collectionName the name of the collection to index
+     * @param pathPrefix the prefix of the field paths, empty for the top level fields of the documents
+     * @param fieldWeights the searched fields, each optionally followed by {@code =weight}, e.g. {@code dct:title=10}
+     * @param defaultLanguage the stemming language of the index, or {@code none} to index words as they are
+     * @param languageOverride the field selecting the language of a document or literal
+     */
+    public void ensureTextIndex(String collectionName, String pathPrefix, List<String> fieldWeights, String defaultLanguage, String languageOverride) {
+        var keys = new ArrayList<Bson>();
+        var weights = new Document();
+        for (String definition : fieldWeights) {
+            var trimmed = definition.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            try {
+                var separator = trimmed.lastIndexOf('=');
+                var field = pathPrefix + (separator < 0 ? trimmed : trimmed.substring(0, separator).trim());
+                var weight = separator < 0 ? 1 : Integer.parseInt(trimmed.substring(separator + 1).trim());
+                for (String path : List.of(field, field + ".@value")) {
+                    keys.add(Indexes.text(path));
+                    weights.append(path, weight);
+                }
+            } catch (NumberFormatException e) {
+                monitor.warning("Ignoring invalid text index field '" + trimmed + "' for collection " + collectionName + ": " + e.getMessage());
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        createIndex(collectionName, Indexes.compoundIndex(keys), new IndexOptions()
+                .name(TEXT_INDEX_NAME)
+                .weights(weights)
+                .defaultLanguage(defaultLanguage)
+                .languageOverride(languageOverride));
+    }
+
+    /**
+     * Parses a declarative field index definition into an index key.
+     *
+     * @param definition the field path optionally followed by {@code =asc}, {@code =desc} or {@code =hashed}
+     * @return the index key
+     * @throws IllegalArgumentException if the index type is unknown
+     */
+    public static Bson parseFieldIndex(String definition) {
+        var separator = definition.lastIndexOf('=');
+        var field = separator < 0 ? definition : definition.substring(0, separator).trim();
+        var type = separator < 0 ? "asc" : definition.substring(separator + 1).trim().toLowerCase();
+        return switch (type) {
+            case "asc" -> Indexes.ascending(field);
+            case "desc" -> Indexes.descending(field);
+            case "hashed" -> Indexes.hashed(field);
+            default -> throw new IllegalArgumentException("Unsupported index type: " + type);
+        };
+    }
+
+    /**
+     * Reports how many operations used each index of the federated catalog collections since the server started,
+     * as returned by the {@code $indexStats} aggregation stage.
+     *
+     * @return a JsonObject with one entry per collection, mapping each index name to its number of operations
+     */
+    public JsonObject indexUsage() {
+        JsonObjectBuilder builder = Json.createObjectBuilder();
+        for (String collectionName : List.of(getFederatedCatalogCollectionName(), getFederatedCatalogDatasetCollectionName(), getFederatedCatalogNodeDirectoryCollectionName())) {
+            JsonObjectBuilder collectionBuilder = Json.createObjectBuilder();
+            getCollection(collectionName).aggregate(List.of(new Document("$indexStats", new Document())))
+                    .forEach(stats -> {
+                        var accesses = stats.get("accesses", Document.class);
+                        var ops = accesses == null ? 0L : ((Number) accesses.get("ops")).longValue();
+                        collectionBuilder.add(stats.getString("name"), ops);
+                    });
+            builder.add(collectionName, collectionBuilder);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Selects the index a filtered count should use: the first index created by this manager whose leading field
+     * is matched by a criterion of the query with an operator the index supports. Ascending and descending indexes
+     * support equality and range operators, hashed indexes only equality, and {@code 2dsphere} indexes the spatial
+     * operators. Queries with a {@code textSearch} criterion are never hinted, since a text search must use the
+     * text index.
+     *
+     * @param collectionName the name of the counted collection
+     * @param querySpec the query specification of the count
+     * @return the key pattern of the index to hint, or null to let the query planner choose
+     */
+    public Bson countHint(String collectionName, QuerySpec querySpec) {
+        var criteria = querySpec.getFilterExpression();
+        if (criteria.stream().anyMatch(criterion -> MongodbFederatedCatalogCacheQuery.TEXT_SEARCH_OPERATOR.equals(criterion.getOperator()))) {
+            return null;
+        }
+        var indexes = createdIndexes.getOrDefault(collectionName, List.of());
+        for (Criterion criterion : criteria) {
+            var field = indexedField(criterion);
+            if (field == null) {
+                continue;
+            }
+            for (BsonDocument keys : indexes) {
+                if (keys.getFirstKey().equals(field) && supports(keys.get(field), criterion.getOperator())) {
+                    return keys;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String indexedField(Criterion criterion) {
+        var field = String.valueOf(criterion.getOperandLeft());
+        var operator = criterion.getOperator();
+        if (SpatialGeometry.isSpatialOperator(operator)) {
+            return SpatialGeometry.geometryPath(field);
+        }
+        if (TemporalRange.OVERLAPS_OPERATOR.equals(operator)) {
+            try {
+                return TemporalRange.periodPath(field, getTemporalStartField());
+            } catch (IllegalArgumentException e) {
+                // rejected by the filter itself
+                return null;
+            }
+        }
+        return EQUALITY_OPERATORS.contains(operator) || RANGE_OPERATORS.contains(operator) ? field : null;
+    }
+
+    private static boolean supports(BsonValue indexType, String operator) {
+        if (indexType.isNumber()) {
+            return EQUALITY_OPERATORS.contains(operator) || RANGE_OPERATORS.contains(operator) || TemporalRange.OVERLAPS_OPERATOR.equals(operator);
+        }
+        if (indexType.isString() && "hashed".equals(indexType.asString().getValue())) {
+            return EQUALITY_OPERATORS.contains(operator);
+        }
+        return indexType.isString() && "2dsphere".equals(indexType.asString().getValue()) && SpatialGeometry.isSpatialOperator(operator);
+    }
+
+    /**
+     * Explains a sample of the query pipelines run against a collection, counting those whose winning plan
+     * is a collection scan. Failures while explaining are reported and never affect the query itself.
+     *
+     * @param collection the collection the pipeline runs against
+     * @param pipeline the aggregation pipeline of the query
+     */
+    public void inspectQueryPlan(MongoCollection<Document> collection, List<Bson> pipeline) {
+        if (scanCheckInterval <= 0 || queryCounter.incrementAndGet() % scanCheckInterval != 0) {
+            return;
+        }
+        try {
+            var explainPipeline = new ArrayList<>(pipeline);
+            if (explainPipeline.isEmpty()) {
+                explainPipeline.add(Aggregates.match(new Document()));
+            }
+            var explain = collection.aggregate(explainPipeline).explain(ExplainVerbosity.QUERY_PLANNER);
+            metrics.increment(QUERY_PLAN_EXPLAINED_METRIC);
+            if (explain.toJson().contains(COLLSCAN_STAGE)) {
+                metrics.increment(QUERY_PLAN_COLLSCAN_METRIC);
+                monitor.warning("Collection scan on " + collection.getNamespace().getCollectionName() + " for pipeline " +
+                        MongodbFederatedCatalogCacheQuery.getAggregationPipelineAsJson(pipeline));
+            }
+        } catch (MongoException e) {
+            monitor.warning("Unable to explain query plan on " + collection.getNamespace().getCollectionName(), e);
+        }
+    }
+
+    private void createIndex(String collectionName, Bson keys, IndexOptions options) {
+        try {
+            var name = getCollection(collectionName).createIndex(keys, options);
+            createdIndexes.computeIfAbsent(collectionName, k -> new CopyOnWriteArrayList<>()).add(keys.toBsonDocument());
+            monitor.debug("Index " + name + " ready on " + collectionName);
+        } catch (MongoException e) {
+            // e.g. a unique index over legacy duplicates, the stores keep working without it
+            monitor.warning("Unable to create index " + keys.toBsonDocument() + " on " + collectionName, e);
+        }
+    }
+
+    private MongoCollection<Document> getCollection(String collectionName) {
+        MongoDatabase database = mongoClient.getDatabase(dataSourceDb);
+        return database.getCollection(collectionName);
+    }
+}
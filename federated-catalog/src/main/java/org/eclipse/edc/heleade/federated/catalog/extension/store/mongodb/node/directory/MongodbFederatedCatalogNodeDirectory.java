@@ -15,9 +15,10 @@
 package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.node.directory;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.MongoClient;
 import org.eclipse.edc.crawler.spi.TargetNode;
-import org.eclipse.edc.crawler.spi.TargetNodeDirectory;
 import org.eclipse.edc.heleade.federated.catalog.extension.api.node.directory.ParticipantNode;
+import org.eclipse.edc.heleade.federated.catalog.extension.api.node.directory.ParticipantNodeDirectory;
 import org.eclipse.edc.transaction.spi.TransactionContext;
 
 import java.util.List;
@@ -27,24 +28,24 @@ import java.util.List;
  * CRUD operations related to the federated catalog node directory using MongoDB
  * as the underlying storage mechanism. It extends the functionality provided by
  * {@code MongodbFederatedCatalogNodeDirectoryStore} and implements the
- * {@code TargetNodeDirectory} interface.
+ * {@code ParticipantNodeDirectory} interface.
  *
  * This class provides methods to retrieve all target nodes and insert new ones.
  */
-public class MongodbFederatedCatalogNodeDirectory extends MongodbFederatedCatalogNodeDirectoryStore implements TargetNodeDirectory {
+public class MongodbFederatedCatalogNodeDirectory extends MongodbFederatedCatalogNodeDirectoryStore implements ParticipantNodeDirectory {
 
     /**
      * Constructor for MongodbFederatedCatalogNodeDirectory.
      * This initializes the directory using MongoDB as the underlying data store, with the specified
-     * datasource URI, database name, transaction context, and object mapper for JSON serialization and deserialization.
+     * shared MongoDB client, database name, transaction context, and object mapper for JSON serialization and deserialization.
      *
-     * @param dataSourceUri The URI of the MongoDB data source.
+     * @param mongoClient The shared MongoDB client used to access the data source.
      * @param dataSourceDb The name of the MongoDB database to be used.
      * @param transactionContext The transaction context to handle database operations atomically.
      * @param objectMapper The ObjectMapper instance used for JSON processing.
      */
-    public MongodbFederatedCatalogNodeDirectory(String dataSourceUri, String dataSourceDb, TransactionContext transactionContext, ObjectMapper objectMapper) {
-        super(dataSourceUri, dataSourceDb, transactionContext, objectMapper);
+    public MongodbFederatedCatalogNodeDirectory(MongoClient mongoClient, String dataSourceDb, TransactionContext transactionContext, ObjectMapper objectMapper) {
+        super(mongoClient, dataSourceDb, transactionContext, objectMapper);
     }
 
     @Override
@@ -71,6 +72,7 @@ public class MongodbFederatedCatalogNodeDirectory extends MongodbFederatedCatalo
      *
      * @return a list of {@code ParticipantNode} instances representing all participant nodes in the directory.
      */
+    @Override
     public List<ParticipantNode> getParticipantNodes() {
         return queryAllParticipantNodes();
     }
@@ -80,6 +82,7 @@ public class MongodbFederatedCatalogNodeDirectory extends MongodbFederatedCatalo
      *
      * @param participantNode the {@code ParticipantNode} to be inserted; must not be null
      */
+    @Override
     public void insert(ParticipantNode participantNode) {
         save(participantNode);
     }
@@ -90,6 +93,7 @@ public class MongodbFederatedCatalogNodeDirectory extends MongodbFederatedCatalo
      * @param participantId the unique identifier of the participant
      * @return the {@code ParticipantNode} associated with the given identifier, or null if not found
      */
+    @Override
     public ParticipantNode getParticipantNode(String participantId) {
         return queryParticipantNodeById(participantId);
     }
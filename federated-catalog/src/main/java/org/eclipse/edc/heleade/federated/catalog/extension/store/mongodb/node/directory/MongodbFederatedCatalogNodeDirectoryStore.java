@@ -39,7 +39,7 @@ import java.util.List;
  * entities while utilizing transaction handling through the TransactionContext.
  *
  * This class extends the {@link MongodbStore}, inheriting capabilities for
- * MongoDB connection management, document serialization/deserialization, and
+ * access to the shared MongoDB client, document serialization/deserialization, and
  * interaction with collections.
  */
 public class MongodbFederatedCatalogNodeDirectoryStore extends MongodbStore {
@@ -49,13 +49,13 @@ public class MongodbFederatedCatalogNodeDirectoryStore extends MongodbStore {
      * federated catalog node directory entries within a MongoDB database. The store handles
      * CRUD operations and transaction management for TargetNode entities.
      *
-     * @param dataSourceUri The URI of the MongoDB data source; must not be null.
+     * @param mongoClient The shared MongoDB client used to access the data source; must not be null.
      * @param dataSourceDb The name of the target MongoDB database; must not be null.
      * @param transactionContext The context used for managing database transactions; must not be null.
      * @param objectMapper The ObjectMapper instance used for JSON serialization and deserialization; must not be null.
      */
-    public MongodbFederatedCatalogNodeDirectoryStore(String dataSourceUri, String dataSourceDb, TransactionContext transactionContext, ObjectMapper objectMapper) {
-        super(dataSourceUri, dataSourceDb, transactionContext, objectMapper);
+    public MongodbFederatedCatalogNodeDirectoryStore(MongoClient mongoClient, String dataSourceDb, TransactionContext transactionContext, ObjectMapper objectMapper) {
+        super(mongoClient, dataSourceDb, transactionContext, objectMapper);
     }
 
     /**
@@ -67,17 +67,15 @@ public class MongodbFederatedCatalogNodeDirectoryStore extends MongodbStore {
      */
     public List<TargetNode> queryAllTargetNodes() {
         return transactionContext.execute(() -> {
-            try (var connection = getConnection()) {
-                var collection = getCollection(connection, getFederatedCatalogNodeDirectoryCollectionName());
-                var findClause = new Document("url", new Document("$exists", true))
-                        .append("supportedProtocols", new Document("$not", new Document("$size", 0L)))
-                        .append("$expr", new Document("$gt", Arrays.asList(new Document("$strLenCP", "$url"), 0L)));
-
-                var nodes = collection.find(findClause).into(new ArrayList<>());
-                return nodes.stream()
-                        .map(doc -> fromJson(doc.toJson(), TargetNode.class))
-                        .toList();
-            }
+            var collection = getCollection(getFederatedCatalogNodeDirectoryCollectionName());
+            var findClause = new Document("url", new Document("$exists", true))
+                    .append("supportedProtocols", new Document("$not", new Document("$size", 0L)))
+                    .append("$expr", new Document("$gt", Arrays.asList(new Document("$strLenCP", "$url"), 0L)));
+
+            var nodes = collection.find(findClause).into(new ArrayList<>());
+            return nodes.stream()
+                    .map(doc -> fromJson(doc.toJson(), TargetNode.class))
+                    .toList();
         });
     }
 
@@ -90,11 +88,7 @@ public class MongodbFederatedCatalogNodeDirectoryStore extends MongodbStore {
      * @return the {@code ParticipantNode} object matching the given identifier, or null if no match is found
      */
     public ParticipantNode queryParticipantNodeById(String participantId) {
-        return transactionContext.execute(() -> {
-            try (var connection = getConnection()) {
-                return findByIdInternal(connection, participantId);
-            }
-        });
+        return transactionContext.execute(() -> findByIdInternal(participantId));
     }
 
     /**
@@ -106,13 +100,11 @@ public class MongodbFederatedCatalogNodeDirectoryStore extends MongodbStore {
      */
     public List<ParticipantNode> queryAllParticipantNodes() {
         return transactionContext.execute(() -> {
-            try (var connection = getConnection()) {
-                var collection = getCollection(connection, getFederatedCatalogNodeDirectoryCollectionName());
-                var nodes = collection.find().into(new ArrayList<>());
-                return nodes.stream()
-                        .map(doc -> fromJson(doc.toJson(), ParticipantNode.class))
-                        .toList();
-            }
+            var collection = getCollection(getFederatedCatalogNodeDirectoryCollectionName());
+            var nodes = collection.find().into(new ArrayList<>());
+            return nodes.stream()
+                    .map(doc -> fromJson(doc.toJson(), ParticipantNode.class))
+                    .toList();
         });
     }
 
@@ -136,8 +128,8 @@ public class MongodbFederatedCatalogNodeDirectoryStore extends MongodbStore {
      */
     public void save(ParticipantNode node) {
         transactionContext.execute(() -> {
-            try (var connection = getConnection()) {
-                upsertInternal(connection, node);
+            try {
+                upsertInternal(node);
             } catch (Exception e) {
                 throw new EdcPersistenceException(e);
             }
@@ -152,12 +144,12 @@ public class MongodbFederatedCatalogNodeDirectoryStore extends MongodbStore {
      */
     public TargetNode delete(String id) {
         return transactionContext.execute(() -> {
-            try (var connection = getConnection()) {
-                var existing = findByIdInternalAsTargetNode(connection, id);
+            try {
+                var existing = findByIdInternalAsTargetNode(id);
                 if (existing == null) {
                     return null;
                 }
-                deleteInternal(connection, id);
+                deleteInternal(id);
                 return existing;
             } catch (Exception e) {
                 throw new EdcPersistenceException(e);
@@ -165,8 +157,8 @@ public class MongodbFederatedCatalogNodeDirectoryStore extends MongodbStore {
         });
     }
 
-    private String findByIdInternalAsJsonString(MongoClient connection, String id) {
-        var collection = getCollection(connection, getFederatedCatalogNodeDirectoryCollectionName());
+    private String findByIdInternalAsJsonString(String id) {
+        var collection = getCollection(getFederatedCatalogNodeDirectoryCollectionName());
         var findClause = Filters.eq("id", id);
         var nodes = collection.find(findClause).into(new ArrayList<>());
         if (nodes.isEmpty()) {
@@ -175,37 +167,37 @@ public class MongodbFederatedCatalogNodeDirectoryStore extends MongodbStore {
         return nodes.get(0).toJson();
     }
 
-    private ParticipantNode findByIdInternal(MongoClient connection, String id) {
-        var node = findByIdInternalAsJsonString(connection, id);
+    private ParticipantNode findByIdInternal(String id) {
+        var node = findByIdInternalAsJsonString(id);
         if (node == null) {
             return null;
         }
         return fromJson(node, ParticipantNode.class);
     }
 
-    private TargetNode findByIdInternalAsTargetNode(MongoClient connection, String id) {
-        var node = findByIdInternalAsJsonString(connection, id);
+    private TargetNode findByIdInternalAsTargetNode(String id) {
+        var node = findByIdInternalAsJsonString(id);
         if (node == null) {
             return null;
         }
         return fromJson(node, TargetNode.class);
     }
 
-    private void deleteInternal(MongoClient connection, String id) {
+    private void deleteInternal(String id) {
         Bson filter = Filters.eq(getIdField(), id);
-        MongoCollection<Document> collection = getCollection(connection, getFederatedCatalogNodeDirectoryCollectionName());
+        MongoCollection<Document> collection = getCollection(getFederatedCatalogNodeDirectoryCollectionName());
         DeleteResult result = collection.deleteOne(filter);
         if (result.getDeletedCount() < 1) {
             throw new EdcPersistenceException("No node found for id " + id);
         }
     }
 
-    private void upsertInternal(MongoClient connection, ParticipantNode node) {
+    private void upsertInternal(ParticipantNode node) {
         Bson filter = Filters.eq(getIdField(), node.id());
         UpdateOptions options = new UpdateOptions().upsert(true);
         Document catalogDoc = Document.parse(toJson(node));
         Bson update = new Document("$set", catalogDoc);
-        MongoCollection<Document> collection = getCollection(connection, getFederatedCatalogNodeDirectoryCollectionName());
+        MongoCollection<Document> collection = getCollection(getFederatedCatalogNodeDirectoryCollectionName());
         collection.updateOne(filter, update, options);
     }
 
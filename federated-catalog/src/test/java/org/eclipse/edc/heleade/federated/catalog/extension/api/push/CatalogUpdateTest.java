@@ -0,0 +1,77 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.api.push;
+
+import org.eclipse.edc.catalog.spi.CatalogConstants;
+import org.eclipse.edc.connector.controlplane.catalog.spi.Catalog;
+import org.eclipse.edc.connector.controlplane.catalog.spi.Dataset;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+public class CatalogUpdateTest {
+
+    private static final String ORIGINATOR = "http://provider-a/protocol";
+
+    @Test
+    void deltaShouldAddReplaceAndRemoveDatasetsOfTheCachedCatalog() {
+        var cached = Catalog.Builder.newInstance().id("catalog").participantId("provider-a")
+                .datasets(List.of(dataset("air", "Air quality"), dataset("water", "Water quality")))
+                .build();
+        var delta = new CatalogUpdate(Instant.now(), null, List.of(dataset("soil", "Soil quality")),
+                List.of(dataset("air", "Air quality 2025")), List.of("water"));
+
+        var catalog = delta.applyTo(cached, "provider-a", ORIGINATOR);
+
+        assert catalog.getId().equals("catalog");
+        assert catalog.getParticipantId().equals("provider-a");
+        assert catalog.getProperties().get(CatalogConstants.PROPERTY_ORIGINATOR).equals(ORIGINATOR);
+        assert catalog.getDatasets().stream().map(Dataset::getId).toList().equals(List.of("air", "soil"));
+        assert catalog.getDatasets().get(0).getProperties().get("dct:title").equals("Air quality 2025");
+    }
+
+    @Test
+    void deltaWithoutCachedCatalogShouldBeRejected() {
+        var delta = new CatalogUpdate(Instant.now(), null, List.of(dataset("soil", "Soil quality")), List.of(), List.of());
+
+        try {
+            delta.applyTo(null, "provider-a", ORIGINATOR);
+            assert false;
+        } catch (IllegalStateException e) {
+            assert delta.isDelta();
+        }
+    }
+
+    @Test
+    void fullCatalogShouldBeSavedForTheParticipantOfTheNode() {
+        var pushed = Catalog.Builder.newInstance().id("catalog").participantId("someone-else")
+                .datasets(List.of(dataset("air", "Air quality")))
+                .build();
+        var update = new CatalogUpdate(Instant.now(), pushed, List.of(), List.of(), List.of());
+
+        var catalog = update.applyTo(null, "provider-a", ORIGINATOR);
+
+        assert !update.isDelta();
+        assert catalog.getParticipantId().equals("provider-a");
+        assert catalog.getProperties().get(CatalogConstants.PROPERTY_ORIGINATOR).equals(ORIGINATOR);
+        assert catalog.getDatasets().size() == 1;
+    }
+
+    private static Dataset dataset(String id, String title) {
+        return Dataset.Builder.newInstance().id(id).properties(Map.of("dct:title", title)).build();
+    }
+}
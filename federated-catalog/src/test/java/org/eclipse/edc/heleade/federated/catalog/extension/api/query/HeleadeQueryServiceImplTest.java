@@ -0,0 +1,114 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.api.query;
+
+import jakarta.json.Json;
+import org.eclipse.edc.connector.controlplane.catalog.spi.Dataset;
+import org.eclipse.edc.heleade.federated.catalog.extension.metrics.FederatedCatalogMetrics;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.CachePage;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.HeleadeFederatedCatalogCache;
+import org.eclipse.edc.spi.query.QuerySpec;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HeleadeQueryServiceImplTest {
+
+    private final QuerySpec query = QuerySpec.Builder.newInstance().limit(10).build();
+    private final FederatedCatalogMetrics metrics = new FederatedCatalogMetrics();
+    private final HeleadeFederatedCatalogCache cache = mock(HeleadeFederatedCatalogCache.class);
+    private final HeleadeQueryServiceImpl queryService = new HeleadeQueryServiceImpl(cache,
+            new QueryResultCache(10, QueryResultCache.DEFAULT_MAX_BYTES, metrics));
+
+    @Test
+    void repeatedPageShouldBeServedFromResultCache() {
+        var page = new CachePage<Dataset>(List.of(), "next");
+        when(cache.supportsKeysetPagination()).thenReturn(true);
+        when(cache.dataVersion()).thenReturn(1L);
+        when(cache.queryDatasetsPage(any(), any(), anyBoolean(), any(), anyBoolean())).thenReturn(page);
+
+        var first = queryService.getDatasetsPage(query, null, false, List.of(), false);
+        var second = queryService.getDatasetsPage(query, null, false, List.of(), false);
+
+        assert first.succeeded() && first.getContent() == page;
+        assert second.succeeded() && second.getContent() == page;
+        verify(cache, times(1)).queryDatasetsPage(query, null, false, List.of(), false);
+        assert metrics.get(QueryResultCache.QUERY_CACHE_METRIC + ".hits") == 1;
+    }
+
+    @Test
+    void pagesShouldBeKeyedOnTokenFieldsAndDataDictionaries() {
+        when(cache.supportsKeysetPagination()).thenReturn(true);
+        when(cache.dataVersion()).thenReturn(1L);
+        when(cache.queryDatasetsPage(any(), any(), anyBoolean(), any(), anyBoolean())).thenReturn(new CachePage<>(List.of(), null));
+
+        queryService.getDatasetsPage(query, null, false, List.of(), false);
+        queryService.getDatasetsPage(query, "token", false, List.of(), false);
+        queryService.getDatasetsPage(query, null, true, List.of(), false);
+        queryService.getDatasetsPage(query, null, false, List.of("dct:title"), false);
+        queryService.getDatasetsPage(query, null, false, List.of(), true);
+        queryService.getDatasetsPage(query, "token", false, List.of(), false);
+
+        verify(cache, times(5)).queryDatasetsPage(any(), any(), anyBoolean(), any(), anyBoolean());
+        verify(cache, times(2)).queryDatasetsPage(query, "token", false, List.of(), false);
+    }
+
+    @Test
+    void compactedPageShouldBeReadAgainAfterDataChanged() {
+        var context = Json.createObjectBuilder().build();
+        when(cache.supportsKeysetPagination()).thenReturn(true);
+        when(cache.dataVersion()).thenReturn(1L, 1L, 2L);
+        when(cache.queryDatasetsPageCompacted(any(), any(), anyBoolean(), any(), anyBoolean(), any()))
+                .thenReturn(new CachePage<>(List.of("{}"), null));
+
+        queryService.getDatasetsPageCompacted(query, null, false, List.of(), false, context);
+        queryService.getDatasetsPageCompacted(query, null, false, List.of(), false, context);
+        queryService.getDatasetsPageCompacted(query, null, false, List.of(), false, context);
+
+        verify(cache, times(2)).queryDatasetsPageCompacted(query, null, false, List.of(), false, context);
+    }
+
+    @Test
+    void optionalOperationsShouldFollowTheCapabilitiesOfTheCache() {
+        when(cache.supportsFacets()).thenReturn(true);
+
+        assert !queryService.supportsKeysetPagination();
+        assert queryService.supportsFacets();
+        assert !queryService.supportsDataDictionaries();
+        assert !queryService.supportsIndexUsage();
+        try {
+            queryService.getDatasetsPage(query, null, false, List.of(), false);
+            assert false;
+        } catch (IllegalStateException e) {
+            assert e.getMessage().contains("keyset pagination");
+        }
+        try {
+            queryService.getIndexUsage();
+            assert false;
+        } catch (IllegalStateException e) {
+            assert e.getMessage().contains("index usage");
+        }
+        verify(cache, never()).queryDatasetsPage(any(), any(), anyBoolean(), any(), anyBoolean());
+        verify(cache, never()).indexUsage();
+    }
+}
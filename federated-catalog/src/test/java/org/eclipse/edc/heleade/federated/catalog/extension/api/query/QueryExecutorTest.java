@@ -0,0 +1,128 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.api.query;
+
+import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.CompletionCallback;
+import jakarta.ws.rs.container.TimeoutHandler;
+import org.eclipse.edc.heleade.federated.catalog.extension.metrics.FederatedCatalogMetrics;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class QueryExecutorTest {
+
+    @Test
+    void queryShouldResumeResponseWithResultOrException() {
+        var executor = new QueryExecutor(1, 1, new FederatedCatalogMetrics());
+        var success = mock(AsyncResponse.class);
+        var failure = mock(AsyncResponse.class);
+        var error = new IllegalStateException("failed");
+
+        executor.submit(success, () -> "[]");
+        executor.submit(failure, () -> {
+            throw error;
+        });
+
+        verify(success, timeout(5000)).resume("[]");
+        verify(failure, timeout(5000)).resume(error);
+        executor.shutdown();
+    }
+
+    @Test
+    void queryBeyondInFlightAndQueuedLimitsShouldBeRejected() {
+        var metrics = new FederatedCatalogMetrics();
+        var executor = new QueryExecutor(1, 1, metrics);
+        var release = new CountDownLatch(1);
+        Supplier<Object> blocking = () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "[]";
+        };
+        var running = mock(AsyncResponse.class);
+        var queued = mock(AsyncResponse.class);
+        var rejected = mock(AsyncResponse.class);
+
+        executor.submit(running, blocking);
+        executor.submit(queued, blocking);
+        executor.submit(rejected, blocking);
+
+        verify(rejected).resume(any(ServiceUnavailableException.class));
+        assert metrics.get(QueryExecutor.QUERY_EXECUTOR_METRIC + ".rejected") == 1;
+
+        release.countDown();
+        verify(running, timeout(5000)).resume("[]");
+        verify(queued, timeout(5000)).resume("[]");
+        executor.shutdown();
+    }
+
+    @Test
+    void streamedResponseShouldKeepItsSlotUntilWritten() {
+        var executor = new QueryExecutor(1, 1, new FederatedCatalogMetrics());
+        var streaming = mock(AsyncResponse.class);
+        var next = mock(AsyncResponse.class);
+        when(streaming.resume("stream")).thenReturn(true);
+
+        executor.submit(streaming, () -> "stream");
+        var callback = ArgumentCaptor.forClass(CompletionCallback.class);
+        verify(streaming, timeout(5000)).register(callback.capture());
+        verify(streaming, timeout(5000)).resume("stream");
+        executor.submit(next, () -> "[]");
+
+        verify(next, after(200).never()).resume("[]");
+        callback.getValue().onComplete(null);
+        verify(next, timeout(5000)).resume("[]");
+        executor.shutdown();
+    }
+
+    @Test
+    void timedOutRequestShouldBeAnsweredAndNotRun() {
+        var metrics = new FederatedCatalogMetrics();
+        var executor = new QueryExecutor(1, 1, 5, metrics);
+        var response = mock(AsyncResponse.class);
+        when(response.isDone()).thenReturn(true);
+
+        executor.submit(response, () -> {
+            throw new AssertionError("timed out query run");
+        });
+        var handler = ArgumentCaptor.forClass(TimeoutHandler.class);
+        verify(response).setTimeout(5, TimeUnit.SECONDS);
+        verify(response).setTimeoutHandler(handler.capture());
+        handler.getValue().handleTimeout(response);
+
+        verify(response).resume(any(ServiceUnavailableException.class));
+        assert metrics.get(QueryExecutor.QUERY_EXECUTOR_METRIC + ".timedOut") == 1;
+
+        var next = mock(AsyncResponse.class);
+        executor.submit(next, () -> "[]");
+        verify(next, timeout(5000)).resume("[]");
+        executor.shutdown();
+    }
+}
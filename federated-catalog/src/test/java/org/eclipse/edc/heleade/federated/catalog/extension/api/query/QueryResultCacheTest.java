@@ -0,0 +1,108 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.api.query;
+
+import org.eclipse.edc.heleade.federated.catalog.extension.metrics.FederatedCatalogMetrics;
+import org.eclipse.edc.spi.query.Criterion;
+import org.eclipse.edc.spi.query.QuerySpec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class QueryResultCacheTest {
+
+    private FederatedCatalogMetrics metrics;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new FederatedCatalogMetrics();
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void keyShouldIgnoreCriteriaOrderButNotOperandType() {
+        var air = new Criterion("dcat:keyword", "=", "air");
+        var issued = new Criterion("dct:issued", ">=", "2025-01-01");
+        var first = QuerySpec.Builder.newInstance().filter(List.of(air, issued)).build();
+        var second = QuerySpec.Builder.newInstance().filter(List.of(issued, air, air)).build();
+        assert QueryResultCache.key("datasets", first, false).equals(QueryResultCache.key("datasets", second, false));
+
+        var text = QuerySpec.Builder.newInstance().filter(List.of(new Criterion("dcat:version", "=", "1"))).build();
+        var number = QuerySpec.Builder.newInstance().filter(List.of(new Criterion("dcat:version", "=", 1))).build();
+        assert !QueryResultCache.key("datasets", text, false).equals(QueryResultCache.key("datasets", number, false));
+
+        var page = QuerySpec.Builder.newInstance().offset(10).build();
+        assert !QueryResultCache.key("datasets", page, false).equals(QueryResultCache.key("datasets", QuerySpec.none(), false));
+        assert QueryResultCache.key("countDatasets", page, true).equals(QueryResultCache.key("countDatasets", QuerySpec.none(), true));
+    }
+
+    @Test
+    void newerDataVersionShouldInvalidateResults() {
+        var cache = new QueryResultCache(10, QueryResultCache.DEFAULT_MAX_BYTES, metrics);
+        assert "{\"count\": 1}".equals(cache.get("a", 1, this::load));
+        assert "{\"count\": 1}".equals(cache.get("a", 1, this::load));
+        assert loads.get() == 1;
+
+        cache.get("a", 2, this::load);
+        assert loads.get() == 2;
+        assert metrics.get(QueryResultCache.QUERY_CACHE_METRIC + ".hits") == 1;
+        assert metrics.get(QueryResultCache.QUERY_CACHE_METRIC + ".misses") == 2;
+        assert metrics.get(QueryResultCache.QUERY_CACHE_METRIC + ".invalidations") == 1;
+    }
+
+    @Test
+    void resultComputedFromOlderVersionShouldNotBeKept() {
+        var cache = new QueryResultCache(10, QueryResultCache.DEFAULT_MAX_BYTES, metrics);
+        cache.get("a", 2, this::load);
+        cache.get("b", 1, this::load);
+        assert cache.size() == 1;
+    }
+
+    @Test
+    void leastRecentlyUsedResultsShouldBeEvicted() {
+        var cache = new QueryResultCache(2, QueryResultCache.DEFAULT_MAX_BYTES, metrics);
+        cache.get("a", 1, this::load);
+        cache.get("b", 1, this::load);
+        cache.get("a", 1, this::load);
+        cache.get("c", 1, this::load);
+        assert cache.size() == 2;
+        cache.get("a", 1, this::load);
+        assert loads.get() == 3;
+        cache.get("b", 1, this::load);
+        assert loads.get() == 4;
+    }
+
+    @Test
+    void resultsShouldStayWithinByteBound() {
+        var entrySize = 32 + QueryResultCache.estimateSize("a") + QueryResultCache.estimateSize(load());
+        var cache = new QueryResultCache(10, 2 * entrySize, metrics);
+        cache.get("a", 1, this::load);
+        cache.get("b", 1, this::load);
+        cache.get("c", 1, this::load);
+        assert cache.size() == 2;
+
+        var tiny = new QueryResultCache(10, 8, metrics);
+        tiny.get("a", 1, this::load);
+        assert tiny.size() == 0;
+    }
+
+    private String load() {
+        loads.incrementAndGet();
+        return "{\"count\": 1}";
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.crawl;
+
+import org.eclipse.edc.heleade.federated.catalog.extension.api.node.directory.ParticipantNode;
+import org.eclipse.edc.heleade.federated.catalog.extension.metrics.FederatedCatalogMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class CrawlSchedulerTest {
+
+    private static final long PERIOD_SECONDS = 10;
+
+    private final MutableClock clock = new MutableClock();
+    private final FederatedCatalogMetrics metrics = new FederatedCatalogMetrics();
+    private final CrawlScheduler scheduler = new CrawlScheduler(PERIOD_SECONDS, 80, 40, 0, metrics, clock);
+
+    @Test
+    void changedNodeShouldBeCrawledEveryRun() {
+        var node = node("http://provider-a/protocol", Map.of());
+
+        var crawled = run(List.of(node), 6, url -> scheduler.saved(url, true));
+
+        assert crawled.equals(List.of(0, 1, 2, 3, 4, 5));
+    }
+
+    @Test
+    void unchangedNodeShouldBackOffUpToItsMaximumInterval() {
+        var node = node("http://provider-a/protocol", Map.of());
+
+        var crawled = run(List.of(node), 24, url -> scheduler.saved(url, false));
+
+        assert crawled.equals(List.of(0, 1, 3, 7, 15, 23)) : crawled;
+        assert metrics.get(CrawlScheduler.CRAWL_SCHEDULE_METRIC + ".skipped") == 18;
+    }
+
+    @Test
+    void nodeAttributesShouldBoundTheInterval() {
+        var node = node("http://provider-a/protocol", Map.of(CrawlScheduler.INTERVAL_MIN_ATTRIBUTE, "20",
+                CrawlScheduler.INTERVAL_MAX_ATTRIBUTE, "20"));
+
+        var crawled = run(List.of(node), 6, url -> scheduler.saved(url, true));
+
+        assert crawled.equals(List.of(0, 2, 4)) : crawled;
+    }
+
+    @Test
+    void failingNodeShouldBackOffUntilItIsSavedAgain() {
+        var node = node("http://provider-a/protocol", Map.of());
+
+        var crawled = run(List.of(node), 11, url -> { });
+
+        assert crawled.equals(List.of(0, 2, 6, 10)) : crawled;
+        assert metrics.get(CrawlScheduler.CRAWL_SCHEDULE_METRIC + ".failed") == 3;
+
+        scheduler.saved(node.targetUrl(), true);
+        clock.advance(PERIOD_SECONDS);
+        assert scheduler.select(List.of(node)).due().size() == 1;
+    }
+
+    @Test
+    void catalogWaitingInTheIngestionQueueShouldNotBeAFailure() {
+        var node = node("http://provider-a/protocol", Map.of());
+
+        var crawled = run(List.of(node), 3, scheduler::received);
+
+        assert crawled.equals(List.of(0, 1, 2)) : crawled;
+        assert metrics.get(CrawlScheduler.CRAWL_SCHEDULE_METRIC + ".failed") == 0;
+    }
+
+    @Test
+    void latencyShouldEndWhenTheCatalogIsReceived() {
+        var scheduler = new CrawlScheduler(PERIOD_SECONDS, 80, 40, 10, metrics, clock);
+        var node = node("http://provider-a/protocol", Map.of());
+
+        scheduler.select(List.of(node));
+        clock.advance(1);
+        scheduler.received(node.targetUrl());
+        // the catalog then waits in the ingestion queue
+        clock.advance(8);
+        scheduler.saved(node.targetUrl(), true);
+        clock.advance(1);
+
+        assert scheduler.select(List.of(node)).due().size() == 1;
+    }
+
+    @Test
+    void removedNodeShouldBeForgotten() {
+        var kept = node("http://provider-a/protocol", Map.of());
+        var removed = node("http://provider-b/protocol", Map.of());
+
+        scheduler.select(List.of(kept, removed));
+        clock.advance(PERIOD_SECONDS);
+        scheduler.select(List.of(kept));
+
+        assert metrics.get(CrawlScheduler.CRAWL_SCHEDULE_METRIC + ".failed") == 1;
+        clock.advance(PERIOD_SECONDS);
+        scheduler.select(List.of(kept));
+        assert metrics.get(CrawlScheduler.CRAWL_SCHEDULE_METRIC + ".failed") == 1;
+    }
+
+    private List<Integer> run(List<ParticipantNode> nodes, int runs, Consumer<String> save) {
+        var crawled = new ArrayList<Integer>();
+        for (int run = 0; run < runs; run++) {
+            var selection = scheduler.select(nodes);
+            if (!selection.due().isEmpty()) {
+                crawled.add(run);
+            }
+            selection.due().forEach(node -> save.accept(node.targetUrl()));
+            clock.advance(PERIOD_SECONDS);
+        }
+        return crawled;
+    }
+
+    private static ParticipantNode node(String url, Map<String, String> attributes) {
+        return new ParticipantNode(url, url, url, List.of("dataspace-protocol-http"), Map.of(), attributes, Map.of());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(long seconds) {
+            now = now.plusSeconds(seconds);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
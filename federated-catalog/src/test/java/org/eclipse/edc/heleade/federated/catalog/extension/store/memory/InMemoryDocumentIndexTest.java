@@ -0,0 +1,77 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.memory;
+
+import org.bson.Document;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.memory.cache.DocumentMatcher;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.memory.cache.InMemoryDocumentIndex;
+import org.eclipse.edc.spi.query.Criterion;
+import org.eclipse.edc.spi.query.QuerySpec;
+import org.eclipse.edc.spi.query.SortOrder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class InMemoryDocumentIndexTest {
+
+    private InMemoryDocumentIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InMemoryDocumentIndex(List.of("dspace:participantId", "dcat:keyword"), List.of("dct:issued"));
+        index.put("a", dataset("d1", "provider-1", List.of("air", "quality"), "2024-01-10"));
+        index.put("b", dataset("d2", "provider-1", List.of("water"), "2025-03-01"));
+        index.put("c", dataset("d3", "provider-2", List.of("air"), "2025-06-15"));
+    }
+
+    @Test
+    void indexedCriteriaShouldMatchLikeScan() {
+        var criteria = List.of(new Criterion("dcat:keyword", "=", "air"), new Criterion("dct:issued", ">=", "2025-01-01"));
+        var found = index.find(criteria);
+        assert found.size() == 1 && "d3".equals(found.get(0).getString("@id"));
+        assert index.documents().stream().filter(doc -> DocumentMatcher.matches(doc, criteria)).count() == 1;
+    }
+
+    @Test
+    void replacedDocumentShouldBeReindexed() {
+        index.put("a", dataset("d1", "provider-1", List.of("soil"), "2024-01-10"));
+        assert index.find(List.of(new Criterion("dcat:keyword", "=", "air"))).size() == 1;
+        assert index.countValues("dcat:keyword").get("soil") == 1;
+        assert index.size() == 3;
+    }
+
+    @Test
+    void sortShouldUseArrayBoundsAndTiebreakers() {
+        var query = QuerySpec.Builder.newInstance().sortField("dcat:keyword").sortOrder(SortOrder.DESC).build();
+        var sorted = index.find(List.of()).stream().sorted(DocumentMatcher.comparator(query)).map(doc -> doc.getString("@id")).toList();
+        assert sorted.equals(List.of("d2", "d1", "d3"));
+    }
+
+    @Test
+    void removedDocumentsShouldLeaveIndexes() {
+        index.removeIf(doc -> "provider-1".equals(doc.getString("dspace:participantId")));
+        assert index.find(List.of(new Criterion("dspace:participantId", "=", "provider-1"))).isEmpty();
+        assert index.countValues("dcat:keyword").equals(Map.of("air", 1));
+    }
+
+    private static Document dataset(String id, String participantId, List<String> keywords, String issued) {
+        return new Document("@id", id)
+                .append("dspace:participantId", participantId)
+                .append("dcat:keyword", keywords)
+                .append("dct:issued", issued);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.memory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.json.Json;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonObject;
+import org.eclipse.edc.connector.controlplane.catalog.spi.Catalog;
+import org.eclipse.edc.connector.controlplane.catalog.spi.Dataset;
+import org.eclipse.edc.heleade.federated.catalog.extension.metrics.FederatedCatalogMetrics;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.memory.cache.InMemoryFederatedCatalogCache;
+import org.eclipse.edc.jsonld.spi.JsonLd;
+import org.eclipse.edc.spi.monitor.Monitor;
+import org.eclipse.edc.spi.query.Criterion;
+import org.eclipse.edc.spi.query.QuerySpec;
+import org.eclipse.edc.spi.result.Result;
+import org.eclipse.edc.transform.spi.TypeTransformerRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class InMemoryFederatedCatalogCacheTest {
+
+    private static final String NODE_URL = "http://provider-a/protocol";
+
+    private final JsonLd jsonLd = mock(JsonLd.class);
+    private final TypeTransformerRegistry transformerRegistry = mock(TypeTransformerRegistry.class);
+    private InMemoryFederatedCatalogCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(jsonLd.compact(any(JsonObject.class))).thenAnswer(invocation -> Result.success(invocation.getArgument(0)));
+        when(jsonLd.expand(any(JsonObject.class))).thenAnswer(invocation -> Result.success(invocation.getArgument(0)));
+        when(transformerRegistry.transform(any(JsonObject.class), eq(Dataset.class))).thenAnswer(invocation ->
+                Result.success(Dataset.Builder.newInstance().id(invocation.<JsonObject>getArgument(0).getString("@id")).build()));
+        cache = new InMemoryFederatedCatalogCache(jsonLd, transformerRegistry, new ObjectMapper(), mock(Monitor.class),
+                new FederatedCatalogMetrics(), null);
+    }
+
+    @Test
+    void datasetsMissingFromTheSavedCatalogShouldBeDeleted() {
+        cache.save(catalog("dataset-1", "dataset-2"));
+        assert datasetIds(QuerySpec.none()).equals(List.of("dataset-1", "dataset-2"));
+        var version = cache.dataVersion();
+
+        cache.save(catalog("dataset-1"));
+
+        var removed = QuerySpec.Builder.newInstance().filter(new Criterion("@id", "=", "dataset-2")).build();
+        assert datasetIds(QuerySpec.none()).equals(List.of("dataset-1"));
+        assert cache.countDatasets(removed, true) == 0;
+        assert !cache.countKeywords(QuerySpec.none(), true).contains("dataset-2");
+        assert cache.dataVersion() > version;
+    }
+
+    private List<String> datasetIds(QuerySpec query) {
+        return cache.queryDatasets(query).stream().map(Dataset::getId).sorted().toList();
+    }
+
+    private Catalog catalog(String... datasetIds) {
+        JsonArrayBuilder datasets = Json.createArrayBuilder();
+        for (String datasetId : datasetIds) {
+            datasets.add(Json.createObjectBuilder().add("@id", datasetId).add("dcat:keyword", datasetId));
+        }
+        var catalogJson = Json.createObjectBuilder()
+                .add("@id", "catalog-a")
+                .add("dspace:participantId", "participant-a")
+                .add("dcat:dataset", datasets)
+                .build();
+        // a distinct catalog per save, so that it is not skipped on its fingerprint
+        var catalog = Catalog.Builder.newInstance().id(NODE_URL).participantId("participant-a")
+                .property("datasets", String.join(",", datasetIds))
+                .build();
+        when(transformerRegistry.transform(catalog, JsonObject.class)).thenReturn(Result.success(catalogJson));
+        return catalog;
+    }
+}
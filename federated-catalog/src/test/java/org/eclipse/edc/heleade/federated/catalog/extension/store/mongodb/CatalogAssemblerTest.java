@@ -0,0 +1,47 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb;
+
+import jakarta.json.Json;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.CatalogAssembler;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+public class CatalogAssemblerTest {
+
+    @Test
+    void catalogShouldReferenceDatasetsById() {
+        var datasets = Json.createArrayBuilder()
+                .add(Json.createObjectBuilder().add("@id", "a").add("@type", "dcat:Dataset").add("dct:title", "A"))
+                .add(Json.createObjectBuilder().add("@id", "b").add("@type", "dcat:Dataset"))
+                .build();
+
+        var references = CatalogAssembler.references(datasets);
+
+        assert references.size() == 2;
+        assert references.get(0).keySet().equals(Set.of("@id"));
+        assert references.get(1).getString("@id").equals("b");
+    }
+
+    @Test
+    void datasetSubFieldsShouldProjectReferencesAndParticipant() {
+        assert CatalogAssembler.catalogFields(List.of()).isEmpty();
+        assert CatalogAssembler.catalogFields(List.of("dct:title")).equals(List.of("dct:title"));
+        assert CatalogAssembler.catalogFields(List.of("dct:title", "dcat:dataset.dct:title", "dcat:dataset.dcat:keyword"))
+                .equals(List.of("dct:title", "dcat:dataset", "dspace:participantId"));
+    }
+}
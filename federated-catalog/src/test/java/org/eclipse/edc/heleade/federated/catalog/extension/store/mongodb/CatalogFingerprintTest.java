@@ -0,0 +1,58 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.eclipse.edc.connector.controlplane.catalog.spi.Catalog;
+import org.eclipse.edc.heleade.federated.catalog.extension.metrics.FederatedCatalogMetrics;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.CatalogFingerprint;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class CatalogFingerprintTest {
+
+    @Test
+    void fingerprintShouldNotDependOnPropertyOrder() {
+        var fingerprint = new CatalogFingerprint(new ObjectMapper());
+        var properties = new LinkedHashMap<String, Object>();
+        properties.put("dct:title", "Air quality");
+        properties.put("dct:publisher", "LdE");
+        var reversed = new LinkedHashMap<String, Object>();
+        reversed.put("dct:publisher", "LdE");
+        reversed.put("dct:title", "Air quality");
+
+        var hash = fingerprint.of(Catalog.Builder.newInstance().id("catalog").properties(properties).build());
+
+        assert hash != null;
+        assert hash.equals(fingerprint.of(Catalog.Builder.newInstance().id("catalog").properties(reversed).build()));
+        assert !hash.equals(fingerprint.of(Catalog.Builder.newInstance().id("catalog")
+                .properties(Map.of("dct:title", "Water quality", "dct:publisher", "LdE")).build()));
+    }
+
+    @Test
+    void skipsShouldBeCountedPerNode() {
+        var metrics = new FederatedCatalogMetrics();
+
+        CatalogFingerprint.count(metrics, "http://provider-a/protocol", true);
+        CatalogFingerprint.count(metrics, "http://provider-a/protocol", false);
+        CatalogFingerprint.count(metrics, "http://provider-b/protocol", true);
+
+        assert metrics.hitRate(CatalogFingerprint.CATALOG_FINGERPRINT_METRIC + ".http://provider-a/protocol") == 0.5;
+        assert metrics.hitRate(CatalogFingerprint.CATALOG_FINGERPRINT_METRIC + ".http://provider-b/protocol") == 1.0;
+        assert metrics.get(CatalogFingerprint.CATALOG_FINGERPRINT_METRIC + ".hits") == 2;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb;
+
+import org.eclipse.edc.connector.controlplane.catalog.spi.Catalog;
+import org.eclipse.edc.heleade.federated.catalog.extension.metrics.FederatedCatalogMetrics;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.CatalogIngestionQueue;
+import org.eclipse.edc.spi.monitor.ConsoleMonitor;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class CatalogIngestionQueueTest {
+
+    @Test
+    void flushShouldWaitForEveryEnqueuedCatalogInOrderPerId() {
+        var metrics = new FederatedCatalogMetrics();
+        Map<String, List<String>> written = new ConcurrentHashMap<>();
+        var queue = new CatalogIngestionQueue(3, 2, (id, catalog) -> {
+            sleep();
+            written.computeIfAbsent(id, key -> Collections.synchronizedList(new ArrayList<>())).add(catalog.getId());
+        }, new ConsoleMonitor(), metrics);
+
+        for (int round = 0; round < 4; round++) {
+            for (String participant : List.of("a", "b", "c", "d", "e")) {
+                queue.submit(participant, Catalog.Builder.newInstance().id(participant + round).build());
+            }
+        }
+        queue.flush();
+
+        assert metrics.get(CatalogIngestionQueue.INGESTION_METRIC + ".written") == 20;
+        assert written.get("c").equals(List.of("c0", "c1", "c2", "c3"));
+        queue.close();
+    }
+
+    @Test
+    void failedWriteShouldBeCountedWithoutStoppingTheWriter() {
+        var metrics = new FederatedCatalogMetrics();
+        var queue = new CatalogIngestionQueue(1, 1, (id, catalog) -> {
+            if (id.equals("broken")) {
+                throw new IllegalStateException("write failed");
+            }
+        }, new ConsoleMonitor(), metrics);
+
+        queue.submit("broken", Catalog.Builder.newInstance().id("broken").build());
+        queue.submit("valid", Catalog.Builder.newInstance().id("valid").build());
+        queue.close();
+
+        assert metrics.get(CatalogIngestionQueue.INGESTION_METRIC + ".failed") == 1;
+        assert metrics.get(CatalogIngestionQueue.INGESTION_METRIC + ".written") == 1;
+    }
+
+    @Test
+    void waitedWriteShouldFollowTheEnqueuedOnesAndThrowItsFailure() {
+        var metrics = new FederatedCatalogMetrics();
+        var written = Collections.synchronizedList(new ArrayList<String>());
+        var queue = new CatalogIngestionQueue(2, 2, (id, catalog) -> {
+            sleep();
+            if (catalog.getId().equals("broken")) {
+                throw new IllegalStateException("write failed");
+            }
+            written.add(catalog.getId());
+        }, new ConsoleMonitor(), metrics);
+
+        queue.submit("a", Catalog.Builder.newInstance().id("a0").build());
+        queue.submit("a", Catalog.Builder.newInstance().id("a1").build());
+        queue.submitAndWait("a", Catalog.Builder.newInstance().id("a2").build());
+
+        assert written.equals(List.of("a0", "a1", "a2")) : written;
+        try {
+            queue.submitAndWait("a", Catalog.Builder.newInstance().id("broken").build());
+            assert false;
+        } catch (IllegalStateException e) {
+            assert e.getMessage().equals("write failed");
+        }
+        assert metrics.get(CatalogIngestionQueue.INGESTION_METRIC + ".failed") == 1;
+        queue.close();
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
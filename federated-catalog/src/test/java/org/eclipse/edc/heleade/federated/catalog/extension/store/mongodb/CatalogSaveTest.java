@@ -0,0 +1,188 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.result.DeleteResult;
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.eclipse.edc.connector.controlplane.catalog.spi.Catalog;
+import org.eclipse.edc.heleade.federated.catalog.extension.metrics.FederatedCatalogMetrics;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCache;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.index.MongodbIndexManager;
+import org.eclipse.edc.jsonld.spi.JsonLd;
+import org.eclipse.edc.spi.monitor.Monitor;
+import org.eclipse.edc.spi.persistence.EdcPersistenceException;
+import org.eclipse.edc.spi.result.Result;
+import org.eclipse.edc.transaction.spi.NoopTransactionContext;
+import org.eclipse.edc.transform.spi.TypeTransformerRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCache.PARTICIPANT_FIELD;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getContentHashField;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getFederatedCatalogCollectionName;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getFederatedCatalogDataDictionaryCollectionName;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getFederatedCatalogDatasetCollectionName;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getFederatedCatalogKeywordFacetCollectionName;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getFederatedCatalogMetaCollectionName;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getSourceFingerprintField;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CatalogSaveTest {
+
+    private static final String NODE_URL = "http://provider-a/protocol";
+
+    private final MongoCollection<Document> catalogs = collection();
+    private final MongoCollection<Document> datasets = collection();
+    private final FindIterable<Document> catalogFound = findIterable();
+    private final FindIterable<Document> datasetsFound = findIterable();
+    private final JsonLd jsonLd = mock(JsonLd.class);
+    private final TypeTransformerRegistry transformerRegistry = mock(TypeTransformerRegistry.class);
+    private MongodbFederatedCatalogCache cache;
+
+    @BeforeEach
+    void setUp() {
+        var client = mock(MongoClient.class);
+        var database = mock(MongoDatabase.class);
+        var meta = collection();
+        when(client.getDatabase("db")).thenReturn(database);
+        when(database.getCollection(getFederatedCatalogCollectionName())).thenReturn(catalogs);
+        when(database.getCollection(getFederatedCatalogDatasetCollectionName())).thenReturn(datasets);
+        when(database.getCollection(getFederatedCatalogMetaCollectionName())).thenReturn(meta);
+        when(database.getCollection(getFederatedCatalogDataDictionaryCollectionName())).thenReturn(collection());
+        when(database.getCollection(getFederatedCatalogKeywordFacetCollectionName())).thenReturn(collection());
+
+        FindIterable<Document> metaFound = findIterable();
+        when(meta.find(any(Bson.class))).thenReturn(metaFound);
+        when(catalogs.find(any(Bson.class))).thenReturn(catalogFound);
+        when(catalogFound.projection(any())).thenReturn(catalogFound);
+        when(datasets.find(any(Bson.class))).thenReturn(datasetsFound);
+        when(datasetsFound.projection(any())).thenReturn(datasetsFound);
+
+        var catalogJson = Json.createObjectBuilder()
+                .add("@id", "catalog-a")
+                .add(PARTICIPANT_FIELD, "participant-a")
+                .add("dcat:dataset", Json.createArrayBuilder()
+                        .add(Json.createObjectBuilder().add("@id", "dataset-1").add("dct:title", "One"))
+                        .add(Json.createObjectBuilder().add("@id", "dataset-2").add("dct:title", "Two")))
+                .build();
+        when(transformerRegistry.transform(any(Catalog.class), eq(JsonObject.class))).thenReturn(Result.success(catalogJson));
+        when(jsonLd.compact(any(JsonObject.class))).thenReturn(Result.success(catalogJson));
+
+        cache = new MongodbFederatedCatalogCache(client, "db", new NoopTransactionContext(), new ObjectMapper(), jsonLd,
+                transformerRegistry, mock(Monitor.class), new FederatedCatalogMetrics(), mock(MongodbIndexManager.class), 0);
+    }
+
+    @Test
+    void catalogWhoseDatasetsFailedShouldBeWrittenAgainByTheNextSave() {
+        var duplicateKey = new MongoBulkWriteException(BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(), List.of()),
+                List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1)), null, new ServerAddress(), Set.of());
+        when(catalogFound.first()).thenReturn(null);
+        when(datasets.bulkWrite(anyList(), any(BulkWriteOptions.class))).thenThrow(duplicateKey);
+
+        try {
+            cache.save(catalog());
+            assert false;
+        } catch (EdcPersistenceException e) {
+            assert e.getCause().getMessage().startsWith("1 datasets of catalog " + NODE_URL + " could not be written") : e;
+        }
+
+        // the catalog document was written without its hash and fingerprint, and they were never set afterwards
+        ArgumentCaptor<Bson> written = ArgumentCaptor.forClass(Bson.class);
+        verify(catalogs).updateOne(any(Bson.class), written.capture(), any(UpdateOptions.class));
+        var update = written.getValue().toBsonDocument();
+        assert !update.getDocument("$set").containsKey(getContentHashField()) : update;
+        assert update.getDocument("$unset").containsKey(getContentHashField()) : update;
+        assert update.getDocument("$unset").containsKey(getSourceFingerprintField()) : update;
+        verify(catalogs, times(0)).updateOne(any(Bson.class), any(Bson.class));
+
+        // so the next save of the same catalog finds no hash to skip on, and writes the datasets again
+        when(catalogFound.first()).thenReturn(new Document("@id", "catalog-a").append(PARTICIPANT_FIELD, "participant-a"));
+        when(datasets.bulkWrite(anyList(), any(BulkWriteOptions.class))).thenReturn(BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(), List.of()));
+
+        cache.save(catalog());
+
+        verify(datasets, times(2)).bulkWrite(anyList(), any(BulkWriteOptions.class));
+        ArgumentCaptor<Bson> stamped = ArgumentCaptor.forClass(Bson.class);
+        verify(catalogs).updateOne(any(Bson.class), stamped.capture());
+        assert stamped.getValue().toBsonDocument().getDocument("$set").containsKey(getContentHashField());
+    }
+
+    @Test
+    void datasetsMissingFromTheCatalogShouldBeDeleted() {
+        when(catalogFound.first()).thenReturn(new Document("@id", "catalog-a").append(PARTICIPANT_FIELD, "participant-a"));
+        doAnswer(invocation -> {
+            Consumer<Document> consumer = invocation.getArgument(0);
+            consumer.accept(new Document("@id", "dataset-1").append(getContentHashField(), "stale"));
+            consumer.accept(new Document("@id", "dataset-3").append(getContentHashField(), "removed"));
+            return null;
+        }).when(datasetsFound).forEach(any());
+        when(datasets.bulkWrite(anyList(), any(BulkWriteOptions.class))).thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+        when(datasets.deleteMany(any(Bson.class))).thenReturn(DeleteResult.acknowledged(1));
+        // the keyword counts of the participant are refreshed after the deletion
+        @SuppressWarnings("unchecked")
+        AggregateIterable<Document> keywords = mock(AggregateIterable.class);
+        when(datasets.aggregate(anyList())).thenReturn(keywords);
+
+        cache.save(catalog());
+
+        ArgumentCaptor<Bson> deleted = ArgumentCaptor.forClass(Bson.class);
+        verify(datasets).deleteMany(deleted.capture());
+        var filter = deleted.getValue().toBsonDocument().toJson();
+        assert filter.contains("\"participant-a\"") && filter.contains("$nin") : filter;
+        assert filter.contains("\"dataset-1\"") && filter.contains("\"dataset-2\"") && !filter.contains("dataset-3") : filter;
+    }
+
+    private static Catalog catalog() {
+        return Catalog.Builder.newInstance().id(NODE_URL).participantId("participant-a").build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MongoCollection<Document> collection() {
+        return mock(MongoCollection.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static FindIterable<Document> findIterable() {
+        return mock(FindIterable.class);
+    }
+}
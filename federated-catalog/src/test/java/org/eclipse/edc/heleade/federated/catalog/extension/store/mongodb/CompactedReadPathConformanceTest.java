@@ -0,0 +1,120 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb;
+
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.eclipse.edc.connector.controlplane.catalog.spi.Dataset;
+import org.eclipse.edc.heleade.federated.catalog.extension.content.based.JsonObjectFromDatasetContentBasedTransformer;
+import org.eclipse.edc.heleade.federated.catalog.extension.content.based.JsonObjectToDatasetContentBasedTransformer;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.ContentHash;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheQuery;
+import org.eclipse.edc.json.JacksonTypeManager;
+import org.eclipse.edc.jsonld.TitaniumJsonLd;
+import org.eclipse.edc.jsonld.spi.JsonLd;
+import org.eclipse.edc.protocol.dsp.catalog.transform.from.JsonObjectFromDataServiceTransformer;
+import org.eclipse.edc.protocol.dsp.catalog.transform.from.JsonObjectFromDistributionTransformer;
+import org.eclipse.edc.spi.monitor.ConsoleMonitor;
+import org.eclipse.edc.transform.TypeTransformerRegistryImpl;
+import org.eclipse.edc.transform.spi.TypeTransformerRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+
+import static org.eclipse.edc.heleade.commons.content.based.catalog.CbmConstants.CBM_PREFIX;
+import static org.eclipse.edc.heleade.commons.content.based.catalog.CbmConstants.CBM_SCHEMA;
+import static org.eclipse.edc.jsonld.spi.JsonLdKeywords.VOCAB;
+import static org.eclipse.edc.jsonld.spi.Namespaces.DCAT_PREFIX;
+import static org.eclipse.edc.jsonld.spi.Namespaces.DCAT_SCHEMA;
+import static org.eclipse.edc.jsonld.spi.Namespaces.DCT_PREFIX;
+import static org.eclipse.edc.jsonld.spi.Namespaces.DCT_SCHEMA;
+import static org.eclipse.edc.jsonld.spi.Namespaces.DSPACE_PREFIX;
+import static org.eclipse.edc.jsonld.spi.Namespaces.DSPACE_SCHEMA;
+import static org.eclipse.edc.spi.constants.CoreConstants.EDC_NAMESPACE;
+import static org.eclipse.edc.spi.constants.CoreConstants.JSON_LD;
+
+/**
+ * Checks that the compacted fast read path returns the same JSON-LD content as the default read path, which
+ * expands the stored dataset, transforms it into a {@link Dataset} and back, and compacts the result.
+ */
+public class CompactedReadPathConformanceTest {
+
+    private JsonLd jsonLd;
+    private TypeTransformerRegistry transformerRegistry;
+    private Document context;
+
+    @BeforeEach
+    void setUp() {
+        jsonLd = new TitaniumJsonLd(new ConsoleMonitor());
+        jsonLd.registerNamespace(VOCAB, EDC_NAMESPACE);
+        jsonLd.registerNamespace(DCAT_PREFIX, DCAT_SCHEMA);
+        jsonLd.registerNamespace(DCT_PREFIX, DCT_SCHEMA);
+        jsonLd.registerNamespace(DSPACE_PREFIX, DSPACE_SCHEMA);
+        jsonLd.registerNamespace(CBM_PREFIX, CBM_SCHEMA);
+
+        var jsonFactory = Json.createBuilderFactory(Map.of());
+        transformerRegistry = new TypeTransformerRegistryImpl();
+        transformerRegistry.register(new JsonObjectFromDatasetContentBasedTransformer(jsonFactory, new JacksonTypeManager(), JSON_LD));
+        transformerRegistry.register(new JsonObjectFromDistributionTransformer(jsonFactory));
+        transformerRegistry.register(new JsonObjectFromDataServiceTransformer(jsonFactory));
+        transformerRegistry.register(new JsonObjectToDatasetContentBasedTransformer());
+
+        context = new Document(VOCAB, EDC_NAMESPACE)
+                .append(DCAT_PREFIX, DCAT_SCHEMA)
+                .append(DCT_PREFIX, DCT_SCHEMA)
+                .append(DSPACE_PREFIX, DSPACE_SCHEMA)
+                .append(CBM_PREFIX, CBM_SCHEMA);
+    }
+
+    @Test
+    void fastPathShouldMatchDefaultPath() {
+        var dataset = Dataset.Builder.newInstance()
+                .id("dataset-1")
+                .property(DCT_SCHEMA + "title", "Air quality measurements")
+                .property(DCAT_SCHEMA + "keyword", List.of("air", "quality"))
+                .build();
+        var stored = store(dataset);
+
+        JsonObject slow = defaultPath(stored);
+        JsonObject fast = Json.createReader(new StringReader(MongodbFederatedCatalogCacheQuery.toCompactedJson(stored, context))).readObject();
+
+        var slowExpanded = jsonLd.expand(slow).getContent();
+        var fastExpanded = jsonLd.expand(fast).getContent();
+        assert ContentHash.canonicalize(slowExpanded).equals(ContentHash.canonicalize(fastExpanded));
+        assert !fast.containsKey("_id") && !fast.containsKey("generation") && !fast.containsKey("content_hash");
+    }
+
+    private Document store(Dataset dataset) {
+        // mirrors the ingestion: transformed, compacted and stamped with the participant and the internal fields
+        var datasetJson = transformerRegistry.transform(dataset, JsonObject.class).getContent();
+        var compacted = jsonLd.compact(datasetJson).getContent();
+        return Document.parse(compacted.toString())
+                .append("dspace:participantId", "provider")
+                .append("_id", new ObjectId())
+                .append("content_hash", ContentHash.of(compacted))
+                .append("generation", 1L);
+    }
+
+    private JsonObject defaultPath(Document stored) {
+        var converted = MongodbFederatedCatalogCacheQuery.entityConverter(jsonLd, transformerRegistry, Dataset.class).apply(stored);
+        var datasetJson = transformerRegistry.transform(converted, JsonObject.class).getContent();
+        return jsonLd.compact(datasetJson).getContent();
+    }
+}
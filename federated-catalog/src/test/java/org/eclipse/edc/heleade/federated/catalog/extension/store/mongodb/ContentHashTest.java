@@ -0,0 +1,55 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb;
+
+import jakarta.json.Json;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.ContentHash;
+import org.junit.jupiter.api.Test;
+
+public class ContentHashTest {
+
+    @Test
+    void shouldIgnoreKeyOrder() {
+        var first = Json.createObjectBuilder()
+                .add("@id", "dataset-1")
+                .add("dct:title", "Title")
+                .add("dcat:keyword", Json.createArrayBuilder().add("a").add("b"))
+                .build();
+        var second = Json.createObjectBuilder()
+                .add("dcat:keyword", Json.createArrayBuilder().add("a").add("b"))
+                .add("dct:title", "Title")
+                .add("@id", "dataset-1")
+                .build();
+
+        assert ContentHash.canonicalize(first).equals(ContentHash.canonicalize(second));
+        assert ContentHash.of(first).equals(ContentHash.of(second));
+    }
+
+    @Test
+    void shouldDetectContentChanges() {
+        var original = Json.createObjectBuilder().add("@id", "dataset-1").add("dct:title", "Title").build();
+        var changed = Json.createObjectBuilder().add("@id", "dataset-1").add("dct:title", "New title").build();
+        var reordered = Json.createObjectBuilder()
+                .add("dcat:keyword", Json.createArrayBuilder().add("b").add("a"))
+                .build();
+        var keywords = Json.createObjectBuilder()
+                .add("dcat:keyword", Json.createArrayBuilder().add("a").add("b"))
+                .build();
+
+        assert !ContentHash.of(original).equals(ContentHash.of(changed));
+        assert !ContentHash.of(reordered).equals(ContentHash.of(keywords));
+        assert ContentHash.of(original).length() == 64;
+    }
+}
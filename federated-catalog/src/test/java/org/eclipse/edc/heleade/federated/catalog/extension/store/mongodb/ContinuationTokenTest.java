@@ -0,0 +1,125 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.ContinuationToken;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheQuery;
+import org.eclipse.edc.spi.query.QuerySpec;
+import org.eclipse.edc.spi.query.SortOrder;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class ContinuationTokenTest {
+
+    @Test
+    void shouldRoundTripLastDocumentKeys() {
+        QuerySpec querySpec = QuerySpec.Builder.newInstance().sortField("dct:issued").sortOrder(SortOrder.DESC).limit(10).build();
+        ObjectId objectId = new ObjectId();
+        Document last = new Document("_id", objectId).append("@id", "dataset-9").append("dct:issued", "2024-05-01");
+
+        String token = ContinuationToken.create(querySpec, last);
+        Document decoded = ContinuationToken.decode(querySpec, token);
+
+        assert decoded.get("k").equals(objectId);
+        assert decoded.getString("i").equals("dataset-9");
+        assert decoded.getString("v").equals("2024-05-01");
+    }
+
+    @Test
+    void shouldRejectTokenOfAnotherSort() {
+        QuerySpec byIssued = QuerySpec.Builder.newInstance().sortField("dct:issued").build();
+        QuerySpec byTitle = QuerySpec.Builder.newInstance().sortField("dct:title").build();
+        String token = ContinuationToken.create(byIssued, new Document("_id", new ObjectId()).append("@id", "a"));
+
+        try {
+            ContinuationToken.decode(byTitle, token);
+            assert false;
+        } catch (IllegalArgumentException e) {
+            assert e.getMessage().contains("sort");
+        }
+    }
+
+    @Test
+    void shouldRejectMultiValuedSortKeys() {
+        Document last = new Document("_id", new ObjectId()).append("@id", "dataset-9")
+                .append("dcat:keyword", List.of("air", "water"))
+                .append("dcat:distribution", List.of(new Document("dct:format", "csv")));
+
+        for (String sortField : List.of("dcat:keyword", "dcat:distribution.dct:format")) {
+            QuerySpec querySpec = QuerySpec.Builder.newInstance().sortField(sortField).limit(10).build();
+            try {
+                ContinuationToken.create(querySpec, last);
+                assert false : sortField;
+            } catch (IllegalArgumentException e) {
+                assert e.getMessage().contains(sortField);
+            }
+        }
+    }
+
+    @Test
+    void missingSortValueShouldBeNull() {
+        QuerySpec querySpec = QuerySpec.Builder.newInstance().sortField("dct:temporal.startDate").limit(10).build();
+        Document last = new Document("_id", new ObjectId()).append("@id", "dataset-9").append("dct:temporal", "2024");
+
+        Document decoded = ContinuationToken.decode(querySpec, ContinuationToken.create(querySpec, last));
+
+        assert decoded.containsKey("v") && decoded.get("v") == null;
+    }
+
+    @Test
+    void shouldReplaceSkipWithRangeMatch() {
+        QuerySpec querySpec = QuerySpec.Builder.newInstance().offset(500).limit(10).build();
+        String token = ContinuationToken.create(querySpec, new Document("_id", new ObjectId()).append("@id", "a"));
+
+        List<Bson> aggregation = MongodbFederatedCatalogCacheQuery.createKeysetAggregationPipeline(querySpec, token);
+
+        assert aggregation.size() == 3;
+        assert aggregation.get(0).toBsonDocument().get("$match").toString().contains("$gt");
+        assert aggregation.get(1).toBsonDocument().getDocument("$sort").containsKey("_id");
+        assert aggregation.get(2).toBsonDocument().containsKey("$limit");
+        assert aggregation.stream().noneMatch(stage -> stage.toBsonDocument().containsKey("$skip"));
+    }
+
+    @Test
+    void descendingRangeShouldIncludeMissingSortValues() {
+        QuerySpec querySpec = QuerySpec.Builder.newInstance().sortField("dct:issued").sortOrder(SortOrder.DESC).limit(10).build();
+        String token = ContinuationToken.create(querySpec, new Document("_id", new ObjectId()).append("@id", "a").append("dct:issued", "2024-05-01"));
+
+        String filter = ContinuationToken.createRangeFilter(ContinuationToken.decode(querySpec, token)).toBsonDocument().toJson();
+
+        assert filter.contains("{\"dct:issued\": {\"$lt\": \"2024-05-01\"}}") : filter;
+        assert filter.contains("{\"dct:issued\": null}") : filter;
+    }
+
+    @Test
+    void rangeAfterMissingSortValueShouldOnlyPageThroughMissingValues() {
+        QuerySpec descending = QuerySpec.Builder.newInstance().sortField("dct:issued").sortOrder(SortOrder.DESC).limit(10).build();
+        QuerySpec ascending = QuerySpec.Builder.newInstance().sortField("dct:issued").sortOrder(SortOrder.ASC).limit(10).build();
+        Document last = new Document("_id", new ObjectId()).append("@id", "a");
+
+        String descendingFilter = ContinuationToken.createRangeFilter(ContinuationToken.decode(descending, ContinuationToken.create(descending, last)))
+                .toBsonDocument().toJson();
+        String ascendingFilter = ContinuationToken.createRangeFilter(ContinuationToken.decode(ascending, ContinuationToken.create(ascending, last)))
+                .toBsonDocument().toJson();
+
+        assert !descendingFilter.contains("$lt") && !descendingFilter.contains("$ne") : descendingFilter;
+        assert descendingFilter.contains("{\"@id\": {\"$gt\": \"a\"}}") : descendingFilter;
+        assert ascendingFilter.contains("{\"dct:issued\": {\"$ne\": null}}") : ascendingFilter;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.DistinctIterable;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.result.DeleteResult;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.eclipse.edc.heleade.federated.catalog.extension.metrics.FederatedCatalogMetrics;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCache;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.index.MongodbIndexManager;
+import org.eclipse.edc.jsonld.spi.JsonLd;
+import org.eclipse.edc.spi.monitor.Monitor;
+import org.eclipse.edc.transaction.spi.NoopTransactionContext;
+import org.eclipse.edc.transform.spi.TypeTransformerRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCache.PARTICIPANT_FIELD;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getFederatedCatalogCollectionName;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getFederatedCatalogDataDictionaryCollectionName;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getFederatedCatalogDatasetCollectionName;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getFederatedCatalogKeywordFacetCollectionName;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getFederatedCatalogMetaCollectionName;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getGenerationField;
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getIdField;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CrawlGenerationTest {
+
+    private static final String NODE_URL = "http://provider-a/protocol";
+
+    private final MongoCollection<Document> catalogs = collection();
+    private final MongoCollection<Document> datasets = collection();
+    private final MongoCollection<Document> meta = collection();
+    private final MongoCollection<Document> dictionaries = collection();
+    private final FindIterable<Document> catalogFound = findIterable();
+    private MongodbFederatedCatalogCache cache;
+
+    @BeforeEach
+    void setUp() {
+        var client = mock(MongoClient.class);
+        var database = mock(MongoDatabase.class);
+        when(client.getDatabase("db")).thenReturn(database);
+        when(database.getCollection(getFederatedCatalogCollectionName())).thenReturn(catalogs);
+        when(database.getCollection(getFederatedCatalogDatasetCollectionName())).thenReturn(datasets);
+        when(database.getCollection(getFederatedCatalogMetaCollectionName())).thenReturn(meta);
+        when(database.getCollection(getFederatedCatalogDataDictionaryCollectionName())).thenReturn(dictionaries);
+        when(database.getCollection(getFederatedCatalogKeywordFacetCollectionName())).thenReturn(collection());
+
+        when(meta.findOneAndUpdate(any(Bson.class), any(Bson.class), any(FindOneAndUpdateOptions.class))).thenReturn(generation(3));
+        when(catalogs.find(any(Bson.class))).thenReturn(catalogFound);
+        when(catalogFound.projection(any())).thenReturn(catalogFound);
+
+        cache = new MongodbFederatedCatalogCache(client, "db", new NoopTransactionContext(), new ObjectMapper(), mock(JsonLd.class),
+                mock(TypeTransformerRegistry.class), mock(Monitor.class), new FederatedCatalogMetrics(), mock(MongodbIndexManager.class), 0);
+    }
+
+    @Test
+    void keptNodeShouldBeMarkedAsSeenInTheNewGeneration() {
+        when(catalogFound.first()).thenReturn(new Document(PARTICIPANT_FIELD, "participant-a"));
+
+        cache.expireAll();
+        cache.keep(NODE_URL);
+
+        verify(catalogs).updateOne(bson(Filters.eq(getIdField(), NODE_URL)), bson(Updates.set(getGenerationField(), 3L)));
+        verify(datasets).updateMany(bson(Filters.eq(PARTICIPANT_FIELD, "participant-a")), bson(Updates.set(getGenerationField(), 3L)));
+    }
+
+    @Test
+    void keepingUncachedNodeShouldWriteNothing() {
+        when(catalogFound.first()).thenReturn(null);
+
+        cache.expireAll();
+        cache.keep(NODE_URL);
+
+        verify(catalogs, never()).updateOne(any(Bson.class), any(Bson.class));
+        verify(datasets, never()).updateMany(any(Bson.class), any(Bson.class));
+    }
+
+    @Test
+    void entriesNotSeenInTheCurrentGenerationShouldBeDeleted() {
+        var metaFound = findIterable();
+        when(meta.find(any(Bson.class))).thenReturn(metaFound);
+        when(metaFound.first()).thenReturn(generation(3));
+        when(catalogs.deleteMany(any(Bson.class))).thenReturn(DeleteResult.acknowledged(1));
+        when(datasets.deleteMany(any(Bson.class))).thenReturn(DeleteResult.acknowledged(2));
+        when(dictionaries.deleteMany(any(Bson.class))).thenReturn(DeleteResult.acknowledged(0));
+        @SuppressWarnings("unchecked")
+        DistinctIterable<String> distinct = mock(DistinctIterable.class);
+        when(datasets.distinct(anyString(), any(Bson.class), eq(String.class))).thenReturn(distinct);
+        when(datasets.distinct(anyString(), eq(String.class))).thenReturn(distinct);
+        when(distinct.into(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        cache.deleteExpired();
+
+        var expired = Filters.not(Filters.gte(getGenerationField(), 3L));
+        verify(catalogs).deleteMany(bson(expired));
+        verify(datasets).deleteMany(bson(expired));
+        assert cache.dataVersion() == 1;
+    }
+
+    private static Document generation(long generation) {
+        return new Document("_id", "crawl_generation").append(getGenerationField(), generation);
+    }
+
+    private static Bson bson(Bson expected) {
+        return argThat(actual -> actual != null && actual.toBsonDocument().equals(expected.toBsonDocument()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MongoCollection<Document> collection() {
+        return mock(MongoCollection.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static FindIterable<Document> findIterable() {
+        return mock(FindIterable.class);
+    }
+}
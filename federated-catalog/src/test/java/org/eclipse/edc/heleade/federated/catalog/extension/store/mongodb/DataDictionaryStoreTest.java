@@ -0,0 +1,77 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb;
+
+import org.bson.Document;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.DataDictionaryStore;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class DataDictionaryStoreTest {
+
+    @Test
+    void sharedDictionaryShouldBeStoredOnceAndReferenced() {
+        var dataset = new Document("@id", "dataset").append("dcat:distribution", List.of(
+                new Document("dct:format", "csv").append("cbm:hasDataDictionary", dictionary("O3", "NO2")),
+                // same content with the keys in another order
+                new Document("dct:format", "json").append("cbm:hasDataDictionary", new Document("cbm:hasField", List.of(field("O3"), field("NO2")))
+                        .append("@type", "cbm:DataDictionary"))));
+
+        var dictionaries = DataDictionaryStore.split(dataset);
+
+        assert dictionaries.size() == 1;
+        var hash = dictionaries.keySet().iterator().next();
+        var distributions = dataset.getList("dcat:distribution", Document.class);
+        for (Document distribution : distributions) {
+            var reference = distribution.get("cbm:hasDataDictionary", Document.class);
+            assert reference.getString("@id").equals(DataDictionaryStore.REFERENCE_PREFIX + hash);
+        }
+        assert dataset.getList(MongodbFederatedCatalogCacheStore.getDataDictionariesField(), String.class).equals(List.of(hash));
+    }
+
+    @Test
+    void splitShouldKeepReferencesAndClearMissingDictionaries() {
+        var dataset = new Document("dcat:distribution", new Document("cbm:hasDataDictionary", dictionary("O3")));
+        var hash = DataDictionaryStore.split(dataset).keySet().iterator().next();
+
+        // a dataset already split keeps its references and stores nothing new
+        assert DataDictionaryStore.split(dataset).isEmpty();
+        assert dataset.getList(MongodbFederatedCatalogCacheStore.getDataDictionariesField(), String.class).equals(List.of(hash));
+
+        var withoutDictionary = new Document("dcat:distribution", new Document("dct:format", "csv"));
+        assert DataDictionaryStore.split(withoutDictionary).isEmpty();
+        assert withoutDictionary.getList(MongodbFederatedCatalogCacheStore.getDataDictionariesField(), String.class).isEmpty();
+    }
+
+    @Test
+    void onlyUnreferencedDictionariesStoredBeforeTheGenerationShouldBeDeleted() {
+        var filter = DataDictionaryStore.unreferencedFilter(List.of("abc"), 7).toBsonDocument().toJson();
+
+        var generationField = MongodbFederatedCatalogCacheStore.getGenerationField();
+        assert filter.contains("{\"" + generationField + "\": {\"$not\": {\"$gte\": 7}}}") : filter;
+        assert filter.contains("{\"_id\": {\"$nin\": [\"abc\"]}}") : filter;
+    }
+
+    private static Document dictionary(String... names) {
+        return new Document("@type", "cbm:DataDictionary")
+                .append("cbm:hasField", List.of(names).stream().map(DataDictionaryStoreTest::field).toList());
+    }
+
+    private static Document field(String name) {
+        return new Document("@type", "cbm:Field").append("schema:name", name).append("cbm:datatype", "integer");
+    }
+}
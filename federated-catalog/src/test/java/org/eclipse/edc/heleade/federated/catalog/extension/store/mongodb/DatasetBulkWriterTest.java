@@ -0,0 +1,103 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.DatasetBulkWriter;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.DatasetIngestionResult;
+import org.eclipse.edc.spi.monitor.Monitor;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheStore.getSpatialGeometryField;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DatasetBulkWriterTest {
+
+    private static final String PARTICIPANT = "participant-a";
+
+    @SuppressWarnings("unchecked")
+    private final MongoCollection<Document> collection = mock(MongoCollection.class);
+    private final DatasetBulkWriter writer = new DatasetBulkWriter(collection, mock(Monitor.class));
+
+    @Test
+    void rejectedGeometryShouldBeWrittenAgainWithoutIt() {
+        var datasets = List.of(dataset("a"), dataset("b"), dataset("c"));
+        when(collection.bulkWrite(anyList(), any(BulkWriteOptions.class)))
+                .thenThrow(bulkWriteException(inserted(0, 2), DatasetBulkWriter.GEO_KEYS_ERROR_CODE, 1))
+                .thenReturn(inserted(0));
+
+        var result = writer.write(PARTICIPANT, datasets, DatasetIngestionResult.empty(PARTICIPANT));
+
+        assert result.inserted() == 3 : result;
+        assert result.failed() == 0 : result;
+        assert result.batches() == 2 : result;
+        assert datasets.get(1).get(getSpatialGeometryField()) == null;
+        assert datasets.get(0).get(getSpatialGeometryField()) != null;
+        verify(collection).bulkWrite(argThat(writes -> writes.size() == 1), any(BulkWriteOptions.class));
+    }
+
+    @Test
+    void failedDatasetShouldNotStopTheOthersOfAnUnorderedBatch() {
+        var datasets = List.of(dataset("a"), dataset("b"), dataset("c"), dataset("d"));
+        // the unordered write still applies the datasets after the failed one
+        var written = BulkWriteResult.acknowledged(0, 1, 0, 1, inserted(0, 3).getUpserts(), List.of());
+        when(collection.bulkWrite(anyList(), any(BulkWriteOptions.class))).thenThrow(bulkWriteException(written, 121, 1));
+
+        var result = writer.write(PARTICIPANT, datasets, DatasetIngestionResult.empty(PARTICIPANT));
+
+        assert result.inserted() == 2 : result;
+        assert result.modified() == 1 : result;
+        assert result.failed() == 1 : result;
+        assert result.batches() == 1 : result;
+        assert datasets.get(1).get(getSpatialGeometryField()) != null;
+        verify(collection, times(1)).bulkWrite(anyList(), any(BulkWriteOptions.class));
+    }
+
+    private static Document dataset(String id) {
+        return new Document("@id", id)
+                .append(getSpatialGeometryField(), new Document("type", "Point").append("coordinates", List.of(-0.5, 38.3)));
+    }
+
+    private static BulkWriteResult inserted(int... indexes) {
+        var upserts = Arrays.stream(indexes)
+                .mapToObj(index -> new BulkWriteUpsert(index, new BsonString("id-" + index)))
+                .toList();
+        return BulkWriteResult.acknowledged(0, 0, 0, 0, upserts, List.of());
+    }
+
+    private static MongoBulkWriteException bulkWriteException(BulkWriteResult result, int code, int index) {
+        var error = new BulkWriteError(code, "write error " + code, new BsonDocument(), index);
+        return new MongoBulkWriteException(result, List.of(error), null, new ServerAddress(), Set.of());
+    }
+}
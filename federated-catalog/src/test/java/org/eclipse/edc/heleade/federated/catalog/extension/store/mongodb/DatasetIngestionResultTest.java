@@ -0,0 +1,55 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import org.bson.BsonString;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.DatasetIngestionResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DatasetIngestionResultTest {
+
+    private static final String PARTICIPANT = "participant-a";
+
+    @Test
+    void countersShouldAddUpAcrossBatches() {
+        var result = DatasetIngestionResult.empty(PARTICIPANT)
+                // 2 inserted, 3 matched of which 1 modified
+                .plus(BulkWriteResult.acknowledged(0, 3, 0, 1, upserts(0, 4), List.of()))
+                // 2 matched and modified
+                .plus(BulkWriteResult.acknowledged(0, 2, 0, 2, List.of(), List.of()))
+                .plusUnchanged(5)
+                .plusFailed(1);
+
+        assert result.inserted() == 2 : result;
+        assert result.modified() == 3 : result;
+        assert result.unchanged() == 7 : result;
+        assert result.failed() == 1 : result;
+        assert result.batches() == 2 : result;
+        assert result.participantId().equals(PARTICIPANT);
+    }
+
+    private static List<BulkWriteUpsert> upserts(int... indexes) {
+        var upserts = new ArrayList<BulkWriteUpsert>();
+        for (int index : indexes) {
+            upserts.add(new BulkWriteUpsert(index, new BsonString("dataset-" + index)));
+        }
+        return upserts;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb;
+
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.KeywordFacetStore;
+import org.eclipse.edc.spi.query.Criterion;
+import org.eclipse.edc.spi.query.QuerySpec;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class KeywordFacetStoreTest {
+
+    private final MongoCollection<Document> datasets = collection();
+    private final MongoCollection<Document> facets = collection();
+    private final KeywordFacetStore store = new KeywordFacetStore(datasets, facets);
+
+    @Test
+    void shouldServeUnfilteredAndParticipantRequests() {
+        assert KeywordFacetStore.supports(QuerySpec.none(), true);
+        assert KeywordFacetStore.supports(QuerySpec.Builder.newInstance()
+                .filter(new Criterion("dspace:participantId", "=", "provider")).build(), true);
+    }
+
+    @Test
+    void shouldAggregateOtherRequests() {
+        assert !KeywordFacetStore.supports(QuerySpec.none(), false);
+        assert !KeywordFacetStore.supports(QuerySpec.Builder.newInstance()
+                .filter(new Criterion("dspace:participantId", "!=", "provider")).build(), true);
+        assert !KeywordFacetStore.supports(QuerySpec.Builder.newInstance()
+                .filter(new Criterion("dct:title", "=", "air")).build(), true);
+        assert !KeywordFacetStore.supports(QuerySpec.Builder.newInstance()
+                .filter(new Criterion("dspace:participantId", "=", "provider"))
+                .filter(new Criterion("dct:title", "=", "air")).build(), true);
+    }
+
+    @Test
+    void refreshShouldUpsertTheCountsAndDeleteTheKeywordsNoLongerFound() {
+        var counted = aggregateIterable(new Document("_id", "air").append("count", 2), new Document("_id", "water").append("count", 1));
+        when(datasets.aggregate(anyList())).thenReturn(counted);
+
+        store.refresh("provider");
+        store.refresh("provider");
+
+        // a second refresh of the same datasets writes the same counts instead of adding new documents
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<WriteModel<Document>>> written = ArgumentCaptor.forClass(List.class);
+        verify(facets, times(2)).bulkWrite(written.capture(), any(BulkWriteOptions.class));
+        assert written.getAllValues().get(0).toString().equals(written.getAllValues().get(1).toString());
+        var upserts = written.getValue();
+        assert upserts.size() == 2;
+        var air = (UpdateOneModel<Document>) upserts.get(0);
+        assert air.getOptions().isUpsert();
+        assert air.getFilter().toBsonDocument().toJson().contains("\"dcat:keyword\": \"air\"") : air.getFilter();
+        assert air.getUpdate().toBsonDocument().getDocument("$set").getInt32("count").getValue() == 2;
+        verify(facets, never()).insertMany(anyList());
+
+        ArgumentCaptor<Bson> deleted = ArgumentCaptor.forClass(Bson.class);
+        verify(facets, times(2)).deleteMany(deleted.capture());
+        var filter = deleted.getValue().toBsonDocument().toJson();
+        assert filter.contains("\"provider\"") && filter.contains("$nin") : filter;
+        assert filter.contains("\"air\"") && filter.contains("\"water\"") : filter;
+    }
+
+    @Test
+    void refreshOfAParticipantWithoutKeywordsShouldOnlyDeleteItsCounts() {
+        var counted = aggregateIterable();
+        when(datasets.aggregate(anyList())).thenReturn(counted);
+
+        store.refresh("provider");
+
+        verify(facets, never()).bulkWrite(anyList(), any(BulkWriteOptions.class));
+        ArgumentCaptor<Bson> deleted = ArgumentCaptor.forClass(Bson.class);
+        verify(facets).deleteMany(deleted.capture());
+        assert deleted.getValue().toBsonDocument().toJson().contains("\"$nin\": []") : deleted.getValue();
+    }
+
+    @Test
+    void countKeywordsShouldSumTheCountsOfTheRequestedParticipant() {
+        var summed = aggregateIterable(new Document("dcat:keyword", "air").append("count", 3), new Document("dcat:keyword", "water").append("count", 1));
+        when(facets.aggregate(anyList())).thenReturn(summed);
+
+        var result = store.countKeywords(QuerySpec.Builder.newInstance()
+                .filter(new Criterion("dspace:participantId", "=", "provider")).build());
+
+        assert result.equals("[{\"dcat:keyword\": \"air\", \"count\": 3}, {\"dcat:keyword\": \"water\", \"count\": 1}]") : result;
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Bson>> pipeline = ArgumentCaptor.forClass(List.class);
+        verify(facets).aggregate(pipeline.capture());
+        assert pipeline.getValue().size() == 4;
+        var match = pipeline.getValue().get(0).toBsonDocument().toJson();
+        assert match.contains("$match") && match.contains("\"provider\"") : match;
+        assert pipeline.getValue().get(1).toBsonDocument().toJson().contains("\"$sum\": \"$count\"");
+    }
+
+    @Test
+    void countKeywordsWithoutFilterShouldSumEveryParticipant() {
+        var summed = aggregateIterable();
+        when(facets.aggregate(anyList())).thenReturn(summed);
+
+        assert store.countKeywords(QuerySpec.none()).equals("[]");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Bson>> pipeline = ArgumentCaptor.forClass(List.class);
+        verify(facets).aggregate(pipeline.capture());
+        assert pipeline.getValue().size() == 3;
+        assert !pipeline.getValue().get(0).toBsonDocument().toJson().contains("$match");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MongoCollection<Document> collection() {
+        return mock(MongoCollection.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AggregateIterable<Document> aggregateIterable(Document... results) {
+        AggregateIterable<Document> iterable = mock(AggregateIterable.class);
+        doAnswer(invocation -> {
+            Consumer<Document> consumer = invocation.getArgument(0);
+            List.of(results).forEach(consumer);
+            return null;
+        }).when(iterable).forEach(any());
+        return iterable;
+    }
+}
@@ -14,15 +14,31 @@
 
 package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb;
 
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
 import org.bson.BsonDocument;
+import org.bson.Document;
 import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.FieldPaths;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.ContinuationToken;
 import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheQuery;
 import org.eclipse.edc.spi.query.Criterion;
 import org.eclipse.edc.spi.query.QuerySpec;
+import org.eclipse.edc.spi.query.SortOrder;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
 public class MongodbFederatedCatalogCacheQueryTest {
 
     @Test
@@ -103,4 +119,176 @@ public class MongodbFederatedCatalogCacheQueryTest {
         assert matchStageSize.toBsonDocument().containsKey("$sort");
     }
 
+    @Test
+    void shouldSortBeforePagingWithIdTiebreakers() {
+        QuerySpec querySpec = QuerySpec.Builder.newInstance()
+                .filter(Criterion.criterion("dcat:keyword", "=", "energy"))
+                .sortField("dct:issued")
+                .sortOrder(SortOrder.DESC)
+                .offset(100)
+                .limit(20)
+                .build();
+
+        List<Bson> aggregation = MongodbFederatedCatalogCacheQuery.createAggregationPipeline(querySpec);
+
+        assert aggregation.size() == 4;
+        assert aggregation.get(0).toBsonDocument().containsKey("$match");
+        assert aggregation.get(1).toBsonDocument().containsKey("$sort");
+        assert aggregation.get(2).toBsonDocument().containsKey("$skip");
+        assert aggregation.get(3).toBsonDocument().containsKey("$limit");
+
+        BsonDocument sort = aggregation.get(1).toBsonDocument().getDocument("$sort");
+        assert List.copyOf(sort.keySet()).equals(List.of("dct:issued", "@id", "_id"));
+        assert sort.getInt32("dct:issued").getValue() == -1;
+        assert sort.getInt32("@id").getValue() == 1;
+    }
+
+    @Test
+    void countShouldDropSortAndPagingWhenNoLimit() {
+        QuerySpec querySpec = QuerySpec.Builder.newInstance().sortField("@id").offset(10).limit(5).build();
+
+        List<Bson> aggregation = MongodbFederatedCatalogCacheQuery.createAggregationPipeline(querySpec);
+        MongodbFederatedCatalogCacheQuery.removeStages(aggregation, "$limit", "$skip", "$sort");
+
+        assert aggregation.isEmpty();
+    }
+
+    @Test
+    void facetsShouldShareOneMatch() {
+        QuerySpec querySpec = QuerySpec.Builder.newInstance()
+                .filter(Criterion.criterion("dcat:keyword", "=", "energy"))
+                .sortField("@id")
+                .build();
+
+        List<Bson> aggregation = MongodbFederatedCatalogCacheQuery.createFacetAggregationPipeline(querySpec, true);
+
+        assert aggregation.size() == 2;
+        assert aggregation.get(0).toBsonDocument().containsKey("$match");
+
+        BsonDocument facet = aggregation.get(1).toBsonDocument().getDocument("$facet");
+        assert facet.size() == MongodbFederatedCatalogCacheQuery.FACET_FIELDS.size() + 1;
+        assert facet.keySet().containsAll(MongodbFederatedCatalogCacheQuery.FACET_FIELDS);
+        assert facet.containsKey(MongodbFederatedCatalogCacheQuery.ISSUED_YEAR_FACET);
+    }
+
+    @Test
+    void countedPageShouldMatchOnceAndFacetTotalAndPage() {
+        QuerySpec querySpec = QuerySpec.Builder.newInstance()
+                .filter(Criterion.criterion("dcat:keyword", "=", "energy"))
+                .sortField("dct:issued")
+                .offset(40)
+                .limit(20)
+                .build();
+
+        List<Bson> aggregation = MongodbFederatedCatalogCacheQuery.createCountedKeysetAggregationPipeline(querySpec, null, List.of());
+
+        assert aggregation.size() == 2;
+        assert aggregation.get(0).toBsonDocument().containsKey("$match");
+        BsonDocument facet = aggregation.get(1).toBsonDocument().getDocument("$facet");
+        assert facet.getArray("total").get(0).asDocument().containsKey("$count");
+        var page = facet.getArray("page");
+        assert page.size() == 3;
+        assert page.get(0).asDocument().containsKey("$sort");
+        assert page.get(1).asDocument().containsKey("$skip");
+        assert page.get(2).asDocument().containsKey("$limit");
+    }
+
+    @Test
+    void projectionShouldBeLastStageAndKeepRequiredFields() {
+        QuerySpec querySpec = QuerySpec.Builder.newInstance()
+                .sortField("dct:issued")
+                .limit(20)
+                .build();
+        var fields = FieldPaths.parse("dct:title, dcat:distribution.dct:format, dcat:distribution");
+
+        List<Bson> aggregation = MongodbFederatedCatalogCacheQuery.createKeysetAggregationPipeline(querySpec, null, fields);
+
+        BsonDocument project = aggregation.get(aggregation.size() - 1).toBsonDocument().getDocument("$project");
+        assert project.keySet().containsAll(List.of("@id", "@type", "@context", "dct:issued", "dct:title", "dcat:distribution"));
+        assert !project.containsKey("dcat:distribution.dct:format");
+        assert MongodbFederatedCatalogCacheQuery.createKeysetAggregationPipeline(querySpec, null, List.of()).stream()
+                .noneMatch(stage -> stage.toBsonDocument().containsKey("$project"));
+    }
+
+    @Test
+    void invalidProjectionFieldShouldBeRejected() {
+        try {
+            FieldPaths.parse("dct:title,$where");
+            assert false;
+        } catch (IllegalArgumentException e) {
+            // expected, operators are not field paths
+        }
+    }
+
+    @Test
+    void relevanceSortShouldScoreAfterTextMatch() {
+        QuerySpec querySpec = QuerySpec.Builder.newInstance()
+                .filter(Criterion.criterion("*", MongodbFederatedCatalogCacheQuery.TEXT_SEARCH_OPERATOR, "air quality"))
+                .sortField("text_score")
+                .limit(20)
+                .build();
+
+        List<Bson> aggregation = MongodbFederatedCatalogCacheQuery.createAggregationPipeline(querySpec);
+
+        assert aggregation.size() == 4;
+        assert aggregation.get(0).toBsonDocument().getDocument("$match").toJson().contains("\"$text\"");
+        assert aggregation.get(1).toBsonDocument().containsKey("$addFields");
+        BsonDocument sort = aggregation.get(2).toBsonDocument().getDocument("$sort");
+        assert List.copyOf(sort.keySet()).equals(List.of("text_score", "@id", "_id"));
+        assert sort.getInt32("text_score").getValue() == -1;
+    }
+
+    @Test
+    void relevanceSortShouldRequireTextSearch() {
+        QuerySpec querySpec = QuerySpec.Builder.newInstance().sortField("text_score").build();
+
+        try {
+            MongodbFederatedCatalogCacheQuery.createAggregationPipeline(querySpec);
+            assert false;
+        } catch (IllegalArgumentException e) {
+            assert e.getMessage().contains(MongodbFederatedCatalogCacheQuery.TEXT_SEARCH_OPERATOR);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamAfterTokenShouldMatchRangeWithoutSkip() {
+        QuerySpec querySpec = QuerySpec.Builder.newInstance().sortField("dct:issued").limit(100).build();
+        String token = ContinuationToken.create(querySpec, new Document("_id", new ObjectId()).append("@id", "a").append("dct:issued", "2024-05-01"));
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        AggregateIterable<Document> iterable = mock(AggregateIterable.class);
+        MongoCursor<Document> cursor = mock(MongoCursor.class);
+        when(collection.aggregate(anyList())).thenReturn(iterable);
+        when(iterable.batchSize(anyInt())).thenReturn(iterable);
+        when(iterable.cursor()).thenReturn(cursor);
+        when(cursor.hasNext()).thenReturn(true, true, false);
+        when(cursor.next()).thenReturn(new Document("@id", "b"), new Document("@id", "c"));
+        var streamed = new ArrayList<String>();
+
+        long count = MongodbFederatedCatalogCacheQuery.streamInternal(querySpec, token, List.of("dct:title"), collection,
+                doc -> doc.getString("@id"), streamed::add);
+
+        assert count == 2;
+        assert streamed.equals(List.of("b", "c"));
+        verify(cursor).close();
+        ArgumentCaptor<List<Bson>> pipeline = ArgumentCaptor.forClass(List.class);
+        verify(collection).aggregate(pipeline.capture());
+        List<Bson> aggregation = pipeline.getValue();
+        assert aggregation.stream().map(stage -> stage.toBsonDocument().getFirstKey()).toList()
+                .equals(List.of("$match", "$sort", "$limit", "$project")) : aggregation;
+        assert aggregation.get(0).toBsonDocument().getDocument("$match").toJson().contains("\"$gt\": \"2024-05-01\"");
+    }
+
+    @Test
+    void tokenShouldReplaceTheOffsetOfTheQuery() {
+        QuerySpec querySpec = QuerySpec.Builder.newInstance().offset(40).limit(20).build();
+        String token = ContinuationToken.create(querySpec, new Document("_id", new ObjectId()).append("@id", "a"));
+
+        var firstPage = MongodbFederatedCatalogCacheQuery.createKeysetAggregationPipeline(querySpec, null, List.of());
+        var nextPage = MongodbFederatedCatalogCacheQuery.createKeysetAggregationPipeline(querySpec, token, List.of());
+
+        assert firstPage.stream().anyMatch(stage -> stage.toBsonDocument().containsKey("$skip"));
+        assert nextPage.stream().noneMatch(stage -> stage.toBsonDocument().containsKey("$skip"));
+        assert nextPage.get(0).toBsonDocument().containsKey("$match");
+    }
 }
@@ -0,0 +1,44 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb;
+
+import org.bson.BsonDocument;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.index.MongodbIndexManager;
+import org.junit.jupiter.api.Test;
+
+public class MongodbIndexManagerTest {
+
+    @Test
+    void shouldParseFieldIndexDefinitions() {
+        BsonDocument ascending = MongodbIndexManager.parseFieldIndex("dcat:keyword").toBsonDocument();
+        assert ascending.getInt32("dcat:keyword").getValue() == 1;
+
+        BsonDocument descending = MongodbIndexManager.parseFieldIndex("dct:issued=desc").toBsonDocument();
+        assert descending.getInt32("dct:issued").getValue() == -1;
+
+        BsonDocument hashed = MongodbIndexManager.parseFieldIndex("dspace:participantId = hashed").toBsonDocument();
+        assert hashed.getString("dspace:participantId").getValue().equals("hashed");
+    }
+
+    @Test
+    void shouldRejectUnknownIndexType() {
+        try {
+            MongodbIndexManager.parseFieldIndex("dct:spatial=geo");
+            assert false;
+        } catch (IllegalArgumentException e) {
+            assert e.getMessage().contains("geo");
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb;
+
+import org.bson.Document;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheQuery;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.SpatialGeometry;
+import org.eclipse.edc.spi.query.Criterion;
+import org.eclipse.edc.spi.query.QuerySpec;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class SpatialGeometryTest {
+
+    // dct:spatial of docs/cbm_dataset_Example_full.json, whose ring is not exactly closed
+    private static final String TORRENT = "POLYGON (( -0.4381504467680264 39.4105711824846 , -0.4568295983091736 39.44940414433466 , " +
+            "-0.6171900219935075 39.4442153805213 , -0.5905964013590401 39.39186506960127 , -0.5055720209872985 39.3881264008169 , " +
+            "-0.4381504467680264 39.41057118248469 ))";
+
+    @Test
+    void wktPolygonShouldBecomeClosedGeoJson() {
+        var geometry = SpatialGeometry.fromWkt(TORRENT);
+        assert "Polygon".equals(geometry.getString("type"));
+        var ring = (List<?>) ((List<?>) geometry.get("coordinates")).get(0);
+        assert ring.size() == 6 && ring.get(0).equals(ring.get(5));
+    }
+
+    @Test
+    void unparsableSpatialShouldHaveNoGeometry() {
+        assert SpatialGeometry.fromDataset(new Document("dct:spatial", "Valencia")) == null;
+        assert SpatialGeometry.fromDataset(new Document("dct:spatial", new Document("@value", "POINT (-0.5 39.4)"))) != null;
+    }
+
+    @Test
+    void predicatesShouldMatchRegions() {
+        var torrent = SpatialGeometry.fromWkt(TORRENT);
+        var valencia = SpatialGeometry.fromOperand(List.of(-0.7, 39.3, -0.3, 39.6));
+        var madrid = SpatialGeometry.fromOperand(List.of(-3.9, 40.3, -3.5, 40.6));
+        assert SpatialGeometry.intersects(torrent, valencia) && SpatialGeometry.within(torrent, valencia);
+        assert !SpatialGeometry.intersects(torrent, madrid);
+        assert SpatialGeometry.intersects(torrent, SpatialGeometry.circle(List.of(-0.5, 39.42, 1000)));
+        assert !SpatialGeometry.intersects(torrent, SpatialGeometry.circle(List.of(-0.2, 39.42, 1000)));
+    }
+
+    @Test
+    void spatialCriteriaShouldTargetGeometryField() {
+        var querySpec = QuerySpec.Builder.newInstance()
+                .filter(List.of(new Criterion("dct:spatial", "intersects", "POINT (-0.5 39.4)"), new Criterion("dct:spatial", "near", List.of(-0.5, 39.4, 500))))
+                .build();
+        var filter = MongodbFederatedCatalogCacheQuery.createFilter(querySpec, "").toBsonDocument().toJson();
+        assert filter.contains("\"spatial_geometry\"") && filter.contains("$geoIntersects") && !filter.contains("\"dct:spatial\"");
+    }
+}
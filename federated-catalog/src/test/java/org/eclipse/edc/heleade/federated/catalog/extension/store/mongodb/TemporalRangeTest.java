@@ -0,0 +1,73 @@
+/*
+ *  Copyright (c) 2025 Universidad de Alicante
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       LdE - Universidad de Alicante - initial implementation
+ *
+ */
+
+package org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb;
+
+import org.bson.Document;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.MongodbFederatedCatalogCacheQuery;
+import org.eclipse.edc.heleade.federated.catalog.extension.store.mongodb.cache.TemporalRange;
+import org.eclipse.edc.spi.query.Criterion;
+import org.eclipse.edc.spi.query.QuerySpec;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+public class TemporalRangeTest {
+
+    @Test
+    void periodShouldBeNormalizedToDates() {
+        var dataset = new Document("dct:temporal", new Document("dcat:startDate", "2021-01-01T00:00:00+00:00")
+                .append("dcat:endDate", new Document("@value", "2021-12-01")));
+        var period = TemporalRange.fromDataset(dataset);
+        var start = (Date) period.get("temporal_start");
+        var end = (Date) period.get("temporal_end");
+        assert start.toInstant().toString().equals("2021-01-01T00:00:00Z");
+        // a date without time covers the whole day
+        assert end.toInstant().toString().equals("2021-12-01T23:59:59.999Z");
+
+        assert TemporalRange.overlaps(start, end, "2021-12-01/2022");
+        assert !TemporalRange.overlaps(start, end, "2021-12-02/..");
+        assert TemporalRange.overlaps(start, end, Arrays.asList(null, "2021"));
+        assert !TemporalRange.overlaps(start, end, List.of("2019", "2020"));
+    }
+
+    @Test
+    void datasetWithoutPeriodShouldNotOverlap() {
+        var period = TemporalRange.fromDataset(new Document("dct:temporal", "last year"));
+        assert period.get("temporal_start") == null && period.get("temporal_end") == null;
+        assert !TemporalRange.overlaps(null, null, "../..");
+    }
+
+    @Test
+    void overlapsShouldCompileToPeriodRange() {
+        var querySpec = QuerySpec.Builder.newInstance()
+                .filter(List.of(new Criterion("dct:temporal", "overlaps", "2021-01-01/2021-06-30")))
+                .build();
+        var filter = MongodbFederatedCatalogCacheQuery.createFilter(querySpec, "").toBsonDocument().toJson();
+        assert filter.contains("\"temporal_start\"") && filter.contains("\"$lte\"");
+        assert filter.contains("\"temporal_end\"") && filter.contains("\"$gte\"");
+    }
+
+    @Test
+    void invalidIntervalShouldBeRejected() {
+        try {
+            TemporalRange.createFilter("dct:temporal", "2022/2021");
+            assert false;
+        } catch (IllegalArgumentException e) {
+            // expected, the interval ends before it starts
+        }
+    }
+}